@@ -7,7 +7,7 @@ import { ProductComponent } from './product/product.component';
 import { FormsModule } from '@angular/forms';
 import { ProductDetailComponent } from './product-detail/product-detail.component';
 import { LoginComponent } from './login/login.component'; // <-- NgModel lives here
-import { HttpClientModule } from '@angular/common/http'
+import { HTTP_INTERCEPTORS, HttpClientModule } from '@angular/common/http'
 import { HomePageComponent } from './home-page/home-page.component';
 import { ShoppingCartComponent } from './shopping-cart/shopping-cart.component';
 import { AdminPageComponent } from './admin-page/admin-page.component';
@@ -17,6 +17,7 @@ import { ProductSearchComponent } from './product-search/product-search.componen
 import { LessonsComponent } from './lessons/lessons.component';
 import { ViewLessonsComponent } from './view-lessons/view-lessons.component';
 import { UserLessonsComponent } from './user-lessons/user-lessons.component'; // <-- NgModel lives here
+import { AuthInterceptor } from './auth.interceptor';
 
 @NgModule({
   declarations: [
@@ -40,7 +41,9 @@ import { UserLessonsComponent } from './user-lessons/user-lessons.component'; //
     FormsModule,
     HttpClientModule
   ],
-  providers: [],
+  providers: [
+    { provide: HTTP_INTERCEPTORS, useClass: AuthInterceptor, multi: true }
+  ],
   bootstrap: [AppComponent]
 })
 export class AppModule { }
@@ -0,0 +1,19 @@
+import { Injectable } from '@angular/core';
+import { HttpEvent, HttpHandler, HttpInterceptor, HttpRequest } from '@angular/common/http';
+import { Observable } from 'rxjs';
+
+import { LoginService } from './login.service';
+
+/**
+ * @Purpose attaches the logged in user's session token to every request sent to the api
+ * @author Coolname
+ */
+@Injectable()
+export class AuthInterceptor implements HttpInterceptor {
+  intercept(request: HttpRequest<any>, next: HttpHandler): Observable<HttpEvent<any>> {
+    if (LoginService.sessionToken) {
+      request = request.clone({ setHeaders: { Authorization: `Bearer ${LoginService.sessionToken}` } });
+    }
+    return next.handle(request);
+  }
+}
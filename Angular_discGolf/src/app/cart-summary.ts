@@ -0,0 +1,12 @@
+import { Product } from './product';
+
+/**
+ * @Purpose this is used to create a cart-summary object in typescript
+ * @author Coolname
+ */
+export interface CartSummary{
+    contents: Product[];
+    count: number;
+    cost: number;
+    conflicts: Product[];
+}
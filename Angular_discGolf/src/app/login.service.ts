@@ -1,6 +1,7 @@
 import { Injectable } from '@angular/core';
 import { HttpClient, HttpErrorResponse, HttpHeaders, HttpStatusCode, HttpUserEvent } from '@angular/common/http';
 import { User } from './user';
+import { Session } from './session';
 import { catchError, Observable, of, tap } from 'rxjs';
 import { ShoppingCartService } from './shopping-cart.service';
 import { ShoppingCart } from './shopping-cart';
@@ -17,6 +18,8 @@ export class LoginService {
   public static nullUser: User = { id: null, username: null, password: null, isAdmin: null, loggedIn: null }
   // static value determining which user is logged into the site. (done horribly in practice, but works for minimumality.)
   public static loggedInUser: User = LoginService.nullUser;
+  // session token of the logged in user, sent with every request by the auth interceptor
+  public static sessionToken: string | null = null;
   private cartService: ShoppingCartService
   // http options used in rest calls
   httpOptions = {
@@ -39,19 +42,20 @@ export class LoginService {
    * @param password password of user
    * @returns observable.
    */
-  login(username: string, password: string): Observable<User> {
-    const url = `${this.usersUrl}/${username}/login/${password}`;
-    return this.http.get<User>(url).pipe(
+  login(username: string, password: string): Observable<Session> {
+    const url = `${this.usersUrl}/login`;
+    return this.http.post<Session>(url, { username: username, password: password }, this.httpOptions).pipe(
       tap(result =>
         this.handleLogin(result)
       ),
-      catchError(this.handleLoginError<User>(`user was not able to login.`))
+      catchError(this.handleLoginError<Session>(`user was not able to login.`))
     );
   }
 
-  private handleLogin(user: User) {
-    this.setLoginStatus("Logged in as: " + user.username);
-    LoginService.loggedInUser = user;
+  private handleLogin(session: Session) {
+    this.setLoginStatus("Logged in as: " + session.username);
+    LoginService.sessionToken = session.token;
+    LoginService.loggedInUser = { id: session.id, username: session.username, password: null, isAdmin: session.admin, loggedIn: true };
   }
 
   /**
@@ -90,8 +94,8 @@ export class LoginService {
    * @returns observable of a user, regarding if they get logged out
    */
   logout(username: string) {
-    const url = `${this.usersUrl}/${username}/logout`;
-    return this.http.get<User>(url).pipe(
+    const url = `${this.usersUrl}/logout`;
+    return this.http.post<User>(url, null, this.httpOptions).pipe(
       tap(result =>
         this.handleLogout()
       ),
@@ -101,6 +105,7 @@ export class LoginService {
 
   handleLogout(): void {
     this.setLoginStatus("Not Logged In")
+    LoginService.sessionToken = null;
     LoginService.loggedInUser = LoginService.nullUser;
   }
 
@@ -139,7 +144,6 @@ export class LoginService {
     const url = `${this.usersUrl}`;
     return this.http.post<any>(url, user).pipe(
       tap(result => {
-        this.cartService.createCart(user.username).subscribe();
         this.handleSignUp(result)
       }
       ),
@@ -0,0 +1,11 @@
+/**
+ * @Purpose This is used to create a login session in typescript
+ * @author Coolname
+ */
+export interface Session {
+    token: string,
+    id: number,
+    username: string,
+    admin: boolean,
+    expires: number
+}
@@ -4,6 +4,7 @@ import { HttpClient, HttpErrorResponse, HttpHeaders, HttpStatusCode } from '@ang
 import { Observable, of } from 'rxjs';
 import { catchError, map, take, tap } from 'rxjs/operators';
 
+import { CartSummary } from './cart-summary';
 import { Product } from './product';
 import { ShoppingCart } from './shopping-cart';
 
@@ -21,6 +22,12 @@ export class ShoppingCartService {
     private http: HttpClient,
   ){}
 
+  /* GET cart-products, cost, count and purchase-conflicts by username */
+  getSummary(username: string | null): Observable<CartSummary> {
+    const url = `${this.cartsUrl}/${username}/summary`;
+    return this.http.get<CartSummary>(url);
+  }
+
   /* GET cart-products by username */
   getProducts(username: string | null): Observable<Product[]> {
     const url = `${this.cartsUrl}/${username}/contents`;
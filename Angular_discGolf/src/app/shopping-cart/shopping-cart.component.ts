@@ -69,24 +69,15 @@ export class ShoppingCartComponent implements OnInit {
    */
   update(): void {
     this.user = LoginService.loggedInUser;
-    // Update the cart contents:
     if (this.user != LoginService.nullUser) {
-      this.cartService.getProducts(this.user.username).subscribe(result => {
-        this.products = result;
-        this.canPurchase = (result.length > 0);
+      // Update the contents, cost and item count in one request:
+      this.cartService.getSummary(this.user.username).subscribe(result => {
+        this.products = result.contents;
+        this.cost = result.cost;
+        this.count = result.count;
+        this.canPurchase = (result.contents.length > 0);
         console.log("REASSESSED " + this.canPurchase)
       });
-
-      // Update the cost:
-      this.cartService.getCost(this.user.username).subscribe(result => {
-        this.cost = result;
-      });
-
-      // Update the item count:
-      this.cartService.getCount(this.user.username).subscribe(result => {
-        this.count = result;
-      });
-
     } else {
       this.canPurchase = false;
     }
@@ -2,8 +2,10 @@ package com.discgolf.api.discgolfapi;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 // DiscsApiApplication
 public class DiscsApiApplication {
 
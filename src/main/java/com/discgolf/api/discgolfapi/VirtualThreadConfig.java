@@ -0,0 +1,76 @@
+package com.discgolf.api.discgolfapi;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.logging.Logger;
+
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Runs request handling on virtual threads when {@code threads.virtual} is true
+ * <p>
+ * Each request gets its own virtual thread instead of one from Tomcat's
+ * platform thread pool, so requests waiting on the disk or a lock don't hold a
+ * pool thread, and throughput is no longer capped by
+ * {@code server.tomcat.threads.max}. The stores guard their files with locks
+ * rather than monitors, so a virtual thread blocked on one doesn't pin its
+ * carrier
+ * <p>
+ * Virtual threads need Java 21. The build targets Java 11, so they are found
+ * by reflection, and on an older runtime a warning is logged and requests stay
+ * on the platform thread pool
+ *
+ * @author ZVH
+ */
+@Configuration
+public class VirtualThreadConfig {
+    private static final Logger LOG = Logger.getLogger(VirtualThreadConfig.class.getName());
+
+    /**
+     * Replaces Tomcat's request thread pool with a virtual thread per request
+     *
+     * @return The customizer of Tomcat's protocol handler
+     */
+    @Bean
+    @ConditionalOnProperty(name = "threads.virtual", havingValue = "true")
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadExecutor() {
+        return handler -> {
+            ExecutorService executor = newVirtualThreadExecutor("request-");
+            if (executor != null) {
+                handler.setExecutor(executor);
+                LOG.info("Handling requests on virtual threads");
+            } else
+                LOG.warning("Virtual threads need Java 21, handling requests on the platform thread pool");
+        };
+    }
+
+    /**
+     * Creates an executor that starts a new virtual thread for each task
+     *
+     * @param prefix The name of each thread, before its number
+     *
+     * @return The executor, null if the runtime has no virtual threads
+     */
+    public static ExecutorService newVirtualThreadExecutor(String prefix) {
+        try {
+            Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            Object ofVirtual = Thread.class.getMethod("ofVirtual").invoke(null);
+            ofVirtual = builder.getMethod("name", String.class, long.class).invoke(ofVirtual, prefix, 0L);
+            ThreadFactory factory = (ThreadFactory) builder.getMethod("factory").invoke(ofVirtual);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                                                    .invoke(null, factory);
+        } catch (ClassNotFoundException | NoSuchMethodException | IllegalAccessException e) {
+            return null; // Before Java 19
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof UnsupportedOperationException)
+                return null; // Java 19 or 20 without --enable-preview
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.discgolf.api.discgolfapi.accesslog;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+import java.util.logging.Logger;
+
+import javax.annotation.PreDestroy;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.discgolf.api.discgolfapi.auth.Session;
+import com.discgolf.api.discgolfapi.auth.SessionFilter;
+import com.discgolf.api.discgolfapi.filter.Filters;
+import com.discgolf.api.discgolfapi.metrics.MetricsFilter;
+import com.discgolf.api.discgolfapi.metrics.MetricsRegistry;
+import com.discgolf.api.discgolfapi.traffic.Redaction;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Logs one line of JSON for every completed request, with its method, path,
+ * mapped pattern, status, latency and user, through an {@linkplain AsyncAppender async appender}
+ * <p>
+ * Successful reads, GET and HEAD requests answered below 400, are logged at
+ * the {@code accesslog.sample.reads} rate, between 0 and 1. Writes and
+ * failures are always logged. Passwords in login paths are
+ * {@linkplain Redaction redacted}, and bodies, headers and session tokens are
+ * never logged
+ * <p>
+ * {@literal @}Component Spring annotation registers the filter for every request,
+ * before the metrics filter so the requests other filters reject are logged too
+ *
+ * @author ZVH
+ */
+@Component
+@Order(AccessLogFilter.ORDER)
+public class AccessLogFilter extends OncePerRequestFilter {
+    /** Filter order, before the {@link MetricsFilter metrics filter} */
+    public static final int ORDER = MetricsFilter.ORDER - 5;
+    /** The logger each line is written to */
+    public static final Logger ACCESS = Logger.getLogger("com.discgolf.api.discgolfapi.access");
+
+    private final AsyncAppender appender;   // Null when not logging
+    private final double readSample;        // Fraction of successful reads logged
+    private final LongSupplier clock;       // Current time in nanoseconds
+    private final DoubleSupplier random;    // Uniform between 0 and 1, for sampling
+
+    /**
+     * Creates an Access Log Filter
+     *
+     * @param registry The {@link MetricsRegistry registry} to count dropped lines in
+     * @param enabled Whether to log
+     * @param readSample Fraction of successful reads logged
+     * @param capacity Lines buffered before dropping
+     * <br>
+     * These dependencies are injected by the Spring Framework
+     */
+    @Autowired
+    public AccessLogFilter(MetricsRegistry registry, @Value("${accesslog.enabled:true}") boolean enabled,
+                           @Value("${accesslog.sample.reads:1}") double readSample,
+                           @Value("${accesslog.buffer:8192}") int capacity) {
+        this(enabled ? new AsyncAppender(capacity, ACCESS::info) : null, readSample, System::nanoTime,
+             () -> ThreadLocalRandom.current().nextDouble());
+        if (appender != null) {
+            registry.counter("access_log_written_total", "Access log lines written", appender::getWritten);
+            registry.counter("access_log_dropped_total", "Access log lines dropped with the buffer full",
+                             appender::getDropped);
+        }
+    }
+
+    /**
+     * Creates an Access Log Filter with the given clock and sampling
+     *
+     * @param appender The {@link AsyncAppender appender} to log through, null to not log
+     * @param readSample Fraction of successful reads logged
+     * @param clock Gives the current time in nanoseconds
+     * @param random Gives a uniform random number between 0 and 1
+     */
+    AccessLogFilter(AsyncAppender appender, double readSample, LongSupplier clock, DoubleSupplier random) {
+        this.appender = appender;
+        this.readSample = readSample;
+        this.clock = clock;
+        this.random = random;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return appender == null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long time = System.currentTimeMillis();
+        long start = clock.getAsLong();
+        try {
+            chain.doFilter(request, response);
+        } finally { // Log once the response is sent
+            Filters.onComplete(request, () -> log(request, response, time, start));
+        }
+    }
+
+    /**
+     * Logs a completed request, unless it is a successful read not sampled
+     *
+     * @param request The request
+     * @param response The response
+     * @param time Epoch milliseconds the request arrived
+     * @param start When the request arrived, in nanoseconds
+     */
+    private void log(HttpServletRequest request, HttpServletResponse response, long time, long start) {
+        long end = clock.getAsLong();
+        String method = request.getMethod();
+        int status = response.getStatus();
+        if (status < 400 && ("GET".equals(method) || "HEAD".equals(method))
+                && readSample < 1 && random.getAsDouble() >= readSample)
+            return;
+
+        String uri = Redaction.path(request.getRequestURI());
+        if (request.getQueryString() != null)
+            uri += "?" + request.getQueryString();
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        Object session = request.getAttribute(SessionFilter.SESSION);
+        appender.append(new AccessLogRecord(time, method, uri, pattern != null ? pattern.toString() : null, status,
+                                            TimeUnit.NANOSECONDS.toMicros(end - start),
+                                            session instanceof Session ? ((Session) session).getUsername() : null));
+    }
+
+    /**
+     * Writes the buffered lines and stops the appender's thread
+     */
+    @PreDestroy
+    public void close() {
+        if (appender != null)
+            appender.close();
+    }
+}
@@ -0,0 +1,137 @@
+package com.discgolf.api.discgolfapi.accesslog;
+
+import java.time.Instant;
+
+/**
+ * One line of the access log, describing a completed request
+ * <p>
+ * The path is stored already {@linkplain com.discgolf.api.discgolfapi.traffic.Redaction redacted},
+ * and is written as JSON by the {@linkplain AsyncAppender appender's} thread
+ * rather than the request's
+ *
+ * @author ZVH
+ */
+public class AccessLogRecord {
+    private final long time;        // Epoch milliseconds the request arrived
+    private final String method;
+    private final String uri;       // Path and query, redacted
+    private final String pattern;   // Mapped path pattern, null if none
+    private final int status;
+    private final long latency;     // Microseconds
+    private final String user;      // Username of the session, null if none
+
+    /**
+     * Creates an Access Log Record
+     *
+     * @param time Epoch milliseconds the request arrived
+     * @param method The HTTP method
+     * @param uri The redacted path and query
+     * @param pattern The mapped path pattern, null if none
+     * @param status The response status
+     * @param latency Microseconds from arrival to response
+     * @param user The username of the request's session, null if none
+     */
+    public AccessLogRecord(long time, String method, String uri, String pattern, int status, long latency, String user) {
+        this.time = time;
+        this.method = method;
+        this.uri = uri;
+        this.pattern = pattern;
+        this.status = status;
+        this.latency = latency;
+        this.user = user;
+    }
+
+    /**
+     * Retrieves the epoch milliseconds the request arrived
+     *
+     * @return The arrival time
+     */
+    public long getTime() { return time; }
+
+    /**
+     * Retrieves the HTTP method
+     *
+     * @return The method
+     */
+    public String getMethod() { return method; }
+
+    /**
+     * Retrieves the redacted path and query
+     *
+     * @return The URI
+     */
+    public String getUri() { return uri; }
+
+    /**
+     * Retrieves the mapped path pattern
+     *
+     * @return The pattern, null if none
+     */
+    public String getPattern() { return pattern; }
+
+    /**
+     * Retrieves the response status
+     *
+     * @return The status
+     */
+    public int getStatus() { return status; }
+
+    /**
+     * Retrieves the microseconds from arrival to response
+     *
+     * @return The latency
+     */
+    public long getLatency() { return latency; }
+
+    /**
+     * Retrieves the username of the request's session
+     *
+     * @return The username, null if none
+     */
+    public String getUser() { return user; }
+
+    /**
+     * Writes the record as one line of JSON, leaving out absent fields
+     *
+     * @return The JSON
+     */
+    public String toJson() {
+        StringBuilder json = new StringBuilder(160);
+        json.append("{\"time\":\"").append(Instant.ofEpochMilli(time)).append('"');
+        json.append(",\"method\":");
+        quote(json, method);
+        json.append(",\"uri\":");
+        quote(json, uri);
+        if (pattern != null) {
+            json.append(",\"pattern\":");
+            quote(json, pattern);
+        }
+        json.append(",\"status\":").append(status);
+        json.append(",\"latencyMicros\":").append(latency);
+        if (user != null) {
+            json.append(",\"user\":");
+            quote(json, user);
+        }
+        return json.append('}').toString();
+    }
+
+    /**
+     * Appends a string as a JSON string literal
+     *
+     * @param json Where to append
+     * @param value The string
+     */
+    private static void quote(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); ++i) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\')
+                json.append('\\').append(c);
+            else if (c < 0x20)
+                json.append(String.format("\\u%04x", (int) c));
+            else
+                json.append(c);
+        }
+        json.append('"');
+    }
+}
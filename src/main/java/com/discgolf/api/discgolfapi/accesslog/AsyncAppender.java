@@ -0,0 +1,135 @@
+package com.discgolf.api.discgolfapi.accesslog;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Writes {@linkplain AccessLogRecord access log records} from a background
+ * thread, so requests never format a line or wait on a log handler's lock
+ * <p>
+ * Records are queued in a fixed-size ring buffer. When it is full, as when the
+ * log is written slower than requests arrive, records are dropped and counted
+ * rather than slowing requests down
+ *
+ * @author ZVH
+ */
+public class AsyncAppender implements Closeable {
+    private static final Logger LOG = Logger.getLogger(AsyncAppender.class.getName());
+    private static final int BATCH = 256;               // Records taken from the buffer at once
+    private static final long POLL = 100;               // Milliseconds between checks for closing
+
+    private final BlockingQueue<AccessLogRecord> buffer;
+    private final Consumer<String> sink;                // Writes each line
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final Thread thread;
+    private volatile boolean closed;
+    private boolean failed;                             // Whether the sink has failed, logged once
+
+    /**
+     * Creates an Async Appender and starts its thread
+     *
+     * @param capacity Records the buffer holds before dropping
+     * @param sink Writes each line of JSON
+     */
+    public AsyncAppender(int capacity, Consumer<String> sink) {
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+        this.sink = sink;
+        this.thread = new Thread(this::run, "access-log");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Queues a record to be written, without waiting
+     *
+     * @param record The {@link AccessLogRecord record}
+     *
+     * @return false if the buffer was full or the appender closed, and the record dropped
+     */
+    public boolean append(AccessLogRecord record) {
+        if (closed || !buffer.offer(record)) {
+            dropped.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Retrieves the number of records written
+     *
+     * @return The count
+     */
+    public long getWritten() {
+        return written.sum();
+    }
+
+    /**
+     * Retrieves the number of records dropped with the buffer full
+     *
+     * @return The count
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Writes the records in the buffer until closed and the buffer is empty
+     */
+    private void run() {
+        List<AccessLogRecord> batch = new ArrayList<>(BATCH);
+        try {
+            while (!closed || !buffer.isEmpty()) {
+                AccessLogRecord first = buffer.poll(POLL, TimeUnit.MILLISECONDS);
+                if (first == null)
+                    continue;
+                batch.add(first);
+                buffer.drainTo(batch, BATCH - 1);
+                for (AccessLogRecord record : batch)
+                    write(record);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Writes one record to the sink
+     *
+     * @param record The {@link AccessLogRecord record}
+     */
+    private void write(AccessLogRecord record) {
+        try {
+            sink.accept(record.toJson());
+            written.increment();
+        } catch (RuntimeException e) {
+            dropped.increment();
+            if (!failed) {
+                failed = true;
+                LOG.log(Level.SEVERE, "Access log failed: " + e.getLocalizedMessage());
+            }
+        }
+    }
+
+    /**
+     * Stops accepting records, and waits for those in the buffer to be written
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
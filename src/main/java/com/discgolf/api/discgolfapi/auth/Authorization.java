@@ -0,0 +1,57 @@
+package com.discgolf.api.discgolfapi.auth;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Decides whether the caller's {@linkplain Session session} may make a request
+ * <p>
+ * Endpoints take the session {@linkplain SessionFilter resolved} from the
+ * request's token rather than trusting a username in the path or body. The
+ * admin may act for any user
+ *
+ * @author ZVH
+ */
+public final class Authorization {
+    private Authorization() {}
+
+    /**
+     * Checks that a request comes from an admin
+     *
+     * @param session The {@link Session session} of the request, null if none
+     *
+     * @return null if allowed, otherwise the HTTP status to deny it with
+     */
+    public static HttpStatus denied(Session session) {
+        if (session == null)
+            return HttpStatus.UNAUTHORIZED;
+        return session.isAdmin() ? null : HttpStatus.FORBIDDEN;
+    }
+
+    /**
+     * Checks that a request comes from the given user, or an admin
+     *
+     * @param session The {@link Session session} of the request, null if none
+     * @param username The username the request acts for
+     *
+     * @return null if allowed, otherwise the HTTP status to deny it with
+     */
+    public static HttpStatus denied(Session session, String username) {
+        if (session == null)
+            return HttpStatus.UNAUTHORIZED;
+        return session.isAdmin() || session.getUsername().equalsIgnoreCase(username) ? null : HttpStatus.FORBIDDEN;
+    }
+
+    /**
+     * Checks that a request comes from the user with the given id, or an admin
+     *
+     * @param session The {@link Session session} of the request, null if none
+     * @param id The id of the user the request acts for
+     *
+     * @return null if allowed, otherwise the HTTP status to deny it with
+     */
+    public static HttpStatus denied(Session session, int id) {
+        if (session == null)
+            return HttpStatus.UNAUTHORIZED;
+        return session.isAdmin() || session.getId() == id ? null : HttpStatus.FORBIDDEN;
+    }
+}
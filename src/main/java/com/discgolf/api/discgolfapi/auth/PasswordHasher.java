@@ -0,0 +1,200 @@
+package com.discgolf.api.discgolfapi.auth;
+
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PreDestroy;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hashes and verifies passwords with PBKDF2-HMAC-SHA256
+ * <p>
+ * A hash is stored as {@code pbkdf2$<iterations>$<salt>$<hash>}, so the cost can
+ * be raised without invalidating older hashes. A stored password not in that
+ * form is a plaintext password from before hashing, and matches only itself
+ * <p>
+ * Verification, and hashing new passwords, run on a small bounded pool rather
+ * than the request thread, so a burst of logins queues behind the pool instead
+ * of taking every request thread. When the queue is full they are rejected
+ * <p>
+ * {@literal @}Component Spring annotation instantiates a single instance of this
+ * class and injects the instance into other classes as needed
+ *
+ * @author ZVH
+ */
+@Component
+public class PasswordHasher {
+    private static final String PREFIX = "pbkdf2$";
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+    private static final int DEFAULT_ITERATIONS = 100000;
+
+    private final SecureRandom random = new SecureRandom();
+    private final int iterations;           // PBKDF2 iterations of new hashes
+    private final ThreadPoolExecutor pool;  // Runs verifications off the request threads
+
+    /**
+     * Creates a Password Hasher
+     *
+     * @param iterations PBKDF2 iterations of new hashes, the cost of hashing and verifying
+     * @param threads Threads verifying passwords, 0 for half of the processors
+     * @param queue Verifications that may wait for a thread before more are rejected
+     */
+    @Autowired
+    public PasswordHasher(@Value("${passwords.iterations:100000}") int iterations,
+                          @Value("${passwords.threads:0}") int threads,
+                          @Value("${passwords.queue:64}") int queue) {
+        this.iterations = iterations;
+        int size = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger count = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(size, size, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queue), runnable -> {
+            Thread thread = new Thread(runnable, "password-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Creates a Password Hasher with the default cost and pool
+     */
+    public PasswordHasher() {
+        this(DEFAULT_ITERATIONS, 0, 64);
+    }
+
+    /**
+     * Hashes a password with a new salt
+     *
+     * @param password The plaintext password
+     *
+     * @return The encoded hash
+     */
+    public String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        return hash(password, salt);
+    }
+
+    /**
+     * Hashes a password with the given salt
+     * <br>
+     * For reproducible hashes, such as generated test data. Stored passwords
+     * should use {@link #hash(String) a new salt}
+     *
+     * @param password The plaintext password
+     * @param salt The salt
+     *
+     * @return The encoded hash
+     */
+    public String hash(String password, byte[] salt) {
+        Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+        return PREFIX + iterations + "$" + encoder.encodeToString(salt) + "$"
+               + encoder.encodeToString(pbkdf2(password, salt, iterations));
+    }
+
+    /**
+     * Hashes a password with a new salt on the verification pool
+     *
+     * @param password The plaintext password
+     *
+     * @return A future completed with the encoded hash, or completed
+     * exceptionally with a {@link RejectedExecutionException} if the pool's queue is full
+     */
+    public CompletableFuture<String> hashAsync(String password) {
+        try {
+            return CompletableFuture.supplyAsync(() -> hash(password), pool);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Checks whether a stored password is a hash, rather than plaintext from before hashing
+     *
+     * @param stored The stored password
+     *
+     * @return true if it is a hash
+     */
+    public static boolean isHashed(String stored) {
+        return stored != null && stored.startsWith(PREFIX) && stored.split("\\$").length == 4;
+    }
+
+    /**
+     * Checks a password against a stored hash or plaintext password, on the calling thread
+     *
+     * @param password The attempted password
+     * @param stored The stored hash or plaintext password
+     *
+     * @return true if the password matches
+     */
+    public static boolean matches(String password, String stored) {
+        if (password == null || stored == null)
+            return false;
+
+        if (!isHashed(stored)) // Plaintext from before hashing
+            return MessageDigest.isEqual(password.getBytes(), stored.getBytes());
+
+        String[] parts = stored.split("\\$");
+        Base64.Decoder decoder = Base64.getDecoder();
+        byte[] expected = decoder.decode(parts[3]);
+        return MessageDigest.isEqual(expected, pbkdf2(password, decoder.decode(parts[2]), Integer.parseInt(parts[1])));
+    }
+
+    /**
+     * Checks a password against a stored hash or plaintext password on the verification pool
+     *
+     * @param password The attempted password
+     * @param stored The stored hash or plaintext password
+     *
+     * @return A future completed with true if the password matches, or completed
+     * exceptionally with a {@link RejectedExecutionException} if the pool's queue is full
+     */
+    public CompletableFuture<Boolean> verify(String password, String stored) {
+        try {
+            return CompletableFuture.supplyAsync(() -> matches(password, stored), pool);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Stops the verification pool
+     */
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Derives the PBKDF2 hash of a password
+     *
+     * @param password The plaintext password
+     * @param salt The salt
+     * @param iterations The iterations
+     *
+     * @return The hash
+     */
+    private static byte[] pbkdf2(String password, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is unavailable", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
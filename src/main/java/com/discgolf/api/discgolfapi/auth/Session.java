@@ -0,0 +1,71 @@
+package com.discgolf.api.discgolfapi.auth;
+
+import com.discgolf.api.discgolfapi.model.User;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Represents a logged in {@linkplain User user}'s session, identified by an
+ * opaque token the client sends back as {@code Authorization: Bearer <token>}
+ * 
+ * @author ZVH
+ */
+public class Session {
+    private final String token;
+    private final User user;
+    private final long expires;
+
+    /**
+     * Create a Session
+     * @param token The opaque token identifying the Session
+     * @param user The logged in User
+     * @param expires Epoch milliseconds the Session expires at
+     */
+    public Session(String token, User user, long expires) {
+        this.token = token;
+        this.user = user;
+        this.expires = expires;
+    }
+
+    /**
+     * Get the token identifying the Session
+     * @return The token
+     */
+    @JsonProperty("token")
+    public String getToken() { return token; }
+
+    /**
+     * Get the logged in User
+     * @return The User
+     */
+    @JsonIgnore
+    public User getUser() { return user; }
+
+    /**
+     * Get the id of the logged in User
+     * @return The User's id
+     */
+    @JsonProperty("id")
+    public int getId() { return user.getId(); }
+
+    /**
+     * Get the username of the logged in User
+     * @return The User's username
+     */
+    @JsonProperty("username")
+    public String getUsername() { return user.getUsername(); }
+
+    /**
+     * Get whether the logged in User is the admin
+     * @return true if the User is the admin
+     */
+    @JsonProperty("admin")
+    public boolean isAdmin() { return user.isAdmin(); }
+
+    /**
+     * Get the time the Session expires
+     * @return Epoch milliseconds
+     */
+    @JsonProperty("expires")
+    public long getExpires() { return expires; }
+}
@@ -0,0 +1,63 @@
+package com.discgolf.api.discgolfapi.auth;
+
+import java.io.IOException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Resolves the {@code Authorization: Bearer <token>} header of each request to
+ * its {@linkplain Session session} and exposes it as a request attribute
+ * <p>
+ * Requests without a valid token pass through without the attribute, each
+ * endpoint decides whether it needs one
+ * <p>
+ * {@literal @}Component Spring annotation registers the filter for every request
+ * 
+ * @author ZVH
+ */
+@Component
+@Order(SessionFilter.ORDER)
+public class SessionFilter extends OncePerRequestFilter {
+    /** Filter order, early so later filters can see the session */
+    public static final int ORDER = Ordered.HIGHEST_PRECEDENCE + 100;
+    /** Request attribute holding the resolved {@link Session session} */
+    public static final String SESSION = "com.discgolf.api.discgolfapi.auth.session";
+    private static final String BEARER = "Bearer ";
+
+    private final SessionStore sessionStore;
+
+    /**
+     * Creates a Session Filter
+     * 
+     * @param sessionStore The {@link SessionStore store} of sessions to resolve tokens in
+     * <br>
+     * This dependency is injected by the Spring Framework
+     */
+    public SessionFilter(SessionStore sessionStore) {
+        this.sessionStore = sessionStore;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authorization != null && authorization.startsWith(BEARER)) {
+            Session session = sessionStore.resolve(authorization.substring(BEARER.length()));
+            if (session != null)
+                request.setAttribute(SESSION, session);
+        }
+        chain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,186 @@
+package com.discgolf.api.discgolfapi.auth;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+import com.discgolf.api.discgolfapi.model.User;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the {@linkplain Session sessions} of logged in {@linkplain User users},
+ * so an authenticated request is resolved to its user with one hash lookup
+ * <p>
+ * Sessions expire after the time to live. Expired sessions are dropped when
+ * they are next resolved, and by a periodic purge. Each user's tokens are
+ * indexed too, so a deleted user's sessions can be ended at once
+ * <p>
+ * {@literal @}Component Spring annotation instantiates a single instance of this
+ * class and injects the instance into other classes as needed
+ * 
+ * @author ZVH
+ */
+@Component
+public class SessionStore {
+    private static final long DEFAULT_TTL = 3600;
+    private static final int TOKEN_BYTES = 32;
+
+    private final Map<String,Session> sessions = new ConcurrentHashMap<>(); // Token to session
+    private final Map<String,Set<String>> tokens = new ConcurrentHashMap<>(); // Lower case username to its tokens
+    private final SecureRandom random = new SecureRandom();
+    private final long ttl;             // Milliseconds a session lasts
+    private final LongSupplier clock;   // Current time in milliseconds
+
+    /**
+     * Creates a Session Store
+     * 
+     * @param ttl Seconds each session lasts
+     */
+    @Autowired
+    public SessionStore(@Value("${sessions.ttl:3600}") long ttl) {
+        this(ttl * 1000, System::currentTimeMillis);
+    }
+
+    /**
+     * Creates a Session Store with the default time to live
+     */
+    public SessionStore() {
+        this(DEFAULT_TTL);
+    }
+
+    /**
+     * Creates a Session Store with the given clock
+     * 
+     * @param ttl Milliseconds each session lasts
+     * @param clock Gives the current time in milliseconds
+     */
+    SessionStore(long ttl, LongSupplier clock) {
+        this.ttl = ttl;
+        this.clock = clock;
+    }
+
+    /**
+     * Starts a {@linkplain Session session} for a {@linkplain User user}
+     * 
+     * @param user The {@link User user} who logged in
+     * 
+     * @return The new {@link Session session}
+     */
+    public Session create(User user) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        Session session = new Session(Base64.getUrlEncoder().withoutPadding().encodeToString(bytes), user,
+                                      clock.getAsLong() + ttl);
+        // Indexed under the user's entry, so invalidateUser can't miss a session being created
+        tokens.compute(key(user.getUsername()), (username, userTokens) -> {
+            if (userTokens == null)
+                userTokens = ConcurrentHashMap.newKeySet();
+            userTokens.add(session.getToken());
+            sessions.put(session.getToken(), session);
+            return userTokens;
+        });
+        return session;
+    }
+
+    /**
+     * Finds the {@linkplain Session session} for a token
+     * 
+     * @param token The token sent by the client
+     * 
+     * @return The {@link Session session}, null if the token is unknown or expired
+     */
+    public Session resolve(String token) {
+        Session session = sessions.get(token);
+        if (session != null && session.getExpires() <= clock.getAsLong()) {
+            if (sessions.remove(token, session))
+                unindex(session);
+            return null;
+        }
+        return session;
+    }
+
+    /**
+     * Ends a {@linkplain Session session}
+     * 
+     * @param token The token of the {@link Session session}
+     * 
+     * @return true if the {@link Session session} existed
+     */
+    public boolean invalidate(String token) {
+        Session session = sessions.remove(token);
+        if (session == null)
+            return false;
+        unindex(session);
+        return true;
+    }
+
+    /**
+     * Ends every {@linkplain Session session} of a {@linkplain User user}, e.g.
+     * when the user is deleted or their password changes
+     * 
+     * @param username The username of the {@link User user}, in any case
+     * 
+     * @return The number of sessions ended
+     */
+    public int invalidateUser(String username) {
+        int[] ended = new int[1];
+        tokens.computeIfPresent(key(username), (key, userTokens) -> {
+            for (String token : userTokens)
+                if (sessions.remove(token) != null)
+                    ended[0]++;
+            return null;
+        });
+        return ended[0];
+    }
+
+    /**
+     * Drops expired {@linkplain Session sessions}
+     * <br>
+     * Runs periodically, every sessions.ttl seconds
+     */
+    @Scheduled(initialDelayString = "#{${sessions.ttl:3600} * 1000}",
+               fixedDelayString = "#{${sessions.ttl:3600} * 1000}")
+    public void purge() {
+        long now = clock.getAsLong();
+        for (Session session : sessions.values())
+            if (session.getExpires() <= now && sessions.remove(session.getToken(), session))
+                unindex(session);
+    }
+
+    /**
+     * Removes an ended {@linkplain Session session}'s token from its user's tokens
+     * 
+     * @param session The ended {@link Session session}
+     */
+    private void unindex(Session session) {
+        tokens.computeIfPresent(key(session.getUsername()), (username, userTokens) -> {
+            userTokens.remove(session.getToken());
+            return userTokens.isEmpty() ? null : userTokens;
+        });
+    }
+
+    /**
+     * Gets the key of a user's tokens, as usernames match in any case
+     * 
+     * @param username The username
+     * 
+     * @return The key
+     */
+    private static String key(String username) {
+        return username.toLowerCase();
+    }
+
+    /**
+     * Gets the number of sessions held, including expired ones not yet dropped
+     * 
+     * @return The number of sessions
+     */
+    int size() { return sessions.size(); }
+}
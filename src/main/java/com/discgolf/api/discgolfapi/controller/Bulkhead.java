@@ -0,0 +1,147 @@
+package com.discgolf.api.discgolfapi.controller;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * A bounded executor that a kind of request runs on, apart from the servlet threads
+ * <p>
+ * A burst of these requests fills this bulkhead's threads and queue, never the
+ * servlet threads serving the other requests. Requests beyond the queue are
+ * answered with SERVICE_UNAVAILABLE straight away
+ *
+ * @author ZVH
+ */
+public class Bulkhead {
+    private final String name;
+    private final ThreadPoolExecutor executor;
+    private final int queueCapacity;
+    private final AtomicInteger peakQueueDepth = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * Creates a Bulkhead
+     *
+     * @param name The name of the bulkhead, also naming its threads
+     * @param threads The threads running requests
+     * @param queue The requests that may wait for a thread before more are rejected
+     */
+    public Bulkhead(String name, int threads, int queue) {
+        this.name = name;
+        this.queueCapacity = queue;
+        AtomicInteger count = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queue), runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Runs a request on the bulkhead
+     *
+     * @param <T> The type of the response body
+     * @param request Performs the request
+     *
+     * @return A future completed with the request's response, or with SERVICE_UNAVAILABLE
+     * if the bulkhead is full
+     */
+    public <T> CompletableFuture<ResponseEntity<T>> submit(Supplier<ResponseEntity<T>> request) {
+        try {
+            CompletableFuture<ResponseEntity<T>> response = CompletableFuture.supplyAsync(request, executor);
+            peakQueueDepth.accumulateAndGet(executor.getQueue().size(), Math::max);
+            return response;
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            return CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE));
+        }
+    }
+
+    /**
+     * Gets the name of the bulkhead
+     *
+     * @return The name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the requests waiting for a thread
+     *
+     * @return The current queue depth
+     */
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Gets the deepest the queue has been since startup
+     *
+     * @return The peak queue depth
+     */
+    public int getPeakQueueDepth() {
+        return peakQueueDepth.get();
+    }
+
+    /**
+     * Gets the requests that may wait for a thread
+     *
+     * @return The queue capacity
+     */
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * Gets the requests running
+     *
+     * @return The number of busy threads
+     */
+    public int getActive() {
+        return executor.getActiveCount();
+    }
+
+    /**
+     * Gets the threads running requests
+     *
+     * @return The number of threads
+     */
+    public int getThreads() {
+        return executor.getMaximumPoolSize();
+    }
+
+    /**
+     * Gets the requests completed since startup
+     *
+     * @return The number of completed requests
+     */
+    public long getCompleted() {
+        return executor.getCompletedTaskCount();
+    }
+
+    /**
+     * Gets the requests rejected since startup
+     *
+     * @return The number of rejected requests
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * Stops the bulkhead's threads once the queued requests are done
+     */
+    void shutdown() {
+        executor.shutdown();
+    }
+}
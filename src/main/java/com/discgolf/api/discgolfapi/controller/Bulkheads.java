@@ -0,0 +1,110 @@
+package com.discgolf.api.discgolfapi.controller;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.PreDestroy;
+
+import com.discgolf.api.discgolfapi.metrics.MetricsRegistry;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Holds the {@linkplain Bulkhead bulkheads} requests are separated into, by name
+ * <p>
+ * Each bulkhead is configured as {@code bulkhead.<name>.threads} and
+ * {@code bulkhead.<name>.queue}, and created when first used
+ * <p>
+ * {@literal @}Component Spring annotation instantiates a single instance of this
+ * class and injects the instance into other classes as needed
+ *
+ * @author ZVH
+ */
+@Component
+public class Bulkheads {
+    /** The bulkhead purchases run on */
+    public static final String CHECKOUT = "checkout";
+    private static final int DEFAULT_THREADS = 4;
+    private static final int DEFAULT_QUEUE = 32;
+
+    private final Map<String,Bulkhead> bulkheads = new ConcurrentHashMap<>();
+    private final Environment environment;  // Configuration of each bulkhead, null for the defaults
+    private final MetricsRegistry registry; // Registry bulkheads are reported to, null if not reported
+
+    /**
+     * Creates the Bulkheads
+     *
+     * @param environment The configuration holding each bulkhead's threads and queue
+     * @param registry The {@link MetricsRegistry registry} bulkheads are reported to
+     * <br>
+     * These dependencies are injected by the Spring Framework
+     */
+    @Autowired
+    public Bulkheads(Environment environment, MetricsRegistry registry) {
+        this.environment = environment;
+        this.registry = registry;
+    }
+
+    /**
+     * Creates the Bulkheads with the default threads and queue, not reported
+     */
+    public Bulkheads() {
+        this(null, null);
+    }
+
+    /**
+     * Gets a bulkhead, creating it if needed
+     *
+     * @param name The name of the {@link Bulkhead bulkhead}
+     *
+     * @return The {@link Bulkhead bulkhead}
+     */
+    public Bulkhead get(String name) {
+        Bulkhead bulkhead = bulkheads.get(name);
+        return bulkhead != null ? bulkhead : bulkheads.computeIfAbsent(name, this::create);
+    }
+
+    /**
+     * Gets the bulkheads created so far
+     *
+     * @return The {@link Bulkhead bulkheads}
+     */
+    public Collection<Bulkhead> getAll() {
+        return new ArrayList<>(bulkheads.values());
+    }
+
+    /**
+     * Stops every bulkhead's threads
+     */
+    @PreDestroy
+    public void shutdown() {
+        for (Bulkhead bulkhead : bulkheads.values())
+            bulkhead.shutdown();
+    }
+
+    /**
+     * Creates a bulkhead from the configuration
+     *
+     * @param name The name of the bulkhead
+     *
+     * @return The new {@link Bulkhead bulkhead}
+     */
+    private Bulkhead create(String name) {
+        Bulkhead bulkhead = environment == null ? new Bulkhead(name, DEFAULT_THREADS, DEFAULT_QUEUE)
+            : new Bulkhead(name, environment.getProperty("bulkhead." + name + ".threads", Integer.class, DEFAULT_THREADS),
+                           environment.getProperty("bulkhead." + name + ".queue", Integer.class, DEFAULT_QUEUE));
+        if (registry != null) {
+            registry.gauge("bulkhead_queue_depth", "Requests waiting for a bulkhead thread", bulkhead::getQueueDepth, "bulkhead", name);
+            registry.gauge("bulkhead_queue_depth_peak", "Deepest a bulkhead's queue has been", bulkhead::getPeakQueueDepth, "bulkhead", name);
+            registry.gauge("bulkhead_queue_capacity", "Requests that may wait for a bulkhead thread", bulkhead::getQueueCapacity, "bulkhead", name);
+            registry.gauge("bulkhead_active", "Bulkhead threads running requests", bulkhead::getActive, "bulkhead", name);
+            registry.counter("bulkhead_completed_total", "Requests completed on a bulkhead", bulkhead::getCompleted, "bulkhead", name);
+            registry.counter("bulkhead_rejected_total", "Requests rejected by a full bulkhead", bulkhead::getRejected, "bulkhead", name);
+        }
+        return bulkhead;
+    }
+}
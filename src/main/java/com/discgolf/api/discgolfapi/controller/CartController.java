@@ -1,5 +1,6 @@
 package com.discgolf.api.discgolfapi.controller;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -7,12 +8,19 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.discgolf.api.discgolfapi.auth.Authorization;
+import com.discgolf.api.discgolfapi.auth.Session;
+import com.discgolf.api.discgolfapi.auth.SessionFilter;
+import com.discgolf.api.discgolfapi.metrics.CheckoutStepEvent;
 import com.discgolf.api.discgolfapi.model.Cart;
+import com.discgolf.api.discgolfapi.model.CartSummary;
 import com.discgolf.api.discgolfapi.model.Disc;
 import com.discgolf.api.discgolfapi.persistence.CartDAO;
 import com.discgolf.api.discgolfapi.persistence.DiscDAO;
@@ -21,6 +29,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -38,6 +47,8 @@ public class CartController {
     private static final Logger LOG = Logger.getLogger(CartController.class.getName());
     private CartDAO cartDao;
     private DiscDAO discDao;
+    private IdempotencyStore idempotencyStore;
+    private Bulkhead checkout;
 
     /**
      * Creates a REST API controller to reponds to requests
@@ -45,11 +56,41 @@ public class CartController {
      * @param cartDao The {@link CartDAO Cart Data Access Object} to perform CRUD operations
      * @param discDao The {@link DiscDAO Disc Data Access Object} to perform CRUD operations
      * <br>
-     * This dependency is injected by the Spring Framework
+     * Requests are deduplicated in memory only
      */
     public CartController(CartDAO cartDao, DiscDAO discDao) {
+        this(cartDao, discDao, new IdempotencyStore());
+    }
+
+    /**
+     * Creates a REST API controller to reponds to requests
+     * 
+     * @param cartDao The {@link CartDAO Cart Data Access Object} to perform CRUD operations
+     * @param discDao The {@link DiscDAO Disc Data Access Object} to perform CRUD operations
+     * @param idempotencyStore The {@link IdempotencyStore store} of responses to repeated requests
+     * <br>
+     * Purchases run on a default {@link Bulkhead bulkhead}
+     */
+    public CartController(CartDAO cartDao, DiscDAO discDao, IdempotencyStore idempotencyStore) {
+        this(cartDao, discDao, idempotencyStore, new Bulkheads());
+    }
+
+    /**
+     * Creates a REST API controller to reponds to requests
+     * 
+     * @param cartDao The {@link CartDAO Cart Data Access Object} to perform CRUD operations
+     * @param discDao The {@link DiscDAO Disc Data Access Object} to perform CRUD operations
+     * @param idempotencyStore The {@link IdempotencyStore store} of responses to repeated requests
+     * @param bulkheads The {@link Bulkheads bulkheads}, purchases run on the checkout one
+     * <br>
+     * These dependencies are injected by the Spring Framework
+     */
+    @Autowired
+    public CartController(CartDAO cartDao, DiscDAO discDao, IdempotencyStore idempotencyStore, Bulkheads bulkheads) {
         this.cartDao = cartDao;
         this.discDao = discDao;
+        this.idempotencyStore = idempotencyStore;
+        this.checkout = bulkheads.get(Bulkheads.CHECKOUT);
     }
 
     /**
@@ -63,7 +104,6 @@ public class CartController {
      */
     @GetMapping("/{id}")
     public ResponseEntity<Cart> getCart(@PathVariable int id) {
-        LOG.info("GET /carts/" + id);
         try {
             Cart cart = cartDao.getCart(id);
             if (cart != null)
@@ -86,7 +126,6 @@ public class CartController {
      */
     @GetMapping("")
     public ResponseEntity<Cart[]> getCarts() {
-        LOG.info("GET /carts");
         try {
             Cart[] carts = cartDao.getCarts();
             if (carts != null)
@@ -114,7 +153,6 @@ public class CartController {
      */
     @GetMapping("/")
     public ResponseEntity<Cart[]> searchCarts(@RequestParam String username) {
-        LOG.info("GET /carts/?username=" + username);
         try {
             Cart[] carts = cartDao.findCarts(username);
             if (carts != null)
@@ -130,18 +168,16 @@ public class CartController {
 
     @GetMapping("/{username}/contents")
     public ResponseEntity<Disc[]> getContents(@PathVariable String username) {
-        LOG.info("GET /carts/" + username + "/contents");
         try {
             Cart cart = cartDao.findCart(username);
-            ArrayList<Disc> discs = new ArrayList<>();
 
             if (cart != null) {
-                Map<Integer, Integer> contents = cart.getContents();
-                for (int disc_id : contents.keySet()) {
+                ArrayList<Disc> discs = new ArrayList<>(cart.getLineCount());
+                cart.forEachLine((disc_id, quantity) -> {
                     Disc disc = discDao.getDisc(disc_id);
                     if (disc != null) // Give cart quantity not inventory's
-                        discs.add(new Disc(disc_id, disc.getColor(), disc.getWeight(), disc.getType(), disc.getPrice(), contents.get(disc_id)));
-                }
+                        discs.add(new Disc(disc_id, disc.getColor(), disc.getWeight(), disc.getType(), disc.getPrice(), quantity));
+                });
 
                 Disc[] discArray = new Disc[discs.size()];
                 discs.toArray(discArray);
@@ -155,6 +191,81 @@ public class CartController {
         }
     }
 
+    /**
+     * Responds to the GET request for a summary of the {@linkplain Cart cart} with the given username
+     * <br>
+     * Gives the results of the contents, getCost, getCount and checkCart requests from
+     * a single read of the {@link Cart cart} and a single lookup of its {@linkplain Disc discs}
+     * 
+     * @param username The username associated with the {@link Cart cart}
+     * 
+     * @return ResponseEntity with {@link CartSummary summary} object and HTTP status of OK if found<br>
+     * ResponseEntity with HTTP status of NOT_FOUND if not found<br>
+     * ResponseEntity with HTTP status of INTERNAL_SERVER_ERROR otherwise
+     */
+    @GetMapping("/{username}/summary")
+    public ResponseEntity<CartSummary> getSummary(@PathVariable String username) {
+        try {
+            Cart cart = cartDao.findCart(username);
+            if (cart == null)
+                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+
+            Cart.Lines lines = cart.getLines(); // One read of the lines, so every part agrees
+            int[] ids = new int[lines.size()];
+            for (int i = 0; i < ids.length; i++)
+                ids[i] = lines.getDiscId(i);
+
+            Disc[] discs = discDao.getDiscs(ids);
+            ArrayList<Disc> contents = new ArrayList<>(ids.length);
+            ArrayList<Disc> conflicts = new ArrayList<>();
+            int count = lines.getTotalQuantity();
+            float cost = 0.0f;
+
+            for (int i = 0; i < ids.length; i++) {
+                Disc disc = discs[i];
+                int quantity = lines.getQuantity(i);
+                if (disc != null) {
+                    // Give cart quantity not inventory's
+                    contents.add(new Disc(disc.getId(), disc.getColor(), disc.getWeight(), disc.getType(), disc.getPrice(), quantity));
+                    cost += disc.getPrice() * quantity;
+
+                    if (disc.getQuantity() < quantity) // Trying to purchase more than available
+                        conflicts.add(new Disc(disc.getId(), disc.getColor(), disc.getWeight(), disc.getType(), disc.getPrice(), disc.getQuantity()));
+                }
+            }
+
+            CartSummary summary = new CartSummary(contents.toArray(new Disc[0]), count, cost, conflicts.toArray(new Disc[0]));
+            return new ResponseEntity<CartSummary>(summary, HttpStatus.OK);
+        }
+        catch(IOException e) {
+            LOG.log(Level.SEVERE,e.getLocalizedMessage());
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Creates a {@linkplain Cart cart} for the provided username, once per Idempotency-Key
+     * <br>
+     * A repeat of a request with the same key gets the stored response instead
+     * of being performed again
+     * 
+     * @param username - The username associated with the {@link Cart cart} to create
+     * @param idempotencyKey The client's key for the request, may be null
+     * @param session The {@link Session session} resolved from the request's token, null if none
+     * 
+     * @return The response of {@link #createCart(String)}, stored for repeats<br>
+     * ResponseEntity with HTTP status of UNAUTHORIZED or FORBIDDEN if not logged in as the cart's user or an admin
+     */
+    @PostMapping("")
+    public ResponseEntity<Cart> createCart(@RequestBody String username, @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                           @RequestAttribute(name = SessionFilter.SESSION, required = false) Session session) {
+        HttpStatus denied = Authorization.denied(session, username);
+        if (denied != null)
+            return new ResponseEntity<>(denied);
+        return idempotencyStore.execute("POST /carts", session, idempotencyKey, username, Cart.class,
+                                        () -> createCart(username));
+    }
+
     /**
      * Creates a {@linkplain Cart cart} with the provided cart object
      * 
@@ -164,9 +275,7 @@ public class CartController {
      * ResponseEntity with HTTP status of CONFLICT if {@link Cart cart} object already exists<br>
      * ResponseEntity with HTTP status of INTERNAL_SERVER_ERROR otherwise
      */
-    @PostMapping("")
     public ResponseEntity<Cart> createCart(@RequestBody String username) {
-        LOG.info("POST /carts " + username);
         try {
             Cart newCart = cartDao.createCart(username);
             if (newCart != null)
@@ -180,6 +289,34 @@ public class CartController {
         }
     }
 
+    /**
+     * Updates the {@linkplain Cart cart} of the caller, or of any user for an admin
+     * <br>
+     * The caller must own both the stored cart and the cart sent
+     * 
+     * @param cart The {@link Cart cart} to update
+     * @param session The {@link Session session} resolved from the request's token, null if none
+     * 
+     * @return The response of {@link #updateCart(Cart)}<br>
+     * ResponseEntity with HTTP status of UNAUTHORIZED or FORBIDDEN if not logged in as the cart's user or an admin<br>
+     * ResponseEntity with HTTP status of INTERNAL_SERVER_ERROR if the stored cart cannot be read
+     */
+    @PutMapping("")
+    public ResponseEntity<Cart> updateCart(@RequestBody Cart cart, @RequestAttribute(name = SessionFilter.SESSION, required = false) Session session) {
+        try {
+            HttpStatus denied = Authorization.denied(session, cart.getUsername());
+            if (denied == null)
+                denied = deniedForCart(session, cart.getId());
+            if (denied != null)
+                return new ResponseEntity<>(denied);
+        }
+        catch(IOException e) {
+            LOG.log(Level.SEVERE,e.getLocalizedMessage());
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+        return updateCart(cart);
+    }
+
     /**
      * Updates the {@linkplain Cart cart} with the provided {@linkplain Cart cart} object, if it exists
      * 
@@ -189,9 +326,7 @@ public class CartController {
      * ResponseEntity with HTTP status of NOT_FOUND if not found<br>
      * ResponseEntity with HTTP status of INTERNAL_SERVER_ERROR otherwise
      */
-    @PutMapping("")
     public ResponseEntity<Cart> updateCart(@RequestBody Cart cart) {
-        LOG.info("PUT /carts " + cart);
         try {
             Cart updatedCart = cartDao.updateCart(cart);
             if (updatedCart != null)
@@ -205,6 +340,49 @@ public class CartController {
         }
     }
 
+    /**
+     * Deletes the {@linkplain Cart cart} with the given id, if it is the caller's or the caller is an admin
+     * 
+     * @param id The id of the {@link Cart cart} to deleted
+     * @param session The {@link Session session} resolved from the request's token, null if none
+     * 
+     * @return The response of {@link #deleteCart(int)}<br>
+     * ResponseEntity with HTTP status of UNAUTHORIZED or FORBIDDEN if not logged in as the cart's user or an admin<br>
+     * ResponseEntity with HTTP status of INTERNAL_SERVER_ERROR if the stored cart cannot be read
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Cart> deleteCart(@PathVariable int id, @RequestAttribute(name = SessionFilter.SESSION, required = false) Session session) {
+        try {
+            HttpStatus denied = deniedForCart(session, id);
+            if (denied != null)
+                return new ResponseEntity<>(denied);
+        }
+        catch(IOException e) {
+            LOG.log(Level.SEVERE,e.getLocalizedMessage());
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+        return deleteCart(id);
+    }
+
+    /**
+     * Checks that a request comes from the user owning a stored {@linkplain Cart cart}, or an admin
+     * <br>
+     * Only an admin may act on a cart that does not exist, so others can't probe ids
+     * 
+     * @param session The {@link Session session} of the request, null if none
+     * @param id The id of the stored {@link Cart cart}
+     * 
+     * @return null if allowed, otherwise the HTTP status to deny it with
+     * 
+     * @throws IOException when the stored cart cannot be read
+     */
+    private HttpStatus deniedForCart(Session session, int id) throws IOException {
+        if (session == null || session.isAdmin())
+            return Authorization.denied(session);
+        Cart stored = cartDao.getCart(id);
+        return Authorization.denied(session, stored != null ? stored.getUsername() : null);
+    }
+
     /**
      * Deletes a {@linkplain Cart cart} with the given id
      * 
@@ -214,10 +392,7 @@ public class CartController {
      * ResponseEntity with HTTP status of NOT_FOUND if not found<br>
      * ResponseEntity with HTTP status of INTERNAL_SERVER_ERROR otherwise
      */
-    @DeleteMapping("/{id}")
     public ResponseEntity<Cart> deleteCart(@PathVariable int id) {
-        LOG.info("DELETE /carts/" + id);
-
         // Replace below with "your" implementation
         try {
             boolean deleted = cartDao.deleteCart(id);
@@ -232,6 +407,25 @@ public class CartController {
         }
     }
 
+    /**
+     * Adds a {@linkplain Disc disc} to the {@linkplain Cart cart} of the caller, or of any user for an admin
+     * 
+     * @param cart_username The username associated with the {@link Cart cart} to update
+     * @param disc_id The ID of the {@linkplain Disc disc} to add to the {@link Cart cart}
+     * @param session The {@link Session session} resolved from the request's token, null if none
+     * 
+     * @return The response of {@link #addToCart(String, int)}<br>
+     * ResponseEntity with HTTP status of UNAUTHORIZED or FORBIDDEN if not logged in as the cart's user or an admin
+     */
+    @PutMapping("/addDisc/{cart_username}/{disc_id}")
+    public ResponseEntity<Cart> addToCart(@PathVariable String cart_username, @PathVariable int disc_id,
+                                          @RequestAttribute(name = SessionFilter.SESSION, required = false) Session session) {
+        HttpStatus denied = Authorization.denied(session, cart_username);
+        if (denied != null)
+            return new ResponseEntity<>(denied);
+        return addToCart(cart_username, disc_id);
+    }
+
     /**
      * Adds a {@linkplain Disc disc} to the {@linkplain Cart cart} with the provided {@linkplain Cart cart} and {@linkplain Disc disc} objects, if they exist
      * 
@@ -242,19 +436,12 @@ public class CartController {
      * ResponseEntity with HTTP status of NOT_FOUND if not found<br>
      * ResponseEntity with HTTP status of INTERNAL_SERVER_ERROR otherwise
      */
-    @PutMapping("/addDisc/{cart_username}/{disc_id}")
     public ResponseEntity<Cart> addToCart(@PathVariable String cart_username, @PathVariable int disc_id) {
-        LOG.info("PUT /carts/addDisc " + cart_username + " +" + disc_id);
         try {
-            Cart cart = cartDao.findCart(cart_username);
-            if (cart != null) {
-                boolean result = cart.addDisc(disc_id);
-                if (result) { // ensure disc was added to cart
-                    Cart updatedCart = cartDao.updateCart(cart);
-                    if (updatedCart != null)
-                        return new ResponseEntity<Cart>(updatedCart, HttpStatus.OK);
-                } 
-            } return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            Cart updatedCart = cartDao.addDisc(cart_username, disc_id, 1);
+            if (updatedCart != null) // ensure disc was added to cart
+                return new ResponseEntity<Cart>(updatedCart, HttpStatus.OK);
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
         catch(IOException e) {
             LOG.log(Level.SEVERE,e.getLocalizedMessage());
@@ -262,6 +449,25 @@ public class CartController {
         }
     }
 
+    /**
+     * Removes a {@linkplain Disc disc} from the {@linkplain Cart cart} of the caller, or of any user for an admin
+     * 
+     * @param cart_username The username associated with the {@link Cart cart} to update
+     * @param disc_id The ID of the {@linkplain Disc disc} to add to the {@link Cart cart}
+     * @param session The {@link Session session} resolved from the request's token, null if none
+     * 
+     * @return The response of {@link #removeFromCart(String, int)}<br>
+     * ResponseEntity with HTTP status of UNAUTHORIZED or FORBIDDEN if not logged in as the cart's user or an admin
+     */
+    @PutMapping("/removeDisc/{cart_username}/{disc_id}")
+    public ResponseEntity<Cart> removeFromCart(@PathVariable String cart_username, @PathVariable int disc_id,
+                                               @RequestAttribute(name = SessionFilter.SESSION, required = false) Session session) {
+        HttpStatus denied = Authorization.denied(session, cart_username);
+        if (denied != null)
+            return new ResponseEntity<>(denied);
+        return removeFromCart(cart_username, disc_id);
+    }
+
     /**
      * Removes a {@linkplain Disc disc} from the {@linkplain Cart cart} with the provided {@linkplain Cart cart} and {@linkplain Disc disc} objects, if they exist
      * 
@@ -272,19 +478,12 @@ public class CartController {
      * ResponseEntity with HTTP status of NOT_FOUND if not found<br>
      * ResponseEntity with HTTP status of INTERNAL_SERVER_ERROR otherwise
      */
-    @PutMapping("/removeDisc/{cart_username}/{disc_id}")
     public ResponseEntity<Cart> removeFromCart(@PathVariable String cart_username, @PathVariable int disc_id) {
-        LOG.info("PUT /carts/removeDisc/" + cart_username + "/" + disc_id);
         try {
-            Cart cart = cartDao.findCart(cart_username);
-            if (cart != null) {
-                boolean result = cart.removeDisc(disc_id);
-                if (result) { // ensure disc was added to cart
-                    Cart updatedCart = cartDao.updateCart(cart);
-                    if (updatedCart != null)
-                        return new ResponseEntity<Cart>(updatedCart, HttpStatus.OK);
-                }
-            } return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            Cart updatedCart = cartDao.removeDisc(cart_username, disc_id);
+            if (updatedCart != null) // ensure disc was removed from cart
+                return new ResponseEntity<Cart>(updatedCart, HttpStatus.OK);
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
         catch(IOException e) {
             LOG.log(Level.SEVERE,e.getLocalizedMessage());
@@ -292,6 +491,27 @@ public class CartController {
         }
     }
 
+    /**
+     * Updates the quantity of a {@linkplain Disc disc} in the {@linkplain Cart cart} of the caller, or of any user for an admin
+     * 
+     * @param cart_username The username associated with the {@link Cart cart} to update
+     * @param disc_id The ID of the {@linkplain Disc disc} to add to the {@link Cart cart}
+     * @param amount The amount to set/add/sub the {@linkplain Disc disc} quantity in the {@link Cart cart}
+     * @param mode {0:set, 1:add, 2:subtract} the quantity
+     * @param session The {@link Session session} resolved from the request's token, null if none
+     * 
+     * @return The response of {@link #updateQuantityInCart(String, int, int, int)}<br>
+     * ResponseEntity with HTTP status of UNAUTHORIZED or FORBIDDEN if not logged in as the cart's user or an admin
+     */
+    @PutMapping("/updateDiscQuantity/{cart_username}/{disc_id}/{amount}/{mode}")
+    public ResponseEntity<Cart> updateQuantityInCart(@PathVariable String cart_username, @PathVariable int disc_id, @PathVariable int amount, @PathVariable int mode,
+                                                     @RequestAttribute(name = SessionFilter.SESSION, required = false) Session session) {
+        HttpStatus denied = Authorization.denied(session, cart_username);
+        if (denied != null)
+            return new ResponseEntity<>(denied);
+        return updateQuantityInCart(cart_username, disc_id, amount, mode);
+    }
+
     /**
      * Updates the quantity of a {@linkplain Disc disc} in the {@linkplain Cart cart} with the provided {@linkplain Cart cart} and {@linkplain Disc disc} objects, if they exist
      * 
@@ -304,20 +524,12 @@ public class CartController {
      * ResponseEntity with HTTP status of NOT_FOUND if not found<br>
      * ResponseEntity with HTTP status of INTERNAL_SERVER_ERROR otherwise
      */
-    @PutMapping("/updateDiscQuantity/{cart_username}/{disc_id}/{amount}/{mode}")
     public ResponseEntity<Cart> updateQuantityInCart(@PathVariable String cart_username, @PathVariable int disc_id, @PathVariable int amount, @PathVariable int mode) {
-        LOG.info("PUT /carts/updateDiscQuantity/" + cart_username + "/" + disc_id + "/" + amount + "/" + mode);
         try {
-            Cart cart = cartDao.findCart(cart_username);
-            if (cart != null) {
-                boolean result = cart.updateDiscQuantity(disc_id, amount, mode);
-
-                if (result) { // ensure disc was updated in cart
-                    Cart updatedCart = cartDao.updateCart(cart);
-                    if (updatedCart != null)
-                        return new ResponseEntity<Cart>(updatedCart, HttpStatus.OK);
-                }
-            } return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            Cart updatedCart = cartDao.updateDiscQuantity(cart_username, disc_id, amount, mode);
+            if (updatedCart != null) // ensure disc was updated in cart
+                return new ResponseEntity<Cart>(updatedCart, HttpStatus.OK);
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
         catch(IOException e) {
             LOG.log(Level.SEVERE,e.getLocalizedMessage());
@@ -336,22 +548,11 @@ public class CartController {
      */
     @GetMapping("/getCost/{cart_username}")
     public ResponseEntity<Float> getCost(@PathVariable String cart_username) {
-        LOG.info("PUT /carts/getCost/" + cart_username);
         try {
             Cart cart = cartDao.findCart(cart_username);
-            if (cart != null) {
-                HashMap<Integer, Integer> contents = cart.getContents();
-                float cost = 0.0f;
-
-                if (contents != null && contents.size() > 0) {
-                    for (int disc_id : contents.keySet()) {
-                        Disc disc = discDao.getDisc(disc_id);
-                        if (disc != null)
-                            cost += disc.getPrice() * contents.get(disc_id);
-                    }
-                } return new ResponseEntity<Float>(cost, HttpStatus.OK);
-
-            } return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            if (cart != null) // Cost is cached by the cart until a line or price changes
+                return new ResponseEntity<Float>(cart.getCost(this::priceOf), HttpStatus.OK);
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
         catch(IOException e) {
             LOG.log(Level.SEVERE,e.getLocalizedMessage());
@@ -359,6 +560,20 @@ public class CartController {
         }
     }
 
+    /**
+     * Looks up the current price of a {@linkplain Disc disc} for a {@linkplain Cart cart's} cost
+     * 
+     * @param disc_id The ID of the {@link Disc disc}
+     * 
+     * @return The price of the {@link Disc disc}, 0 if it is no longer in the inventory
+     * 
+     * @throws IOException if an issue with underlying storage
+     */
+    private double priceOf(int disc_id) throws IOException {
+        Disc disc = discDao.getDisc(disc_id);
+        return disc != null ? disc.getPrice() : 0.0;
+    }
+
     /**
      * Gets the total count of {@linkplain Disc disc's} in the {@linkplain Cart cart} with the provided cart_username
      * 
@@ -370,20 +585,11 @@ public class CartController {
      */
     @GetMapping("/getCount/{cart_username}")
     public ResponseEntity<Integer> getCount(@PathVariable String cart_username) {
-        LOG.info("PUT /carts/getCount/" + cart_username);
         try {
             Cart cart = cartDao.findCart(cart_username);
-            if (cart != null) {
-                HashMap<Integer, Integer> contents = cart.getContents();
-                int count = 0;
-
-                if (contents != null && contents.size() > 0) {
-                    for (int quantity : contents.values())
-                        count += quantity;
-
-                } return new ResponseEntity<Integer>(count, HttpStatus.OK);
-
-            } return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            if (cart != null)
+                return new ResponseEntity<Integer>(cart.getTotalQuantity(), HttpStatus.OK);
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
         catch(IOException e) {
             LOG.log(Level.SEVERE,e.getLocalizedMessage());
@@ -403,26 +609,23 @@ public class CartController {
      */
     @GetMapping("/checkCart/{cart_username}")
     public ResponseEntity<Disc[]> checkCart(@PathVariable String cart_username) {
-        LOG.info("PUT /carts/checkCart/" + cart_username);
         try {
             Cart cart = cartDao.findCart(cart_username);
             if (cart != null) {
-                HashMap<Integer, Integer> contents = cart.getContents();
                 ArrayList<Disc> conflicts = new ArrayList<>();
 
-                if (contents != null && contents.size() > 0) {
-                    for (int disc_id : contents.keySet()) {
+                if (cart.getLineCount() > 0) {
+                    cart.forEachLine((disc_id, pQuantity) -> {
                         Disc disc = discDao.getDisc(disc_id);
 
                         if (disc != null) {
-                            // Get inventory and purchase quantities:
+                            // Get inventory quantity:
                             int iQuantity = disc.getQuantity();
-                            int pQuantity = contents.get(disc_id);
 
                             if (iQuantity < pQuantity) // Trying to purchase more than available
                                 conflicts.add(new Disc(disc.getId(), disc.getColor(), disc.getWeight(), disc.getType(), disc.getPrice(), iQuantity));
                         }
-                    }
+                    });
 
                     Disc[] conflictingDiscs = new Disc[conflicts.size()];
                     conflicts.toArray(conflictingDiscs);
@@ -437,6 +640,30 @@ public class CartController {
         }
     }
 
+    /**
+     * Purchases the {@linkplain Disc disc}'s in the {@linkplain Cart cart} with the provided username, once per Idempotency-Key
+     * <br>
+     * A repeat of a request with the same key gets the stored response instead
+     * of being performed again. Runs on the checkout {@link Bulkhead bulkhead}
+     * 
+     * @param cart_username The username associated with the {@link Cart cart} to update
+     * @param idempotencyKey The client's key for the request, may be null
+     * @param session The {@link Session session} resolved from the request's token, null if none
+     * 
+     * @return The response of {@link #purchaseCart(String)}, stored for repeats<br>
+     * ResponseEntity with HTTP status of SERVICE_UNAVAILABLE if the checkout bulkhead is full<br>
+     * ResponseEntity with HTTP status of UNAUTHORIZED or FORBIDDEN if not logged in as the cart's user or an admin
+     */
+    @PutMapping("/purchase/{cart_username}")
+    public CompletableFuture<ResponseEntity<Disc[]>> purchaseCart(@PathVariable String cart_username, @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                                                  @RequestAttribute(name = SessionFilter.SESSION, required = false) Session session) {
+        HttpStatus denied = Authorization.denied(session, cart_username);
+        if (denied != null)
+            return CompletableFuture.completedFuture(new ResponseEntity<>(denied));
+        return checkout.submit(() -> idempotencyStore.execute("PUT /carts/purchase/" + cart_username, session, idempotencyKey, null, Disc[].class,
+                                                              () -> purchaseCart(cart_username)));
+    }
+
     /**
      * Purchases {@linkplain Disc disc}'s in the {@linkplain Cart cart} with the provided {@linkplain Cart cart} object, if it exists
      * 
@@ -447,37 +674,43 @@ public class CartController {
      * ResponseEntity with HTTP status of NOT_FOUND if not found<br>
      * ResponseEntity with HTTP status of INTERNAL_SERVER_ERROR otherwise
      */
-    @PutMapping("/purchase/{cart_username}")
     public ResponseEntity<Disc[]> purchaseCart(@PathVariable String cart_username) {
-        LOG.info("PUT /carts/purchase/" + cart_username);
         try {
-            Cart cart = cartDao.findCart(cart_username);
+            Cart cart;
+            try (CheckoutStepEvent step = new CheckoutStepEvent(cart_username, CheckoutStepEvent.FIND_CART)) {
+                cart = cartDao.findCart(cart_username);
+            }
             if (cart != null) {
-                HashMap<Integer, Integer> contents = cart.getContents();
+                Cart.Lines lines = cart.getLines(); // Snapshot, the cart changes below
                 ArrayList<Disc> purchases = new ArrayList<>();
+                HashMap<Integer, Integer> purchased = new HashMap<>();
                 int unpurchasable = 0;
 
-                if (contents != null && contents.size() > 0) {
-                    for (int disc_id : contents.keySet()) {
-                        Disc disc = discDao.getDisc(disc_id);
+                if (lines.size() > 0) {
+                    for (int i = 0; i < lines.size(); i++) {
+                        int disc_id = lines.getDiscId(i);
+                        int quantity = lines.getQuantity(i);
+                        try (CheckoutStepEvent step = new CheckoutStepEvent(cart_username, CheckoutStepEvent.PURCHASE_DISC)) {
+                            // Take from inventory in one step, deleting the disc if bought out
+                            Disc purchase = discDao.takeDisc(disc_id, quantity);
+
+                            if (purchase != null) {
+                                purchases.add(purchase); // Store purchase
+                                purchased.put(disc_id, quantity); // Clear line from cart
+                                step.purchased(disc_id, purchase.getQuantity());
+                                
+                            } else unpurchasable++;
+                        }
+                    }
 
-                        if (disc != null) {
-                            // Get inventory and purchase quantities:
-                            int iQuantity = disc.getQuantity();
-                            int pQuantity = Math.min(contents.get(disc_id), iQuantity);
-
-                            purchases.add(new Disc(disc.getId(), disc.getColor(), disc.getWeight(), disc.getType(), disc.getPrice(), pQuantity)); // Store purchase
-                            cart.removeDisc(disc_id); // Update cart
-                            
-                            if (iQuantity == pQuantity) // Delete disc if bought out
-                                discDao.deleteDisc(disc_id);
-                            else // Otherwise update inventory
-                                discDao.updateDisc(new Disc(disc.getId(), disc.getColor(), disc.getWeight(), disc.getType(), disc.getPrice(), iQuantity - pQuantity));
-                            
-                        } else unpurchasable++;
-                    } cartDao.updateCart(cart);
+                    if (purchased.size() > 0) { // Update cart, keeping discs added since it was read
+                        try (CheckoutStepEvent step = new CheckoutStepEvent(cart_username, CheckoutStepEvent.CLEAR_CART)) {
+                            cartDao.removeDiscs(cart_username, purchased);
+                            step.cleared(purchased.size());
+                        }
+                    }
                     
-                    if (contents.size() == unpurchasable) // If no discs could be purchased
+                    if (lines.size() == unpurchasable) // If no discs could be purchased
                         return new ResponseEntity<>(HttpStatus.CONFLICT);
 
                     Disc[] purchasedDiscs = new Disc[purchases.size()];
@@ -505,7 +738,6 @@ public class CartController {
      */
     @GetMapping("/checkOne/{cart_username}/{disc_id}")
     public ResponseEntity<Disc> checkOneDisc(@PathVariable String cart_username, @PathVariable int disc_id) {
-        LOG.info("PUT /carts/checkOne/" + cart_username + "/" + disc_id);
         try {
             Cart cart = cartDao.findCart(cart_username);
             if (cart != null) {
@@ -513,7 +745,7 @@ public class CartController {
 
                 if (disc != null) {
                     int iQuantity = disc.getQuantity();
-                    int pQuantity = cart.getContents().get(disc_id);
+                    int pQuantity = cart.getQuantity(disc_id);
 
                     if (iQuantity < pQuantity)
                         return new ResponseEntity<Disc>(new Disc(disc.getId(), disc.getColor(), disc.getWeight(), disc.getType(), disc.getPrice(), iQuantity), HttpStatus.OK);
@@ -529,6 +761,32 @@ public class CartController {
         }
     }
 
+    /**
+     * Purchases a {@linkplain Disc disc} in the {@linkplain Cart cart} with the provided username and disc_id, once per Idempotency-Key
+     * <br>
+     * A repeat of a request with the same key gets the stored response instead
+     * of being performed again. Runs on the checkout {@link Bulkhead bulkhead}
+     * 
+     * @param cart_username The username associated with the {@link Cart cart} to update
+     * @param disc_id The ID of the {@linkplain Disc disc} to purchase in the {@link Cart cart}
+     * @param idempotencyKey The client's key for the request, may be null
+     * @param session The {@link Session session} resolved from the request's token, null if none
+     * 
+     * @return The response of {@link #purchaseOneDisc(String, int)}, stored for repeats<br>
+     * ResponseEntity with HTTP status of SERVICE_UNAVAILABLE if the checkout bulkhead is full<br>
+     * ResponseEntity with HTTP status of UNAUTHORIZED or FORBIDDEN if not logged in as the cart's user or an admin
+     */
+    @PutMapping("/purchaseOne/{cart_username}/{disc_id}")
+    public CompletableFuture<ResponseEntity<Disc>> purchaseOneDisc(@PathVariable String cart_username, @PathVariable int disc_id,
+                                                                   @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                                                   @RequestAttribute(name = SessionFilter.SESSION, required = false) Session session) {
+        HttpStatus denied = Authorization.denied(session, cart_username);
+        if (denied != null)
+            return CompletableFuture.completedFuture(new ResponseEntity<>(denied));
+        return checkout.submit(() -> idempotencyStore.execute("PUT /carts/purchaseOne/" + cart_username + "/" + disc_id, session, idempotencyKey, null, Disc.class,
+                                                              () -> purchaseOneDisc(cart_username, disc_id)));
+    }
+
     /**
      * Purchases a {@linkplain Disc disc} in the {@linkplain Cart cart} with the provided username and disc_id
      * 
@@ -540,29 +798,20 @@ public class CartController {
      * ResponseEntity with HTTP status of NOT_FOUND if not found<br>
      * ResponseEntity with HTTP status of INTERNAL_SERVER_ERROR otherwise
      */
-    @PutMapping("/purchaseOne/{cart_username}/{disc_id}")
     public ResponseEntity<Disc> purchaseOneDisc(@PathVariable String cart_username, @PathVariable int disc_id) {
-        LOG.info("PUT /carts/purchaseOne/" + cart_username + "/" + disc_id);
         try {
             Cart cart = cartDao.findCart(cart_username);
             if (cart != null) {
-                Disc disc = discDao.getDisc(disc_id);
-
-                if (disc != null) {
-                    int iQuantity = disc.getQuantity();
-                    int pQuantity = Math.min(cart.getContents().get(disc_id), iQuantity);
-                    Disc updatedDisc = new Disc(disc.getId(), disc.getColor(), disc.getWeight(), disc.getType(), disc.getPrice(), iQuantity - pQuantity);
-
-                    if (iQuantity == pQuantity) // Delete disc if bought out
-                        discDao.deleteDisc(disc_id);
-                    else // Otherwise update inventory
-                        discDao.updateDisc(updatedDisc); // Difference in quantity for inventory
+                int cQuantity = cart.getQuantity(disc_id);
+                if (cQuantity == 0) // Disc is not in the cart
+                    return new ResponseEntity<>(HttpStatus.NOT_FOUND);
 
-                    cart.removeDisc(disc_id); // Update cart
-                    cartDao.updateCart(cart); // Update DAO
+                // Take from inventory in one step, deleting the disc if bought out
+                Disc purchase = discDao.takeDisc(disc_id, cQuantity);
 
-                    updatedDisc.setQuantity(pQuantity); // Quantity purchased for return
-                    return new ResponseEntity<Disc>(updatedDisc, HttpStatus.OK);
+                if (purchase != null) {
+                    cartDao.removeDiscs(cart_username, Map.of(disc_id, cQuantity)); // Update cart
+                    return new ResponseEntity<Disc>(purchase, HttpStatus.OK);
 
                 } else return new ResponseEntity<>(HttpStatus.CONFLICT);
 
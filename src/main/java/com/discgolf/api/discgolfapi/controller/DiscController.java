@@ -1,5 +1,6 @@
 package com.discgolf.api.discgolfapi.controller;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -7,11 +8,15 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.discgolf.api.discgolfapi.auth.Session;
+import com.discgolf.api.discgolfapi.auth.SessionFilter;
 import com.discgolf.api.discgolfapi.model.Disc;
 import com.discgolf.api.discgolfapi.persistence.DiscDAO;
 
@@ -33,16 +38,31 @@ import java.util.logging.Logger;
 public class DiscController {
     private static final Logger LOG = Logger.getLogger(DiscController.class.getName());
     private DiscDAO discDao;
+    private IdempotencyStore idempotencyStore;
 
     /**
      * Creates a REST API controller to reponds to requests
      * 
      * @param discDao The {@link DiscDAO Disc Data Access Object} to perform CRUD operations
      * <br>
-     * This dependency is injected by the Spring Framework
+     * Requests are deduplicated in memory only
      */
     public DiscController(DiscDAO discDao) {
+        this(discDao, new IdempotencyStore());
+    }
+
+    /**
+     * Creates a REST API controller to reponds to requests
+     * 
+     * @param discDao The {@link DiscDAO Disc Data Access Object} to perform CRUD operations
+     * @param idempotencyStore The {@link IdempotencyStore store} of responses to repeated requests
+     * <br>
+     * These dependencies are injected by the Spring Framework
+     */
+    @Autowired
+    public DiscController(DiscDAO discDao, IdempotencyStore idempotencyStore) {
         this.discDao = discDao;
+        this.idempotencyStore = idempotencyStore;
     }
 
     /**
@@ -56,7 +76,6 @@ public class DiscController {
      */
     @GetMapping("/{id}")
     public ResponseEntity<Disc> getDisc(@PathVariable int id) {
-        LOG.info("GET /discs/" + id);
         try {
             Disc disc = discDao.getDisc(id);
             if (disc != null)
@@ -79,8 +98,6 @@ public class DiscController {
      */
     @GetMapping("")
     public ResponseEntity<Disc[]> getDiscs() {
-        LOG.info("GET /discs");
-
         // Replace below with "your" implementation
         try {
             Disc[] discs = discDao.getDiscs();
@@ -109,8 +126,6 @@ public class DiscController {
      */
     @GetMapping("/")
     public ResponseEntity<Disc[]> searchDiscs(@RequestParam String type) {
-        LOG.info("GET /discs/?type="+type);
-
         // Replace below with "your" implementation
         try {
             Disc[] discs = discDao.findDiscs(type, 1);
@@ -138,8 +153,6 @@ public class DiscController {
      */
     @GetMapping("/filter")
     public ResponseEntity<Disc[]> searchAndFilterDiscs(@RequestParam String search, @RequestParam int mode) {
-        LOG.info("GET /discs/?search=" + search + ", mode=" + mode);
-
         // Replace below with "your" implementation
         try {
             Disc[] discs = discDao.findDiscs(search, mode);
@@ -154,6 +167,25 @@ public class DiscController {
         }
     }
 
+    /**
+     * Creates a {@linkplain Disc disc} with the provided disc object, once per Idempotency-Key
+     * <br>
+     * A repeat of a request with the same key gets the stored response instead
+     * of being performed again
+     * 
+     * @param disc - The {@link Disc disc} to create
+     * @param idempotencyKey The client's key for the request, may be null
+     * @param session The {@link Session session} resolved from the request's token, null if none
+     * 
+     * @return The response of {@link #createDisc(Disc)}, stored for repeats
+     */
+    @PostMapping("")
+    public ResponseEntity<Disc> createDisc(@RequestBody Disc disc, @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                           @RequestAttribute(name = SessionFilter.SESSION, required = false) Session session) {
+        return idempotencyStore.execute("POST /discs", session, idempotencyKey, disc, Disc.class,
+                                        () -> createDisc(disc));
+    }
+
     /**
      * Creates a {@linkplain Disc disc} with the provided disc object
      * 
@@ -163,10 +195,7 @@ public class DiscController {
      * ResponseEntity with HTTP status of CONFLICT if {@link Disc disc} object already exists<br>
      * ResponseEntity with HTTP status of INTERNAL_SERVER_ERROR otherwise
      */
-    @PostMapping("")
     public ResponseEntity<Disc> createDisc(@RequestBody Disc disc) {
-        LOG.info("POST /discs " + disc);
-
         // Replace below with "your" implementation
         try {
             Disc newDisc = discDao.createDisc(disc);
@@ -192,8 +221,6 @@ public class DiscController {
      */
     @PutMapping("")
     public ResponseEntity<Disc> updateDisc(@RequestBody Disc disc) {
-        LOG.info("PUT /discs " + disc);
-
         // Replace below with "your" implementation
         try {
             Disc updatedDisc = discDao.updateDisc(disc);
@@ -219,8 +246,6 @@ public class DiscController {
      */
     @DeleteMapping("/{id}")
     public ResponseEntity<Disc> deleteDisc(@PathVariable int id) {
-        LOG.info("DELETE /discs/" + id);
-
         // Replace below with "your" implementation
         try {
             boolean deleted = discDao.deleteDisc(id);
@@ -0,0 +1,377 @@
+package com.discgolf.api.discgolfapi.controller;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.discgolf.api.discgolfapi.auth.Session;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+/**
+ * Remembers the responses of requests sent with an {@code Idempotency-Key} header,
+ * so a retried request gets the stored response instead of being performed again
+ * <p>
+ * Keys belong to the caller's session and the endpoint, and a repeat must send
+ * the same body as the first request, otherwise it is answered UNPROCESSABLE_ENTITY.
+ * A response body is stored as a JSON snapshot taken when the request completes,
+ * so later changes to the object returned don't reach repeats
+ * <p>
+ * Holds at most capacity responses, each for the time to live, evicting the
+ * oldest completed response first. A repeat of a request that is still running
+ * waits for it and shares its response. When every held request is still
+ * running a new key is answered SERVICE_UNAVAILABLE. Server errors are not
+ * stored, so they can be retried
+ * <p>
+ * If a file is configured, each stored response is appended to it as a line
+ * of JSON and reloaded at startup. The file is rewritten with only the held
+ * responses once it has twice capacity lines
+ * <p>
+ * {@literal @}Component Spring annotation instantiates a single instance of this
+ * class and injects the instance into other classes as needed
+ *
+ * @author ZVH
+ */
+@Component
+public class IdempotencyStore {
+    private static final Logger LOG = Logger.getLogger(IdempotencyStore.class.getName());
+    private static final int DEFAULT_CAPACITY = 10000;
+    private static final long DEFAULT_TTL = 86400;
+    private static final String ANONYMOUS = "-"; // The owner of keys sent without a session
+
+    private final LinkedHashMap<String,Entry> entries = new LinkedHashMap<>(); // In insertion, so expiry, order
+    private final ReentrantLock saveLock = new ReentrantLock(); // Orders writes to the file, held instead of the entries' monitor
+    private final int capacity;         // Most responses held at once
+    private final long ttl;             // Milliseconds a response is held
+    private final String filename;      // File to persist to, null if not persisted
+    private final ObjectMapper objectMapper;    // Converts stored bodies
+    private final LongSupplier clock;   // Current time in milliseconds
+    private int lines;                  // Lines in the file, guarded by the save lock
+
+    /**
+     * A stored or in-flight response
+     */
+    private static class Entry {
+        final CompletableFuture<ResponseEntity<?>> response = new CompletableFuture<>(); // Body is a JsonNode snapshot
+        final long expires;
+        final String fingerprint;   // Of the request body
+
+        Entry(long expires, String fingerprint) {
+            this.expires = expires;
+            this.fingerprint = fingerprint;
+        }
+    }
+
+    /**
+     * A stored response as written to the file
+     */
+    static class StoredResponse {
+        @JsonProperty("key") String key;
+        @JsonProperty("expires") long expires;
+        @JsonProperty("fingerprint") String fingerprint;
+        @JsonProperty("status") int status;
+        @JsonProperty("body") JsonNode body;
+
+        StoredResponse(@JsonProperty("key") String key, @JsonProperty("expires") long expires, @JsonProperty("fingerprint") String fingerprint,
+                       @JsonProperty("status") int status, @JsonProperty("body") JsonNode body) {
+            this.key = key;
+            this.expires = expires;
+            this.fingerprint = fingerprint;
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+    /**
+     * Creates an Idempotency Store
+     *
+     * @param capacity The most responses held at once
+     * @param ttl Seconds each response is held
+     * @param filename File to persist responses to, empty to keep them in memory only
+     * @param objectMapper Provides JSON Object to/from Java Object serialization and deserialization
+     */
+    @Autowired
+    public IdempotencyStore(@Value("${idempotency.capacity:10000}") int capacity, @Value("${idempotency.ttl:86400}") long ttl,
+                            @Value("${idempotency.file:}") String filename, ObjectMapper objectMapper) {
+        this(capacity, ttl * 1000, filename, objectMapper, System::currentTimeMillis);
+    }
+
+    /**
+     * Creates an in-memory Idempotency Store with the default capacity and time to live
+     */
+    public IdempotencyStore() {
+        this(DEFAULT_CAPACITY, DEFAULT_TTL * 1000, null, new ObjectMapper(), System::currentTimeMillis);
+    }
+
+    /**
+     * Creates an Idempotency Store with the given clock
+     *
+     * @param capacity The most responses held at once
+     * @param ttl Milliseconds each response is held
+     * @param filename File to persist responses to, null or empty to keep them in memory only
+     * @param objectMapper Provides JSON Object to/from Java Object serialization and deserialization
+     * @param clock Gives the current time in milliseconds
+     */
+    IdempotencyStore(int capacity, long ttl, String filename, ObjectMapper objectMapper, LongSupplier clock) {
+        this.capacity = capacity;
+        this.ttl = ttl;
+        this.filename = (filename == null || filename.isEmpty()) ? null : filename;
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+        load();
+    }
+
+    /**
+     * Performs a request once per key
+     * <br>
+     * If the key is null the request is always performed. Otherwise the stored
+     * response of an earlier request with the same session, scope, key and body
+     * is returned, or the request is performed and its response stored
+     *
+     * @param <T> The type of the response body
+     * @param scope Identifies the endpoint and resource, so keys reused elsewhere don't collide
+     * @param session The {@link Session session} of the caller, whose keys are kept apart from others', null if none
+     * @param key The client's Idempotency-Key, may be null
+     * @param body The request body, which repeats must match, null if none
+     * @param type The type of the response body
+     * @param request Performs the request
+     *
+     * @return The response of the request<br>
+     * ResponseEntity with HTTP status of UNPROCESSABLE_ENTITY if the key was sent before with another body<br>
+     * ResponseEntity with HTTP status of SERVICE_UNAVAILABLE if the store is full of requests still running
+     */
+    public <T> ResponseEntity<T> execute(String scope, Session session, String key, Object body, Class<T> type, Supplier<ResponseEntity<T>> request) {
+        if (key == null || key.isEmpty())
+            return request.get();
+
+        String storeKey = (session == null ? ANONYMOUS : session.getUsername().toLowerCase()) + " " + scope + " " + key;
+        String fingerprint = fingerprint(body);
+        Entry entry;
+        boolean owner = false;
+        synchronized (entries) {
+            evictExpired();
+            entry = entries.get(storeKey);
+            if (entry == null) {
+                if (entries.size() >= capacity && !evictOldestCompleted())
+                    return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+                entry = new Entry(clock.getAsLong() + ttl, fingerprint);
+                entries.put(storeKey, entry);
+                owner = true;
+            }
+        }
+
+        if (!owner) { // Repeat, wait for and share the first response
+            if (entry.fingerprint != null && !entry.fingerprint.equals(fingerprint))
+                return new ResponseEntity<>(HttpStatus.UNPROCESSABLE_ENTITY);
+            ResponseEntity<?> stored = entry.response.join();
+            Object storedBody = stored.getBody();
+            return new ResponseEntity<T>(storedBody == null ? null : objectMapper.convertValue(storedBody, type), stored.getStatusCode());
+        }
+
+        ResponseEntity<T> response;
+        ResponseEntity<JsonNode> snapshot;
+        try {
+            response = request.get();
+            JsonNode tree = response.getBody() == null ? null : objectMapper.valueToTree(response.getBody());
+            snapshot = new ResponseEntity<>(tree, response.getStatusCode());
+        } catch (RuntimeException e) {
+            forget(storeKey, entry);
+            entry.response.complete(new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR));
+            throw e;
+        }
+
+        entry.response.complete(snapshot);
+        if (response.getStatusCode().is5xxServerError())
+            forget(storeKey, entry); // Let the client retry
+        else
+            append(storeKey, entry, snapshot);
+        return response;
+    }
+
+    /**
+     * Gets the number of responses held, including in-flight requests
+     *
+     * @return The number of responses
+     */
+    int size() {
+        synchronized (entries) {
+            evictExpired();
+            return entries.size();
+        }
+    }
+
+    /**
+     * Fingerprints a request body by hashing its JSON
+     *
+     * @param body The request body, may be null
+     *
+     * @return The fingerprint, which is equal for equal bodies
+     */
+    private String fingerprint(Object body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(digest.digest(objectMapper.writeValueAsBytes(body)));
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Removes an entry if it is still the one stored for its key
+     *
+     * @param storeKey The key of the entry
+     * @param entry The entry to remove
+     */
+    private void forget(String storeKey, Entry entry) {
+        synchronized (entries) {
+            entries.remove(storeKey, entry);
+        }
+    }
+
+    /**
+     * Removes expired entries, which are always the oldest
+     * <br>
+     * Called while holding the entries lock
+     */
+    private void evictExpired() {
+        long now = clock.getAsLong();
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext() && iterator.next().expires <= now)
+            iterator.remove();
+    }
+
+    /**
+     * Removes the oldest entry whose request has completed, leaving running requests
+     * <br>
+     * Called while holding the entries lock
+     *
+     * @return false if every entry is still running
+     */
+    private boolean evictOldestCompleted() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().response.isDone()) {
+                iterator.remove();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Appends a completed response to the file, if one is configured, and
+     * compacts the file once it has twice capacity lines
+     *
+     * @param storeKey The key of the entry
+     * @param entry The completed entry
+     * @param snapshot Its response
+     */
+    private void append(String storeKey, Entry entry, ResponseEntity<JsonNode> snapshot) {
+        if (filename == null)
+            return;
+
+        saveLock.lock();
+        try {
+            String line = objectMapper.writeValueAsString(new StoredResponse(storeKey, entry.expires, entry.fingerprint,
+                                                          snapshot.getStatusCodeValue(), snapshot.getBody()));
+            Files.write(Path.of(filename), (line + "\n").getBytes(StandardCharsets.UTF_8),
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            if (++lines >= 2 * capacity)
+                compact();
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Could not save idempotency keys: " + e.getLocalizedMessage());
+        } finally {
+            saveLock.unlock();
+        }
+    }
+
+    /**
+     * Rewrites the file with only the completed responses held
+     * <br>
+     * Called while holding the save lock
+     *
+     * @throws IOException when the file cannot be written
+     */
+    private void compact() throws IOException {
+        ArrayList<StoredResponse> stored = new ArrayList<>();
+        synchronized (entries) { // Only collects the snapshots, they are serialized outside the monitor
+            evictExpired();
+            for (Map.Entry<String,Entry> entry : entries.entrySet()) {
+                ResponseEntity<?> response = entry.getValue().response.getNow(null);
+                if (response != null)
+                    stored.add(new StoredResponse(entry.getKey(), entry.getValue().expires, entry.getValue().fingerprint,
+                                                  response.getStatusCodeValue(), (JsonNode) response.getBody()));
+            }
+        }
+
+        Path file = Path.of(filename);
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            for (StoredResponse response : stored) {
+                writer.write(objectMapper.writeValueAsString(response));
+                writer.newLine();
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        lines = stored.size();
+    }
+
+    /**
+     * Loads unexpired responses from the file, if one is configured and exists
+     * <br>
+     * A later line for a key replaces an earlier one
+     */
+    private void load() {
+        if (filename == null || !new File(filename).exists())
+            return;
+
+        long now = clock.getAsLong();
+        try (MappingIterator<StoredResponse> stored = objectMapper.readerFor(StoredResponse.class).readValues(new File(filename))) {
+            synchronized (entries) {
+                while (stored.hasNextValue()) {
+                    StoredResponse response = stored.nextValue();
+                    lines++;
+                    if (response.expires <= now)
+                        continue;
+
+                    Entry entry = new Entry(response.expires, response.fingerprint);
+                    Object body = (response.body == null || response.body.isNull()) ? null : response.body;
+                    entry.response.complete(new ResponseEntity<>(body, HttpStatus.valueOf(response.status)));
+                    entries.remove(response.key);
+                    entries.put(response.key, entry);
+                    if (entries.size() > capacity)
+                        entries.remove(entries.keySet().iterator().next());
+                }
+            }
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Could not load idempotency keys: " + e.getLocalizedMessage());
+        }
+    }
+}
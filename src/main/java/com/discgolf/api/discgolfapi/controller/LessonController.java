@@ -1,5 +1,6 @@
 package com.discgolf.api.discgolfapi.controller;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -7,11 +8,15 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.discgolf.api.discgolfapi.auth.Session;
+import com.discgolf.api.discgolfapi.auth.SessionFilter;
 import com.discgolf.api.discgolfapi.model.Lesson;
 import com.discgolf.api.discgolfapi.persistence.LessonDAO;
 
@@ -33,16 +38,31 @@ import java.util.logging.Logger;
 public class LessonController {
     private static final Logger LOG = Logger.getLogger(LessonController.class.getName());
     private LessonDAO lessonDao;
+    private IdempotencyStore idempotencyStore;
 
     /**
      * Creates a REST API controller to reponds to requests
      * 
      * @param lessonDao The {@link LessonDAO Lesson Data Access Object} to perform CRUD operations
      * <br>
-     * This dependency is injected by the Spring Framework
+     * Requests are deduplicated in memory only
      */
     public LessonController(LessonDAO lessonDao) {
+        this(lessonDao, new IdempotencyStore());
+    }
+
+    /**
+     * Creates a REST API controller to reponds to requests
+     * 
+     * @param lessonDao The {@link LessonDAO Lesson Data Access Object} to perform CRUD operations
+     * @param idempotencyStore The {@link IdempotencyStore store} of responses to repeated requests
+     * <br>
+     * These dependencies are injected by the Spring Framework
+     */
+    @Autowired
+    public LessonController(LessonDAO lessonDao, IdempotencyStore idempotencyStore) {
         this.lessonDao = lessonDao;
+        this.idempotencyStore = idempotencyStore;
     }
 
     /**
@@ -56,7 +76,6 @@ public class LessonController {
      */
     @GetMapping("/{id}")
     public ResponseEntity<Lesson> getLesson(@PathVariable int id) {
-        LOG.info("GET /lessons/" + id);
         try {
             Lesson lesson = lessonDao.getLesson(id);
             if (lesson != null)
@@ -72,8 +91,6 @@ public class LessonController {
 
     @GetMapping("/dates")
     public ResponseEntity<Lesson[]> getLessonsOnDate(@RequestParam String date) {
-        LOG.info("GET /lessons/dates?date="+date);
-
         // Replace below with "your" implementation
         try {
             Lesson[] lessons = lessonDao.getLessonsOnDate(date);
@@ -97,7 +114,6 @@ public class LessonController {
      */
     @GetMapping("/user/{username}")
     public ResponseEntity<Lesson[]> getLessonByUser(@PathVariable String username) {
-        LOG.info("GET /lessons/user/" + username);
         try {
             Lesson[] lessons = lessonDao.getLessonsByUser(username);
             return new ResponseEntity<Lesson[]>(lessons, HttpStatus.OK);
@@ -117,8 +133,6 @@ public class LessonController {
      */
     @GetMapping("")
     public ResponseEntity<Lesson[]> getLessons() {
-        LOG.info("GET /lessons");
-
         // Replace below with "your" implementation
         try {
             Lesson[] lessons = lessonDao.getLessons();
@@ -147,8 +161,6 @@ public class LessonController {
      */
     @GetMapping("/")
     public ResponseEntity<Lesson[]> searchLessons(@RequestParam String title) {
-        LOG.info("GET /lessons/?title="+title);
-
         // Replace below with "your" implementation
         try {
             Lesson[] lessons = lessonDao.findLessons(title);
@@ -163,6 +175,25 @@ public class LessonController {
         }
     }
 
+    /**
+     * Creates a {@linkplain Lesson lesson} with the provided lesson object, once per Idempotency-Key
+     * <br>
+     * A repeat of a request with the same key gets the stored response instead
+     * of being performed again
+     * 
+     * @param lesson - The {@link Lesson lesson} to create
+     * @param idempotencyKey The client's key for the request, may be null
+     * @param session The {@link Session session} resolved from the request's token, null if none
+     * 
+     * @return The response of {@link #createLesson(Lesson)}, stored for repeats
+     */
+    @PostMapping("")
+    public ResponseEntity<Lesson> createLesson(@RequestBody Lesson lesson, @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                               @RequestAttribute(name = SessionFilter.SESSION, required = false) Session session) {
+        return idempotencyStore.execute("POST /lessons", session, idempotencyKey, lesson, Lesson.class,
+                                        () -> createLesson(lesson));
+    }
+
     /**
      * Creates a {@linkplain Lesson lesson} with the provided lesson object
      * 
@@ -172,10 +203,7 @@ public class LessonController {
      * ResponseEntity with HTTP status of CONFLICT if {@link Lesson lesson} object already exists<br>
      * ResponseEntity with HTTP status of INTERNAL_SERVER_ERROR otherwise
      */
-    @PostMapping("")
     public ResponseEntity<Lesson> createLesson(@RequestBody Lesson lesson) {
-        LOG.info("POST /lessons " + lesson);
-
         // Replace below with "your" implementation
         try {
             Lesson newLesson = lessonDao.createLesson(lesson);
@@ -201,8 +229,6 @@ public class LessonController {
      */
     @PutMapping("")
     public ResponseEntity<Lesson> updateLesson(@RequestBody Lesson lesson) {
-        LOG.info("PUT /lessons " + lesson);
-
         // Replace below with "your" implementation
         try {
             Lesson updatedLesson = lessonDao.updateLesson(lesson);
@@ -228,8 +254,6 @@ public class LessonController {
      */
     @DeleteMapping("/{id}")
     public ResponseEntity<Lesson> deleteLesson(@PathVariable int id) {
-        LOG.info("DELETE /lessons/" + id);
-
         // Replace below with "your" implementation
         try {
             boolean deleted = lessonDao.deleteLesson(id);
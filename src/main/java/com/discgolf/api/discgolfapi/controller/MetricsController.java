@@ -0,0 +1,47 @@
+package com.discgolf.api.discgolfapi.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.discgolf.api.discgolfapi.metrics.MetricsRegistry;
+
+/**
+ * Handles the REST API request for the application's metrics
+ * <p>
+ * {@literal @}RestController Spring annotation identifies this class as a REST API
+ * method handler to the Spring framework
+ *
+ * @author ZVH
+ */
+@RestController
+@RequestMapping("metrics")
+public class MetricsController {
+    /** The Prometheus text exposition format */
+    public static final MediaType PROMETHEUS = MediaType.parseMediaType("text/plain;version=0.0.4;charset=utf-8");
+    private MetricsRegistry registry;
+
+    /**
+     * Creates a REST API controller to reponds to requests
+     *
+     * @param registry The {@link MetricsRegistry registry} of metrics to report
+     * <br>
+     * This dependency is injected by the Spring Framework
+     */
+    public MetricsController(MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Responds to the GET request for the metrics
+     *
+     * @return ResponseEntity with the metrics in the Prometheus text format and HTTP status of OK
+     */
+    @GetMapping("")
+    public ResponseEntity<String> getMetrics() {
+        return ResponseEntity.status(HttpStatus.OK).contentType(PROMETHEUS).body(registry.scrape());
+    }
+}
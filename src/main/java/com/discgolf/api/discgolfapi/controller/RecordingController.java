@@ -0,0 +1,161 @@
+package com.discgolf.api.discgolfapi.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.discgolf.api.discgolfapi.auth.Authorization;
+import com.discgolf.api.discgolfapi.auth.Session;
+import com.discgolf.api.discgolfapi.auth.SessionFilter;
+import com.discgolf.api.discgolfapi.metrics.FlightRecordings;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Handles the REST API requests to start, dump and stop a Flight Recorder
+ * recording of the running server
+ * <p>
+ * Only an admin's {@linkplain Session session} may use them. Recorded events
+ * are streamed to the client from a temporary file, deleted once sent
+ * <p>
+ * {@literal @}RestController Spring annotation identifies this class as a REST API
+ * method handler to the Spring framework
+ *
+ * @author ZVH
+ */
+@RestController
+@RequestMapping("recording")
+public class RecordingController {
+    private static final Logger LOG = Logger.getLogger(RecordingController.class.getName());
+    /** The media type of a JFR file */
+    public static final MediaType JFR = MediaType.APPLICATION_OCTET_STREAM;
+    private FlightRecordings recordings;
+
+    /**
+     * Creates a REST API controller to reponds to requests
+     *
+     * @param recordings The {@link FlightRecordings recordings} to control
+     * <br>
+     * This dependency is injected by the Spring Framework
+     */
+    public RecordingController(FlightRecordings recordings) {
+        this.recordings = recordings;
+    }
+
+    /**
+     * Responds to the POST request to start a recording
+     *
+     * @param settings The name of the JDK's settings to record with, default or profile
+     * @param session The {@link Session session} resolved from the request's token, null if none
+     *
+     * @return ResponseEntity with HTTP status of CREATED if started<br>
+     * ResponseEntity with HTTP status of CONFLICT if a recording is running<br>
+     * ResponseEntity with HTTP status of BAD_REQUEST if the settings are not found<br>
+     * ResponseEntity with HTTP status of UNAUTHORIZED or FORBIDDEN if not logged in as an admin
+     */
+    @PostMapping("")
+    public ResponseEntity<Void> startRecording(@RequestParam(defaultValue = "profile") String settings,
+                                               @RequestAttribute(name = SessionFilter.SESSION, required = false) Session session) {
+        HttpStatus denied = Authorization.denied(session);
+        if (denied != null)
+            return new ResponseEntity<>(denied);
+
+        try {
+            if (recordings.start(settings))
+                return new ResponseEntity<>(HttpStatus.CREATED);
+            else
+                return new ResponseEntity<>(HttpStatus.CONFLICT);
+        }
+        catch(IOException | ParseException e) {
+            LOG.log(Level.WARNING,e.getLocalizedMessage());
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Responds to the GET request for the events recorded so far, leaving the recording running
+     *
+     * @param session The {@link Session session} resolved from the request's token, null if none
+     *
+     * @return ResponseEntity with the events as a JFR file and HTTP status of OK<br>
+     * ResponseEntity with HTTP status of NOT_FOUND if no recording is running<br>
+     * ResponseEntity with HTTP status of UNAUTHORIZED or FORBIDDEN if not logged in as an admin<br>
+     * ResponseEntity with HTTP status of INTERNAL_SERVER_ERROR otherwise
+     */
+    @GetMapping("")
+    public ResponseEntity<StreamingResponseBody> dumpRecording(@RequestAttribute(name = SessionFilter.SESSION, required = false) Session session) {
+        HttpStatus denied = Authorization.denied(session);
+        if (denied != null)
+            return new ResponseEntity<>(denied);
+
+        try {
+            return recorded(recordings.dump());
+        }
+        catch(IOException e) {
+            LOG.log(Level.SEVERE,e.getLocalizedMessage());
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Responds to the DELETE request to stop the recording
+     *
+     * @param session The {@link Session session} resolved from the request's token, null if none
+     *
+     * @return ResponseEntity with the events as a JFR file and HTTP status of OK<br>
+     * ResponseEntity with HTTP status of NOT_FOUND if no recording is running<br>
+     * ResponseEntity with HTTP status of UNAUTHORIZED or FORBIDDEN if not logged in as an admin<br>
+     * ResponseEntity with HTTP status of INTERNAL_SERVER_ERROR otherwise
+     */
+    @DeleteMapping("")
+    public ResponseEntity<StreamingResponseBody> stopRecording(@RequestAttribute(name = SessionFilter.SESSION, required = false) Session session) {
+        HttpStatus denied = Authorization.denied(session);
+        if (denied != null)
+            return new ResponseEntity<>(denied);
+
+        try {
+            return recorded(recordings.stop());
+        }
+        catch(IOException e) {
+            LOG.log(Level.SEVERE,e.getLocalizedMessage());
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Builds the response streaming recorded events
+     *
+     * @param events A temporary JFR file of the events, deleted once written, null if no recording was running
+     *
+     * @return ResponseEntity with the events and HTTP status of OK, or NOT_FOUND if null
+     *
+     * @throws IOException when the file's size cannot be read
+     */
+    private static ResponseEntity<StreamingResponseBody> recorded(Path events) throws IOException {
+        if (events == null)
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+
+        long length = Files.size(events);
+        StreamingResponseBody body = out -> {
+            try {
+                Files.copy(events, out);
+            } finally {
+                Files.deleteIfExists(events);
+            }
+        };
+        return ResponseEntity.status(HttpStatus.OK).contentType(JFR).contentLength(length).body(body);
+    }
+}
@@ -1,5 +1,6 @@
 package com.discgolf.api.discgolfapi.controller;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -7,14 +8,25 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.discgolf.api.discgolfapi.auth.Authorization;
+import com.discgolf.api.discgolfapi.auth.PasswordHasher;
+import com.discgolf.api.discgolfapi.auth.Session;
+import com.discgolf.api.discgolfapi.auth.SessionFilter;
+import com.discgolf.api.discgolfapi.auth.SessionStore;
 import com.discgolf.api.discgolfapi.model.User;
+import com.discgolf.api.discgolfapi.persistence.CartDAO;
 import com.discgolf.api.discgolfapi.persistence.UserDAO;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -24,16 +36,56 @@ import java.util.logging.Logger;
 public class UserController {
     private static final Logger LOG = Logger.getLogger(UserController.class.getName());
     private UserDAO userDao;
+    private CartDAO cartDao;
+    private IdempotencyStore idempotencyStore;
+    private SessionStore sessionStore;
+    private PasswordHasher passwordHasher;
 
     /**
      * Creates a REST API controller to reponds to requests
      * 
      * @param userDao The {@link UserDAO User Data Access Object} to perform CRUD operations
+     * @param cartDao The {@link CartDAO Cart Data Access Object} holding each new user's cart
      * <br>
-     * This dependency is injected by the Spring Framework
+     * Requests are deduplicated in memory only
      */
-    public UserController(UserDAO userDao) {
+    public UserController(UserDAO userDao, CartDAO cartDao) {
+        this(userDao, cartDao, new IdempotencyStore(), new SessionStore());
+    }
+
+    /**
+     * Creates a REST API controller to reponds to requests
+     * 
+     * @param userDao The {@link UserDAO User Data Access Object} to perform CRUD operations
+     * @param cartDao The {@link CartDAO Cart Data Access Object} holding each new user's cart
+     * @param idempotencyStore The {@link IdempotencyStore store} of responses to repeated requests
+     * @param sessionStore The {@link SessionStore store} of logged in users' sessions
+     * <br>
+     * Passwords are verified on a default {@link PasswordHasher hasher}'s pool
+     */
+    public UserController(UserDAO userDao, CartDAO cartDao, IdempotencyStore idempotencyStore, SessionStore sessionStore) {
+        this(userDao, cartDao, idempotencyStore, sessionStore, new PasswordHasher());
+    }
+
+    /**
+     * Creates a REST API controller to reponds to requests
+     * 
+     * @param userDao The {@link UserDAO User Data Access Object} to perform CRUD operations
+     * @param cartDao The {@link CartDAO Cart Data Access Object} holding each new user's cart
+     * @param idempotencyStore The {@link IdempotencyStore store} of responses to repeated requests
+     * @param sessionStore The {@link SessionStore store} of logged in users' sessions
+     * @param passwordHasher The {@link PasswordHasher hasher} verifying passwords off the request threads
+     * <br>
+     * These dependencies are injected by the Spring Framework
+     */
+    @Autowired
+    public UserController(UserDAO userDao, CartDAO cartDao, IdempotencyStore idempotencyStore, SessionStore sessionStore,
+                          PasswordHasher passwordHasher) {
         this.userDao = userDao;
+        this.cartDao = cartDao;
+        this.idempotencyStore = idempotencyStore;
+        this.sessionStore = sessionStore;
+        this.passwordHasher = passwordHasher;
     }
 
     /**
@@ -47,7 +99,6 @@ public class UserController {
      */
     @GetMapping("/{id}")
     public ResponseEntity<User> getUser(@PathVariable int id) {
-        LOG.info("GET /users/" + id);
         try {
             User user = userDao.getUser(id);
             if (user != null)
@@ -71,7 +122,6 @@ public class UserController {
      */
     @GetMapping("/{username}")
     public ResponseEntity<User> getUser(@PathVariable String username) {
-        LOG.info("GET /users/" + username);
         try {
             User user = userDao.getUser(username);
             if (user != null)
@@ -93,8 +143,6 @@ public class UserController {
      */
     @GetMapping("")
     public ResponseEntity<User[]> getUsers() {
-        LOG.info("GET /users");
-
         try {
             User[] users = userDao.getUsers();
             if (users != null)
@@ -109,51 +157,105 @@ public class UserController {
     }
 
     /**
-     * Creates a {@linkplain User user} with the provided user object
+     * Creates a {@linkplain User user} with the provided user object, once per Idempotency-Key
+     * <br>
+     * A repeat of a request with the same key gets the stored response instead
+     * of being performed again
+     * 
+     * @param user - The {@link User user} to create
+     * @param idempotencyKey The client's key for the request, may be null
+     * @param session The {@link Session session} resolved from the request's token, null if none
+     * 
+     * @return The response of {@link #createUser(User)}, stored for repeats
+     */
+    @PostMapping("")
+    public ResponseEntity<User> createUser(@RequestBody User user, @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                           @RequestAttribute(name = SessionFilter.SESSION, required = false) Session session) {
+        return idempotencyStore.execute("POST /users", session, idempotencyKey, user, User.class,
+                                        () -> createUser(user));
+    }
+
+    /**
+     * Creates a {@linkplain User user} with the provided user object, and the user's empty cart
      * 
      * @param user - The {@link User user} to create
      * 
      * @return ResponseEntity with created {@link User user} object and HTTP status of CREATED<br>
      * ResponseEntity with HTTP status of CONFLICT if {@link User user} object already exists<br>
+     * ResponseEntity with HTTP status of SERVICE_UNAVAILABLE if too many passwords are waiting to be hashed<br>
      * ResponseEntity with HTTP status of INTERNAL_SERVER_ERROR otherwise
      */
-    @PostMapping("")
     public ResponseEntity<User> createUser(@RequestBody User user) {
-        LOG.info("POST /users " + user);
-
         try {
             User newUser = userDao.createUser(user);
-            if (newUser != null)
+            if (newUser != null) {
+                cartDao.createCart(newUser.getUsername()); // Null if the username already owns a cart
                 return new ResponseEntity<User>(newUser, HttpStatus.CREATED);
+            }
             else
                 return new ResponseEntity<>(HttpStatus.CONFLICT);
         }
+        catch(RejectedExecutionException e) { // Hasher pool saturated
+            LOG.warning("Password hashing rejected, pool is saturated");
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+        }
         catch(IOException e) {
             LOG.log(Level.SEVERE,e.getLocalizedMessage());
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
+    /**
+     * Updates the caller's {@linkplain User user}, or any user for an admin
+     * <br>
+     * Only an admin may change a user's username, so a user can't take another's name
+     * 
+     * @param user The {@link User user} to update
+     * @param session The {@link Session session} resolved from the request's token, null if none
+     * 
+     * @return The response of {@link #updateUser(User)}<br>
+     * ResponseEntity with HTTP status of UNAUTHORIZED or FORBIDDEN if not logged in as the user or an admin
+     */
+    @PutMapping("")
+    public ResponseEntity<User> updateUser(@RequestBody User user, @RequestAttribute(name = SessionFilter.SESSION, required = false) Session session) {
+        HttpStatus denied = Authorization.denied(session, user.getId());
+        if (denied == null)
+            denied = Authorization.denied(session, user.getUsername());
+        if (denied != null)
+            return new ResponseEntity<>(denied);
+        return updateUser(user);
+    }
+
     /**
      * Updates the {@linkplain User user} with the provided {@linkplain User user} object, if it exists
+     * <br>
+     * A new password or username ends the user's {@linkplain Session sessions}, so they log in again
      * 
      * @param user The {@link User user} to update
      * 
      * @return ResponseEntity with updated {@link User user} object and HTTP status of OK if updated<br>
      * ResponseEntity with HTTP status of NOT_FOUND if not found<br>
+     * ResponseEntity with HTTP status of SERVICE_UNAVAILABLE if too many passwords are waiting to be hashed<br>
      * ResponseEntity with HTTP status of INTERNAL_SERVER_ERROR otherwise
      */
-    @PutMapping("")
     public ResponseEntity<User> updateUser(@RequestBody User user) {
-        LOG.info("PUT /users " + user);
-
         try {
+            User existing = userDao.getUser(user.getId());
+            String username = existing != null ? existing.getUsername() : null;
+            boolean newPassword = user.getPassword() != null && !user.getPassword().isBlank();
             User updatedUser = userDao.updateUser(user);
-            if (updatedUser != null)
+            if (updatedUser != null) {
+                if (username != null && (newPassword || !username.equalsIgnoreCase(updatedUser.getUsername())))
+                    sessionStore.invalidateUser(username);
                 return new ResponseEntity<User>(updatedUser, HttpStatus.OK);
+            }
             else
                 return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
+        catch(RejectedExecutionException e) { // Hasher pool saturated
+            LOG.warning("Password hashing rejected, pool is saturated");
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+        }
         catch(IOException e) {
             LOG.log(Level.SEVERE,e.getLocalizedMessage());
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
@@ -161,7 +263,24 @@ public class UserController {
     }
 
     /**
-     * Deletes a {@linkplain User user} with the given id
+     * Deletes the caller's {@linkplain User user} by id, or any user for an admin
+     * 
+     * @param id The id of the {@link User user} to deleted
+     * @param session The {@link Session session} resolved from the request's token, null if none
+     * 
+     * @return The response of {@link #deleteUser(int)}<br>
+     * ResponseEntity with HTTP status of UNAUTHORIZED or FORBIDDEN if not logged in as the user or an admin
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<User> deleteUser(@PathVariable int id, @RequestAttribute(name = SessionFilter.SESSION, required = false) Session session) {
+        HttpStatus denied = Authorization.denied(session, id);
+        if (denied != null)
+            return new ResponseEntity<>(denied);
+        return deleteUser(id);
+    }
+
+    /**
+     * Deletes a {@linkplain User user} with the given id, ending the user's {@linkplain Session sessions}
      * 
      * @param id The id of the {@link User user} to deleted
      * 
@@ -169,15 +288,16 @@ public class UserController {
      * ResponseEntity with HTTP status of NOT_FOUND if not found<br>
      * ResponseEntity with HTTP status of INTERNAL_SERVER_ERROR otherwise
      */
-    @DeleteMapping("/{id}")
     public ResponseEntity<User> deleteUser(@PathVariable int id) {
-        LOG.info("DELETE /users/" + id);
-
         // Replace below with "your" implementation
         try {
+            User user = userDao.getUser(id);
             boolean deleted = userDao.deleteUser(id);
-            if (deleted)
+            if (deleted) {
+                if (user != null)
+                    sessionStore.invalidateUser(user.getUsername());
                 return new ResponseEntity<>(HttpStatus.OK);
+            }
             else
                 return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
@@ -189,7 +309,24 @@ public class UserController {
 
     
     /**
-     * Deletes a {@linkplain User user} with the given user
+     * Deletes the caller's {@linkplain User user} by username, or any user for an admin
+     * 
+     * @param username The username of the {@link User username} to deleted
+     * @param session The {@link Session session} resolved from the request's token, null if none
+     * 
+     * @return The response of {@link #deleteUser(String)}<br>
+     * ResponseEntity with HTTP status of UNAUTHORIZED or FORBIDDEN if not logged in as the user or an admin
+     */
+    @DeleteMapping("/{username}")
+    public ResponseEntity<User> deleteUser(@PathVariable String username, @RequestAttribute(name = SessionFilter.SESSION, required = false) Session session) {
+        HttpStatus denied = Authorization.denied(session, username);
+        if (denied != null)
+            return new ResponseEntity<>(denied);
+        return deleteUser(username);
+    }
+
+    /**
+     * Deletes a {@linkplain User user} with the given user, ending the user's {@linkplain Session sessions}
      * 
      * @param username The username of the {@link User username} to deleted
      * 
@@ -197,14 +334,13 @@ public class UserController {
      * ResponseEntity with HTTP status of NOT_FOUND if not found<br>
      * ResponseEntity with HTTP status of INTERNAL_SERVER_ERROR otherwise
      */
-    @DeleteMapping("/{username}")
     public ResponseEntity<User> deleteUser(@PathVariable String username) {
-        LOG.info("DELETE /users/" + username);
-
         try {
             boolean deleted = userDao.deleteUser(username);
-            if (deleted)
+            if (deleted) {
+                sessionStore.invalidateUser(username);
                 return new ResponseEntity<>(HttpStatus.OK);
+            }
             else
                 return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
@@ -215,69 +351,71 @@ public class UserController {
     }    
 
     /**
-     * Responds to the GET login request for a {@linkplain User user} for the given username
+     * Responds to the POST login request for a {@linkplain User user}, starting a {@linkplain Session session}
+     * <br>
+     * The client sends the session's token as {@code Authorization: Bearer <token>} on later requests.
+     * The password is verified on the {@link PasswordHasher hasher}'s pool, not the request thread
      * 
-     * @param username The username to be signed into
-     * @param password password associated with the user 
+     * @param credentials The username and password to log in with
      * 
-     * @return ResponseEntity with {@link User user} object and HTTP status of ACCEPTED if logged in<br>
-     * ResponseEntity with HTTP status of UNAUTHORIZED if login failed 
+     * @return ResponseEntity with {@link Session session} object and HTTP status of CREATED if logged in<br>
+     * ResponseEntity with HTTP status of UNAUTHORIZED if login failed<br>
      * ResponseEntity with HTTP status of NOT_FOUND if not found<br>
+     * ResponseEntity with HTTP status of SERVICE_UNAVAILABLE if too many logins are waiting to be verified<br>
      * ResponseEntity with HTTP status of INTERNAL_SERVER_ERROR otherwise
      */
-    @GetMapping("/{username}/login/{password}")
-    public ResponseEntity<User> login(@PathVariable("username") String username,
-                                      @PathVariable("password") String password) {
-        LOG.info("GET /users/" + username + "/login/" + password);
+    @PostMapping("/login")
+    public CompletableFuture<ResponseEntity<Session>> startSession(@RequestBody User credentials) {
+        User user;
         try {
-            User user = userDao.getUser(username);
-            if (user != null) {
-                boolean response = user.login(password);
-
-                if(response) {
-                    return new ResponseEntity<User>(user, HttpStatus.ACCEPTED);
-                } else {
-                    return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
-                }
-            } else {
-                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
-            }
+            user = userDao.getUser(credentials.getUsername());
         } catch(IOException e) {
             LOG.log(Level.SEVERE,e.getLocalizedMessage());
-            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+            return CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR));
         }
+        if (user == null)
+            return CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+        if (credentials.getPassword() == null)
+            return CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.UNAUTHORIZED));
+
+        // Verify on the hasher's pool so the request thread is released meanwhile
+        return passwordHasher.verify(credentials.getPassword(), user.getPassword())
+            .thenApply(matches -> matches
+                ? new ResponseEntity<Session>(sessionStore.create(user), HttpStatus.CREATED)
+                : new ResponseEntity<Session>(HttpStatus.UNAUTHORIZED))
+            .exceptionally(UserController::verificationFailed);
     }
 
-        /**
-     * Responds to the GET login request for a {@linkplain User user} for the given username
+    /**
+     * Responds to the POST logout request, ending the caller's {@linkplain Session session}
      * 
-     * @param username The username to be signed into
-     * @param password password associated with the user 
+     * @param session The {@link Session session} resolved from the request's token, null if none
      * 
-     * @return ResponseEntity with HTTP status of OK if logged out in<br>
-     * ResponseEntity with HTTP status of UNAUTHORIZED if not logged in 
-     * ResponseEntity with HTTP status of NOT_FOUND if not found<br>
-     * ResponseEntity with HTTP status of INTERNAL_SERVER_ERROR otherwise
+     * @return ResponseEntity with HTTP status of OK if logged out<br>
+     * ResponseEntity with HTTP status of UNAUTHORIZED if not logged in
      */
-    @GetMapping("/{username}/logout")
-    public ResponseEntity<User> logout(@PathVariable("username") String username) {
-        LOG.info("GET /users/" + username + "/logout");
-        try {
-            User user = userDao.getUser(username);
-            if (user != null) {
-                boolean response = user.logout();
+    @PostMapping("/logout")
+    public ResponseEntity<Void> endSession(@RequestAttribute(name = SessionFilter.SESSION, required = false) Session session) {
+        if (session != null && sessionStore.invalidate(session.getToken()))
+            return new ResponseEntity<>(HttpStatus.OK);
+        return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
+    }
 
-                if(response) {
-                    return new ResponseEntity<>(HttpStatus.OK);
-                } else {
-                    return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
-                }
-            } else {
-                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
-            }
-        } catch(IOException e) {
-            LOG.log(Level.SEVERE,e.getLocalizedMessage());
-            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+    /**
+     * Answers a login whose password could not be verified
+     * 
+     * @param e Why verification failed
+     * 
+     * @return ResponseEntity with HTTP status of SERVICE_UNAVAILABLE if the {@link PasswordHasher hasher}'s pool is saturated<br>
+     * ResponseEntity with HTTP status of INTERNAL_SERVER_ERROR otherwise
+     */
+    private static <T> ResponseEntity<T> verificationFailed(Throwable e) {
+        Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+        if (cause instanceof RejectedExecutionException) { // Pool saturated by a login burst
+            LOG.warning("Password verification rejected, pool is saturated");
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
         }
+        LOG.log(Level.SEVERE,cause.getLocalizedMessage());
+        return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
     }
 }
@@ -0,0 +1,138 @@
+package com.discgolf.api.discgolfapi.filter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.discgolf.api.discgolfapi.metrics.MetricsRegistry;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Caps the requests of each {@linkplain EndpointGroup endpoint group} in flight
+ * at once, shedding the excess with SERVICE_UNAVAILABLE
+ * <p>
+ * Each group has its own {@link ConcurrencyLimit adaptive limit}, so a spike in
+ * browsing is shed from browsing alone and checkout keeps its share of the
+ * threads and DAO locks. Asynchronous requests hold their place until they complete
+ * <p>
+ * Limits are configured as {@code admission.<group>.limit} to start at,
+ * {@code admission.<group>.min}, {@code admission.<group>.max} and
+ * {@code admission.<group>.target} latency in milliseconds. Groups without a
+ * limit are not capped
+ * <p>
+ * {@literal @}Component Spring annotation registers the filter for every request,
+ * after the {@link RateLimitFilter rate limit filter}
+ *
+ * @author ZVH
+ */
+@Component
+@Order(AdmissionControlFilter.ORDER)
+public class AdmissionControlFilter extends OncePerRequestFilter {
+    /** Filter order, after the {@link RateLimitFilter rate limit filter} */
+    public static final int ORDER = RateLimitFilter.ORDER + 10;
+
+    private final Map<EndpointGroup,ConcurrencyLimit> limits;  // Limit of each group, missing if not capped
+    private final LongSupplier clock;   // Current time in nanoseconds
+
+    /**
+     * Creates an Admission Control Filter
+     *
+     * @param environment The configuration holding each group's limit
+     * @param registry The {@link MetricsRegistry registry} limits are reported to
+     * <br>
+     * These dependencies are injected by the Spring Framework
+     */
+    @Autowired
+    public AdmissionControlFilter(Environment environment, MetricsRegistry registry) {
+        this(limits(environment), System::nanoTime);
+        for (Map.Entry<EndpointGroup,ConcurrencyLimit> entry : limits.entrySet()) {
+            String group = entry.getKey().key();
+            ConcurrencyLimit limit = entry.getValue();
+            registry.gauge("admission_limit", "Requests admitted at once", limit::getLimit, "group", group);
+            registry.gauge("admission_in_flight", "Requests admitted and not yet complete", limit::getInFlight, "group", group);
+            registry.counter("admission_shed_total", "Requests shed by admission control", limit::getShed, "group", group);
+        }
+    }
+
+    /**
+     * Creates an Admission Control Filter with the given limits and clock
+     *
+     * @param limits The {@link ConcurrencyLimit limit} of each group, groups without one are not capped
+     * @param clock Gives the current time in nanoseconds
+     */
+    AdmissionControlFilter(Map<EndpointGroup,ConcurrencyLimit> limits, LongSupplier clock) {
+        this.limits = limits;
+        this.clock = clock;
+    }
+
+    /**
+     * Reads the limits of each group from the configuration
+     *
+     * @param environment The configuration
+     *
+     * @return The {@link ConcurrencyLimit limit} of each capped group
+     */
+    private static Map<EndpointGroup,ConcurrencyLimit> limits(Environment environment) {
+        Map<EndpointGroup,ConcurrencyLimit> limits = new EnumMap<>(EndpointGroup.class);
+        for (EndpointGroup group : EndpointGroup.values()) {
+            String prefix = "admission." + group.key() + ".";
+            int initial = environment.getProperty(prefix + "limit", Integer.class, 0);
+            if (initial > 0)
+                limits.put(group, new ConcurrencyLimit(initial,
+                                                       environment.getProperty(prefix + "min", Integer.class, 1),
+                                                       environment.getProperty(prefix + "max", Integer.class, initial),
+                                                       environment.getProperty(prefix + "target", Long.class, 1000L)));
+        }
+        return limits;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ConcurrencyLimit limit = limits.get(EndpointGroup.of(request));
+        if (limit == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        if (!limit.tryAcquire()) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            return;
+        }
+
+        long start = clock.getAsLong();
+        try {
+            chain.doFilter(request, response);
+        } finally { // Hold the place until the response is sent
+            Filters.onComplete(request, () -> limit.release(clock.getAsLong() - start, response.getStatus() >= 500));
+        }
+    }
+
+    /**
+     * Gets the limit of a group
+     *
+     * @param group The {@link EndpointGroup group}
+     *
+     * @return The group's {@link ConcurrencyLimit limit}, null if not capped
+     */
+    public ConcurrencyLimit getLimit(EndpointGroup group) {
+        return limits.get(group);
+    }
+}
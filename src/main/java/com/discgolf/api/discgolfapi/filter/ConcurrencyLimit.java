@@ -0,0 +1,126 @@
+package com.discgolf.api.discgolfapi.filter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * An adaptive cap on the requests of one {@linkplain EndpointGroup endpoint group} in flight at once
+ * <p>
+ * The limit grows by about one for every limit's worth of requests completing
+ * within the target latency, and shrinks by a tenth when one takes longer or
+ * fails with a server error (additive increase, multiplicative decrease). It
+ * shrinks at most once per target latency, since the requests completing in
+ * that time were admitted under the old limit and a burst of them is one
+ * overload, not many. So it settles near the most concurrency the group can
+ * serve within the target
+ *
+ * @author ZVH
+ */
+public class ConcurrencyLimit {
+    private static final double BACKOFF = 0.9;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder shed = new LongAdder();
+    private final int min;              // Lowest the limit shrinks to
+    private final int max;              // Highest the limit grows to
+    private final long target;          // Nanoseconds a request may take without shrinking the limit
+    private final LongSupplier clock;   // Current time in nanoseconds
+    private volatile double limit;      // Current limit, fractional so small increases add up
+    private long decreased;             // Nanoseconds when the limit last shrank, guarded by this
+
+    /**
+     * Creates a Concurrency Limit
+     *
+     * @param initial The starting limit
+     * @param min The lowest the limit shrinks to
+     * @param max The highest the limit grows to
+     * @param target Milliseconds a request may take without shrinking the limit
+     */
+    public ConcurrencyLimit(int initial, int min, int max, long target) {
+        this(initial, min, max, target, System::nanoTime);
+    }
+
+    /**
+     * Creates a Concurrency Limit with the given clock
+     *
+     * @param initial The starting limit
+     * @param min The lowest the limit shrinks to
+     * @param max The highest the limit grows to
+     * @param target Milliseconds a request may take without shrinking the limit
+     * @param clock Gives the current time in nanoseconds
+     */
+    ConcurrencyLimit(int initial, int min, int max, long target, LongSupplier clock) {
+        this.min = Math.max(1, min);
+        this.max = Math.max(this.min, max);
+        this.target = TimeUnit.MILLISECONDS.toNanos(target);
+        this.clock = clock;
+        this.limit = Math.min(this.max, Math.max(this.min, initial));
+        this.decreased = clock.getAsLong() - this.target; // So the first slow request shrinks it
+    }
+
+    /**
+     * Admits a request if fewer than the limit are in flight
+     *
+     * @return true if admitted, the caller must then {@link #release(long, boolean) release}
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                shed.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1))
+                return true;
+        }
+    }
+
+    /**
+     * Releases an admitted request and adapts the limit to how it went
+     *
+     * @param latency Nanoseconds the request took
+     * @param failed Whether the request failed with a server error
+     */
+    public void release(long latency, boolean failed) {
+        inFlight.decrementAndGet();
+        synchronized (this) {
+            if (failed || latency > target) {
+                long now = clock.getAsLong();
+                if (now - decreased >= target) { // At most once per window
+                    limit = Math.max(min, limit * BACKOFF);
+                    decreased = now;
+                }
+            } else
+                limit = Math.min(max, limit + 1 / limit);
+        }
+    }
+
+    /**
+     * Gets the current limit
+     *
+     * @return The most requests admitted at once
+     */
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * Gets the requests in flight
+     *
+     * @return The number of admitted requests not yet released
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Gets the requests shed since startup
+     *
+     * @return The number of requests not admitted
+     */
+    public long getShed() {
+        return shed.sum();
+    }
+}
@@ -0,0 +1,67 @@
+package com.discgolf.api.discgolfapi.filter;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * The groups of endpoints that request filters limit separately
+ *
+ * @author ZVH
+ */
+public enum EndpointGroup {
+    /** Reading the disc catalog and lessons */
+    BROWSE,
+    /** Reading and changing carts */
+    CART,
+    /** Purchasing carts or single discs */
+    CHECKOUT,
+    /** Logging in, which costs a password verification */
+    LOGIN,
+    /** Changing the catalog or lessons, and profiling the server */
+    ADMIN,
+    /** Anything else */
+    OTHER;
+
+    /**
+     * Gets the property name of the group, as used in configuration
+     *
+     * @return The lower case name
+     */
+    public String key() {
+        return name().toLowerCase();
+    }
+
+    /**
+     * Finds the group of a request
+     *
+     * @param request The request
+     *
+     * @return The {@link EndpointGroup group} of the request
+     */
+    public static EndpointGroup of(HttpServletRequest request) {
+        return of(request.getMethod(), request.getRequestURI().substring(request.getContextPath().length()));
+    }
+
+    /**
+     * Finds the group of a request's method and path
+     *
+     * @param method The HTTP method
+     * @param path The path, without the context path
+     *
+     * @return The {@link EndpointGroup group} of the request
+     */
+    public static EndpointGroup of(String method, String path) {
+        boolean get = "GET".equals(method) || "HEAD".equals(method);
+
+        if (path.startsWith("/carts/purchase"))    // Also matches purchaseOne
+            return EndpointGroup.CHECKOUT;
+        if (path.startsWith("/carts"))
+            return EndpointGroup.CART;
+        if (path.equals("/users/login"))
+            return EndpointGroup.LOGIN;
+        if (path.startsWith("/discs") || path.startsWith("/lessons"))
+            return get ? EndpointGroup.BROWSE : EndpointGroup.ADMIN;
+        if (path.startsWith("/recording"))
+            return EndpointGroup.ADMIN;
+        return EndpointGroup.OTHER;
+    }
+}
@@ -0,0 +1,53 @@
+package com.discgolf.api.discgolfapi.filter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * Helpers shared by the servlet filters
+ *
+ * @author ZVH
+ */
+public final class Filters {
+    private Filters() {}
+
+    /**
+     * Runs a task once a request completes
+     * <br>
+     * Call it after passing the request down the chain. A request that started
+     * asynchronous processing is still in flight, so the task runs once its
+     * response is sent, even if processing is restarted. Otherwise it runs now
+     *
+     * @param request The request
+     * @param task The task, run once
+     */
+    public static void onComplete(HttpServletRequest request, Runnable task) {
+        if (!request.isAsyncStarted()) {
+            task.run();
+            return;
+        }
+
+        request.getAsyncContext().addListener(new AsyncListener() {
+            @Override
+            public void onComplete(AsyncEvent event) {
+                task.run();
+            }
+
+            @Override
+            public void onTimeout(AsyncEvent event) {
+                // Completes afterwards, run then
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+                // Completes afterwards, run then
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+                event.getAsyncContext().addListener(this); // Still in flight if restarted
+            }
+        });
+    }
+}
@@ -0,0 +1,227 @@
+package com.discgolf.api.discgolfapi.filter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.discgolf.api.discgolfapi.auth.Session;
+import com.discgolf.api.discgolfapi.auth.SessionFilter;
+import com.discgolf.api.discgolfapi.metrics.MetricsRegistry;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Limits the rate of requests of each client to each {@linkplain EndpointGroup endpoint group}
+ * <p>
+ * Clients are the logged in user when the request has a {@linkplain Session session},
+ * otherwise the remote address. Each client has a token bucket per group, refilled
+ * at the group's rate up to its burst. A request finding the bucket empty gets
+ * TOO_MANY_REQUESTS with a Retry-After header, in seconds
+ * <p>
+ * A bucket is a single theoretical arrival time, the time it will be full again,
+ * updated by compare and set, so requests never lock. Buckets that have refilled
+ * are evicted periodically, since a new bucket behaves the same
+ * <p>
+ * Limits are configured as {@code ratelimit.<group>.rate} requests per second and
+ * {@code ratelimit.<group>.burst} requests, a rate of 0 leaves the group unlimited
+ * <p>
+ * {@literal @}Component Spring annotation registers the filter for every request,
+ * after the {@link SessionFilter session filter}
+ *
+ * @author ZVH
+ */
+@Component
+@Order(RateLimitFilter.ORDER)
+public class RateLimitFilter extends OncePerRequestFilter {
+    /** Filter order, after the {@link SessionFilter session filter} */
+    public static final int ORDER = SessionFilter.ORDER + 10;
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final Map<EndpointGroup,Limit> limits;  // Limit of each group, missing if unlimited
+    private final Map<EndpointGroup,Map<String,AtomicLong>> buckets = new EnumMap<>(EndpointGroup.class);
+    private final Map<EndpointGroup,LongAdder> rejected = new EnumMap<>(EndpointGroup.class);
+    private final LongSupplier clock;   // Current time in nanoseconds
+
+    /**
+     * The rate and burst of a group
+     */
+    public static class Limit {
+        final long interval;    // Nanoseconds to refill one token
+        final long capacity;    // Nanoseconds to refill the whole bucket
+
+        /**
+         * Creates a Limit
+         *
+         * @param rate Requests per second
+         * @param burst Requests allowed at once after being idle
+         */
+        public Limit(double rate, int burst) {
+            this.interval = (long) (SECOND / rate);
+            this.capacity = interval * Math.max(1, burst);
+        }
+    }
+
+    /**
+     * Creates a Rate Limit Filter
+     *
+     * @param environment The configuration holding each group's rate and burst
+     * @param registry The {@link MetricsRegistry registry} rejections are reported to
+     * <br>
+     * These dependencies are injected by the Spring Framework
+     */
+    @Autowired
+    public RateLimitFilter(Environment environment, MetricsRegistry registry) {
+        this(limits(environment), System::nanoTime);
+        for (EndpointGroup group : EndpointGroup.values()) {
+            registry.counter("ratelimit_rejected_total", "Requests rejected by rate limiting",
+                             rejected.get(group)::sum, "group", group.key());
+            registry.gauge("ratelimit_buckets", "Clients with a partly used token bucket",
+                           () -> size(group), "group", group.key());
+        }
+    }
+
+    /**
+     * Creates a Rate Limit Filter with the given limits and clock
+     *
+     * @param limits The {@link Limit limit} of each group, groups without one are unlimited
+     * @param clock Gives the current time in nanoseconds
+     */
+    RateLimitFilter(Map<EndpointGroup,Limit> limits, LongSupplier clock) {
+        this.limits = limits;
+        this.clock = clock;
+        for (EndpointGroup group : EndpointGroup.values()) {
+            buckets.put(group, new ConcurrentHashMap<>());
+            rejected.put(group, new LongAdder());
+        }
+    }
+
+    /**
+     * Reads the limits of each group from the configuration
+     *
+     * @param environment The configuration
+     *
+     * @return The {@link Limit limit} of each limited group
+     */
+    private static Map<EndpointGroup,Limit> limits(Environment environment) {
+        Map<EndpointGroup,Limit> limits = new EnumMap<>(EndpointGroup.class);
+        for (EndpointGroup group : EndpointGroup.values()) {
+            double rate = environment.getProperty("ratelimit." + group.key() + ".rate", Double.class, 0.0);
+            int burst = environment.getProperty("ratelimit." + group.key() + ".burst", Integer.class, 1);
+            if (rate > 0)
+                limits.put(group, new Limit(rate, burst));
+        }
+        return limits;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        EndpointGroup group = EndpointGroup.of(request);
+        Limit limit = limits.get(group);
+        if (limit != null) {
+            long wait = acquire(buckets.get(group), client(request), limit);
+            if (wait > 0) {
+                rejected.get(group).increment();
+                response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+                response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString((wait + SECOND - 1) / SECOND));
+                return;
+            }
+        }
+        chain.doFilter(request, response);
+    }
+
+    /**
+     * Takes a token from a client's bucket
+     *
+     * @param groupBuckets The buckets of the request's group
+     * @param client The client
+     * @param limit The group's {@link Limit limit}
+     *
+     * @return 0 if a token was taken, otherwise the nanoseconds until one is available
+     */
+    private long acquire(Map<String,AtomicLong> groupBuckets, String client, Limit limit) {
+        long now = clock.getAsLong();
+        AtomicLong bucket = groupBuckets.get(client);
+        if (bucket == null)
+            bucket = groupBuckets.computeIfAbsent(client, key -> new AtomicLong(now));
+
+        while (true) {
+            long full = bucket.get();   // When the bucket is full again
+            long next = Math.max(full, now) + limit.interval;
+            long wait = next - now - limit.capacity;
+            if (wait > 0)
+                return wait;
+            if (bucket.compareAndSet(full, next))
+                return 0;
+        }
+    }
+
+    /**
+     * Identifies the client of a request
+     *
+     * @param request The request
+     *
+     * @return The user of the request's session, or its remote address
+     */
+    private static String client(HttpServletRequest request) {
+        Object session = request.getAttribute(SessionFilter.SESSION);
+        if (session instanceof Session)
+            return "user:" + ((Session) session).getUser().getUsername();
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    /**
+     * Evicts the buckets that have refilled
+     * <br>
+     * A request racing the eviction may update a bucket that is then dropped,
+     * which at worst gives that client one extra token
+     */
+    @Scheduled(fixedDelayString = "#{${ratelimit.sweep.interval:60} * 1000}")
+    public void sweep() {
+        long now = clock.getAsLong();
+        for (Map<String,AtomicLong> groupBuckets : buckets.values())
+            groupBuckets.values().removeIf(bucket -> bucket.get() <= now);
+    }
+
+    /**
+     * Gets the number of requests rejected in a group since startup
+     *
+     * @param group The {@link EndpointGroup group}
+     *
+     * @return The number of rejected requests
+     */
+    public long getRejected(EndpointGroup group) {
+        return rejected.get(group).sum();
+    }
+
+    /**
+     * Gets the number of buckets held for a group
+     *
+     * @param group The {@link EndpointGroup group}
+     *
+     * @return The number of buckets
+     */
+    int size(EndpointGroup group) {
+        return buckets.get(group).size();
+    }
+}
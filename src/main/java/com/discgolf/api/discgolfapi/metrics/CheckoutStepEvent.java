@@ -0,0 +1,82 @@
+package com.discgolf.api.discgolfapi.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Flight Recorder event for one step of purchasing a cart: finding the
+ * cart, purchasing each disc, and clearing the purchased lines
+ * <p>
+ * Begins when created and is committed when closed, for use with try-with-resources.
+ * Costs next to nothing unless a recording enables it
+ *
+ * @author ZVH
+ */
+@Name("com.discgolf.CheckoutStep")
+@Label("Checkout Step")
+@Category({"Disc Golf", "Checkout"})
+@Description("A step of purchasing a cart")
+@StackTrace(false)
+public class CheckoutStepEvent extends Event implements AutoCloseable {
+    /** Finding the cart */
+    public static final String FIND_CART = "findCart";
+    /** Purchasing one disc, updating or deleting it in the inventory */
+    public static final String PURCHASE_DISC = "purchaseDisc";
+    /** Removing the purchased lines from the cart */
+    public static final String CLEAR_CART = "clearCart";
+
+    @Label("Username")
+    String username;
+    @Label("Step")
+    String step;
+    @Label("Disc Id")
+    @Description("Id of the disc purchased, -1 for steps on the whole cart")
+    int discId = -1;
+    @Label("Quantity")
+    @Description("Discs purchased, or lines cleared")
+    int quantity;
+
+    /**
+     * Begins a Checkout Step Event
+     *
+     * @param username The username of the cart's owner
+     * @param step The name of the step
+     */
+    public CheckoutStepEvent(String username, String step) {
+        this.username = username;
+        this.step = step;
+        begin();
+    }
+
+    /**
+     * Records the disc a step purchased
+     *
+     * @param discId The id of the disc
+     * @param quantity The number purchased
+     */
+    public void purchased(int discId, int quantity) {
+        this.discId = discId;
+        this.quantity = quantity;
+    }
+
+    /**
+     * Records the lines a step cleared from the cart
+     *
+     * @param lines The number of lines
+     */
+    public void cleared(int lines) {
+        this.quantity = lines;
+    }
+
+    /**
+     * Commits the event
+     */
+    @Override
+    public void close() {
+        commit();
+    }
+}
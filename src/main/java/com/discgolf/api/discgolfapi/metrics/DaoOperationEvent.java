@@ -0,0 +1,100 @@
+package com.discgolf.api.discgolfapi.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Flight Recorder event for one operation on a file-based store, from
+ * waiting for the store's lock until the operation returns
+ * <p>
+ * Begins when created and is committed when closed, for use with try-with-resources.
+ * Costs next to nothing unless a recording enables it
+ *
+ * @author ZVH
+ */
+@Name("com.discgolf.DaoOperation")
+@Label("DAO Operation")
+@Category({"Disc Golf", "Persistence"})
+@Description("An operation on a file-based store, including the wait for its lock")
+@StackTrace(false)
+public class DaoOperationEvent extends Event implements AutoCloseable {
+    @Label("Store")
+    String store;
+    @Label("Operation")
+    String operation;
+    @Label("Id")
+    @Description("Id of the record operated on, -1 if not found by id")
+    int id;
+    @Label("Username")
+    @Description("Username the record was found by, if any")
+    String username;
+    @Label("Records")
+    @Description("Records read or written")
+    int records;
+
+    /**
+     * Begins a DAO Operation Event
+     *
+     * @param store The name of the store
+     * @param operation The name of the operation
+     * @param id The id of the record operated on, -1 if not found by id
+     * @param username The username the record was found by, null if not
+     */
+    public DaoOperationEvent(String store, String operation, int id, String username) {
+        this.store = store;
+        this.operation = operation;
+        this.id = id;
+        this.username = username;
+        begin();
+    }
+
+    /**
+     * Records the record an operation read or wrote
+     *
+     * @param <T> The type of record
+     * @param record The record, null if there was none
+     *
+     * @return The record
+     */
+    public <T> T touched(T record) {
+        records = record == null ? 0 : 1;
+        return record;
+    }
+
+    /**
+     * Records the records an operation read or wrote
+     *
+     * @param <T> The type of record
+     * @param records The records
+     *
+     * @return The records
+     */
+    public <T> T[] touched(T[] records) {
+        this.records = records.length;
+        return records;
+    }
+
+    /**
+     * Records whether an operation wrote a record
+     *
+     * @param written true if a record was written
+     *
+     * @return written
+     */
+    public boolean touched(boolean written) {
+        records = written ? 1 : 0;
+        return written;
+    }
+
+    /**
+     * Commits the event
+     */
+    @Override
+    public void close() {
+        commit();
+    }
+}
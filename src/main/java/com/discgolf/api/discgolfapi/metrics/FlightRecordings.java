@@ -0,0 +1,148 @@
+package com.discgolf.api.discgolfapi.metrics;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+/**
+ * Runs a Flight Recorder recording on the server, one at a time
+ * <p>
+ * A recording keeps the last {@code recordings.max.age} seconds and at most
+ * {@code recordings.max.size} bytes, and always includes the
+ * {@linkplain DaoOperationEvent DAO operation} and
+ * {@linkplain CheckoutStepEvent checkout step} events
+ * <p>
+ * Events are handed out as a temporary file, so a large recording is streamed
+ * to the client rather than read into memory, and the lock is only held while
+ * the file is written
+ * <p>
+ * {@literal @}Component Spring annotation instantiates a single instance of this
+ * class and injects the instance into other classes as needed
+ *
+ * @author ZVH
+ */
+@Component
+public class FlightRecordings {
+    private final Duration maxAge;
+    private final long maxSize;
+    private Recording recording;    // The running recording, null if none, guarded by this
+
+    /**
+     * Creates the Flight Recordings
+     *
+     * @param maxAge Seconds of events a recording keeps
+     * @param maxSize Bytes of events a recording keeps
+     */
+    public FlightRecordings(@Value("${recordings.max.age:3600}") long maxAge,
+                            @Value("${recordings.max.size:104857600}") long maxSize) {
+        this.maxAge = Duration.ofSeconds(maxAge);
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Starts a recording, unless one is running
+     *
+     * @param settings The name of the JDK's settings to record with, such as default or profile
+     *
+     * @return true if started, false if one is already running
+     *
+     * @throws IOException when the settings cannot be found or read
+     * @throws ParseException when the settings cannot be parsed
+     */
+    public synchronized boolean start(String settings) throws IOException, ParseException {
+        if (recording != null)
+            return false;
+
+        Recording started = new Recording(Configuration.getConfiguration(settings));
+        started.setName("discgolf-" + settings);
+        started.setMaxAge(maxAge);
+        started.setMaxSize(maxSize);
+        started.setToDisk(true);
+        started.enable(DaoOperationEvent.class);
+        started.enable(CheckoutStepEvent.class);
+        started.start();
+        recording = started;
+        return true;
+    }
+
+    /**
+     * Checks whether a recording is running
+     *
+     * @return true if one is
+     */
+    public synchronized boolean isRecording() {
+        return recording != null;
+    }
+
+    /**
+     * Dumps the events recorded so far, leaving the recording running
+     *
+     * @return A temporary JFR file of the events, which the caller deletes, null if no recording is running
+     *
+     * @throws IOException when the events cannot be written
+     */
+    public synchronized Path dump() throws IOException {
+        return recording == null ? null : write(recording);
+    }
+
+    /**
+     * Stops the recording
+     *
+     * @return A temporary JFR file of the events recorded, which the caller deletes, null if no recording was running
+     *
+     * @throws IOException when the events cannot be written
+     */
+    public synchronized Path stop() throws IOException {
+        if (recording == null)
+            return null;
+
+        try {
+            recording.stop();
+            return write(recording);
+        } finally {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    /**
+     * Discards the recording, if one is running
+     */
+    @PreDestroy
+    public synchronized void close() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    /**
+     * Writes the events of a recording to a temporary file
+     *
+     * @param recording The recording
+     *
+     * @return The file, in the JFR file format
+     *
+     * @throws IOException when the events cannot be written
+     */
+    private static Path write(Recording recording) throws IOException {
+        Path file = Files.createTempFile("discgolf-", ".jfr");
+        try {
+            recording.dump(file);
+            return file;
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.discgolf.api.discgolfapi.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free log-linear histogram of non-negative long values, such as
+ * latencies in nanoseconds or sizes in bytes
+ * <p>
+ * Like an HDR histogram, each power of two is split into {@value #SUB_BUCKETS}
+ * linear buckets, so a percentile is accurate to about 3% of its value
+ * whatever its magnitude. Values from 2^{@value #MAX_EXPONENT} up are counted in
+ * the last bucket. Recording is a few atomic increments, without locks or allocation
+ *
+ * @author ZVH
+ */
+public class Histogram {
+    private static final int SUB_BITS = 5;
+    static final int SUB_BUCKETS = 1 << SUB_BITS;
+    static final int MAX_EXPONENT = 44;
+    private static final int BUCKETS = SUB_BUCKETS * (MAX_EXPONENT - SUB_BITS + 1);
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records a value
+     *
+     * @param value The value, negative values are recorded as 0
+     */
+    public void record(long value) {
+        long clamped = Math.max(0, value);
+        counts.incrementAndGet(index(clamped));
+        count.increment();
+        sum.add(clamped);
+        if (clamped > max.get())
+            max.accumulateAndGet(clamped, Math::max);
+    }
+
+    /**
+     * Gets the number of values recorded
+     *
+     * @return The count
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Gets the sum of the values recorded
+     *
+     * @return The sum
+     */
+    public long getSum() {
+        return sum.sum();
+    }
+
+    /**
+     * Gets the largest value recorded
+     *
+     * @return The maximum, 0 if none were recorded
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Gets a percentile of the values recorded
+     * <br>
+     * Concurrent recording may or may not be included
+     *
+     * @param quantile The quantile, from 0 to 1
+     *
+     * @return The highest value in the bucket holding the percentile, at most
+     * the maximum recorded, 0 if none were recorded
+     */
+    public long getPercentile(double quantile) {
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; ++i) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0)
+            return 0;
+
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; ++i) {
+            seen += snapshot[i];
+            if (seen >= rank)
+                return Math.min(highest(i), getMax());
+        }
+        return getMax();
+    }
+
+    /**
+     * Finds the bucket of a value
+     *
+     * @param value The non-negative value
+     *
+     * @return The index of its bucket
+     */
+    static int index(long value) {
+        if (value < SUB_BUCKETS)
+            return (int) value;
+
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent >= MAX_EXPONENT)
+            return BUCKETS - 1;
+
+        int shift = exponent - SUB_BITS;
+        return SUB_BUCKETS * (shift + 1) + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    /**
+     * Finds the highest value of a bucket
+     *
+     * @param index The index of the bucket
+     *
+     * @return The highest value counted in it
+     */
+    static long highest(int index) {
+        if (index < SUB_BUCKETS)
+            return index;
+
+        int shift = index / SUB_BUCKETS - 1;
+        long sub = index % SUB_BUCKETS;
+        return ((SUB_BUCKETS + sub + 1) << shift) - 1;
+    }
+}
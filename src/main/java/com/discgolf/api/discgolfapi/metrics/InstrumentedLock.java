@@ -0,0 +1,79 @@
+package com.discgolf.api.discgolfapi.metrics;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A reentrant lock that records how long threads wait for it and how long they hold it
+ * <p>
+ * Used with try-with-resources in place of a {@code synchronized} block:
+ * <pre>
+ * try (InstrumentedLock.Held held = lock.acquire()) {
+ *     ...
+ * }
+ * </pre>
+ * Only the outermost acquisition of a reentrant hold is recorded
+ *
+ * @author ZVH
+ */
+public class InstrumentedLock {
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Histogram wait;   // Nanoseconds waited to acquire
+    private final Histogram hold;   // Nanoseconds held
+    private final Held held = new Held();
+    private long acquired;          // When the current holder acquired the lock, guarded by the lock
+
+    /**
+     * A hold of the lock, released by closing it
+     */
+    public final class Held implements AutoCloseable {
+        private Held() {}
+
+        /**
+         * Releases the lock
+         */
+        @Override
+        public void close() {
+            if (lock.getHoldCount() == 1)
+                hold.record(System.nanoTime() - acquired);
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Creates an Instrumented Lock
+     *
+     * @param wait The {@link Histogram histogram} of nanoseconds waited to acquire the lock
+     * @param hold The {@link Histogram histogram} of nanoseconds the lock was held
+     */
+    public InstrumentedLock(Histogram wait, Histogram hold) {
+        this.wait = wait;
+        this.hold = hold;
+    }
+
+    /**
+     * Acquires the lock, waiting if another thread holds it
+     *
+     * @return The {@link Held hold}, to be closed to release the lock
+     */
+    public Held acquire() {
+        if (lock.isHeldByCurrentThread()) { // Reentrant, not waited for
+            lock.lock();
+            return held;
+        }
+
+        long start = System.nanoTime();
+        lock.lock();
+        acquired = System.nanoTime();
+        wait.record(acquired - start);
+        return held;
+    }
+
+    /**
+     * Checks whether the calling thread holds the lock
+     *
+     * @return true if it does
+     */
+    public boolean isHeldByCurrentThread() {
+        return lock.isHeldByCurrentThread();
+    }
+}
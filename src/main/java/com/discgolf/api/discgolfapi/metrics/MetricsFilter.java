@@ -0,0 +1,215 @@
+package com.discgolf.api.discgolfapi.metrics;
+
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+import com.discgolf.api.discgolfapi.auth.SessionFilter;
+import com.discgolf.api.discgolfapi.filter.EndpointGroup;
+import com.discgolf.api.discgolfapi.filter.Filters;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Records the latency, status and response size of every request, by endpoint
+ * <p>
+ * The endpoint is the method and the mapped path pattern, such as
+ * {@code GET /discs/{id}}, so the metrics don't grow with every id. Requests
+ * rejected before reaching a controller are recorded under their
+ * {@linkplain EndpointGroup endpoint group}, such as {@code GET (browse)}. Methods
+ * other than the standard ones are recorded as {@code OTHER}, so a client can't
+ * add endpoints by sending made up methods
+ * <p>
+ * {@literal @}Component Spring annotation registers the filter for every request,
+ * before the other filters so their rejections are recorded too
+ *
+ * @author ZVH
+ */
+@Component
+@Order(MetricsFilter.ORDER)
+public class MetricsFilter extends OncePerRequestFilter {
+    /** Filter order, before the {@link SessionFilter session filter} */
+    public static final int ORDER = SessionFilter.ORDER - 10;
+    private static final double NANOS = 1e-9;
+    private static final Set<String> METHODS = Set.of("GET", "HEAD", "POST", "PUT", "PATCH", "DELETE", "OPTIONS", "TRACE");
+
+    private final MetricsRegistry registry;
+    private final LongSupplier clock;   // Current time in nanoseconds
+    private final Map<String,Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    /**
+     * The metrics of one endpoint
+     */
+    private static class Endpoint {
+        final Histogram latency;
+        final Histogram size;
+        final LongAdder[] responses = new LongAdder[6];  // By status class, 1xx to 5xx
+
+        Endpoint(MetricsRegistry registry, String endpoint) {
+            latency = registry.histogram("http_server_request_seconds", "Request latency", NANOS, "endpoint", endpoint);
+            size = registry.histogram("http_server_response_size_bytes", "Response body size", 1, "endpoint", endpoint);
+            for (int i = 1; i < responses.length; ++i)
+                responses[i] = registry.counter("http_server_responses_total", "Responses by status class",
+                                                "endpoint", endpoint, "status", i + "xx");
+        }
+
+        void record(long latency, int status, long bytes) {
+            this.latency.record(latency);
+            size.record(bytes);
+            responses[Math.min(5, Math.max(1, status / 100))].increment();
+        }
+    }
+
+    /**
+     * Creates a Metrics Filter
+     *
+     * @param registry The {@link MetricsRegistry registry} to record into
+     * <br>
+     * This dependency is injected by the Spring Framework
+     */
+    @Autowired
+    public MetricsFilter(MetricsRegistry registry) {
+        this(registry, System::nanoTime);
+    }
+
+    /**
+     * Creates a Metrics Filter with the given clock
+     *
+     * @param registry The {@link MetricsRegistry registry} to record into
+     * @param clock Gives the current time in nanoseconds
+     */
+    MetricsFilter(MetricsRegistry registry, LongSupplier clock) {
+        this.registry = registry;
+        this.clock = clock;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long start = clock.getAsLong();
+        CountingResponse counting = new CountingResponse(response);
+        try {
+            chain.doFilter(request, counting);
+        } finally { // Record once the response is sent
+            Filters.onComplete(request, () -> record(request, counting, start));
+        }
+    }
+
+    /**
+     * Records a completed request
+     *
+     * @param request The request
+     * @param response The response, counting the bytes written
+     * @param start When the request started, in nanoseconds
+     */
+    private void record(HttpServletRequest request, CountingResponse response, long start) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String method = METHODS.contains(request.getMethod()) ? request.getMethod() : "OTHER";
+        String endpoint = method + " "
+                          + (pattern != null ? pattern : "(" + EndpointGroup.of(request).key() + ")");
+        Endpoint metrics = endpoints.get(endpoint);
+        if (metrics == null)
+            metrics = endpoints.computeIfAbsent(endpoint, key -> new Endpoint(registry, key));
+        metrics.record(clock.getAsLong() - start, response.getStatus(), response.bytes.sum());
+    }
+
+    /**
+     * Counts the bytes written to a response's body
+     */
+    private static class CountingResponse extends HttpServletResponseWrapper {
+        final LongAdder bytes = new LongAdder();
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+
+        CountingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                ServletOutputStream delegate = super.getOutputStream();
+                outputStream = new ServletOutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        delegate.write(b);
+                        bytes.increment();
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        delegate.write(b, off, len);
+                        bytes.add(len);
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        delegate.flush();
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        delegate.close();
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return delegate.isReady();
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener listener) {
+                        delegate.setWriteListener(listener);
+                    }
+                };
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) { // Counts characters, the same as bytes for JSON
+                writer = new PrintWriter(new FilterWriter(super.getWriter()) {
+                    @Override
+                    public void write(int c) throws IOException {
+                        out.write(c);
+                        bytes.increment();
+                    }
+
+                    @Override
+                    public void write(char[] cbuf, int off, int len) throws IOException {
+                        out.write(cbuf, off, len);
+                        bytes.add(len);
+                    }
+
+                    @Override
+                    public void write(String str, int off, int len) throws IOException {
+                        out.write(str, off, len);
+                        bytes.add(len);
+                    }
+                });
+            }
+            return writer;
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.discgolf.api.discgolfapi.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Holds the application's metrics and writes them in the Prometheus text format
+ * <p>
+ * Metrics are named families, each holding one metric per set of labels, given
+ * as alternating label names and values. Asking for a metric that already
+ * exists returns it, so callers should keep what they get rather than asking
+ * on every request
+ * <p>
+ * {@literal @}Component Spring annotation instantiates a single instance of this
+ * class and injects the instance into other classes as needed
+ *
+ * @author ZVH
+ */
+@Component
+public class MetricsRegistry {
+    private static final double[] QUANTILES = {0.5, 0.99, 0.999};
+
+    private final Map<String,Family> families = new ConcurrentSkipListMap<>();
+
+    /**
+     * A named family of metrics of one type
+     */
+    private static class Family {
+        final String help;
+        final String type;
+        final double scale;     // Multiplies histogram values, converting their unit
+        final Map<String,Object> metrics = new ConcurrentSkipListMap<>(); // By label text
+
+        Family(String help, String type, double scale) {
+            this.help = help;
+            this.type = type;
+            this.scale = scale;
+        }
+    }
+
+    /**
+     * Gets or creates a counter
+     *
+     * @param name The metric name
+     * @param help What the metric counts
+     * @param labels Alternating label names and values
+     *
+     * @return The counter
+     */
+    public LongAdder counter(String name, String help, String... labels) {
+        return (LongAdder) family(name, help, "counter", 1).metrics.computeIfAbsent(labels(labels), key -> new LongAdder());
+    }
+
+    /**
+     * Registers a counter read from elsewhere, replacing any with the same labels
+     *
+     * @param name The metric name
+     * @param help What the metric counts
+     * @param value Reads the count
+     * @param labels Alternating label names and values
+     */
+    public void counter(String name, String help, LongSupplier value, String... labels) {
+        family(name, help, "counter", 1).metrics.put(labels(labels), value);
+    }
+
+    /**
+     * Registers a gauge, replacing any with the same labels
+     *
+     * @param name The metric name
+     * @param help What the metric measures
+     * @param value Reads the current value
+     * @param labels Alternating label names and values
+     */
+    public void gauge(String name, String help, LongSupplier value, String... labels) {
+        family(name, help, "gauge", 1).metrics.put(labels(labels), value);
+    }
+
+    /**
+     * Gets or creates a histogram, written as a summary of its percentiles
+     *
+     * @param name The metric name
+     * @param help What the metric measures
+     * @param scale Multiplies recorded values when written, such as 1e-9 to write nanoseconds as seconds
+     * @param labels Alternating label names and values
+     *
+     * @return The {@link Histogram histogram}
+     */
+    public Histogram histogram(String name, String help, double scale, String... labels) {
+        return (Histogram) family(name, help, "summary", scale).metrics.computeIfAbsent(labels(labels), key -> new Histogram());
+    }
+
+    /**
+     * Writes every metric in the Prometheus text format
+     *
+     * @return The metrics
+     */
+    public String scrape() {
+        StringBuilder out = new StringBuilder();
+        for (Map.Entry<String,Family> entry : families.entrySet()) {
+            String name = entry.getKey();
+            Family family = entry.getValue();
+            out.append("# HELP ").append(name).append(' ').append(family.help).append('\n');
+            out.append("# TYPE ").append(name).append(' ').append(family.type).append('\n');
+
+            for (Map.Entry<String,Object> metric : family.metrics.entrySet()) {
+                String labels = metric.getKey();
+                Object value = metric.getValue();
+                if (value instanceof Histogram) {
+                    Histogram histogram = (Histogram) value;
+                    for (double quantile : QUANTILES)
+                        sample(out, name, join(labels, "quantile=\"" + quantile + "\""), histogram.getPercentile(quantile) * family.scale);
+                    sample(out, name + "_sum", labels, histogram.getSum() * family.scale);
+                    sample(out, name + "_count", labels, histogram.getCount());
+                } else if (value instanceof LongAdder) {
+                    sample(out, name, labels, ((LongAdder) value).sum());
+                } else {
+                    sample(out, name, labels, ((LongSupplier) value).getAsLong());
+                }
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * Gets or creates a family
+     *
+     * @param name The metric name
+     * @param help What the metrics measure
+     * @param type The Prometheus type
+     * @param scale Multiplies histogram values when written
+     *
+     * @return The family
+     *
+     * @throws IllegalArgumentException if the family exists with another type
+     */
+    private Family family(String name, String help, String type, double scale) {
+        Family family = families.computeIfAbsent(name, key -> new Family(help, type, scale));
+        if (!family.type.equals(type))
+            throw new IllegalArgumentException(name + " is a " + family.type + ", not a " + type);
+        return family;
+    }
+
+    /**
+     * Writes one sample line
+     */
+    private static void sample(StringBuilder out, String name, String labels, double value) {
+        out.append(name);
+        if (!labels.isEmpty())
+            out.append('{').append(labels).append('}');
+        out.append(' ');
+        if (value == Math.rint(value) && Math.abs(value) < 1e15)
+            out.append((long) value);
+        else
+            out.append(value);
+        out.append('\n');
+    }
+
+    /**
+     * Joins two label texts
+     */
+    private static String join(String labels, String more) {
+        return labels.isEmpty() ? more : labels + "," + more;
+    }
+
+    /**
+     * Formats labels as Prometheus label text
+     *
+     * @param labels Alternating label names and values
+     *
+     * @return The label text, empty if there are none
+     */
+    private static String labels(String... labels) {
+        if (labels.length % 2 != 0)
+            throw new IllegalArgumentException("Labels must be name and value pairs");
+
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < labels.length; i += 2) {
+            if (i > 0)
+                text.append(',');
+            text.append(labels[i]).append("=\"");
+            String value = labels[i + 1];
+            for (int c = 0; c < value.length(); ++c) {
+                char ch = value.charAt(c);
+                if (ch == '\\' || ch == '"')
+                    text.append('\\').append(ch);
+                else if (ch == '\n')
+                    text.append("\\n");
+                else
+                    text.append(ch);
+            }
+            text.append('"');
+        }
+        return text.toString();
+    }
+}
@@ -1,22 +1,132 @@
 package com.discgolf.api.discgolfapi.model;
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
 
 /**
  * Represents a Cart entity
+ * <p>
+ * The contents are stored as {@link Lines lines}, parallel primitive arrays of
+ * disc ids (sorted) and quantities, so a Cart holds no boxed keys or map entries
+ * <p>
+ * The total quantity is kept up to date as lines change, and the cost is cached
+ * until a line changes or {@link #invalidateCost()} is called for a price change
+ * <p>
+ * Mutators synchronize on the Cart and replace its lines rather than modifying
+ * them, so a Cart can be read (e.g. serialized) while another thread updates it.
+ * Accessors, callbacks and serialization read the lines as they were when
+ * called, without copying them or locking the Cart, so a thread blocked in a
+ * callback (e.g. on a DAO or the disk) never holds the Cart
+ * <p>
+ * The last-touched time is kept by the DAO, which uses it to find abandoned
+ * and cold carts
  * @author ZVH
  */
 public class Cart {
-    private Map<Integer, Integer> contents;
+    private volatile Lines lines = Lines.EMPTY; // Replaced on every line change
+    private float cost;                 // Cached cost of all lines
+    private boolean costValid;          // Whether the cached cost is current
+    private int changes;                // Count of line and price changes, to discard a cost computed across one
+    private volatile long lastTouched;  // Epoch milliseconds of the owner's last use, 0 if unknown
     private String username;
     private int id;
 
+    /**
+     * Receives each line of a Cart's contents
+     * @param <E> The exception the consumer may throw
+     */
+    @FunctionalInterface
+    public interface LineConsumer<E extends Exception> {
+        /**
+         * Accepts one line of the Cart
+         * @param disc_id ID of the Disc
+         * @param quantity The quantity of the Disc in the Cart
+         * @throws E if the consumer fails
+         */
+        void accept(int disc_id, int quantity) throws E;
+    }
+
+    /**
+     * Looks up the price of a Disc for the Cart's cost
+     * @param <E> The exception the lookup may throw
+     */
+    @FunctionalInterface
+    public interface PriceLookup<E extends Exception> {
+        /**
+         * Gets the price of a Disc
+         * @param disc_id ID of the Disc
+         * @return The price of one Disc, 0 if it is no longer sold
+         * @throws E if the lookup fails
+         */
+        double priceOf(int disc_id) throws E;
+    }
+
+    /**
+     * The lines of a Cart at one moment
+     * <br>
+     * Lines never change once made, a change to the Cart replaces them
+     */
+    public static final class Lines {
+        private static final Lines EMPTY = new Lines(new int[0], new int[0], 0);
+
+        private final int[] discIds;        // Sorted disc ids of each line
+        private final int[] quantities;     // Quantity of each line, parallel to discIds
+        private final int totalQuantity;    // Sum of all line quantities
+
+        private Lines(int[] discIds, int[] quantities, int totalQuantity) {
+            this.discIds = discIds;
+            this.quantities = quantities;
+            this.totalQuantity = totalQuantity;
+        }
+
+        /**
+         * Get the number of lines
+         * @return The number of distinct Discs
+         */
+        public int size() { return discIds.length; }
+
+        /**
+         * Get the Disc of a line
+         * @param line Index of the line, in ascending disc id order
+         * @return ID of the Disc
+         */
+        public int getDiscId(int line) { return discIds[line]; }
+
+        /**
+         * Get the quantity of a line
+         * @param line Index of the line, in ascending disc id order
+         * @return The quantity of the Disc
+         */
+        public int getQuantity(int line) { return quantities[line]; }
+
+        /**
+         * Get the total quantity of the lines
+         * @return The sum of all line quantities
+         */
+        public int getTotalQuantity() { return totalQuantity; }
+
+        /**
+         * Finds the line holding a Disc
+         * @param disc_id ID of the Disc
+         * @return The index of the line, or (-(insertion point) - 1) if not in the Cart
+         */
+        private int indexOf(int disc_id) {
+            return Arrays.binarySearch(discIds, disc_id);
+        }
+    }
+
     /**
     * Create a Cart with the given contents
      * @param contents The contents of the cart: {int disc_id : int quantity} pairs
-     * 
+     *
      * {@literal @}JsonProperty is used in serialization and deserialization
      * of the JSON object to the Java object in mapping the fields.  If a field
      * is not provided in the JSON object, the Java field gets the default Java
@@ -30,7 +140,7 @@ public class Cart {
 
     /**
     * Create an empty Cart
-     * 
+     *
      * {@literal @}JsonProperty is used in serialization and deserialization
      * of the JSON object to the Java object in mapping the fields.  If a field
      * is not provided in the JSON object, the Java field gets the default Java
@@ -52,33 +162,144 @@ public class Cart {
      */
     public String getUsername() { return username; }
 
+    /**
+     * Get the time the Cart's owner last used it
+     * @return Epoch milliseconds, 0 if unknown
+     */
+    @JsonProperty("lastTouched")
+    public long getLastTouched() { return lastTouched; }
+
+    /**
+     * Sets the time the Cart's owner last used it
+     * @param lastTouched Epoch milliseconds
+     */
+    @JsonProperty("lastTouched")
+    public void setLastTouched(long lastTouched) { this.lastTouched = lastTouched; }
+
     /**
      * Get the contents of the Cart
+     * <br>
+     * Allocates a new map, prefer {@link #forEachLine} or {@link #getQuantity(int)}
      * @return A deep-copy of contents {int disc_id : int quantity}
      */
+    @JsonIgnore
     public HashMap<Integer, Integer> getContents() {
+        Lines current = lines;
         HashMap<Integer, Integer> copy = new HashMap<>();
-        for (Integer key : contents.keySet())
-            copy.put(key, contents.get(key));
+        for (int i = 0; i < current.size(); i++)
+            copy.put(current.discIds[i], current.quantities[i]);
 
         return copy;
     }
 
+    /**
+     * Exposes the Cart to Jackson for writing the contents property without
+     * copying it into a map
+     * @return This Cart
+     */
+    @JsonProperty("contents")
+    @JsonSerialize(using = ContentsSerializer.class)
+    private Cart contentsView() { return this; }
+
+    /**
+     * Passes each line of the Cart, in ascending disc id order, to the consumer
+     * <br>
+     * The consumer is given the lines as they were when called, and runs
+     * without the Cart locked
+     * @param <E> The exception the consumer may throw
+     * @param consumer Receives each {disc_id, quantity} line
+     * @throws E if the consumer fails
+     */
+    public <E extends Exception> void forEachLine(LineConsumer<E> consumer) throws E {
+        Lines current = lines;
+        for (int i = 0; i < current.size(); i++)
+            consumer.accept(current.discIds[i], current.quantities[i]);
+    }
+
+    /**
+     * Get the lines of the Cart, for reading several parts of them together
+     * @return The {@link Lines lines} as they are now, unchanged by later updates
+     */
+    @JsonIgnore
+    public Lines getLines() { return lines; }
+
+    /**
+     * Get the ids of the Discs in the Cart
+     * @return A copy of the disc ids, in ascending order
+     */
+    @JsonIgnore
+    public int[] getDiscIds() { return lines.discIds.clone(); }
+
     /**
      * Get the quantity of a Disc in the Cart
      * @param disc Disc in the Cart
      * @return The quantity of the Disc
      */
     public int getQuantity(Disc disc) {
-        int disc_id = disc.getId();
-        int quantity = 0;
+        return getQuantity(disc.getId());
+    }
+
+    /**
+     * Get the quantity of a Disc in the Cart
+     * @param disc_id ID of the Disc in the Cart
+     * @return The quantity of the Disc, 0 if not in the Cart
+     */
+    public int getQuantity(int disc_id) {
+        Lines current = lines;
+        int index = current.indexOf(disc_id);
+        return index >= 0 ? current.quantities[index] : 0;
+    }
 
-        if (contents.containsKey(disc_id)) // Update or add disc
-            quantity += contents.get(disc_id);
+    /**
+     * Get the number of distinct Discs in the Cart
+     * @return The number of lines
+     */
+    @JsonIgnore
+    public int getLineCount() { return lines.size(); }
 
-        return quantity;
+    /**
+     * Get the total quantity of Discs in the Cart
+     * @return The sum of all line quantities
+     */
+    @JsonIgnore
+    public int getTotalQuantity() { return lines.totalQuantity; }
+
+    /**
+     * Get the total cost of the Cart, computing it only if a line or price changed
+     * since it was last computed
+     * @param <E> The exception the lookup may throw
+     * @param prices Looks up the price of each Disc when the cost must be computed
+     * @return The sum of price * quantity over all lines
+     * @throws E if the lookup fails
+     */
+    public <E extends Exception> float getCost(PriceLookup<E> prices) throws E {
+        Lines current;
+        int seen;
+        synchronized (this) {
+            if (costValid)
+                return cost;
+            current = lines;
+            seen = changes;
+        }
+
+        // Look up the prices without the Cart locked, the lookup may block
+        float total = 0.0f;
+        for (int i = 0; i < current.size(); i++)
+            total += prices.priceOf(current.discIds[i]) * current.quantities[i];
+
+        synchronized (this) {
+            if (changes == seen) { // Nothing changed while pricing
+                cost = total;
+                costValid = true;
+            }
+        } return total;
     }
 
+    /**
+     * Discards the cached cost, e.g. when the price of a Disc in the Cart changed
+     */
+    public synchronized void invalidateCost() { changed(); }
+
     /**
      * Sets the Cart owner's username
      * @param username The username of the Cart owner
@@ -89,14 +310,25 @@ public class Cart {
      * Sets the contents of the Cart
      * @param contents The contents to set in the Cart
      */
-    public void setContents(Map<Integer, Integer> contents) {
-        HashMap<Integer, Integer> newContents = new HashMap<>();
+    public synchronized void setContents(Map<Integer, Integer> contents) {
+        if (contents == null)
+            return;
 
-        try {
-            for (Integer key : contents.keySet())
-                newContents.put(key, contents.get(key));
-            this.contents = newContents;
-        } catch (Exception e) { /** Squash */ }
+        int[] newIds = new int[contents.size()];
+        int n = 0;
+        for (Integer key : contents.keySet())
+            newIds[n++] = key;
+        Arrays.sort(newIds);
+
+        int[] newQuantities = new int[n];
+        int total = 0;
+        for (int i = 0; i < n; i++) {
+            newQuantities[i] = contents.get(newIds[i]);
+            total += newQuantities[i];
+        }
+
+        lines = new Lines(newIds, newQuantities, total);
+        changed();
     }
 
     /**
@@ -105,15 +337,17 @@ public class Cart {
      * @param quantity The number of Discs to add
      * @return Pass/Fail
      */
-    public boolean addDisc(int disc_id, int quantity) {
+    public synchronized boolean addDisc(int disc_id, int quantity) {
         boolean result = false;
 
-        if (quantity > 0) // Validate quantity
-            if (contents.containsKey(disc_id)) // Update or add disc
-                contents.replace(disc_id, contents.get(disc_id) + quantity);
+        if (quantity > 0) { // Validate quantity
+            int index = lines.indexOf(disc_id);
+            if (index >= 0) // Update or add disc
+                set(index, lines.quantities[index] + quantity);
             else
-                contents.put(disc_id, quantity);
-            result = true;
+                insert(-(index + 1), disc_id, quantity);
+        }
+        result = true;
         return result;
     }
 
@@ -131,11 +365,12 @@ public class Cart {
      * @param disc_id ID of the Disc removed from the Cart
      * @return Pass/Fail
      */
-    public boolean removeDisc(int disc_id) {
+    public synchronized boolean removeDisc(int disc_id) {
         boolean result = false;
+        int index = lines.indexOf(disc_id);
 
-        if (contents.containsKey(disc_id)) {
-            contents.remove(disc_id);
+        if (index >= 0) {
+            removeAt(index);
             result = true;
         } return result;
     }
@@ -147,15 +382,16 @@ public class Cart {
      * @param mode {0:set, 1:add, 2:subtract} the quantity
      * @return Pass/Fail
      */
-    public boolean updateDiscQuantity(int disc_id, int quantity, int mode) {
+    public synchronized boolean updateDiscQuantity(int disc_id, int quantity, int mode) {
         boolean result = false;
+        int index = lines.indexOf(disc_id);
 
-        if (contents.containsKey(disc_id) && (mode >= 0) && (mode <= 2)) { // Disc exists and Valid mode
-            quantity = (mode == 0 ? quantity : contents.get(disc_id) + (mode == 1 ? quantity : -quantity));
+        if (index >= 0 && (mode >= 0) && (mode <= 2)) { // Disc exists and Valid mode
+            quantity = (mode == 0 ? quantity : lines.quantities[index] + (mode == 1 ? quantity : -quantity));
             if (quantity > 0) // Remove disc if quantity is invalid
-                contents.replace(disc_id, quantity);
+                set(index, quantity);
             else
-                removeDisc(disc_id);
+                removeAt(index);
             result = true;
         } return result;
     }
@@ -169,4 +405,85 @@ public class Cart {
     public boolean updateDiscQuantity(int disc_id, int quantity) {
         return this.updateDiscQuantity(disc_id, quantity, 0);
     }
+
+    /**
+     * Discards the cached cost after a line or price changed
+     */
+    private void changed() {
+        costValid = false;
+        changes++;
+    }
+
+    /**
+     * Replaces the quantity of a line, keeping the disc ids
+     * @param index Position of the line
+     * @param quantity The new quantity of the Disc
+     */
+    private void set(int index, int quantity) {
+        Lines current = lines;
+        int[] newQuantities = current.quantities.clone();
+        newQuantities[index] = quantity;
+        lines = new Lines(current.discIds, newQuantities, current.totalQuantity + quantity - current.quantities[index]);
+        changed();
+    }
+
+    /**
+     * Replaces the lines with ones holding a new line
+     * @param index Position of the new line
+     * @param disc_id ID of the Disc
+     * @param quantity The quantity of the Disc
+     */
+    private void insert(int index, int disc_id, int quantity) {
+        Lines current = lines;
+        int size = current.size();
+        int[] newIds = new int[size + 1];
+        int[] newQuantities = new int[size + 1];
+        System.arraycopy(current.discIds, 0, newIds, 0, index);
+        System.arraycopy(current.quantities, 0, newQuantities, 0, index);
+        System.arraycopy(current.discIds, index, newIds, index + 1, size - index);
+        System.arraycopy(current.quantities, index, newQuantities, index + 1, size - index);
+        newIds[index] = disc_id;
+        newQuantities[index] = quantity;
+        lines = new Lines(newIds, newQuantities, current.totalQuantity + quantity);
+        changed();
+    }
+
+    /**
+     * Replaces the lines with ones without a line
+     * @param index Position of the line
+     */
+    private void removeAt(int index) {
+        Lines current = lines;
+        int size = current.size();
+        int[] newIds = new int[size - 1];
+        int[] newQuantities = new int[size - 1];
+        System.arraycopy(current.discIds, 0, newIds, 0, index);
+        System.arraycopy(current.quantities, 0, newQuantities, 0, index);
+        System.arraycopy(current.discIds, index + 1, newIds, index, size - index - 1);
+        System.arraycopy(current.quantities, index + 1, newQuantities, index, size - index - 1);
+        lines = new Lines(newIds, newQuantities, current.totalQuantity - current.quantities[index]);
+        changed();
+    }
+
+    /**
+     * Writes the contents of a Cart as a JSON object of {"disc_id": quantity} pairs,
+     * the same shape as a serialized map
+     */
+    static class ContentsSerializer extends StdSerializer<Cart> {
+        ContentsSerializer() { super(Cart.class); }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void serialize(Cart cart, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            Lines lines = cart.lines; // Unchanged while the generator writes to the file
+            gen.writeStartObject();
+            for (int i = 0; i < lines.size(); i++) {
+                gen.writeFieldId(lines.discIds[i]);
+                gen.writeNumber(lines.quantities[i]);
+            }
+            gen.writeEndObject();
+        }
+    }
 }
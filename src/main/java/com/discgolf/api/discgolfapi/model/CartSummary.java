@@ -0,0 +1,60 @@
+package com.discgolf.api.discgolfapi.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Represents everything the shopping cart page shows for a Cart: its contents,
+ * item count, cost and purchase conflicts
+ * 
+ * @author ZVH
+ */
+public class CartSummary {
+    @JsonProperty("contents") private Disc[] contents;
+    @JsonProperty("count") private int count;
+    @JsonProperty("cost") private float cost;
+    @JsonProperty("conflicts") private Disc[] conflicts;
+
+    /**
+     * Create a summary of a Cart
+     * @param contents The Discs in the Cart, each with the Cart's quantity
+     * @param count The total quantity of Discs in the Cart
+     * @param cost The total cost of the Cart
+     * @param conflicts The Discs with less inventory than the Cart's quantity, each with the inventory's quantity
+     * 
+     * {@literal @}JsonProperty is used in serialization and deserialization
+     * of the JSON object to the Java object in mapping the fields.  If a field
+     * is not provided in the JSON object, the Java field gets the default Java
+     * value, i.e. 0 for int
+     */
+    public CartSummary(@JsonProperty("contents") Disc[] contents, @JsonProperty("count") int count,
+                       @JsonProperty("cost") float cost, @JsonProperty("conflicts") Disc[] conflicts) {
+        this.contents = contents;
+        this.count = count;
+        this.cost = cost;
+        this.conflicts = conflicts;
+    }
+
+    /**
+     * Retrieves the Discs in the Cart
+     * @return The Discs, each with the Cart's quantity
+     */
+    public Disc[] getContents() { return contents; }
+
+    /**
+     * Retrieves the total quantity of Discs in the Cart
+     * @return The item count
+     */
+    public int getCount() { return count; }
+
+    /**
+     * Retrieves the total cost of the Cart
+     * @return The cost
+     */
+    public float getCost() { return cost; }
+
+    /**
+     * Retrieves the Discs that can't be fully purchased
+     * @return The Discs, each with the inventory's quantity
+     */
+    public Disc[] getConflicts() { return conflicts; }
+}
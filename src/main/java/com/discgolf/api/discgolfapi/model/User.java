@@ -1,12 +1,15 @@
 package com.discgolf.api.discgolfapi.model;
 
+import com.discgolf.api.discgolfapi.auth.PasswordHasher;
+
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 public class User {
 
     @JsonProperty("id") private final int id;
     @JsonProperty("username") private String username;
-    @JsonProperty("password") private String password;
+    // Read from requests and the file but never written to responses, the file's writer mixes it back in
+    @JsonProperty(value = "password", access = JsonProperty.Access.WRITE_ONLY) private String password;
     /**
      * This does not get data stored, because it should be a server-side stack 
      * instead of logged-in data being persisted.
@@ -29,20 +32,37 @@ public class User {
     }
 
 
+    /**
+     * Checks a password against the user's, hashed or not, without logging them in
+     * @param password attempted password
+     * @return boolean result of if the password matches
+     */
+    public boolean checkPassword(String password) {
+        return PasswordHasher.matches(password, this.password);
+    }
+
     /**
      * Logs a user in
      * @param password attempted password
      * @return boolean result of if login is acceptable
      */
     public boolean login(String password) {
-        if(!this.password.equals(password)) {
+        if(!checkPassword(password)) {
             return false;
         }
 
-        loggedIn = true;
+        markLoggedIn();
         return true;
     }
 
+    /**
+     * Logs a user in whose password was already checked, such as on the
+     * password hasher's pool
+     */
+    public void markLoggedIn() {
+        loggedIn = true;
+    }
+
     /**
      * Method to log a user out
      * @return result of if a user was logged out
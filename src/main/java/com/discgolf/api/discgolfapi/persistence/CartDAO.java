@@ -1,6 +1,8 @@
 package com.discgolf.api.discgolfapi.persistence;
 
 import java.io.IOException;
+import java.util.Map;
+
 import com.discgolf.api.discgolfapi.model.Cart;
 
 /**
@@ -39,6 +41,17 @@ public interface CartDAO {
      */
     Cart findCart(String username) throws IOException;
 
+    /**
+     * Finds all {@linkplain Cart carts} holding a disc
+     * 
+     * @param disc_id The id of the disc to match
+     * 
+     * @return An array of {@link Cart carts} that hold the disc, may be empty
+     * 
+     * @throws IOException if an issue with underlying storage
+     */
+    Cart[] findCartsContaining(int disc_id) throws IOException;
+
     /**
      * Retrieves a {@linkplain Cart cart} with the given id
      * 
@@ -77,6 +90,67 @@ public interface CartDAO {
      */
     Cart updateCart(Cart cart) throws IOException;
 
+    /**
+     * Atomically adds {@linkplain com.discgolf.api.discgolfapi.model.Disc discs} to the
+     * {@linkplain Cart cart} owned by the given username and saves it
+     * 
+     * @param username The Cart owner's username
+     * @param disc_id The ID of the disc to add
+     * @param quantity The number of discs to add
+     * 
+     * @return updated {@link Cart cart} if successful, null if the
+     * {@link Cart cart} could not be found or the quantity was invalid
+     * 
+     * @throws IOException if underlying storage cannot be accessed
+     */
+    Cart addDisc(String username, int disc_id, int quantity) throws IOException;
+
+    /**
+     * Atomically removes a {@linkplain com.discgolf.api.discgolfapi.model.Disc disc} from the
+     * {@linkplain Cart cart} owned by the given username and saves it
+     * 
+     * @param username The Cart owner's username
+     * @param disc_id The ID of the disc to remove
+     * 
+     * @return updated {@link Cart cart} if successful, null if the
+     * {@link Cart cart} could not be found or did not contain the disc
+     * 
+     * @throws IOException if underlying storage cannot be accessed
+     */
+    Cart removeDisc(String username, int disc_id) throws IOException;
+
+    /**
+     * Atomically updates the quantity of a {@linkplain com.discgolf.api.discgolfapi.model.Disc disc}
+     * in the {@linkplain Cart cart} owned by the given username and saves it
+     * 
+     * @param username The Cart owner's username
+     * @param disc_id The ID of the disc to update
+     * @param quantity The number of discs to set/add/sub
+     * @param mode {0:set, 1:add, 2:subtract} the quantity
+     * 
+     * @return updated {@link Cart cart} if successful, null if the
+     * {@link Cart cart} could not be found or the update was invalid
+     * 
+     * @throws IOException if underlying storage cannot be accessed
+     */
+    Cart updateDiscQuantity(String username, int disc_id, int quantity, int mode) throws IOException;
+
+    /**
+     * Atomically subtracts the given quantities from the {@linkplain Cart cart} owned by
+     * the given username and saves it, removing lines that reach zero
+     * <br>
+     * Discs added to the cart after the quantities were read are kept
+     * 
+     * @param username The Cart owner's username
+     * @param quantities {int disc_id : int quantity} pairs to subtract
+     * 
+     * @return updated {@link Cart cart} if successful, null if the
+     * {@link Cart cart} could not be found
+     * 
+     * @throws IOException if underlying storage cannot be accessed
+     */
+    Cart removeDiscs(String username, Map<Integer, Integer> quantities) throws IOException;
+
     /**
      * Deletes a {@linkplain Cart cart} with the given id
      * 
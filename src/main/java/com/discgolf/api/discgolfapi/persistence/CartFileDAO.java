@@ -1,21 +1,52 @@
 package com.discgolf.api.discgolfapi.persistence;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.TreeMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import com.discgolf.api.discgolfapi.metrics.DaoOperationEvent;
+import com.discgolf.api.discgolfapi.metrics.InstrumentedLock;
+import com.discgolf.api.discgolfapi.metrics.MetricsRegistry;
 import com.discgolf.api.discgolfapi.model.Cart;
+import com.discgolf.api.discgolfapi.model.Disc;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 /**
  * Implements the functionality for JSON file-based peristance for Carts
+ * <p>
+ * Carts are kept in memory and saved to the file while their owners use them.
+ * A periodic sweep expires the lines of carts abandoned for longer than the
+ * abandon TTL, and offloads carts untouched for longer than the cold TTL to a
+ * separate cold segment file, from which they are loaded again on demand
+ * <p>
+ * The cold segment is append-only, one line of JSON per offloaded cart, and a
+ * tombstone line when a cart is loaded back. An index of where each cold cart's
+ * line starts lets a cart be read without reading the rest. The segment is
+ * rewritten with only the live lines once dead lines outnumber them
  * 
  * {@literal @}Component Spring annotation instantiates a single instance of this
  * class and injects the instance into other classes as needed
@@ -23,16 +54,59 @@ import org.springframework.stereotype.Component;
  * @author ZVH
  */
 @Component
-public class CartFileDAO implements CartDAO {
+public class CartFileDAO implements CartDAO, DiscListener {
     private static final Logger LOG = Logger.getLogger(CartFileDAO.class.getName());
+    private static final int OFFLOAD_BATCH = 100;   // Most carts offloaded per hold of the cold lock
+    private static final ColdLocation PENDING = new ColdLocation(-1, 0);  // Of a cart being written to the cold segment
     Map<Integer,Cart> carts;   // Provides a local cache of the cart objects
                                 // so that we don't need to read from the file
                                 // each time
+    private Map<String,Integer> cartIds;    // Owner's username (lower case) to cart id,
+                                            // so username lookups don't scan every cart
+    private Map<Integer,Set<Integer>> cartsByDisc;  // Disc id to ids of the carts holding it,
+                                                    // so inventory changes don't scan every cart
     private ObjectMapper objectMapper;  // Provides conversion between Cart
                                         // objects and JSON text format written
                                         // to the file
     private static int nextId;  // The next id to assign to a new cart
     private String filename;    // Filename to read from and write to
+    private String coldFilename;    // Filename of the cold segment, null if carts are not offloaded
+    private Map<Integer,ColdLocation> coldIndex;    // Id to the line of each cart in the cold segment
+    private int coldDead;       // Lines in the cold segment no longer live, guarded by the cold lock
+    private final ReentrantLock coldLock = new ReentrantLock();  // Serializes cold segment reads and writes, a lock so file I/O doesn't pin virtual threads
+    private StoreMetrics metrics;   // Records lock waits and holds, saves and loads
+    private InstrumentedLock saveLock;  // Serializes saves, recorded in the metrics
+    private long abandonTtl;    // Milliseconds untouched before a cart's lines expire, 0 for never
+    private long coldTtl;       // Milliseconds untouched before a cart is offloaded, 0 for never
+    LongSupplier clock = System::currentTimeMillis; // Current time in milliseconds
+    DiscDAO discDao;    // Checked for discs deleted while a cart was offloaded, null to keep them
+
+    /**
+     * A line of the cold segment, a {@linkplain Cart cart} offloaded or a
+     * tombstone once it was loaded back
+     */
+    static class ColdRecord {
+        @JsonProperty("id") int id;
+        @JsonProperty("cart") Cart cart;    // null for a tombstone
+
+        ColdRecord(@JsonProperty("id") int id, @JsonProperty("cart") Cart cart) {
+            this.id = id;
+            this.cart = cart;
+        }
+    }
+
+    /**
+     * Where a {@linkplain Cart cart}'s line is in the cold segment
+     */
+    private static class ColdLocation {
+        final long offset;  // Bytes from the start of the file
+        final int length;   // Bytes, without the newline
+
+        ColdLocation(long offset, int length) {
+            this.offset = offset;
+            this.length = length;
+        }
+    }
 
     /**
      * Creates a Cart File Data Access Object
@@ -42,12 +116,77 @@ public class CartFileDAO implements CartDAO {
      * 
      * @throws IOException when file cannot be accessed or read from
      */
-    public CartFileDAO(@Value("${carts.file}") String filename, ObjectMapper objectMapper) throws IOException {
+    public CartFileDAO(String filename, ObjectMapper objectMapper) throws IOException {
+        this(filename, null, 0, 0, objectMapper);
+    }
+
+    /**
+     * Creates a Cart File Data Access Object that expires and offloads idle
+     * {@linkplain Cart carts}
+     * <br>
+     * Its metrics are not reported
+     * 
+     * @param filename Filename to read from and write to
+     * @param coldFilename Filename of the cold segment, null or empty to keep every cart in memory
+     * @param abandonTtl Milliseconds untouched before a cart's lines expire, 0 for never
+     * @param coldTtl Milliseconds untouched before a cart is offloaded, 0 for never
+     * @param objectMapper Provides JSON Object to/from Java Object serialization and deserialization
+     * 
+     * @throws IOException when file cannot be accessed or read from
+     */
+    CartFileDAO(String filename, String coldFilename, long abandonTtl, long coldTtl, ObjectMapper objectMapper) throws IOException {
+        this(filename, coldFilename, abandonTtl, coldTtl, objectMapper, new MetricsRegistry());
+    }
+
+    /**
+     * Creates a Cart File Data Access Object that expires and offloads idle
+     * {@linkplain Cart carts}
+     * 
+     * @param filename Filename to read from and write to
+     * @param coldFilename Filename of the cold segment, null or empty to keep every cart in memory
+     * @param abandonTtl Milliseconds untouched before a cart's lines expire, 0 for never
+     * @param coldTtl Milliseconds untouched before a cart is offloaded, 0 for never
+     * @param objectMapper Provides JSON Object to/from Java Object serialization and deserialization
+     * @param registry The {@link MetricsRegistry registry} to report the store's metrics to
+     * 
+     * @throws IOException when file cannot be accessed or read from
+     */
+    CartFileDAO(String filename, String coldFilename, long abandonTtl, long coldTtl, ObjectMapper objectMapper,
+                MetricsRegistry registry) throws IOException {
         this.filename = filename;
+        this.coldFilename = (coldFilename == null || coldFilename.isEmpty()) ? null : coldFilename;
+        this.abandonTtl = abandonTtl;
+        this.coldTtl = coldTtl;
         this.objectMapper = objectMapper;
+        this.metrics = new StoreMetrics(registry, "carts", () -> carts.size());
+        this.saveLock = metrics.lock();
         load();  // load the carts from the file
     }
 
+    /**
+     * Creates a Cart File Data Access Object that keeps cached
+     * {@linkplain Cart cart} costs current with the disc inventory and expires
+     * and offloads idle {@linkplain Cart carts}
+     * 
+     * @param filename Filename to read from and write to
+     * @param coldFilename Filename of the cold segment, empty to keep every cart in memory
+     * @param abandonTtl Seconds untouched before a cart's lines expire, 0 for never
+     * @param coldTtl Seconds untouched before a cart is offloaded, 0 for never
+     * @param objectMapper Provides JSON Object to/from Java Object serialization and deserialization
+     * @param discDao The {@link DiscDAO Disc Data Access Object} to receive price changes and deletions from
+     * @param registry The {@link MetricsRegistry registry} to report the store's metrics to
+     * 
+     * @throws IOException when file cannot be accessed or read from
+     */
+    @Autowired
+    public CartFileDAO(@Value("${carts.file}") String filename, @Value("${carts.cold.file:}") String coldFilename,
+                       @Value("${carts.abandon.ttl:0}") long abandonTtl, @Value("${carts.cold.ttl:0}") long coldTtl,
+                       ObjectMapper objectMapper, DiscDAO discDao, MetricsRegistry registry) throws IOException {
+        this(filename, coldFilename, abandonTtl * 1000, coldTtl * 1000, objectMapper, registry);
+        this.discDao = discDao;
+        discDao.addListener(this);
+    }
+
     /**
      * Generates the next id for a new {@linkplain Cart cart}
      * 
@@ -60,48 +199,125 @@ public class CartFileDAO implements CartDAO {
     }
 
     /**
-     * Generates an array of {@linkplain Cart carts} from the tree map
+     * Generates the username index key for a {@linkplain Cart cart} owner
+     * <br>
+     * The key ignores case, as no two owners may differ only by case. Lookups
+     * still match the owner's username exactly, see {@link #ownedCart(String)}
      * 
-     * @return  The array of {@link Cart carts}, may be empty
+     * @param username The Cart owner's username
+     * 
+     * @return The key used in the username index
      */
-    private Cart[] getCartsArray() { return getCartsArray(null); }
+    private static String usernameKey(String username) {
+        return username.toLowerCase();
+    }
 
     /**
-     * Generates an array of {@linkplain Cart carts} from the tree map for any
-     * {@linkplain Cart carts} that contains the text specified by containsText
-     * <br>
-     * If username is null, the array contains all of the {@linkplain Cart carts}
-     * in the tree map
+     * Gets the {@linkplain Cart cart} owned by the given username, loading it
+     * from the cold segment if it was offloaded
+     * 
+     * @param username The Cart owner's username, matched exactly
+     * 
+     * @return The {@link Cart cart}, null if not found
      * 
-     * @return  The array of {@link Cart carts}, may be empty
+     * @throws IOException when a cold segment file cannot be accessed
      */
-    private Cart[] getCartsArray(String username) {
-        ArrayList<Cart> cartArrayList = new ArrayList<>();
+    private Cart ownedCart(String username) throws IOException {
+        Integer id = cartIds.get(usernameKey(username));
+        Cart cart = id != null ? hotCart(id) : null;
+        return cart != null && username.equals(cart.getUsername()) ? cart : null;
+    }
 
-        for (Cart cart : carts.values())
-            if (username == null || username.equals(cart.getUsername()))
-                cartArrayList.add(cart);
+    /**
+     * Generates an array of {@linkplain Cart carts} from the map
+     * 
+     * @return  The array of {@link Cart carts} ordered by id, may be empty
+     */
+    private Cart[] getCartsArray() {
+        ArrayList<Cart> cartArrayList = new ArrayList<>(carts.values());
+        cartArrayList.sort(Comparator.comparingInt(Cart::getId));
 
         Cart[] cartArray = new Cart[cartArrayList.size()];
         cartArrayList.toArray(cartArray);
         return cartArray;
     }
 
+    /**
+     * Updates the disc index for a {@linkplain Cart cart} whose lines changed
+     * <br>
+     * Called while the cart's map entry is locked, so changes to one cart's
+     * entries are never interleaved
+     * 
+     * @param id The id of the {@link Cart cart}
+     * @param before The disc ids the cart held, in ascending order
+     * @param after The disc ids the cart holds now, in ascending order
+     */
+    private void reindex(int id, int[] before, int[] after) {
+        int i = 0, j = 0;
+        while (i < before.length || j < after.length) { // Merge the sorted ids
+            if (j == after.length || (i < before.length && before[i] < after[j]))
+                unindex(before[i++], id);
+            else if (i == before.length || after[j] < before[i])
+                index(after[j++], id);
+            else {
+                i++;
+                j++;
+            }
+        }
+    }
+
+    /**
+     * Records that a {@linkplain Cart cart} holds a disc
+     * 
+     * @param disc_id The id of the disc
+     * @param id The id of the {@link Cart cart}
+     */
+    private void index(int disc_id, int id) {
+        cartsByDisc.compute(disc_id, (key, ids) -> {
+            if (ids == null)
+                ids = ConcurrentHashMap.newKeySet();
+            ids.add(id);
+            return ids;
+        });
+    }
+
+    /**
+     * Records that a {@linkplain Cart cart} no longer holds a disc,
+     * dropping the disc's entry once no cart holds it
+     * 
+     * @param disc_id The id of the disc
+     * @param id The id of the {@link Cart cart}
+     */
+    private void unindex(int disc_id, int id) {
+        cartsByDisc.computeIfPresent(disc_id, (key, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
     /**
      * Saves the {@linkplain Cart carts} from the map into the file as an array of JSON objects
+     * <br>
+     * Holds the save lock so concurrent saves don't interleave writes to the file,
+     * each {@link Cart cart} is serialized under its own lock
      * 
      * @return true if the {@link Cart carts} were written successfully
      * 
      * @throws IOException when file cannot be accessed or written to
      */
     private boolean save() throws IOException {
-        Cart[] cartArray = getCartsArray();
+        try (InstrumentedLock.Held held = saveLock.acquire()) {
+            long start = System.nanoTime();
+            Cart[] cartArray = getCartsArray();
 
-        // Serializes the Java Objects to JSON objects into the file
-        // writeValue will thrown an IOException if there is an issue
-        // with the file or reading from the file
-        objectMapper.writeValue(new File(filename),cartArray);
-        return true;
+            // Serializes the Java Objects to JSON objects into the file
+            // writeValue will thrown an IOException if there is an issue
+            // with the file or reading from the file
+            File file = new File(filename);
+            objectMapper.writeValue(file,cartArray);
+            metrics.saved(start, file);
+            return true;
+        }
     }
 
     /**
@@ -114,8 +330,14 @@ public class CartFileDAO implements CartDAO {
      * @throws IOException when file cannot be accessed or read from
      */
     private boolean load() throws IOException {
-        carts = new TreeMap<>();
+        long start = System.nanoTime();
+        carts = new ConcurrentHashMap<>();
+        cartIds = new ConcurrentHashMap<>();
+        cartsByDisc = new ConcurrentHashMap<>();
+        coldIndex = new ConcurrentHashMap<>();
+        coldDead = 0;
         nextId = 0;
+        long now = clock.getAsLong();
 
         // Deserializes the JSON objects from the file into an array of carts
         // readValue will throw an IOException if there's an issue with the file
@@ -125,21 +347,519 @@ public class CartFileDAO implements CartDAO {
         // Add each cart to the tree map and keep track of the greatest id
         for (Cart cart : cartArray) {
             carts.put(cart.getId(),cart);
+            cartIds.put(usernameKey(cart.getUsername()),cart.getId());
+            for (int disc_id : cart.getDiscIds())
+                index(disc_id,cart.getId());
+            if (cart.getLastTouched() == 0) // Saved before carts were timestamped
+                cart.setLastTouched(now);
             if (cart.getId() > nextId)
                 nextId = cart.getId();
         }
+
+        loadCold();
         // Make the next id one greater than the maximum from the file
         ++nextId;
+        metrics.loaded(start);
         return true;
     }
 
+    /**
+     * Indexes the {@linkplain Cart carts} in the cold segment, keeping only
+     * their locations
+     * <br>
+     * A later line for a cart replaces an earlier one and a cart saved in both
+     * files is hot. A segment written as one JSON array, or ending in a torn
+     * line, is rewritten as lines
+     * 
+     * @throws IOException when file cannot be accessed or read from
+     */
+    private void loadCold() throws IOException {
+        if (coldFilename == null || !new File(coldFilename).exists())
+            return;
+
+        byte[] segment = Files.readAllBytes(Path.of(coldFilename));
+        if (segment.length > 0 && segment[0] == '[') { // Written before the segment was append-only
+            for (Cart cart : objectMapper.readValue(segment, Cart[].class))
+                if (!carts.containsKey(cart.getId()))
+                    indexCold(cart, PENDING);
+            writeCold(coldCarts(segment));
+            return;
+        }
+
+        Map<Integer,ColdLocation> latest = new LinkedHashMap<>();
+        Map<Integer,Cart> latestCarts = new HashMap<>();
+        int lines = scanCold(segment, (record, location) -> {
+            latest.remove(record.id);
+            if (record.cart != null) {
+                latest.put(record.id, location);
+                latestCarts.put(record.id, record.cart);
+            }
+        });
+        for (Map.Entry<Integer,ColdLocation> entry : latest.entrySet())
+            if (!carts.containsKey(entry.getKey()))
+                indexCold(latestCarts.get(entry.getKey()), entry.getValue());
+        coldDead = lines - coldIndex.size();
+
+        if (segment.length > 0 && segment[segment.length - 1] != '\n')
+            writeCold(coldCarts(segment));
+    }
+
+    /**
+     * Records a {@linkplain Cart cart} as cold
+     * 
+     * @param cart The {@link Cart cart}
+     * @param location Where its line is in the cold segment
+     */
+    private void indexCold(Cart cart, ColdLocation location) {
+        coldIndex.put(cart.getId(), location);
+        cartIds.put(usernameKey(cart.getUsername()),cart.getId());
+        if (cart.getId() > nextId)
+            nextId = cart.getId();
+    }
+
+    /**
+     * Receives each line of the cold segment
+     */
+    private interface ColdVisitor {
+        void visit(ColdRecord record, ColdLocation location) throws IOException;
+    }
+
+    /**
+     * Reads each complete line of the cold segment
+     * 
+     * @param segment The contents of the cold segment
+     * @param visitor Receives each line and its location
+     * 
+     * @return The number of lines
+     * 
+     * @throws IOException when a line cannot be read
+     */
+    private int scanCold(byte[] segment, ColdVisitor visitor) throws IOException {
+        int lines = 0;
+        int start = 0;
+        for (int i = 0; i < segment.length; i++) {
+            if (segment[i] != '\n')
+                continue;
+            if (i > start) {
+                visitor.visit(objectMapper.readValue(segment, start, i - start, ColdRecord.class), new ColdLocation(start, i - start));
+                lines++;
+            }
+            start = i + 1;
+        }
+        return lines;
+    }
+
+    /**
+     * Reads the {@linkplain Cart carts} still in the cold segment, skipping any
+     * that have been loaded
+     * <br>
+     * Called while holding the cold lock
+     * 
+     * @return The list of cold {@link Cart carts}
+     * 
+     * @throws IOException when file cannot be accessed or read from
+     */
+    private ArrayList<Cart> coldCarts() throws IOException {
+        if (coldFilename == null || !new File(coldFilename).exists())
+            return new ArrayList<>();
+        return coldCarts(Files.readAllBytes(Path.of(coldFilename)));
+    }
+
+    /**
+     * Selects the live {@linkplain Cart carts} of a cold segment
+     * 
+     * @param segment The contents of the cold segment, lines or a JSON array
+     * 
+     * @return The list of cold {@link Cart carts}
+     * 
+     * @throws IOException when the segment cannot be read
+     */
+    private ArrayList<Cart> coldCarts(byte[] segment) throws IOException {
+        ArrayList<Cart> coldCarts = new ArrayList<>();
+        if (segment.length > 0 && segment[0] == '[') {
+            for (Cart cart : objectMapper.readValue(segment, Cart[].class))
+                if (coldIndex.containsKey(cart.getId()))
+                    coldCarts.add(cart);
+            return coldCarts;
+        }
+
+        scanCold(segment, (record, location) -> {
+            ColdLocation live = coldIndex.get(record.id);
+            if (record.cart != null && live != null && live.offset == location.offset)
+                coldCarts.add(record.cart);
+        });
+        return coldCarts;
+    }
+
+    /**
+     * Reads one {@linkplain Cart cart} from the cold segment
+     * <br>
+     * Called while holding the cold lock
+     * 
+     * @param location Where the cart's line is
+     * 
+     * @return The {@link Cart cart}
+     * 
+     * @throws IOException when file cannot be accessed or read from
+     */
+    private Cart readCold(ColdLocation location) throws IOException {
+        byte[] line = new byte[location.length];
+        try (RandomAccessFile file = new RandomAccessFile(coldFilename, "r")) {
+            file.seek(location.offset);
+            file.readFully(line);
+        }
+        return objectMapper.readValue(line, ColdRecord.class).cart;
+    }
+
+    /**
+     * Appends lines to a cold segment
+     * <br>
+     * Called while holding the cold lock
+     * 
+     * @param file The cold segment, or its replacement
+     * @param records The lines to append
+     * 
+     * @return Where each line was written, in order
+     * 
+     * @throws IOException when file cannot be accessed or written to
+     */
+    private List<ColdLocation> appendCold(File file, List<ColdRecord> records) throws IOException {
+        long offset = file.length();
+        ByteArrayOutputStream lines = new ByteArrayOutputStream();
+        ArrayList<ColdLocation> locations = new ArrayList<>(records.size());
+        for (ColdRecord record : records) {
+            byte[] line = objectMapper.writeValueAsBytes(record);
+            locations.add(new ColdLocation(offset + lines.size(), line.length));
+            lines.write(line);
+            lines.write('\n');
+        }
+
+        Files.write(file.toPath(), lines.toByteArray(), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        return locations;
+    }
+
+    /**
+     * Indexes the {@linkplain Cart carts} of lines written to the cold segment
+     * 
+     * @param records The lines written
+     * @param locations Where each was written
+     */
+    private void indexCold(List<ColdRecord> records, List<ColdLocation> locations) {
+        for (int i = 0; i < records.size(); i++)
+            coldIndex.put(records.get(i).id, locations.get(i));
+    }
+
+    /**
+     * Rewrites the cold segment with only the given {@linkplain Cart carts},
+     * replacing it once written
+     * <br>
+     * Called while holding the cold lock, except at load
+     * 
+     * @param coldCarts The live cold {@link Cart carts}
+     * 
+     * @throws IOException when file cannot be accessed or written to
+     */
+    private void writeCold(ArrayList<Cart> coldCarts) throws IOException {
+        coldCarts.sort(Comparator.comparingInt(Cart::getId));
+        Path file = Path.of(coldFilename);
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.deleteIfExists(temp);
+
+        ArrayList<ColdRecord> records = new ArrayList<>(coldCarts.size());
+        for (Cart cart : coldCarts)
+            records.add(new ColdRecord(cart.getId(), cart));
+        List<ColdLocation> locations = appendCold(temp.toFile(), records);
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        indexCold(records, locations);
+        coldDead = 0;
+    }
+
+    /**
+     * Gets the {@linkplain Cart cart} with the given id, loading it from the
+     * cold segment if it was offloaded
+     * <br>
+     * A hot cart is touched inside the map, the same way {@link #promote(int)}
+     * touches a loaded one, so a sweep either sees it touched or has already
+     * offloaded it, in which case it is loaded back
+     * 
+     * @param id The id of the {@link Cart cart}
+     * 
+     * @return The {@link Cart cart}, null if not found
+     * 
+     * @throws IOException when a cold segment file cannot be accessed
+     */
+    private Cart hotCart(int id) throws IOException {
+        long now = clock.getAsLong();
+        Cart cart = carts.computeIfPresent(id, (key, held) -> {
+            held.setLastTouched(now);
+            return held;
+        });
+        if (cart == null && coldIndex.containsKey(id))
+            cart = promote(id);
+        return cart;
+    }
+
+    /**
+     * Moves a {@linkplain Cart cart} from the cold segment back into the map,
+     * expiring its lines if it was abandoned
+     * <br>
+     * Offloaded carts are not in the disc index, so {@link #discDeleted(int)}
+     * can't reach them. The discs deleted meanwhile are dropped once the cart
+     * is back in the map and the index, so a deletion racing the load is
+     * either seen here or by the listener
+     * <br>
+     * The cart is touched as it is loaded, so a sweep can't offload it again
+     * before the caller uses it. The carts are saved before a tombstone is
+     * appended to the cold segment, so the cart is never missing from both files
+     * 
+     * @param id The id of the {@link Cart cart}
+     * 
+     * @return The {@link Cart cart}, null if not found
+     * 
+     * @throws IOException when a file cannot be accessed
+     */
+    private Cart promote(int id) throws IOException {
+        coldLock.lock();
+        try {
+            Cart cart = carts.get(id);
+            ColdLocation location = coldIndex.get(id);
+            if (cart != null || location == null)
+                return cart; // Loaded by another request
+
+            cart = readCold(location);
+            long now = clock.getAsLong();
+            if (isIdle(cart, abandonTtl, now))
+                cart.setContents(new HashMap<>());
+            cart.setLastTouched(now);
+            for (int disc_id : cart.getDiscIds())
+                index(disc_id,id);
+            carts.put(id,cart);
+            dropDeletedDiscs(cart);
+            save(); // may throw an IOException
+
+            coldIndex.remove(id);
+            appendCold(new File(coldFilename), List.of(new ColdRecord(id, null)));
+            coldDead += 2; // The cart's line and its tombstone
+            return cart;
+        } finally {
+            coldLock.unlock();
+        }
+    }
+
+    /**
+     * Removes the discs no longer in the inventory from a {@linkplain Cart cart}, without saving
+     * 
+     * @param cart The {@link Cart cart}
+     * 
+     * @throws IOException when the inventory cannot be read
+     */
+    private void dropDeletedDiscs(Cart cart) throws IOException {
+        for (int disc_id : cart.getDiscIds())
+            if (!inInventory(disc_id))
+                applyToCart(cart.getId(), held -> held.removeDisc(disc_id));
+    }
+
+    /**
+     * Checks whether a disc is still in the inventory
+     * 
+     * @param disc_id The id of the disc
+     * 
+     * @return true if the disc exists, or if there is no inventory to check
+     * 
+     * @throws IOException when the inventory cannot be read
+     */
+    private boolean inInventory(int disc_id) throws IOException {
+        return discDao == null || discDao.getDisc(disc_id) != null;
+    }
+
+    /**
+     * Checks whether a {@linkplain Cart cart} has been untouched for longer than a TTL
+     * 
+     * @param cart The {@link Cart cart} to check
+     * @param ttl Milliseconds, 0 for never
+     * @param now The current time in milliseconds
+     * 
+     * @return true if the {@link Cart cart} is idle
+     */
+    private static boolean isIdle(Cart cart, long ttl, long now) {
+        return ttl > 0 && now - cart.getLastTouched() >= ttl;
+    }
+
+    /**
+     * Expires abandoned {@linkplain Cart carts} and offloads cold ones to the cold segment
+     * <br>
+     * Runs periodically, every carts.sweep.interval seconds. The cold lock is
+     * only held while a batch of idle carts is appended to the cold segment
+     */
+    @Scheduled(initialDelayString = "#{${carts.sweep.interval:3600} * 1000}",
+               fixedDelayString = "#{${carts.sweep.interval:3600} * 1000}")
+    public void sweep() {
+        long now = clock.getAsLong();
+        boolean expired = false;
+        ArrayList<Integer> idle = new ArrayList<>();
+
+        for (Integer id : carts.keySet()) {
+            expired |= applyToCart(id, cart -> isIdle(cart, abandonTtl, now) && cart.getLineCount() > 0
+                                               && clearCart(cart)) != null;
+            Cart cart = carts.get(id);
+            if (coldFilename != null && cart != null && isIdle(cart, coldTtl, now))
+                idle.add(id);
+        }
+
+        int offloaded = 0;
+        for (int from = 0; from < idle.size(); from += OFFLOAD_BATCH)
+            offloaded += offload(idle.subList(from, Math.min(from + OFFLOAD_BATCH, idle.size())), now);
+
+        if (coldFilename != null) {
+            coldLock.lock();
+            try {
+                if (coldDead > coldIndex.size())
+                    writeCold(coldCarts());
+            } catch (IOException e) {
+                LOG.log(Level.WARNING, "Could not compact the cold segment", e);
+            } finally {
+                coldLock.unlock();
+            }
+        }
+
+        if (expired || offloaded > 0) {
+            try {
+                save();
+            } catch (IOException e) {
+                LOG.log(Level.SEVERE, "Could not save carts after sweeping", e);
+            }
+        }
+    }
+
+    /**
+     * Moves the {@linkplain Cart carts} that are still idle to the cold segment
+     * 
+     * @param ids The ids of the {@link Cart carts} found idle
+     * @param now The time of the sweep in milliseconds
+     * 
+     * @return The number of carts offloaded
+     */
+    private int offload(List<Integer> ids, long now) {
+        ArrayList<ColdRecord> offloaded = new ArrayList<>();
+        coldLock.lock();
+        try {
+            for (Integer id : ids)
+                carts.computeIfPresent(id, (key, cart) -> {
+                    if (!isIdle(cart, coldTtl, now))
+                        return cart; // Touched since it was found idle
+                    reindex(key, cart.getDiscIds(), new int[0]);
+                    coldIndex.put(key, PENDING); // Before it leaves the map, so lookups wait for the segment
+                    offloaded.add(new ColdRecord(key, cart));
+                    return null;
+                });
+
+            if (!offloaded.isEmpty()) {
+                try {
+                    indexCold(offloaded, appendCold(new File(coldFilename), offloaded));
+                } catch (IOException e) {
+                    LOG.log(Level.SEVERE, "Could not offload carts, keeping them in memory", e);
+                    for (ColdRecord record : offloaded) {
+                        for (int disc_id : record.cart.getDiscIds())
+                            index(disc_id,record.id);
+                        carts.put(record.id,record.cart);
+                        coldIndex.remove(record.id);
+                    }
+                    return 0;
+                }
+            }
+            return offloaded.size();
+        } finally {
+            coldLock.unlock();
+        }
+    }
+
+    /**
+     * Removes every line from a {@linkplain Cart cart}
+     * 
+     * @param cart The {@link Cart cart} to clear
+     * 
+     * @return true, the cart changed
+     */
+    private static boolean clearCart(Cart cart) {
+        cart.setContents(new HashMap<>());
+        return true;
+    }
+
+    /**
+     * Atomically applies an operation to the {@linkplain Cart cart} owned by the given
+     * username and saves the carts if the operation changed it
+     * <br>
+     * Only the one cart is locked while the operation runs, so carts owned by
+     * different users are updated in parallel
+     * 
+     * @param username The Cart owner's username
+     * @param operation Modifies the cart, returning false if nothing was changed
+     * 
+     * @return The updated {@link Cart cart}, null if not found or unchanged
+     * 
+     * @throws IOException when file cannot be accessed or written to
+     */
+    private Cart computeCart(String username, Predicate<Cart> operation) throws IOException {
+        Cart owned = ownedCart(username);
+        if (owned == null)
+            return null; // cart does not exist
+
+        int id = owned.getId();
+        long now = clock.getAsLong();
+        Cart updated = applyToCart(id, cart -> {
+            cart.setLastTouched(now);
+            return operation.test(cart);
+        });
+        if (updated != null)
+            save(); // may throw an IOException
+        return updated;
+    }
+
+    /**
+     * Atomically applies an operation to the {@linkplain Cart cart} with the given
+     * id and keeps the disc index in step, without saving
+     * 
+     * @param id The id of the {@link Cart cart}
+     * @param operation Modifies the cart, returning false if nothing was changed
+     * 
+     * @return The updated {@link Cart cart}, null if not found or unchanged
+     */
+    private Cart applyToCart(int id, Predicate<Cart> operation) {
+        Cart[] updated = new Cart[1];
+        carts.computeIfPresent(id, (key, cart) -> {
+            int[] before = cart.getDiscIds();
+            if (operation.test(cart)) {
+                reindex(key, before, cart.getDiscIds());
+                updated[0] = cart;
+            }
+            return cart;
+        });
+        return updated[0];
+    }
+
     /**
     ** {@inheritDoc}
      */
     @Override
-    public Cart[] getCarts() {
-        synchronized(carts) {
-            return getCartsArray();
+    public Cart[] getCarts() throws IOException {
+        try (DaoOperationEvent op = metrics.begin("getCarts")) {
+            if (coldIndex.isEmpty())
+                return op.touched(getCartsArray());
+
+            coldLock.lock();
+            try {
+                ArrayList<Cart> cartArrayList = coldCarts();
+                for (Cart cart : cartArrayList)
+                    for (int disc_id : cart.getDiscIds())
+                        if (!inInventory(disc_id))
+                            cart.removeDisc(disc_id);   // A copy, the segment keeps it until loaded
+                for (Cart cart : getCartsArray())
+                    cartArrayList.add(cart);
+                cartArrayList.sort(Comparator.comparingInt(Cart::getId));
+                return op.touched(cartArrayList.toArray(new Cart[0]));
+            } finally {
+                coldLock.unlock();
+            }
         }
     }
 
@@ -147,11 +867,9 @@ public class CartFileDAO implements CartDAO {
     ** {@inheritDoc}
      */
     @Override
-    public Cart findCart(String username) {
-        synchronized(carts) {
-            Cart[] carts = getCartsArray(username);
-            
-            return carts[0];
+    public Cart findCart(String username) throws IOException {
+        try (DaoOperationEvent op = metrics.begin("findCart", username)) {
+            return op.touched(ownedCart(username));
         }
     }
 
@@ -159,22 +877,45 @@ public class CartFileDAO implements CartDAO {
     ** {@inheritDoc}
      */
     @Override
-    public Cart[] findCarts(String username) {
-        synchronized(carts) {
-            return getCartsArray(username);
+    public Cart[] findCarts(String username) throws IOException {
+        try (DaoOperationEvent op = metrics.begin("findCarts", username)) {
+            Cart cart = ownedCart(username);
+            if (cart == null)
+                return new Cart[0];
+            return op.touched(new Cart[]{cart});
         }
     }
 
     /**
     ** {@inheritDoc}
+     * <br>
+     * Only finds {@linkplain Cart carts} in memory, not ones in the cold segment
      */
     @Override
-    public Cart getCart(int id) {
-        synchronized(carts) {
-            if (carts.containsKey(id))
-                return carts.get(id);
-            else
-                return null;
+    public Cart[] findCartsContaining(int disc_id) {
+        try (DaoOperationEvent op = metrics.begin("findCartsContaining", disc_id)) {
+            Set<Integer> ids = cartsByDisc.get(disc_id);
+            if (ids == null)
+                return new Cart[0];
+
+            ArrayList<Cart> cartArrayList = new ArrayList<>(ids.size());
+            for (Integer id : ids) {
+                Cart cart = carts.get(id);
+                if (cart != null)
+                    cartArrayList.add(cart);
+            }
+            cartArrayList.sort(Comparator.comparingInt(Cart::getId));
+            return op.touched(cartArrayList.toArray(new Cart[0]));
+        }
+    }
+
+    /**
+    ** {@inheritDoc}
+     */
+    @Override
+    public Cart getCart(int id) throws IOException {
+        try (DaoOperationEvent op = metrics.begin("getCart", id)) {
+            return op.touched(hotCart(id));
         }
     }
 
@@ -183,19 +924,21 @@ public class CartFileDAO implements CartDAO {
      */
     @Override
     public Cart createCart(String username) throws IOException {
-        synchronized(carts) {
+        try (DaoOperationEvent op = metrics.begin("createCart", username)) {
+            if (cartIds.containsKey(usernameKey(username)))
+                return null; // username already owns a cart
+
             // We create a new cart object because the id field is immutable
             // and we need to assign the next unique id
-            for(Cart c : carts.values()) {
-                if(c.getUsername().equalsIgnoreCase(username)) {
-                    return null;
-                }
-            } 
+            int id = nextId();
+            if (cartIds.putIfAbsent(usernameKey(username), id) != null)
+                return null; // claimed by a concurrent create
 
-            Cart newCart = new Cart(nextId(), username, new HashMap<>());
+            Cart newCart = new Cart(id, username, new HashMap<>());
+            newCart.setLastTouched(clock.getAsLong());
             carts.put(newCart.getId(),newCart);
             save(); // may throw an IOException
-            return newCart;
+            return op.touched(newCart);
         }
     }
 
@@ -204,13 +947,67 @@ public class CartFileDAO implements CartDAO {
      */
     @Override
     public Cart updateCart(Cart cart) throws IOException {
-        synchronized(carts) {
-            if (carts.containsKey(cart.getId()) == false)
+        try (DaoOperationEvent op = metrics.begin("updateCart", cart.getId())) {
+            hotCart(cart.getId()); // Load it if it was offloaded
+            cart.setLastTouched(clock.getAsLong());
+            Cart replaced = carts.computeIfPresent(cart.getId(), (key, old) -> {
+                if (!usernameKey(old.getUsername()).equals(usernameKey(cart.getUsername()))) {
+                    cartIds.remove(usernameKey(old.getUsername()), key);
+                    cartIds.put(usernameKey(cart.getUsername()), key);
+                }
+                reindex(key, old.getDiscIds(), cart.getDiscIds());
+                return cart;
+            });
+
+            if (replaced == null)
                 return null;  // cart does not exist
 
-            carts.put(cart.getId(),cart);
             save(); // may throw an IOException
-            return cart;
+            return op.touched(cart);
+        }
+    }
+
+    /**
+    ** {@inheritDoc}
+     */
+    @Override
+    public Cart addDisc(String username, int disc_id, int quantity) throws IOException {
+        try (DaoOperationEvent op = metrics.begin("addDisc", username)) {
+            return op.touched(computeCart(username, cart -> quantity > 0 && cart.addDisc(disc_id, quantity)));
+        }
+    }
+
+    /**
+    ** {@inheritDoc}
+     */
+    @Override
+    public Cart removeDisc(String username, int disc_id) throws IOException {
+        try (DaoOperationEvent op = metrics.begin("removeDisc", username)) {
+            return op.touched(computeCart(username, cart -> cart.removeDisc(disc_id)));
+        }
+    }
+
+    /**
+    ** {@inheritDoc}
+     */
+    @Override
+    public Cart updateDiscQuantity(String username, int disc_id, int quantity, int mode) throws IOException {
+        try (DaoOperationEvent op = metrics.begin("updateDiscQuantity", username)) {
+            return op.touched(computeCart(username, cart -> cart.updateDiscQuantity(disc_id, quantity, mode)));
+        }
+    }
+
+    /**
+    ** {@inheritDoc}
+     */
+    @Override
+    public Cart removeDiscs(String username, Map<Integer, Integer> quantities) throws IOException {
+        try (DaoOperationEvent op = metrics.begin("removeDiscs", username)) {
+            return op.touched(computeCart(username, cart -> {
+                for (Map.Entry<Integer, Integer> line : quantities.entrySet())
+                    cart.updateDiscQuantity(line.getKey(), line.getValue(), 2);
+                return true;
+            }));
         }
     }
 
@@ -219,12 +1016,52 @@ public class CartFileDAO implements CartDAO {
      */
     @Override
     public boolean deleteCart(int id) throws IOException {
-        synchronized(carts) {
-            if (carts.containsKey(id)) {
-                carts.remove(id);
-                return save();
+        try (DaoOperationEvent op = metrics.begin("deleteCart", id)) {
+            hotCart(id); // Load it if it was offloaded, so the cold segment forgets it
+            Cart[] removed = new Cart[1];
+            carts.computeIfPresent(id, (key, cart) -> {
+                reindex(key, cart.getDiscIds(), new int[0]);
+                removed[0] = cart;
+                return null;
+            });
+
+            if (removed[0] != null) {
+                cartIds.remove(usernameKey(removed[0].getUsername()), id);
+                return op.touched(save());
             } else
                 return false;
         }
     }
+
+    /**
+    ** {@inheritDoc}
+     * <br>
+     * Discards the cached cost of every {@linkplain Cart cart} holding the disc
+     */
+    @Override
+    public void discRepriced(Disc disc) {
+        for (Cart cart : findCartsContaining(disc.getId()))
+            cart.invalidateCost();
+    }
+
+    /**
+    ** {@inheritDoc}
+     * <br>
+     * Removes the disc from every {@linkplain Cart cart} holding it and saves the carts.
+     * Offloaded carts drop it as they are loaded back
+     */
+    @Override
+    public void discDeleted(int id) {
+        boolean pruned = false;
+        for (Cart cart : findCartsContaining(id))
+            pruned |= applyToCart(cart.getId(), held -> held.removeDisc(id)) != null;
+
+        if (pruned) {
+            try {
+                save();
+            } catch (IOException e) {
+                LOG.log(Level.SEVERE, "Could not save carts after pruning disc " + id, e);
+            }
+        }
+    }
 }
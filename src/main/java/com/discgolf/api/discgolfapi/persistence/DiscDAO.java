@@ -41,6 +41,18 @@ public interface DiscDAO {
      */
     Disc getDisc(int id) throws IOException;
 
+    /**
+     * Retrieves the {@linkplain Disc discs} with the given ids in one lookup
+     * 
+     * @param ids The ids of the {@link Disc discs} to get
+     * 
+     * @return an array of {@link Disc disc} objects parallel to ids, with
+     * null where no {@link Disc disc} with a matching id is found
+     * 
+     * @throws IOException if an issue with underlying storage
+     */
+    Disc[] getDiscs(int[] ids) throws IOException;
+
     /**
      * Creates and saves a {@linkplain Disc disc}
      * 
@@ -78,4 +90,28 @@ public interface DiscDAO {
      * @throws IOException if underlying storage cannot be accessed
      */
     boolean deleteDisc(int id) throws IOException;
+
+    /**
+     * Takes up to a quantity of a {@linkplain Disc disc} from the inventory, as one
+     * operation so concurrent purchases cannot sell the same stock twice
+     * <br>
+     * The {@link Disc disc} is deleted if its whole stock is taken
+     * 
+     * @param id The id of the {@link Disc disc}
+     * @param quantity The quantity wanted
+     * 
+     * @return The {@link Disc disc} with the quantity taken, which is less than
+     * wanted if the stock ran short<br>
+     * null if the {@link Disc disc} could not be found
+     * 
+     * @throws IOException if underlying storage cannot be accessed
+     */
+    Disc takeDisc(int id, int quantity) throws IOException;
+
+    /**
+     * Registers a listener to be notified of {@linkplain Disc disc} price changes and deletions
+     * 
+     * @param listener The {@link DiscListener listener} to notify
+     */
+    void addListener(DiscListener listener);
 }
@@ -3,13 +3,19 @@ package com.discgolf.api.discgolfapi.persistence;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.logging.Logger;
 
+import com.discgolf.api.discgolfapi.metrics.DaoOperationEvent;
+import com.discgolf.api.discgolfapi.metrics.InstrumentedLock;
+import com.discgolf.api.discgolfapi.metrics.MetricsRegistry;
 import com.discgolf.api.discgolfapi.model.Disc;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -32,18 +38,40 @@ public class DiscFileDAO implements DiscDAO {
                                         // to the file
     private static int nextId;  // The next Id to assign to a new disc
     private String filename;    // Filename to read from and write to
+    private StoreMetrics metrics;   // Records lock waits and holds, saves and loads
+    private InstrumentedLock lock;  // Guards the discs, recorded in the metrics
+    private List<DiscListener> listeners = new CopyOnWriteArrayList<>();  // Notified of price changes and deletions
+
+    /**
+     * Creates a Disc File Data Access Object
+     * <br>
+     * Its metrics are not reported
+     * 
+     * @param filename Filename to read from and write to
+     * @param objectMapper Provides JSON Object to/from Java Object serialization and deserialization
+     * 
+     * @throws IOException when file cannot be accessed or read from
+     */
+    public DiscFileDAO(String filename,ObjectMapper objectMapper) throws IOException {
+        this(filename, objectMapper, new MetricsRegistry());
+    }
 
     /**
      * Creates a Disc File Data Access Object
      * 
      * @param filename Filename to read from and write to
      * @param objectMapper Provides JSON Object to/from Java Object serialization and deserialization
+     * @param registry The {@link MetricsRegistry registry} to report the store's metrics to
      * 
      * @throws IOException when file cannot be accessed or read from
      */
-    public DiscFileDAO(@Value("${discs.file}") String filename,ObjectMapper objectMapper) throws IOException {
+    @Autowired
+    public DiscFileDAO(@Value("${discs.file}") String filename,ObjectMapper objectMapper,
+                       MetricsRegistry registry) throws IOException {
         this.filename = filename;
         this.objectMapper = objectMapper;
+        this.metrics = new StoreMetrics(registry, "discs", () -> discs.size());
+        this.lock = metrics.lock();
         load();  // load the discs from the file
     }
 
@@ -100,12 +128,15 @@ public class DiscFileDAO implements DiscDAO {
      * @throws IOException when file cannot be accessed or written to
      */
     private boolean save() throws IOException {
+        long start = System.nanoTime();
         Disc[] discArray = getDiscsArray();
 
         // Serializes the Java Objects to JSON objects into the file
         // writeValue will thrown an IOException if there is an issue
         // with the file or reading from the file
-        objectMapper.writeValue(new File(filename),discArray);
+        File file = new File(filename);
+        objectMapper.writeValue(file,discArray);
+        metrics.saved(start, file);
         return true;
     }
 
@@ -119,6 +150,7 @@ public class DiscFileDAO implements DiscDAO {
      * @throws IOException when file cannot be accessed or read from
      */
     private boolean load() throws IOException {
+        long start = System.nanoTime();
         discs = new TreeMap<>();
         nextId = 0;
 
@@ -135,6 +167,7 @@ public class DiscFileDAO implements DiscDAO {
         }
         // Make the next id one greater than the maximum from the file
         ++nextId;
+        metrics.loaded(start);
         return true;
     }
 
@@ -143,8 +176,9 @@ public class DiscFileDAO implements DiscDAO {
      */
     @Override
     public Disc[] getDiscs() {
-        synchronized(discs) {
-            return getDiscsArray();
+        try (DaoOperationEvent op = metrics.begin("getDiscs");
+             InstrumentedLock.Held held = lock.acquire()) {
+            return op.touched(getDiscsArray());
         }
     }
 
@@ -153,8 +187,9 @@ public class DiscFileDAO implements DiscDAO {
      */
     @Override  
     public Disc[] findDiscs(String search, int mode) {
-        synchronized(discs) {
-            return getDiscsArray(search, mode);
+        try (DaoOperationEvent op = metrics.begin("findDiscs");
+             InstrumentedLock.Held held = lock.acquire()) {
+            return op.touched(getDiscsArray(search, mode));
         }
     }
 
@@ -163,20 +198,37 @@ public class DiscFileDAO implements DiscDAO {
      */
     @Override
     public Disc getDisc(int id) {
-        synchronized(discs) {
+        try (DaoOperationEvent op = metrics.begin("getDisc", id);
+             InstrumentedLock.Held held = lock.acquire()) {
             if (discs.containsKey(id))
-                return discs.get(id);
+                return op.touched(discs.get(id));
             else
                 return null;
         }
     }
 
+    /**
+    ** {@inheritDoc}
+     */
+    @Override
+    public Disc[] getDiscs(int[] ids) {
+        Disc[] discArray = new Disc[ids.length];
+        try (DaoOperationEvent op = metrics.begin("getDiscsByIds");
+             InstrumentedLock.Held held = lock.acquire()) {
+            for (int i = 0; i < ids.length; i++)
+                discArray[i] = discs.get(ids[i]);
+            op.touched(discArray);
+        }
+        return discArray;
+    }
+
     /**
     ** {@inheritDoc}
      */
     @Override
     public Disc createDisc(Disc disc) throws IOException {
-        synchronized(discs) {
+        try (DaoOperationEvent op = metrics.begin("createDisc");
+             InstrumentedLock.Held held = lock.acquire()) {
             // We create a new disc object because the id field is immutable
             // and we need to assign the next unique id
             Disc newDisc = new Disc(nextId(), disc.getColor(),
@@ -184,7 +236,7 @@ public class DiscFileDAO implements DiscDAO {
                                     disc.getPrice(), disc.getQuantity());
             discs.put(newDisc.getId(),newDisc);
             save(); // may throw an IOException
-            return newDisc;
+            return op.touched(newDisc);
         }
     }
 
@@ -193,14 +245,22 @@ public class DiscFileDAO implements DiscDAO {
      */
     @Override
     public Disc updateDisc(Disc disc) throws IOException {
-        synchronized(discs) {
+        Disc old;
+        try (DaoOperationEvent op = metrics.begin("updateDisc", disc.getId());
+             InstrumentedLock.Held held = lock.acquire()) {
             if (discs.containsKey(disc.getId()) == false)
                 return null;  // disc does not exist
 
-            discs.put(disc.getId(),disc);
+            old = discs.put(disc.getId(),disc);
             save(); // may throw an IOException
-            return disc;
+            op.touched(disc);
         }
+
+        // Notify outside the lock, listeners lock carts that may be waiting on discs
+        if (old.getPrice() != disc.getPrice())
+            for (DiscListener listener : listeners)
+                listener.discRepriced(disc);
+        return disc;
     }
 
     /**
@@ -208,13 +268,57 @@ public class DiscFileDAO implements DiscDAO {
      */
     @Override
     public boolean deleteDisc(int id) throws IOException {
-        synchronized(discs) {
+        try (DaoOperationEvent op = metrics.begin("deleteDisc", id);
+             InstrumentedLock.Held held = lock.acquire()) {
             if (discs.containsKey(id)) {
                 discs.remove(id);
-                return save();
+                op.touched(save()); // may throw an IOException
             }
             else
                 return false;
         }
+
+        for (DiscListener listener : listeners)
+            listener.discDeleted(id);
+        return true;
+    }
+
+    /**
+    ** {@inheritDoc}
+     */
+    @Override
+    public Disc takeDisc(int id, int quantity) throws IOException {
+        Disc taken;
+        boolean boughtOut;
+        try (DaoOperationEvent op = metrics.begin("takeDisc", id);
+             InstrumentedLock.Held held = lock.acquire()) {
+            Disc disc = discs.get(id);
+            if (disc == null)
+                return null;  // disc does not exist
+
+            // Replace rather than change the stored disc, readers may hold it outside the lock
+            int stock = disc.getQuantity();
+            int take = Math.min(quantity, stock);
+            boughtOut = take == stock;
+            if (boughtOut)
+                discs.remove(id);
+            else
+                discs.put(id, new Disc(id, disc.getColor(), disc.getWeight(), disc.getType(), disc.getPrice(), stock - take));
+            save(); // may throw an IOException
+            taken = op.touched(new Disc(id, disc.getColor(), disc.getWeight(), disc.getType(), disc.getPrice(), take));
+        }
+
+        if (boughtOut)
+            for (DiscListener listener : listeners)
+                listener.discDeleted(id);
+        return taken;
+    }
+
+    /**
+    ** {@inheritDoc}
+     */
+    @Override
+    public void addListener(DiscListener listener) {
+        listeners.add(listener);
     }
 }
\ No newline at end of file
@@ -0,0 +1,27 @@
+package com.discgolf.api.discgolfapi.persistence;
+
+import com.discgolf.api.discgolfapi.model.Disc;
+
+/**
+ * Receives notifications of {@linkplain Disc disc} changes from a {@link DiscDAO}
+ * <br>
+ * Notifications are sent after the change is stored and outside of the
+ * {@link DiscDAO DAO's} lock, so listeners may read from the DAO
+ * 
+ * @author ZVH
+ */
+public interface DiscListener {
+    /**
+     * Called after the price of a {@linkplain Disc disc} changed
+     * 
+     * @param disc The updated {@link Disc disc}
+     */
+    void discRepriced(Disc disc);
+
+    /**
+     * Called after a {@linkplain Disc disc} was deleted
+     * 
+     * @param id The id of the deleted {@link Disc disc}
+     */
+    void discDeleted(int id);
+}
@@ -13,9 +13,13 @@ import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
 
+import com.discgolf.api.discgolfapi.metrics.DaoOperationEvent;
+import com.discgolf.api.discgolfapi.metrics.InstrumentedLock;
+import com.discgolf.api.discgolfapi.metrics.MetricsRegistry;
 import com.discgolf.api.discgolfapi.model.Lesson;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -37,18 +41,39 @@ public class LessonFileDAO implements LessonDAO {
                                         // to the file
     private static int nextId;  // The next Id to assign to a new lesson
     private String filename;    // Filename to read from and write to
+    private StoreMetrics metrics;   // Records lock waits and holds, saves and loads
+    private InstrumentedLock lock;  // Guards the lessons, recorded in the metrics
+
+    /**
+     * Creates a Lesson File Data Access Object
+     * <br>
+     * Its metrics are not reported
+     * 
+     * @param filename Filename to read from and write to
+     * @param objectMapper Provides JSON Object to/from Java Object serialization and deserialization
+     * 
+     * @throws IOException when file cannot be accessed or read from
+     */
+    public LessonFileDAO(String filename,ObjectMapper objectMapper) throws IOException {
+        this(filename, objectMapper, new MetricsRegistry());
+    }
 
     /**
      * Creates a Lesson File Data Access Object
      * 
      * @param filename Filename to read from and write to
      * @param objectMapper Provides JSON Object to/from Java Object serialization and deserialization
+     * @param registry The {@link MetricsRegistry registry} to report the store's metrics to
      * 
      * @throws IOException when file cannot be accessed or read from
      */
-    public LessonFileDAO(@Value("${lessons.file}") String filename,ObjectMapper objectMapper) throws IOException {
+    @Autowired
+    public LessonFileDAO(@Value("${lessons.file}") String filename,ObjectMapper objectMapper,
+                         MetricsRegistry registry) throws IOException {
         this.filename = filename;
         this.objectMapper = objectMapper;
+        this.metrics = new StoreMetrics(registry, "lessons", () -> lessons.size());
+        this.lock = metrics.lock();
         load();  // load the lessons from the file
     }
 
@@ -125,12 +150,15 @@ public class LessonFileDAO implements LessonDAO {
      * @throws IOException when file cannot be accessed or written to
      */
     private boolean save() throws IOException {
+        long start = System.nanoTime();
         Lesson[] lessonArray = getLessonsArray();
 
         // Serializes the Java Objects to JSON objects into the file
         // writeValue will thrown an IOException if there is an issue
         // with the file or reading from the file
-        objectMapper.writeValue(new File(filename),lessonArray);
+        File file = new File(filename);
+        objectMapper.writeValue(file,lessonArray);
+        metrics.saved(start, file);
         return true;
     }
 
@@ -144,6 +172,7 @@ public class LessonFileDAO implements LessonDAO {
      * @throws IOException when file cannot be accessed or read from
      */
     private boolean load() throws IOException {
+        long start = System.nanoTime();
         lessons = new TreeMap<>();
         nextId = 0;
 
@@ -160,6 +189,7 @@ public class LessonFileDAO implements LessonDAO {
         }
         // Make the next id one greater than the maximum from the file
         ++nextId;
+        metrics.loaded(start);
         return true;
     }
 
@@ -168,8 +198,9 @@ public class LessonFileDAO implements LessonDAO {
      */
     @Override
     public Lesson[] getLessons() {
-        synchronized(lessons) {
-            return getInvenLessonsArray(null);
+        try (DaoOperationEvent op = metrics.begin("getLessons");
+             InstrumentedLock.Held held = lock.acquire()) {
+            return op.touched(getInvenLessonsArray(null));
         }
     }
 
@@ -178,8 +209,9 @@ public class LessonFileDAO implements LessonDAO {
      */
     @Override
     public Lesson[] findLessons(String text) {
-        synchronized(lessons) {
-            return getInvenLessonsArray(text);
+        try (DaoOperationEvent op = metrics.begin("findLessons");
+             InstrumentedLock.Held held = lock.acquire()) {
+            return op.touched(getInvenLessonsArray(text));
         }
     }
 
@@ -188,9 +220,10 @@ public class LessonFileDAO implements LessonDAO {
      */
     @Override
     public Lesson getLesson(int id) {
-        synchronized(lessons) {
+        try (DaoOperationEvent op = metrics.begin("getLesson", id);
+             InstrumentedLock.Held held = lock.acquire()) {
             if (lessons.containsKey(id))
-                return lessons.get(id);
+                return op.touched(lessons.get(id));
             else
                 return null;
         }
@@ -201,7 +234,8 @@ public class LessonFileDAO implements LessonDAO {
      */
     @Override
     public Lesson[] getLessonsByUser(String username) {
-        synchronized(lessons) {
+        try (DaoOperationEvent op = metrics.begin("getLessonsByUser", username);
+             InstrumentedLock.Held held = lock.acquire()) {
             ArrayList<Lesson> lessonArrayList = new ArrayList<>();
 
             for (Lesson lesson : lessons.values()) {
@@ -212,7 +246,7 @@ public class LessonFileDAO implements LessonDAO {
 
             Lesson[] lessonArray = new Lesson[lessonArrayList.size()];
             lessonArrayList.toArray(lessonArray);
-            return lessonArray;
+            return op.touched(lessonArray);
         }
     }
 
@@ -221,7 +255,8 @@ public class LessonFileDAO implements LessonDAO {
      */
     @Override
     public Lesson createLesson(Lesson lesson) throws IOException {
-        synchronized(lessons) {
+        try (DaoOperationEvent op = metrics.begin("createLesson");
+             InstrumentedLock.Held held = lock.acquire()) {
             // We create a new lesson object because the id field is immutable
             // and we need to assign the next unique id
             Lesson newLesson = new Lesson(nextId(), lesson.getUsername(), lesson.getTitle(),
@@ -229,7 +264,7 @@ public class LessonFileDAO implements LessonDAO {
                                     lesson.getStartDate(), lesson.getEndDate(), lesson.getPrice());
             lessons.put(newLesson.getId(),newLesson);
             save(); // may throw an IOException
-            return newLesson;
+            return op.touched(newLesson);
         }
     }
 
@@ -238,13 +273,14 @@ public class LessonFileDAO implements LessonDAO {
      */
     @Override
     public Lesson updateLesson(Lesson lesson) throws IOException {
-        synchronized(lessons) {
+        try (DaoOperationEvent op = metrics.begin("updateLesson", lesson.getId());
+             InstrumentedLock.Held held = lock.acquire()) {
             if (lessons.containsKey(lesson.getId()) == false)
                 return null;  // lesson does not exist
 
             lessons.put(lesson.getId(),lesson);
             save(); // may throw an IOException
-            return lesson;
+            return op.touched(lesson);
         }
     }
 
@@ -253,10 +289,11 @@ public class LessonFileDAO implements LessonDAO {
      */
     @Override
     public boolean deleteLesson(int id) throws IOException {
-        synchronized(lessons) {
+        try (DaoOperationEvent op = metrics.begin("deleteLesson", id);
+             InstrumentedLock.Held held = lock.acquire()) {
             if (lessons.containsKey(id)) {
                 lessons.remove(id);
-                return save();
+                return op.touched(save());
             }
             else
                 return false;
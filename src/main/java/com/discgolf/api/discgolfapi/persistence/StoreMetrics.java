@@ -0,0 +1,112 @@
+package com.discgolf.api.discgolfapi.persistence;
+
+import java.io.File;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+import com.discgolf.api.discgolfapi.metrics.DaoOperationEvent;
+import com.discgolf.api.discgolfapi.metrics.Histogram;
+import com.discgolf.api.discgolfapi.metrics.InstrumentedLock;
+import com.discgolf.api.discgolfapi.metrics.MetricsRegistry;
+
+/**
+ * The metrics of one file-based store: its lock, saves and loads, and the
+ * Flight Recorder events of its operations
+ *
+ * @author ZVH
+ */
+class StoreMetrics {
+    private static final double NANOS = 1e-9;
+
+    private final Histogram save;           // Nanoseconds per save
+    private final Histogram load;           // Nanoseconds per load
+    private final LongAdder bytesWritten = new LongAdder();
+    private final AtomicLong fileBytes = new AtomicLong();  // Size of the file last written
+    private final InstrumentedLock lock;
+    private final String store;             // Name of the store
+
+    /**
+     * Creates the metrics of a store
+     *
+     * @param registry The {@link MetricsRegistry registry} to report to
+     * @param store The name of the store
+     * @param records Gives the number of records held
+     */
+    StoreMetrics(MetricsRegistry registry, String store, IntSupplier records) {
+        this.store = store;
+        lock = new InstrumentedLock(registry.histogram("dao_lock_wait_seconds", "Time waiting for a store's lock", NANOS, "store", store),
+                                    registry.histogram("dao_lock_hold_seconds", "Time holding a store's lock", NANOS, "store", store));
+        save = registry.histogram("dao_save_seconds", "Time writing a store's file", NANOS, "store", store);
+        load = registry.histogram("dao_load_seconds", "Time reading a store's file", NANOS, "store", store);
+        registry.counter("dao_written_bytes_total", "Bytes written to a store's file", bytesWritten::sum, "store", store);
+        registry.gauge("dao_file_bytes", "Size of a store's file when last written", fileBytes::get, "store", store);
+        registry.gauge("dao_records", "Records held by a store", records::getAsInt, "store", store);
+    }
+
+    /**
+     * Gets the store's lock
+     *
+     * @return The {@link InstrumentedLock lock} guarding the store
+     */
+    InstrumentedLock lock() {
+        return lock;
+    }
+
+    /**
+     * Records a save
+     *
+     * @param start When the save started, in nanoseconds
+     * @param file The file written
+     */
+    void saved(long start, File file) {
+        save.record(System.nanoTime() - start);
+        long length = file.length();
+        bytesWritten.add(length);
+        fileBytes.set(length);
+    }
+
+    /**
+     * Records a load
+     *
+     * @param start When the load started, in nanoseconds
+     */
+    void loaded(long start) {
+        load.record(System.nanoTime() - start);
+    }
+
+    /**
+     * Begins an operation on the whole store
+     *
+     * @param operation The name of the operation
+     *
+     * @return The {@link DaoOperationEvent event}, to be closed when the operation returns
+     */
+    DaoOperationEvent begin(String operation) {
+        return new DaoOperationEvent(store, operation, -1, null);
+    }
+
+    /**
+     * Begins an operation on a record found by id
+     *
+     * @param operation The name of the operation
+     * @param id The id of the record
+     *
+     * @return The {@link DaoOperationEvent event}, to be closed when the operation returns
+     */
+    DaoOperationEvent begin(String operation, int id) {
+        return new DaoOperationEvent(store, operation, id, null);
+    }
+
+    /**
+     * Begins an operation on a record found by username
+     *
+     * @param operation The name of the operation
+     * @param username The username of the record
+     *
+     * @return The {@link DaoOperationEvent event}, to be closed when the operation returns
+     */
+    DaoOperationEvent begin(String operation, String username) {
+        return new DaoOperationEvent(store, operation, -1, username);
+    }
+}
@@ -55,6 +55,8 @@ public interface UserDAO {
 
     /**
      * Updates and saves a {@linkplain User user}
+     * <br>
+     * A user without a password, e.g. one read from a response, keeps the stored password
      * 
      * @param {@link User user} object to be updated and saved
      * 
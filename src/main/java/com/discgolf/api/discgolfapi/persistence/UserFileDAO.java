@@ -5,10 +5,18 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
+import com.discgolf.api.discgolfapi.auth.PasswordHasher;
+import com.discgolf.api.discgolfapi.metrics.DaoOperationEvent;
+import com.discgolf.api.discgolfapi.metrics.InstrumentedLock;
+import com.discgolf.api.discgolfapi.metrics.MetricsRegistry;
 import com.discgolf.api.discgolfapi.model.User;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -27,24 +35,87 @@ public class UserFileDAO implements UserDAO {
                                 // each time
     private ObjectMapper objectMapper;  // Provides conversion between User
                                         // objects and JSON text format written
-                                        // to the file
+                                        // to the file, including passwords
     private static int nextId;  // The next Id to assign to a new user
     private String filename;    // Filename to read from and write to
+    private StoreMetrics metrics;   // Records lock waits and holds, saves and loads
+    private InstrumentedLock lock;  // Guards the users, recorded in the metrics
+    private PasswordHasher passwordHasher;  // Hashes stored passwords, null to store them as given
 
     /**
      * Creates a User File Data Access Object
+     * <br>
+     * Passwords are stored as given
      * 
      * @param filename Filename to read from and write to
      * @param objectMapper Provides JSON Object to/from Java Object serialization and deserialization
      * 
      * @throws IOException when file cannot be accessed or read from
      */
-    public UserFileDAO(@Value("${users.file}") String filename,ObjectMapper objectMapper) throws IOException {
+    public UserFileDAO(String filename,ObjectMapper objectMapper) throws IOException {
+        this(filename, objectMapper, null);
+    }
+
+    /**
+     * Creates a User File Data Access Object
+     * <br>
+     * Plaintext passwords found in the file are hashed and the file rewritten.
+     * Its metrics are not reported
+     * 
+     * @param filename Filename to read from and write to
+     * @param objectMapper Provides JSON Object to/from Java Object serialization and deserialization
+     * @param passwordHasher Hashes stored passwords, null to store them as given
+     * 
+     * @throws IOException when file cannot be accessed or read from
+     */
+    public UserFileDAO(String filename,ObjectMapper objectMapper,PasswordHasher passwordHasher) throws IOException {
+        this(filename, objectMapper, passwordHasher, new MetricsRegistry());
+    }
+
+    /**
+     * Creates a User File Data Access Object
+     * <br>
+     * Plaintext passwords found in the file are hashed and the file rewritten
+     * 
+     * @param filename Filename to read from and write to
+     * @param objectMapper Provides JSON Object to/from Java Object serialization and deserialization
+     * @param passwordHasher Hashes stored passwords, null to store them as given
+     * @param registry The {@link MetricsRegistry registry} to report the store's metrics to
+     * 
+     * @throws IOException when file cannot be accessed or read from
+     */
+    @Autowired
+    public UserFileDAO(@Value("${users.file}") String filename,ObjectMapper objectMapper,
+                       PasswordHasher passwordHasher,MetricsRegistry registry) throws IOException {
         this.filename = filename;
-        this.objectMapper = objectMapper;
+        this.objectMapper = fileMapper(objectMapper);
+        this.passwordHasher = passwordHasher;
+        this.metrics = new StoreMetrics(registry, "users", () -> users.size());
+        this.lock = metrics.lock();
         load();  // load the users from the file
     }
 
+    /**
+     * Mixed into the {@linkplain User users} written to the file, which keep the
+     * password that responses leave out
+     */
+    abstract static class StoredUser {
+        @JsonProperty(value = "password", access = JsonProperty.Access.READ_WRITE) String password;
+    }
+
+    /**
+     * Copies an object mapper to read and write the users file, passwords included
+     * 
+     * @param objectMapper The object mapper to copy
+     * 
+     * @return The copy
+     */
+    public static ObjectMapper fileMapper(ObjectMapper objectMapper) {
+        ObjectMapper fileMapper = objectMapper.copy();
+        fileMapper.addMixIn(User.class, StoredUser.class);
+        return fileMapper;
+    }
+
     /**
      * Generates the next id for a new {@linkplain User user}
      * 
@@ -56,6 +127,48 @@ public class UserFileDAO implements UserDAO {
         return id;
     }
 
+    /**
+     * Hashes a password loaded from the file unless it is already hashed, or
+     * passwords are stored as given
+     * <br>
+     * Only the file is trusted to hold hashes, passwords from requests are always hashed
+     * 
+     * @param password The password
+     * 
+     * @return The password to store
+     */
+    private String stored(String password) {
+        if (passwordHasher == null || password == null || PasswordHasher.isHashed(password))
+            return password;
+        return passwordHasher.hash(password);
+    }
+
+    /**
+     * Hashes a password from a request on the {@link PasswordHasher hasher}'s pool,
+     * unless passwords are stored as given
+     * <br>
+     * A password shaped like a hash is hashed too, so a client can't choose its
+     * own iteration count or plant a hash. Called before taking the lock, so other
+     * reads and writes don't wait behind the hash
+     * 
+     * @param password The password
+     * 
+     * @return The password to store
+     * 
+     * @throws RejectedExecutionException when the hasher's pool is saturated
+     */
+    private String storedOffLock(String password) {
+        if (passwordHasher == null || password == null)
+            return password;
+        try {
+            return passwordHasher.hashAsync(password).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw e;
+        }
+    }
+
     /**
      * Generates an array of {@linkplain User users} from the tree map
      * 
@@ -96,12 +209,15 @@ public class UserFileDAO implements UserDAO {
      * @throws IOException when file cannot be accessed or written to
      */
     private boolean save() throws IOException {
+        long start = System.nanoTime();
         User[] userArray = getUsersArray();
 
         // Serializes the Java Objects to JSON objects into the file
         // writeValue will thrown an IOException if there is an issue
         // with the file or reading from the file
-        objectMapper.writeValue(new File(filename),userArray);
+        File file = new File(filename);
+        objectMapper.writeValue(file,userArray);
+        metrics.saved(start, file);
         return true;
     }
 
@@ -115,6 +231,7 @@ public class UserFileDAO implements UserDAO {
      * @throws IOException when file cannot be accessed or read from
      */
     private boolean load() throws IOException {
+        long start = System.nanoTime();
         users = new TreeMap<>();
         nextId = 0;
 
@@ -124,13 +241,22 @@ public class UserFileDAO implements UserDAO {
         User[] userArray = objectMapper.readValue(new File(filename),User[].class);
 
         // Add each user to the tree map and keep track of the greatest id
+        boolean migrated = false;
         for (User user : userArray) {
+            String password = stored(user.getPassword());
+            if (password != user.getPassword()) { // Plaintext from before hashing
+                user.setPassword(password);
+                migrated = true;
+            }
             users.put(user.getId(), user);
             if (user.getId() > nextId)
                 nextId = user.getId();
         }
         // Make the next id one greater than the maximum from the file
         ++nextId;
+        metrics.loaded(start);
+        if (migrated)
+            save();
         return true;
     }
 
@@ -139,8 +265,9 @@ public class UserFileDAO implements UserDAO {
      */
     @Override
     public User[] getUsers() {
-        synchronized(users) {
-            return getUsersArray();
+        try (DaoOperationEvent op = metrics.begin("getUsers");
+             InstrumentedLock.Held held = lock.acquire()) {
+            return op.touched(getUsersArray());
         }
     }
 
@@ -150,9 +277,10 @@ public class UserFileDAO implements UserDAO {
      */
     @Override
     public User getUser(int id) {
-        synchronized(users) {
+        try (DaoOperationEvent op = metrics.begin("getUser", id);
+             InstrumentedLock.Held held = lock.acquire()) {
             if (users.containsKey(id))
-                return users.get(id);
+                return op.touched(users.get(id));
             else
                 return null;
         }
@@ -163,10 +291,11 @@ public class UserFileDAO implements UserDAO {
      */
     @Override
     public User getUser(String username) {
-        synchronized(users) {
+        try (DaoOperationEvent op = metrics.begin("getUser", username);
+             InstrumentedLock.Held held = lock.acquire()) {
             for(User user : users.values()) {
                 if(user.getUsername().equalsIgnoreCase(username)) {
-                    return user;
+                    return op.touched(user);
                 }
             }
             return null;
@@ -178,7 +307,9 @@ public class UserFileDAO implements UserDAO {
      */
     @Override
     public User createUser(User user) throws IOException {
-        synchronized(users) {
+        String password = storedOffLock(user.getPassword());
+        try (DaoOperationEvent op = metrics.begin("createUser", user.getUsername());
+             InstrumentedLock.Held held = lock.acquire()) {
             // We create a new user object because the id field is immutable
             // and we need to assign the next unique id
             
@@ -189,10 +320,10 @@ public class UserFileDAO implements UserDAO {
                 }
             } 
 
-            User newUser = new User(nextId(), user.getUsername(), user.getPassword());
+            User newUser = new User(nextId(), user.getUsername(), password);
             users.put(newUser.getId(), newUser);
             save(); // may throw an IOException
-            return newUser;
+            return op.touched(newUser);
         }
     }
 
@@ -201,13 +332,18 @@ public class UserFileDAO implements UserDAO {
      */
     @Override
     public User updateUser(User user) throws IOException {
-        synchronized(users) {
+        // Responses leave the password out, so a user sent back without one keeps theirs
+        boolean keepPassword = user.getPassword() == null || user.getPassword().isBlank();
+        String password = keepPassword ? null : storedOffLock(user.getPassword());
+        try (DaoOperationEvent op = metrics.begin("updateUser", user.getId());
+             InstrumentedLock.Held held = lock.acquire()) {
             if (users.containsKey(user.getId()) == false)
                 return null;  // user does not exist
 
+            user.setPassword(keepPassword ? users.get(user.getId()).getPassword() : password);
             users.put(user.getId(), user);
             save(); // may throw an IOException
-            return user;
+            return op.touched(user);
         }
     }
 
@@ -216,12 +352,13 @@ public class UserFileDAO implements UserDAO {
      */
     @Override
     public boolean deleteUser(String username) throws IOException {
-        synchronized(users) {
+        try (DaoOperationEvent op = metrics.begin("deleteUser", username);
+             InstrumentedLock.Held held = lock.acquire()) {
 
             for(User user : users.values()) {
                 if(user.getUsername().equalsIgnoreCase(username)) {
                     users.remove(user.getId());
-                    return save();
+                    return op.touched(save());
                 }
             }
 
@@ -236,10 +373,11 @@ public class UserFileDAO implements UserDAO {
      * @throws IOException
      */
     public boolean deleteUser(int id) throws IOException {
-        synchronized(users) {
+        try (DaoOperationEvent op = metrics.begin("deleteUser", id);
+             InstrumentedLock.Held held = lock.acquire()) {
             if (users.containsKey(id)) {
                 users.remove(id);
-                return save();
+                return op.touched(save());
             }
             else
                 return false;
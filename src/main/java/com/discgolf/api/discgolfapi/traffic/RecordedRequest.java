@@ -0,0 +1,113 @@
+package com.discgolf.api.discgolfapi.traffic;
+
+/**
+ * One request as recorded by the {@link TrafficRecordingFilter}, with its
+ * secrets {@linkplain Redaction redacted}
+ *
+ * @author ZVH
+ */
+public class RecordedRequest {
+    private static final byte[] NO_BODY = new byte[0];
+
+    private final long time;            // When the request arrived, in epoch microseconds
+    private final String method;
+    private final String uri;           // Path and query
+    private final String pattern;       // Mapped path pattern such as /discs/{id}, empty if not mapped
+    private final String contentType;   // Empty if none
+    private final byte[] body;
+    private final int status;
+    private final long latency;         // Microseconds to complete the response
+
+    /**
+     * Creates a Recorded Request
+     *
+     * @param time When the request arrived, in epoch microseconds
+     * @param method The HTTP method
+     * @param uri The path and query
+     * @param pattern The mapped path pattern, null or empty if not mapped
+     * @param contentType The request's content type, null or empty if none
+     * @param body The request body, null if none
+     * @param status The response status
+     * @param latency Microseconds to complete the response
+     */
+    public RecordedRequest(long time, String method, String uri, String pattern, String contentType,
+                           byte[] body, int status, long latency) {
+        this.time = time;
+        this.method = method;
+        this.uri = uri;
+        this.pattern = pattern == null ? "" : pattern;
+        this.contentType = contentType == null ? "" : contentType;
+        this.body = body == null ? NO_BODY : body;
+        this.status = status;
+        this.latency = latency;
+    }
+
+    /**
+     * Gets when the request arrived
+     *
+     * @return Epoch microseconds
+     */
+    public long getTime() { return time; }
+
+    /**
+     * Gets the HTTP method
+     *
+     * @return The method
+     */
+    public String getMethod() { return method; }
+
+    /**
+     * Gets the path and query
+     *
+     * @return The URI, relative to the server
+     */
+    public String getUri() { return uri; }
+
+    /**
+     * Gets the mapped path pattern, such as {@code /discs/{id}}
+     *
+     * @return The pattern, empty if the request was not mapped
+     */
+    public String getPattern() { return pattern; }
+
+    /**
+     * Gets the request's content type
+     *
+     * @return The content type, empty if none
+     */
+    public String getContentType() { return contentType; }
+
+    /**
+     * Gets the request body, up to the recorder's limit
+     *
+     * @return The body, empty if none
+     */
+    public byte[] getBody() { return body; }
+
+    /**
+     * Gets the response status
+     *
+     * @return The status
+     */
+    public int getStatus() { return status; }
+
+    /**
+     * Gets how long the response took
+     *
+     * @return Microseconds
+     */
+    public long getLatency() { return latency; }
+
+    /**
+     * Gets the endpoint the request is reported under
+     *
+     * @return The method and pattern, such as {@code GET /discs/{id}}, or the
+     * method and path if not mapped
+     */
+    public String getEndpoint() {
+        if (!pattern.isEmpty())
+            return method + " " + pattern;
+        int query = uri.indexOf('?');
+        return method + " " + (query < 0 ? uri : uri.substring(0, query));
+    }
+}
@@ -0,0 +1,51 @@
+package com.discgolf.api.discgolfapi.traffic;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Removes passwords from the paths and bodies of requests before they are
+ * recorded or logged
+ * <p>
+ * The password segment of {@code /users/{username}/login/{password}} and the
+ * value of every JSON {@code "password"} property are replaced with
+ * {@link #REDACTED}
+ *
+ * @author ZVH
+ */
+public final class Redaction {
+    /** What a password is replaced with */
+    public static final String REDACTED = "REDACTED";
+
+    private static final Pattern LOGIN_PATH = Pattern.compile("^(/users/[^/?]+/login/)[^/?]+");
+    private static final Pattern PASSWORD_PROPERTY = Pattern.compile("(\"password\"\\s*:\\s*)\"(?:[^\"\\\\]|\\\\.)*\"");
+
+    private Redaction() {}
+
+    /**
+     * Redacts the password from a login path
+     *
+     * @param uri The path, with or without its query
+     *
+     * @return The path with any password replaced
+     */
+    public static String path(String uri) {
+        if (uri == null || !uri.startsWith("/users/"))
+            return uri;
+        Matcher matcher = LOGIN_PATH.matcher(uri);
+        return matcher.find() ? matcher.replaceFirst("$1" + REDACTED) : uri;
+    }
+
+    /**
+     * Redacts the passwords from a JSON body
+     *
+     * @param body The body
+     *
+     * @return The body with the value of every password property replaced
+     */
+    public static String body(String body) {
+        if (body == null || !body.contains("\"password\""))
+            return body;
+        return PASSWORD_PROPERTY.matcher(body).replaceAll("$1\"" + REDACTED + "\"");
+    }
+}
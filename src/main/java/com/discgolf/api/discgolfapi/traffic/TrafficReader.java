@@ -0,0 +1,100 @@
+package com.discgolf.api.discgolfapi.traffic;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+/**
+ * Reads the {@linkplain RecordedRequest recorded requests} of a traffic recording
+ * in the order they were written, as described by {@link TrafficWriter}
+ * <p>
+ * A record cut short, as by the server stopping mid-write, ends the recording
+ *
+ * @author ZVH
+ */
+public class TrafficReader implements Closeable {
+    private static final int MAX_BODY = 64 * 1024 * 1024;  // Longer is taken as a corrupt file
+
+    private final DataInputStream in;
+    private final File file;
+
+    /**
+     * Opens a recording to read
+     *
+     * @param file The recording file
+     *
+     * @throws IOException when the file cannot be read, or is not a recording
+     */
+    public TrafficReader(File file) throws IOException {
+        this.file = file;
+        in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 64 * 1024));
+        try {
+            readHeader(in, file);
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads and checks the header of a recording
+     *
+     * @param in The stream at the start of the file
+     * @param file The file, for the error message
+     *
+     * @throws IOException when the file is not a recording of a known version
+     */
+    static void readHeader(DataInputStream in, File file) throws IOException {
+        try {
+            if (in.readInt() != TrafficWriter.MAGIC)
+                throw new IOException(file + " is not a traffic recording");
+            int version = in.readUnsignedByte();
+            if (version != TrafficWriter.VERSION)
+                throw new IOException(file + " is a version " + version + " traffic recording, expected "
+                                      + TrafficWriter.VERSION);
+        } catch (EOFException e) {
+            throw new IOException(file + " is not a traffic recording", e);
+        }
+    }
+
+    /**
+     * Reads the next request
+     *
+     * @return The {@link RecordedRequest request}, null at the end of the recording
+     *
+     * @throws IOException when the file cannot be read, or is corrupt
+     */
+    public RecordedRequest next() throws IOException {
+        try {
+            long time = in.readLong();
+            String method = in.readUTF();
+            String uri = in.readUTF();
+            String pattern = in.readUTF();
+            String contentType = in.readUTF();
+            int length = in.readInt();
+            if (length < 0 || length > MAX_BODY)
+                throw new IOException(file + " is corrupt, a body of " + length + " bytes");
+            byte[] body = new byte[length];
+            in.readFully(body);
+            int status = in.readUnsignedShort();
+            long latency = in.readInt();
+            return new RecordedRequest(time, method, uri, pattern, contentType, body, status, latency);
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Closes the file
+     *
+     * @throws IOException when the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
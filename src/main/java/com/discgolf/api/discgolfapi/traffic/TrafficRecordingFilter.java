@@ -0,0 +1,188 @@
+package com.discgolf.api.discgolfapi.traffic;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.PreDestroy;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.discgolf.api.discgolfapi.filter.Filters;
+import com.discgolf.api.discgolfapi.metrics.MetricsFilter;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingRequestWrapper;
+
+/**
+ * Records every request, with its arrival time, body, status and latency, to
+ * a {@linkplain TrafficWriter traffic recording} to replay later
+ * <p>
+ * Recording is off unless {@code traffic.record.file} names the file, which
+ * is appended to. Bodies are kept up to {@code traffic.record.body.max}
+ * bytes, and passwords are {@linkplain Redaction redacted}. Headers, and so
+ * session tokens, are not recorded
+ * <p>
+ * {@literal @}Component Spring annotation registers the filter for every request,
+ * before the other filters so the requests they reject are recorded too
+ *
+ * @author ZVH
+ */
+@Component
+@Order(TrafficRecordingFilter.ORDER)
+public class TrafficRecordingFilter extends OncePerRequestFilter {
+    private static final Logger LOG = Logger.getLogger(TrafficRecordingFilter.class.getName());
+    /** Filter order, before the {@link MetricsFilter metrics filter} */
+    public static final int ORDER = MetricsFilter.ORDER - 10;
+
+    private final TrafficWriter writer; // Null when not recording
+    private final int maxBody;          // Bytes of each body recorded
+    private final LongSupplier clock;   // Current time in nanoseconds
+    private final long epoch;           // Epoch microseconds at clock time zero
+    private volatile boolean failed;    // Whether a write has failed, logged once
+
+    /**
+     * Creates a Traffic Recording Filter
+     *
+     * @param file The recording to append to, empty to not record
+     * @param maxBody Bytes of each body recorded
+     * <br>
+     * These dependencies are injected by the Spring Framework
+     *
+     * @throws IOException when the recording cannot be opened
+     */
+    @Autowired
+    public TrafficRecordingFilter(@Value("${traffic.record.file:}") String file,
+                                  @Value("${traffic.record.body.max:65536}") int maxBody) throws IOException {
+        this(file.isEmpty() ? null : new TrafficWriter(new File(file)), maxBody, System::nanoTime);
+        if (writer != null)
+            LOG.info("Recording traffic to " + file);
+    }
+
+    /**
+     * Creates a Traffic Recording Filter with the given clock
+     *
+     * @param writer The {@link TrafficWriter writer} of the recording, null to not record
+     * @param maxBody Bytes of each body recorded
+     * @param clock Gives the current time in nanoseconds
+     */
+    TrafficRecordingFilter(TrafficWriter writer, int maxBody, LongSupplier clock) {
+        this.writer = writer;
+        this.maxBody = maxBody;
+        this.clock = clock;
+        this.epoch = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis())
+                     - TimeUnit.NANOSECONDS.toMicros(clock.getAsLong());
+    }
+
+    /**
+     * Checks whether traffic is being recorded
+     *
+     * @return true if it is
+     */
+    public boolean isRecording() {
+        return writer != null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return writer == null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long start = clock.getAsLong();
+        ContentCachingRequestWrapper caching = new ContentCachingRequestWrapper(request, maxBody);
+        try {
+            chain.doFilter(caching, response);
+        } finally { // Record once the response is sent
+            Filters.onComplete(request, () -> record(caching, response, start));
+        }
+    }
+
+    /**
+     * Records a completed request
+     *
+     * @param request The request, holding the body read from it
+     * @param response The response
+     * @param start When the request arrived, in nanoseconds
+     */
+    private void record(ContentCachingRequestWrapper request, HttpServletResponse response, long start) {
+        long end = clock.getAsLong();
+        String uri = Redaction.path(request.getRequestURI());
+        if (request.getQueryString() != null)
+            uri += "?" + request.getQueryString();
+        byte[] body = request.getContentAsByteArray();
+        if (body.length > 0) {
+            String text = new String(body, StandardCharsets.UTF_8);
+            String redacted = Redaction.body(text);
+            if (!redacted.equals(text))
+                body = redacted.getBytes(StandardCharsets.UTF_8);
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+
+        RecordedRequest recorded = new RecordedRequest(epoch + TimeUnit.NANOSECONDS.toMicros(start), request.getMethod(), uri,
+                                                       pattern != null ? pattern.toString() : null, request.getContentType(),
+                                                       body, response.getStatus(), TimeUnit.NANOSECONDS.toMicros(end - start));
+        try {
+            writer.append(recorded);
+        } catch (IOException e) {
+            if (!failed) {
+                failed = true;
+                LOG.log(Level.SEVERE, "Traffic recording failed: " + e.getLocalizedMessage());
+            }
+        }
+    }
+
+    /**
+     * Writes the buffered requests to the recording
+     * <br>
+     * The writer only flushes as requests arrive, so this bounds how long the
+     * last requests before a quiet spell stay in its buffer
+     */
+    @Scheduled(fixedDelayString = "#{${traffic.record.flush.interval:1} * 1000}")
+    public void flush() {
+        if (writer == null)
+            return;
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            if (!failed) {
+                failed = true;
+                LOG.log(Level.SEVERE, "Traffic recording failed: " + e.getLocalizedMessage());
+            }
+        }
+    }
+
+    /**
+     * Writes the buffered requests and closes the recording
+     */
+    @PreDestroy
+    public void close() {
+        if (writer == null)
+            return;
+        try {
+            writer.close();
+        } catch (IOException e) {
+            LOG.log(Level.SEVERE, "Traffic recording failed: " + e.getLocalizedMessage());
+        }
+    }
+}
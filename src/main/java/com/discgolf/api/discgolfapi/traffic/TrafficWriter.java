@@ -0,0 +1,130 @@
+package com.discgolf.api.discgolfapi.traffic;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Appends {@linkplain RecordedRequest recorded requests} to a traffic recording file
+ * <p>
+ * The file starts with the {@link #MAGIC magic number} and {@link #VERSION version},
+ * then holds one record per request:
+ * <pre>
+ * long   time, epoch microseconds
+ * UTF    method
+ * UTF    uri
+ * UTF    pattern, empty if not mapped
+ * UTF    content type, empty if none
+ * int    body length, then the body
+ * short  status
+ * int    latency, microseconds
+ * </pre>
+ * Records are buffered and written when the buffer fills, by the first append
+ * a second after the last write, on {@link #flush()} and on close. Appending
+ * to an existing recording continues it
+ * <p>
+ * Writers take a lock rather than a monitor, so a request thread writing to
+ * the file doesn't pin a virtual thread's carrier
+ *
+ * @author ZVH
+ */
+public class TrafficWriter implements Closeable {
+    /** Starts every recording, "DGTR" */
+    public static final int MAGIC = 0x44475452;
+    /** The version of the record format */
+    public static final int VERSION = 1;
+    private static final long FLUSH_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+
+    private final DataOutputStream out;
+    private final ReentrantLock lock = new ReentrantLock();  // Guards the stream
+    private long flushed = System.nanoTime();   // When the buffer was last written, in nanoseconds
+
+    /**
+     * Opens a recording to append to, creating it if needed
+     *
+     * @param file The recording file
+     *
+     * @throws IOException when the file cannot be opened, or is not a recording
+     */
+    public TrafficWriter(File file) throws IOException {
+        boolean exists = file.length() > 0;
+        if (exists) {
+            try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+                TrafficReader.readHeader(in, file);
+            }
+        }
+        out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true), 64 * 1024));
+        if (!exists) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.flush();
+        }
+    }
+
+    /**
+     * Appends a request
+     *
+     * @param request The {@link RecordedRequest request}
+     *
+     * @throws IOException when the file cannot be written
+     */
+    public void append(RecordedRequest request) throws IOException {
+        lock.lock();
+        try {
+            out.writeLong(request.getTime());
+            out.writeUTF(request.getMethod());
+            out.writeUTF(request.getUri());
+            out.writeUTF(request.getPattern());
+            out.writeUTF(request.getContentType());
+            out.writeInt(request.getBody().length);
+            out.write(request.getBody());
+            out.writeShort(request.getStatus());
+            out.writeInt((int) Math.min(Integer.MAX_VALUE, request.getLatency()));
+
+            long now = System.nanoTime();
+            if (now - flushed > FLUSH_INTERVAL) {
+                out.flush();
+                flushed = now;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes the buffered requests to the file
+     *
+     * @throws IOException when the file cannot be written
+     */
+    public void flush() throws IOException {
+        lock.lock();
+        try {
+            out.flush();
+            flushed = System.nanoTime();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes the buffered requests and closes the file
+     *
+     * @throws IOException when the file cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            out.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
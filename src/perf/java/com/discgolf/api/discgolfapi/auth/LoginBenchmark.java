@@ -0,0 +1,86 @@
+package com.discgolf.api.discgolfapi.auth;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures login throughput against the PBKDF2 cost
+ * <p>
+ * {@code callerThread} verifies on the calling thread, as a request thread did
+ * before verification had its own pool. {@code pool} verifies on the
+ * {@link PasswordHasher hasher}'s pool. The {@code burst} group runs logins
+ * alongside cheap catalog-like work, to show how much of the machine a login
+ * burst leaves the rest of the requests
+ * <p>
+ * Run with {@code mvn -P benchmark test-compile exec:exec@benchmark -Dbenchmark=LoginBenchmark}
+ *
+ * @author ZVH
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoginBenchmark {
+    @Param({"10000", "100000", "310000"})
+    public int iterations;
+
+    private PasswordHasher passwordHasher;
+    private String stored;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        passwordHasher = new PasswordHasher(iterations, 0, 1024);
+        stored = passwordHasher.hash("supersecureadmin");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        passwordHasher.shutdown();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean callerThread() {
+        return PasswordHasher.matches("supersecureadmin", stored);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean pool() {
+        return passwordHasher.verify("supersecureadmin", stored).join();
+    }
+
+    @Benchmark
+    @Group("burst")
+    @GroupThreads(8)
+    public boolean burstLogin() {
+        return passwordHasher.verify("supersecureadmin", stored).join();
+    }
+
+    @Benchmark
+    @Group("burst")
+    @GroupThreads(2)
+    public void burstCatalog(Blackhole blackhole) {
+        Blackhole.consumeCPU(1000);
+        blackhole.consume(stored.length());
+    }
+}
@@ -0,0 +1,273 @@
+package com.discgolf.api.discgolfapi.dataset;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Random;
+
+import com.discgolf.api.discgolfapi.auth.PasswordHasher;
+import com.discgolf.api.discgolfapi.model.Cart;
+import com.discgolf.api.discgolfapi.model.Disc;
+import com.discgolf.api.discgolfapi.model.Lesson;
+import com.discgolf.api.discgolfapi.model.User;
+import com.discgolf.api.discgolfapi.persistence.UserFileDAO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+
+/**
+ * Generates consistent {@code discs.json}, {@code users.json},
+ * {@code carts.json} and {@code lessons.json} files of any size, the same
+ * for the same sizes and seed
+ * <p>
+ * Records have ids from 1, and user {@code n} is named {@link #username(int) user<n>}.
+ * Carts belong to the first users, one each, and hold real disc ids. Lessons
+ * run for 1 to 12 weeks starting in 2022, on days such as {@code MWF} or
+ * {@code SatSun}, and about a third are booked by a user. Every user's
+ * password is {@link #PASSWORD}, stored hashed with one salt drawn from the
+ * seed, since hashing each user's would take longer than the rest of the generation
+ * <p>
+ * Records are streamed to the files, so millions of them need little memory.
+ * Run with {@code mvn -P benchmark test-compile exec:exec@dataset -Ddataset.discs=1000000 -Ddataset.users=500000},
+ * writing to {@code target/dataset}
+ *
+ * @author ZVH
+ */
+public class DatasetGenerator {
+    /** The password of every generated user */
+    public static final String PASSWORD = "password";
+    /** The format of lesson dates */
+    public static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("MM/dd/yyyy");
+    /** The first day a lesson may start */
+    public static final LocalDate FIRST_DAY = LocalDate.of(2022, 1, 1);
+    /** The colors of discs */
+    public static final String[] COLORS = {"Red", "Blue", "Green", "Yellow", "Orange", "Pink", "White", "Black", "Purple", "Glow"};
+    /** The types of discs */
+    public static final String[] TYPES = {"Putter", "Midrange", "Fairway Driver", "Distance Driver"};
+    static final String[] DAYS = {"MWF", "TuTh", "SatSun", "M", "Tu", "W", "Th", "F", "Sat", "Sun", "MW", "MTuWThF"};
+    static final String[] TITLES = {"Putting", "Form Improvement", "Accuracy", "Driving", "Approach Shots", "Course Strategy"};
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private int discs = 1000;
+    private int users = 1000;
+    private int carts = 1000;
+    private int lessons = 100;
+    private int stock = 50;
+    private long seed = 42;
+
+    /**
+     * Sets the number of discs
+     *
+     * @param discs The number of discs
+     *
+     * @return This generator
+     */
+    public DatasetGenerator discs(int discs) {
+        this.discs = discs;
+        return this;
+    }
+
+    /**
+     * Sets the number of users
+     *
+     * @param users The number of users
+     *
+     * @return This generator
+     */
+    public DatasetGenerator users(int users) {
+        this.users = users;
+        return this;
+    }
+
+    /**
+     * Sets the number of carts, at most one per user
+     *
+     * @param carts The number of carts
+     *
+     * @return This generator
+     */
+    public DatasetGenerator carts(int carts) {
+        this.carts = carts;
+        return this;
+    }
+
+    /**
+     * Sets the number of lessons
+     *
+     * @param lessons The number of lessons
+     *
+     * @return This generator
+     */
+    public DatasetGenerator lessons(int lessons) {
+        this.lessons = lessons;
+        return this;
+    }
+
+    /**
+     * Sets the most of each disc in stock
+     *
+     * @param stock The greatest quantity of a disc
+     *
+     * @return This generator
+     */
+    public DatasetGenerator stock(int stock) {
+        this.stock = stock;
+        return this;
+    }
+
+    /**
+     * Sets the seed the records are generated from
+     *
+     * @param seed The seed
+     *
+     * @return This generator
+     */
+    public DatasetGenerator seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * Gets the username of the user with the given id
+     *
+     * @param id The id of the user
+     *
+     * @return The username
+     */
+    public static String username(int id) {
+        return "user" + id;
+    }
+
+    /**
+     * Writes all four files to a directory
+     *
+     * @param directory The directory, created if needed
+     *
+     * @throws IOException when a file cannot be written
+     */
+    public void write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        writeDiscs(directory.resolve("discs.json").toFile());
+        writeUsers(directory.resolve("users.json").toFile());
+        writeCarts(directory.resolve("carts.json").toFile());
+        writeLessons(directory.resolve("lessons.json").toFile());
+    }
+
+    /**
+     * Writes the discs
+     *
+     * @param file The file to write
+     *
+     * @throws IOException when the file cannot be written
+     */
+    public void writeDiscs(File file) throws IOException {
+        Random random = new Random(seed);
+        try (SequenceWriter writer = objectMapper.writer().writeValuesAsArray(file)) {
+            for (int id = 1; id <= discs; id++)
+                writer.write(new Disc(id, COLORS[random.nextInt(COLORS.length)], 150 + random.nextInt(31),
+                                      TYPES[random.nextInt(TYPES.length)], 8 + random.nextInt(2300) / 100.0,
+                                      random.nextInt(stock + 1)));
+        }
+    }
+
+    /**
+     * Writes the users
+     *
+     * @param file The file to write
+     *
+     * @throws IOException when the file cannot be written
+     */
+    public void writeUsers(File file) throws IOException {
+        byte[] salt = new byte[16];
+        new Random(seed + 3).nextBytes(salt);
+        PasswordHasher passwordHasher = new PasswordHasher(1000, 1, 1);
+        String password = passwordHasher.hash(PASSWORD, salt);
+        passwordHasher.shutdown();
+        try (SequenceWriter writer = UserFileDAO.fileMapper(objectMapper).writer().writeValuesAsArray(file)) {
+            for (int id = 1; id <= users; id++)
+                writer.write(new User(id, username(id), password));
+        }
+    }
+
+    /**
+     * Writes the carts, belonging to the first users and holding up to five lines each
+     *
+     * @param file The file to write
+     *
+     * @throws IOException when the file cannot be written
+     */
+    public void writeCarts(File file) throws IOException {
+        Random random = new Random(seed + 1);
+        try (SequenceWriter writer = objectMapper.writer().writeValuesAsArray(file)) {
+            for (int id = 1; id <= Math.min(carts, users); id++) {
+                HashMap<Integer,Integer> contents = new HashMap<>();
+                for (int lines = discs > 0 ? random.nextInt(6) : 0; lines > 0; lines--)
+                    contents.put(1 + random.nextInt(discs), 1 + random.nextInt(3));
+                writer.write(new Cart(id, username(id), contents));
+            }
+        }
+    }
+
+    /**
+     * Writes the lessons
+     *
+     * @param file The file to write
+     *
+     * @throws IOException when the file cannot be written
+     */
+    public void writeLessons(File file) throws IOException {
+        Random random = new Random(seed + 2);
+        try (SequenceWriter writer = objectMapper.writer().writeValuesAsArray(file)) {
+            for (int id = 1; id <= lessons; id++) {
+                LocalDate start = FIRST_DAY.plusDays(random.nextInt(365));
+                LocalDate end = start.plusWeeks(1 + random.nextInt(12));
+                String username = users > 0 && random.nextInt(3) == 0 ? username(1 + random.nextInt(users)) : null;
+                String title = TITLES[random.nextInt(TITLES.length)];
+                writer.write(new Lesson(id, username, title, title + " for all levels", DAYS[random.nextInt(DAYS.length)],
+                                        start.format(DATE), end.format(DATE), 5 * (10 + random.nextInt(31))));
+            }
+        }
+    }
+
+    /**
+     * Generates a dataset
+     *
+     * @param args The directory to write to, then any of {@code --discs=N},
+     * {@code --users=N}, {@code --carts=N}, {@code --lessons=N}, {@code --stock=N}
+     * and {@code --seed=N}
+     *
+     * @throws IOException when a file cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: DatasetGenerator <directory> [--discs=N] [--users=N] [--carts=N] [--lessons=N] [--stock=N] [--seed=N]");
+            System.exit(2);
+        }
+
+        DatasetGenerator generator = new DatasetGenerator();
+        for (int i = 1; i < args.length; i++) {
+            String[] option = args[i].replaceFirst("^--", "").split("=", 2);
+            if (option.length != 2)
+                throw new IllegalArgumentException("Expected --name=value, got " + args[i]);
+            long value = Long.parseLong(option[1]);
+            switch (option[0]) {
+                case "discs": generator.discs((int) value); break;
+                case "users": generator.users((int) value); break;
+                case "carts": generator.carts((int) value); break;
+                case "lessons": generator.lessons((int) value); break;
+                case "stock": generator.stock((int) value); break;
+                case "seed": generator.seed(value); break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        Path directory = Paths.get(args[0]);
+        long start = System.nanoTime();
+        generator.write(directory);
+        System.out.printf("Wrote %s in %.1f s%n", directory.toAbsolutePath(), (System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,392 @@
+package com.discgolf.api.discgolfapi.load;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.discgolf.api.discgolfapi.DiscsApiApplication;
+import com.discgolf.api.discgolfapi.dataset.DatasetGenerator;
+import com.discgolf.api.discgolfapi.metrics.Histogram;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Drives an embedded server with simulated shoppers and reports the throughput
+ * and latency of each endpoint
+ * <p>
+ * The server starts on a random port with a {@link DatasetGenerator generated}
+ * dataset in a temporary directory, its catalog stocked deep enough that
+ * purchases never sell it out. Each shopper is one of the users, logs in,
+ * creates a cart, and repeatedly picks a scenario, pausing for an exponentially
+ * distributed think time after each response:
+ * <ul>
+ * <li>browse, 35%: the catalog, then a disc
+ * <li>search, 20%: {@code /discs/filter} by type or color
+ * <li>cart, 25%: add a disc, and sometimes remove one
+ * <li>checkCart, 8%, and purchaseCart, 4%
+ * <li>lessons, 8%: the lessons held on a day
+ * </ul>
+ * Shoppers wait for each response before sending their next request, so an
+ * overloaded server sees fewer requests rather than a growing queue
+ * <p>
+ * Configured by system properties, {@code load.users}, {@code load.duration}
+ * and {@code load.warmup} seconds, {@code load.think} milliseconds,
+ * {@code load.discs}, {@code load.lessons}, and {@code load.ratelimit} to keep
+ * the per-client rate limits, which otherwise throttle every shopper as the one
+ * local address. Results are also written as JSON to {@code load.output}
+ * <p>
+ * Run with {@code mvn -P benchmark test-compile exec:exec@load -Dload.users=100}
+ *
+ * @author ZVH
+ */
+public class LoadTest {
+    static final long SEED = 42;
+    static final String[] COLORS = DatasetGenerator.COLORS;
+    static final String[] TYPES = DatasetGenerator.TYPES;
+
+    private final int users;
+    private final long duration;    // Nanoseconds measured
+    private final long warmup;      // Nanoseconds run before measuring
+    private final double think;     // Mean milliseconds between a response and the next request
+    private final int discs;
+    private final int lessons;
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final Map<String,Endpoint> endpoints = new ConcurrentHashMap<>();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private String base;                // The server's URL
+    private volatile boolean measuring; // Whether responses are recorded
+
+    /**
+     * The latencies and outcomes of the requests to one endpoint
+     */
+    static class Endpoint {
+        final Histogram latency = new Histogram();  // Nanoseconds
+        final LongAdder errors = new LongAdder();   // Failed to send, or a server error
+        final LongAdder rejected = new LongAdder(); // Shed or rate limited, 429 or 503
+    }
+
+    /**
+     * Creates a Load Test
+     *
+     * @param users The number of shoppers
+     * @param duration Seconds measured
+     * @param warmup Seconds run before measuring
+     * @param think Mean milliseconds between a response and the next request
+     * @param discs The number of discs in the catalog
+     * @param lessons The number of lessons
+     */
+    LoadTest(int users, int duration, int warmup, double think, int discs, int lessons) {
+        this.users = users;
+        this.duration = TimeUnit.SECONDS.toNanos(duration);
+        this.warmup = TimeUnit.SECONDS.toNanos(warmup);
+        this.think = think;
+        this.discs = discs;
+        this.lessons = lessons;
+    }
+
+    /**
+     * Runs the load test against a new embedded server
+     *
+     * @param args Unused, configured by system properties
+     *
+     * @throws Exception when the server or a shopper fails to start
+     */
+    public static void main(String[] args) throws Exception {
+        LoadTest loadTest = new LoadTest(Integer.getInteger("load.users", 50), Integer.getInteger("load.duration", 60),
+                                         Integer.getInteger("load.warmup", 10), Integer.getInteger("load.think", 100),
+                                         Integer.getInteger("load.discs", 1000), Integer.getInteger("load.lessons", 200));
+        Path data = Files.createTempDirectory("discgolf-load-");
+        ConfigurableApplicationContext server = SpringApplication.run(DiscsApiApplication.class,
+            loadTest.serverArgs(data, Boolean.getBoolean("load.ratelimit")));
+        try {
+            loadTest.base = "http://localhost:" + ((WebServerApplicationContext) server).getWebServer().getPort();
+            loadTest.run();
+        } finally {
+            server.close();
+            for (File file : data.toFile().listFiles())
+                file.delete();
+            data.toFile().delete();
+        }
+
+        PrintStream out = System.out;
+        loadTest.report(out);
+        String output = System.getProperty("load.output", "target/load-results.json");
+        File file = new File(output);
+        file.getAbsoluteFile().getParentFile().mkdirs();
+        try (PrintStream json = new PrintStream(file)) {
+            loadTest.writeJson(json);
+        }
+        out.println("Results written to " + output);
+    }
+
+    /**
+     * Writes the server's data files and builds its arguments
+     *
+     * @param data The directory to write the data to
+     * @param rateLimited Whether to keep the per-client rate limits
+     *
+     * @return The server's command line arguments
+     *
+     * @throws IOException when the data cannot be written
+     */
+    String[] serverArgs(Path data, boolean rateLimited) throws IOException {
+        new DatasetGenerator().discs(discs).users(users).carts(0).lessons(lessons).stock(1_000_000_000).write(data);
+
+        List<String> args = new ArrayList<>(List.of(
+            "--server.port=0",
+            "--discs.file=" + data.resolve("discs.json"),
+            "--lessons.file=" + data.resolve("lessons.json"),
+            "--carts.file=" + data.resolve("carts.json"),
+            "--users.file=" + data.resolve("users.json"),
+            "--carts.cold.file=" + data.resolve("carts-cold.json"),
+            "--idempotency.file=",
+            "--logging.level.com.discgolf.api.discgolfapi.access=WARN"));
+        if (!rateLimited)
+            for (String group : new String[]{"browse", "cart", "checkout", "login", "admin", "other"})
+                args.add("--ratelimit." + group + ".rate=0");
+        return args.toArray(new String[0]);
+    }
+
+    /**
+     * Runs the shoppers through the warmup and the measured duration
+     *
+     * @throws InterruptedException when interrupted while waiting for the shoppers
+     */
+    void run() throws InterruptedException {
+        long start = System.nanoTime();
+        long measureFrom = start + warmup;
+        long end = measureFrom + duration;
+
+        ExecutorService shoppers = Executors.newFixedThreadPool(users);
+        for (int i = 0; i < users; i++) {
+            String username = DatasetGenerator.username(i + 1);
+            Random random = new Random(SEED + i);
+            shoppers.execute(() -> shop(username, random, end));
+        }
+        shoppers.shutdown();
+
+        long now;
+        while ((now = System.nanoTime()) < measureFrom)
+            TimeUnit.NANOSECONDS.sleep(measureFrom - now);
+        measuring = true;
+        shoppers.awaitTermination(duration + TimeUnit.MINUTES.toNanos(1), TimeUnit.NANOSECONDS);
+        measuring = false;
+    }
+
+    /**
+     * Shops until the end, picking a scenario after each think time
+     *
+     * @param username The shopper's username, who logs in and creates a cart first
+     * @param random The shopper's source of choices
+     * @param end When to stop, in nanoseconds
+     */
+    private void shop(String username, Random random, long end) {
+        String token;
+        try {
+            token = login(client, objectMapper, base, username);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        send("POST /carts", "POST", "/carts", username, token);
+        while (System.nanoTime() < end) {
+            int scenario = random.nextInt(100);
+            int disc = 1 + random.nextInt(discs);
+            if (scenario < 35) {
+                send("GET /discs", "GET", "/discs", null, token);
+                send("GET /discs/{id}", "GET", "/discs/" + disc, null, token);
+            } else if (scenario < 55) {
+                if (random.nextBoolean())
+                    send("GET /discs/filter", "GET", "/discs/filter?search=" + TYPES[random.nextInt(TYPES.length)].replace(' ', '+') + "&mode=1", null, token);
+                else
+                    send("GET /discs/filter", "GET", "/discs/filter?search=" + COLORS[random.nextInt(COLORS.length)] + "&mode=2", null, token);
+            } else if (scenario < 80) {
+                send("PUT /carts/addDisc", "PUT", "/carts/addDisc/" + username + "/" + disc, null, token);
+                if (random.nextInt(4) == 0)
+                    send("PUT /carts/removeDisc", "PUT", "/carts/removeDisc/" + username + "/" + disc, null, token);
+            } else if (scenario < 88) {
+                send("GET /carts/checkCart", "GET", "/carts/checkCart/" + username, null, token);
+            } else if (scenario < 92) {
+                send("PUT /carts/purchase", "PUT", "/carts/purchase/" + username, null, token);
+            } else {
+                LocalDate day = DatasetGenerator.FIRST_DAY.plusDays(random.nextInt(365));
+                send("GET /lessons/dates", "GET", "/lessons/dates?date=" + day.format(DatasetGenerator.DATE), null, token);
+            }
+
+            if (think > 0) {
+                try {
+                    Thread.sleep((long) (-think * Math.log(1 - random.nextDouble())));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Sends a request and records its latency and outcome against its endpoint
+     *
+     * @param endpoint The name the endpoint is reported as
+     * @param method The HTTP method
+     * @param path The path and query
+     * @param body The request body, null for none
+     * @param token The shopper's session token, null for none
+     */
+    private void send(String endpoint, String method, String path, String body, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(base + path))
+            .timeout(Duration.ofSeconds(30))
+            .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body));
+        if (token != null)
+            builder.header("Authorization", "Bearer " + token);
+        HttpRequest request = builder.build();
+        long start = System.nanoTime();
+        int status;
+        try {
+            status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            status = -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        long latency = System.nanoTime() - start;
+        if (!measuring)
+            return;
+
+        Endpoint stats = endpoints.computeIfAbsent(endpoint, key -> new Endpoint());
+        stats.latency.record(latency);
+        if (status == 429 || status == 503)
+            stats.rejected.increment();
+        else if (status < 0 || status >= 500)
+            stats.errors.increment();
+    }
+
+    /**
+     * Logs a generated user in, retrying while the server sheds the login
+     *
+     * @param client The client to send with
+     * @param objectMapper Reads the session from the response
+     * @param base The server's URL
+     * @param username The user's username, whose password is {@link DatasetGenerator#PASSWORD}
+     *
+     * @return The session's token, or null if the login failed
+     *
+     * @throws InterruptedException when interrupted while logging in
+     */
+    static String login(HttpClient client, ObjectMapper objectMapper, String base, String username) throws InterruptedException {
+        Map<String,String> credentials = Map.of("username", username, "password", DatasetGenerator.PASSWORD);
+        for (int attempt = 0; attempt < 20; attempt++) {
+            try {
+                HttpRequest request = HttpRequest.newBuilder(URI.create(base + "/users/login"))
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(credentials)))
+                    .build();
+                HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                if (response.statusCode() == 201)
+                    return objectMapper.readTree(response.body()).path("token").asText(null);
+                if (response.statusCode() != 429 && response.statusCode() != 503)
+                    return null;
+            } catch (IOException e) {
+                // Retried below
+            }
+            Thread.sleep(50L << Math.min(attempt, 5));
+        }
+        return null;
+    }
+
+    /**
+     * Prints a table of each endpoint's throughput and latency percentiles
+     *
+     * @param out Where to print
+     */
+    void report(PrintStream out) {
+        double seconds = duration / 1e9;
+        out.printf("%d shoppers, %.0f ms think time, %.0f s measured%n", users, think, seconds);
+        out.printf("%-22s %9s %9s %9s %9s %9s %9s %9s %8s %8s%n",
+                   "Endpoint", "Requests", "Req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "Max ms", "Errors", "Shed");
+        for (Map.Entry<String,Endpoint> entry : sorted().entrySet()) {
+            Histogram latency = entry.getValue().latency;
+            out.printf(Locale.ROOT, "%-22s %9d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f %8d %8d%n", entry.getKey(),
+                       latency.getCount(), latency.getCount() / seconds,
+                       millis(latency.getPercentile(0.5)), millis(latency.getPercentile(0.9)),
+                       millis(latency.getPercentile(0.99)), millis(latency.getPercentile(0.999)),
+                       millis(latency.getMax()), entry.getValue().errors.sum(), entry.getValue().rejected.sum());
+        }
+    }
+
+    /**
+     * Writes each endpoint's results as JSON
+     *
+     * @param out Where to write
+     *
+     * @throws IOException when the results cannot be written
+     */
+    void writeJson(PrintStream out) throws IOException {
+        Map<String,Object> results = new LinkedHashMap<>();
+        results.put("users", users);
+        results.put("thinkMs", think);
+        results.put("seconds", duration / 1e9);
+        Map<String,Object> byEndpoint = new LinkedHashMap<>();
+        for (Map.Entry<String,Endpoint> entry : sorted().entrySet()) {
+            Histogram latency = entry.getValue().latency;
+            Map<String,Object> result = new LinkedHashMap<>();
+            result.put("requests", latency.getCount());
+            result.put("throughput", latency.getCount() / (duration / 1e9));
+            result.put("p50", millis(latency.getPercentile(0.5)));
+            result.put("p90", millis(latency.getPercentile(0.9)));
+            result.put("p99", millis(latency.getPercentile(0.99)));
+            result.put("p999", millis(latency.getPercentile(0.999)));
+            result.put("max", millis(latency.getMax()));
+            result.put("errors", entry.getValue().errors.sum());
+            result.put("shed", entry.getValue().rejected.sum());
+            byEndpoint.put(entry.getKey(), result);
+        }
+        results.put("endpoints", byEndpoint);
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(out, results);
+    }
+
+    /**
+     * Gets the endpoints in order of name
+     *
+     * @return The {@link Endpoint endpoints} by name
+     */
+    private Map<String,Endpoint> sorted() {
+        return new TreeMap<>(endpoints);
+    }
+
+    /**
+     * Converts nanoseconds to milliseconds
+     *
+     * @param nanos Nanoseconds
+     *
+     * @return Milliseconds
+     */
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+}
@@ -0,0 +1,262 @@
+package com.discgolf.api.discgolfapi.load;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import com.discgolf.api.discgolfapi.dataset.DatasetGenerator;
+import com.discgolf.api.discgolfapi.metrics.Histogram;
+import com.discgolf.api.discgolfapi.traffic.RecordedRequest;
+import com.discgolf.api.discgolfapi.traffic.Redaction;
+import com.discgolf.api.discgolfapi.traffic.TrafficReader;
+import com.discgolf.api.discgolfapi.traffic.TrafficRecordingFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Replays a {@linkplain TrafficRecordingFilter traffic recording} against a
+ * running server, keeping the recorded gaps between requests, and reports
+ * each endpoint's latency beside the latency recorded
+ * <p>
+ * Requests are sent when due whether or not earlier ones have been answered,
+ * so a slower server sees the same arrivals and builds a queue, as it would
+ * in production. A speed above 1 shortens the gaps, replaying the same load
+ * shape at a higher rate. The lag behind schedule is reported, and a large lag
+ * means the replay itself could not keep up
+ * <p>
+ * Redacted passwords are replaced with {@code --password}, by default the one
+ * every {@linkplain DatasetGenerator generated} user has. Session tokens are
+ * not recorded, so requests that needed one, such as cart and user changes,
+ * are answered 401 and their latency is that of the rejection
+ * <p>
+ * Run with {@code mvn -P benchmark test-compile exec:exec@replay -Dreplay.file=traffic.bin -Dreplay.speed=4}
+ *
+ * @author ZVH
+ */
+public class TrafficReplay {
+    private final String base;          // The server's URL
+    private final double speed;         // Multiple of the recorded rate
+    private final String password;      // Replaces redacted passwords
+    private final int maxInFlight;
+    private final Semaphore inFlight;
+    private final HttpClient client = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(Duration.ofSeconds(5))
+        .build();
+    private final Map<String,Endpoint> endpoints = new ConcurrentHashMap<>();
+    private final Histogram lag = new Histogram();  // Nanoseconds each request was sent late
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private long recorded;              // Microseconds from the first request recorded to the last
+    private long replayed;              // Nanoseconds from the first request replayed to the last response
+
+    /**
+     * The latencies and outcomes of the requests to one endpoint
+     */
+    static class Endpoint {
+        final Histogram recorded = new Histogram(); // Nanoseconds when recorded
+        final Histogram latency = new Histogram();  // Nanoseconds when replayed
+        final LongAdder errors = new LongAdder();   // Failed to send, or a server error
+        final LongAdder changed = new LongAdder();  // Answered with a different status than recorded
+    }
+
+    /**
+     * Creates a Traffic Replay
+     *
+     * @param base The server's URL
+     * @param speed Multiple of the recorded rate
+     * @param password Replaces redacted passwords
+     * @param maxInFlight Requests awaiting a response before sending waits
+     */
+    TrafficReplay(String base, double speed, String password, int maxInFlight) {
+        this.base = base.endsWith("/") ? base.substring(0, base.length() - 1) : base;
+        this.speed = speed;
+        this.password = password;
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+    }
+
+    /**
+     * Replays a recording
+     *
+     * @param args The recording, then any of {@code --url=}, {@code --speed=},
+     * {@code --password=}, {@code --max-in-flight=} and {@code --output=}
+     *
+     * @throws Exception when the recording cannot be read or the results written
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: TrafficReplay <recording> [--url=http://localhost:8080] [--speed=1]"
+                               + " [--password=" + DatasetGenerator.PASSWORD + "] [--max-in-flight=1024]"
+                               + " [--output=target/replay-results.json]");
+            System.exit(2);
+        }
+        Map<String,String> options = new LinkedHashMap<>();
+        options.put("url", "http://localhost:8080");
+        options.put("speed", "1");
+        options.put("password", DatasetGenerator.PASSWORD);
+        options.put("max-in-flight", "1024");
+        options.put("output", "target/replay-results.json");
+        for (int i = 1; i < args.length; ++i) {
+            int equals = args[i].indexOf('=');
+            String name = args[i].startsWith("--") && equals > 2 ? args[i].substring(2, equals) : null;
+            if (name == null || !options.containsKey(name))
+                throw new IllegalArgumentException("Unknown option " + args[i]);
+            options.put(name, args[i].substring(equals + 1));
+        }
+
+        TrafficReplay replay = new TrafficReplay(options.get("url"), Double.parseDouble(options.get("speed")),
+                                                 options.get("password"), Integer.parseInt(options.get("max-in-flight")));
+        replay.run(new File(args[0]));
+
+        PrintStream out = System.out;
+        replay.report(out);
+        File file = new File(options.get("output"));
+        file.getAbsoluteFile().getParentFile().mkdirs();
+        try (PrintStream json = new PrintStream(file)) {
+            replay.writeJson(json);
+        }
+        out.println("Results written to " + file);
+    }
+
+    /**
+     * Sends every request of a recording when due and waits for the responses
+     *
+     * @param recording The recording file
+     *
+     * @throws IOException when the recording cannot be read
+     * @throws InterruptedException when interrupted while waiting
+     */
+    void run(File recording) throws IOException, InterruptedException {
+        try (TrafficReader reader = new TrafficReader(recording)) {
+            RecordedRequest request = reader.next();
+            if (request == null)
+                return;
+            long first = request.getTime();
+            long start = System.nanoTime();
+            for (; request != null; request = reader.next()) {
+                recorded = request.getTime() - first;
+                long due = start + (long) (TimeUnit.MICROSECONDS.toNanos(recorded) / speed);
+                long now;
+                while ((now = System.nanoTime()) < due)
+                    LockSupport.parkNanos(due - now);
+                inFlight.acquire();
+                lag.record(Math.max(0, System.nanoTime() - due));
+                send(request);
+            }
+            inFlight.acquire(maxInFlight); // Every response received
+            replayed = System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Sends a request without waiting, recording its latency and outcome
+     * against its endpoint when answered
+     *
+     * @param recorded The {@link RecordedRequest request} to send
+     */
+    private void send(RecordedRequest recorded) {
+        byte[] body = recorded.getBody();
+        if (body.length > 0) {
+            String text = new String(body, StandardCharsets.UTF_8);
+            if (text.contains(Redaction.REDACTED))
+                body = text.replace(Redaction.REDACTED, password).getBytes(StandardCharsets.UTF_8);
+        }
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(base + recorded.getUri().replace(Redaction.REDACTED, password)))
+            .timeout(Duration.ofSeconds(30))
+            .method(recorded.getMethod(), body.length == 0 ? HttpRequest.BodyPublishers.noBody()
+                                                           : HttpRequest.BodyPublishers.ofByteArray(body));
+        if (!recorded.getContentType().isEmpty())
+            builder.header("Content-Type", recorded.getContentType());
+
+        Endpoint stats = endpoints.computeIfAbsent(recorded.getEndpoint(), key -> new Endpoint());
+        stats.recorded.record(TimeUnit.MICROSECONDS.toNanos(recorded.getLatency()));
+        long start = System.nanoTime();
+        client.sendAsync(builder.build(), HttpResponse.BodyHandlers.discarding()).whenComplete((response, e) -> {
+            stats.latency.record(System.nanoTime() - start);
+            int status = e == null ? response.statusCode() : -1;
+            if (status < 0 || status >= 500)
+                stats.errors.increment();
+            if (status != recorded.getStatus())
+                stats.changed.increment();
+            inFlight.release();
+        });
+    }
+
+    /**
+     * Prints a table of each endpoint's latency percentiles, recorded and replayed
+     *
+     * @param out Where to print
+     */
+    void report(PrintStream out) {
+        out.printf(Locale.ROOT, "Replayed %.1f s of traffic at %.1fx in %.1f s, sent up to %.2f ms late (p99 %.2f ms)%n",
+                   recorded / 1e6, speed, replayed / 1e9, millis(lag.getMax()), millis(lag.getPercentile(0.99)));
+        out.printf("%-40s %9s %11s %11s %9s %9s %9s %9s %8s %8s%n", "Endpoint", "Requests", "Was p50 ms", "Was p99 ms",
+                   "p50 ms", "p90 ms", "p99 ms", "Max ms", "Errors", "Changed");
+        for (Map.Entry<String,Endpoint> entry : new TreeMap<>(endpoints).entrySet()) {
+            Endpoint stats = entry.getValue();
+            out.printf(Locale.ROOT, "%-40s %9d %11.2f %11.2f %9.2f %9.2f %9.2f %9.2f %8d %8d%n", entry.getKey(),
+                       stats.latency.getCount(), millis(stats.recorded.getPercentile(0.5)),
+                       millis(stats.recorded.getPercentile(0.99)), millis(stats.latency.getPercentile(0.5)),
+                       millis(stats.latency.getPercentile(0.9)), millis(stats.latency.getPercentile(0.99)),
+                       millis(stats.latency.getMax()), stats.errors.sum(), stats.changed.sum());
+        }
+    }
+
+    /**
+     * Writes each endpoint's results as JSON
+     *
+     * @param out Where to write
+     *
+     * @throws IOException when the results cannot be written
+     */
+    void writeJson(PrintStream out) throws IOException {
+        Map<String,Object> results = new LinkedHashMap<>();
+        results.put("speed", speed);
+        results.put("recordedSeconds", recorded / 1e6);
+        results.put("replayedSeconds", replayed / 1e9);
+        results.put("lagP99", millis(lag.getPercentile(0.99)));
+        results.put("lagMax", millis(lag.getMax()));
+        Map<String,Object> byEndpoint = new LinkedHashMap<>();
+        for (Map.Entry<String,Endpoint> entry : new TreeMap<>(endpoints).entrySet()) {
+            Endpoint stats = entry.getValue();
+            Map<String,Object> result = new LinkedHashMap<>();
+            result.put("requests", stats.latency.getCount());
+            result.put("recordedP50", millis(stats.recorded.getPercentile(0.5)));
+            result.put("recordedP99", millis(stats.recorded.getPercentile(0.99)));
+            result.put("p50", millis(stats.latency.getPercentile(0.5)));
+            result.put("p90", millis(stats.latency.getPercentile(0.9)));
+            result.put("p99", millis(stats.latency.getPercentile(0.99)));
+            result.put("max", millis(stats.latency.getMax()));
+            result.put("errors", stats.errors.sum());
+            result.put("changed", stats.changed.sum());
+            byEndpoint.put(entry.getKey(), result);
+        }
+        results.put("endpoints", byEndpoint);
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(out, results);
+    }
+
+    /**
+     * Converts nanoseconds to milliseconds
+     *
+     * @param nanos Nanoseconds
+     *
+     * @return Milliseconds
+     */
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+}
@@ -0,0 +1,393 @@
+package com.discgolf.api.discgolfapi.load;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.discgolf.api.discgolfapi.DiscsApiApplication;
+import com.discgolf.api.discgolfapi.VirtualThreadConfig;
+import com.discgolf.api.discgolfapi.dataset.DatasetGenerator;
+import com.discgolf.api.discgolfapi.filter.EndpointGroup;
+import com.discgolf.api.discgolfapi.metrics.Histogram;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Compares handling requests on Tomcat's platform thread pool with a virtual
+ * thread per request, {@code threads.virtual}, when the disk is slow
+ * <p>
+ * Each mode gets a new embedded server with a {@link DatasetGenerator generated}
+ * dataset, whose stores read and write their files through an object mapper
+ * that first sleeps {@code virtual.disk} milliseconds. Each client logs in as
+ * the owner of a cart and sends back to back, with no think time: {@code virtual.writes} percent
+ * add a disc to the cart, which saves the carts, and the rest get a disc.
+ * Saves are serialized by the store's lock, so with more clients than
+ * {@code virtual.threads} pool threads, writers waiting for the lock take the
+ * pool's threads and reads queue behind them. A virtual thread waiting for the
+ * lock holds no pool thread, so reads keep being answered
+ * <p>
+ * Rate limits and admission control are off, so only the threads differ.
+ * Reports the throughput, and read and write latency percentiles, of each mode.
+ * On a runtime without virtual threads, before Java 21, only the pool is measured
+ * <p>
+ * Configured by system properties, {@code virtual.clients},
+ * {@code virtual.threads}, {@code virtual.disk} milliseconds,
+ * {@code virtual.writes} percent, {@code virtual.discs}, and
+ * {@code virtual.duration} and {@code virtual.warmup} seconds. Results are also
+ * written as JSON to {@code virtual.output}
+ * <p>
+ * Run with {@code mvn -P benchmark test-compile exec:exec@virtual -Dvirtual.clients=400},
+ * with Java 21 or later on the path
+ *
+ * @author ZVH
+ */
+public class VirtualThreadBenchmark {
+    static final long SEED = 50;
+
+    private final int clients;
+    private final int threads;      // Most platform threads in Tomcat's pool
+    private final long disk;        // Milliseconds added to each file read and write
+    private final int writes;       // Percent of requests that write
+    private final int discs;
+    private final long duration;    // Nanoseconds measured
+    private final long warmup;      // Nanoseconds run before measuring
+    private final HttpClient client = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(Duration.ofSeconds(5))
+        .build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<Result> results = new ArrayList<>();
+
+    /**
+     * The latencies and outcomes of one mode
+     */
+    static class Result {
+        final String mode;
+        final Histogram reads = new Histogram();    // Nanoseconds
+        final Histogram writes = new Histogram();   // Nanoseconds
+        final Histogram all = new Histogram();      // Nanoseconds
+        final LongAdder errors = new LongAdder();   // Failed to send, or a server error
+
+        Result(String mode) {
+            this.mode = mode;
+        }
+    }
+
+    /**
+     * An object mapper whose file reads and writes are slowed, as by a slow disk
+     * <br>
+     * Sleeps rather than blocking in the file system, so a virtual thread
+     * unmounts while waiting where a real disk would hold its carrier. Saves
+     * are serialized by the stores' locks, so this adds at most one carrier
+     */
+    static class SlowDiskObjectMapper extends ObjectMapper {
+        private static final long serialVersionUID = 1L;
+        private final long delay;   // Milliseconds
+
+        SlowDiskObjectMapper(long delay) {
+            this.delay = delay;
+        }
+
+        SlowDiskObjectMapper(SlowDiskObjectMapper source) {
+            super(source);
+            this.delay = source.delay;
+        }
+
+        @Override
+        public ObjectMapper copy() {
+            return new SlowDiskObjectMapper(this);
+        }
+
+        @Override
+        public void writeValue(File file, Object value) throws IOException {
+            pause();
+            super.writeValue(file, value);
+        }
+
+        @Override
+        public <T> T readValue(File file, Class<T> type) throws IOException {
+            pause();
+            return super.readValue(file, type);
+        }
+
+        private void pause() throws IOException {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted waiting for the disk", e);
+            }
+        }
+    }
+
+    /**
+     * Creates a Virtual Thread Benchmark
+     *
+     * @param clients The number of clients sending at once
+     * @param threads The most platform threads in Tomcat's pool
+     * @param disk Milliseconds added to each file read and write
+     * @param writes Percent of requests that write
+     * @param discs The number of discs in the catalog
+     * @param duration Seconds measured
+     * @param warmup Seconds run before measuring
+     */
+    VirtualThreadBenchmark(int clients, int threads, long disk, int writes, int discs, int duration, int warmup) {
+        this.clients = clients;
+        this.threads = threads;
+        this.disk = disk;
+        this.writes = writes;
+        this.discs = discs;
+        this.duration = TimeUnit.SECONDS.toNanos(duration);
+        this.warmup = TimeUnit.SECONDS.toNanos(warmup);
+    }
+
+    /**
+     * Runs the benchmark on the platform thread pool, then on virtual threads
+     *
+     * @param args Unused, configured by system properties
+     *
+     * @throws Exception when a server fails to start
+     */
+    public static void main(String[] args) throws Exception {
+        VirtualThreadBenchmark benchmark = new VirtualThreadBenchmark(
+            Integer.getInteger("virtual.clients", 400), Integer.getInteger("virtual.threads", 200),
+            Integer.getInteger("virtual.disk", 5), Integer.getInteger("virtual.writes", 20),
+            Integer.getInteger("virtual.discs", 20), Integer.getInteger("virtual.duration", 30),
+            Integer.getInteger("virtual.warmup", 10));
+        PrintStream out = System.out;
+
+        benchmark.run(false);
+        ExecutorService probe = VirtualThreadConfig.newVirtualThreadExecutor("probe-");
+        if (probe != null) {
+            probe.shutdown();
+            benchmark.run(true);
+        } else
+            out.println("Virtual threads need Java 21, measured the platform thread pool only");
+
+        benchmark.report(out);
+        String output = System.getProperty("virtual.output", "target/virtual-results.json");
+        File file = new File(output);
+        file.getAbsoluteFile().getParentFile().mkdirs();
+        try (PrintStream json = new PrintStream(file)) {
+            benchmark.writeJson(json);
+        }
+        out.println("Results written to " + output);
+    }
+
+    /**
+     * Runs the clients against a new embedded server in one mode
+     *
+     * @param virtual Whether the server handles requests on virtual threads
+     *
+     * @throws IOException when the data cannot be written
+     * @throws InterruptedException when interrupted while waiting for the clients
+     */
+    void run(boolean virtual) throws IOException, InterruptedException {
+        Path data = Files.createTempDirectory("discgolf-virtual-");
+        new DatasetGenerator().discs(discs).users(clients).carts(clients).lessons(10).stock(1_000_000_000).write(data);
+
+        SpringApplication application = new SpringApplication(DiscsApiApplication.class);
+        application.addInitializers(context -> ((GenericApplicationContext) context).registerBean(ObjectMapper.class, () -> {
+            ObjectMapper mapper = new SlowDiskObjectMapper(disk);
+            context.getBean(Jackson2ObjectMapperBuilder.class).configure(mapper);
+            return mapper;
+        }));
+        ConfigurableApplicationContext server = application.run(serverArgs(data, virtual));
+        Result result = new Result(virtual ? "virtual" : "platform");
+        try {
+            String base = "http://localhost:" + ((WebServerApplicationContext) server).getWebServer().getPort();
+            drive(base, result);
+        } finally {
+            server.close();
+            for (File file : data.toFile().listFiles())
+                file.delete();
+            data.toFile().delete();
+        }
+        results.add(result);
+    }
+
+    /**
+     * Builds the server's arguments
+     *
+     * @param data The directory holding the data files
+     * @param virtual Whether the server handles requests on virtual threads
+     *
+     * @return The server's command line arguments
+     */
+    private String[] serverArgs(Path data, boolean virtual) {
+        List<String> args = new ArrayList<>(List.of(
+            "--server.port=0",
+            "--server.tomcat.threads.max=" + threads,
+            "--threads.virtual=" + virtual,
+            "--discs.file=" + data.resolve("discs.json"),
+            "--lessons.file=" + data.resolve("lessons.json"),
+            "--carts.file=" + data.resolve("carts.json"),
+            "--users.file=" + data.resolve("users.json"),
+            "--carts.cold.file=" + data.resolve("carts-cold.json"),
+            "--idempotency.file=",
+            "--logging.level.com.discgolf.api.discgolfapi.access=WARN"));
+        for (EndpointGroup group : EndpointGroup.values()) {
+            args.add("--ratelimit." + group.key() + ".rate=0");
+            args.add("--admission." + group.key() + ".limit=0");
+        }
+        return args.toArray(new String[0]);
+    }
+
+    /**
+     * Runs the clients through the warmup and the measured duration
+     *
+     * @param base The server's URL
+     * @param result Where to record the measured requests
+     *
+     * @throws InterruptedException when interrupted while waiting for the clients
+     */
+    private void drive(String base, Result result) throws InterruptedException {
+        long measureFrom = System.nanoTime() + warmup;
+        long end = measureFrom + duration;
+
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        for (int i = 0; i < clients; i++) {
+            String username = DatasetGenerator.username(i + 1);
+            Random random = new Random(SEED + i);
+            pool.execute(() -> {
+                String token;
+                try {
+                    token = LoadTest.login(client, objectMapper, base, username);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                while (System.nanoTime() < end) {
+                    int disc = 1 + random.nextInt(discs);
+                    boolean write = random.nextInt(100) < writes;
+                    HttpRequest request = HttpRequest.newBuilder(URI.create(base + (write
+                            ? "/carts/addDisc/" + username + "/" + disc : "/discs/" + disc)))
+                        .timeout(Duration.ofSeconds(60))
+                        .header("Authorization", "Bearer " + token)
+                        .method(write ? "PUT" : "GET", HttpRequest.BodyPublishers.noBody())
+                        .build();
+                    if (!send(request, write, measureFrom, result))
+                        return;
+                }
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(warmup + duration + TimeUnit.MINUTES.toNanos(2), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Sends a request and, once measuring, records its latency and outcome
+     *
+     * @param request The request
+     * @param write Whether it writes
+     * @param measureFrom When to start recording, in nanoseconds
+     * @param result Where to record
+     *
+     * @return false if interrupted
+     */
+    private boolean send(HttpRequest request, boolean write, long measureFrom, Result result) {
+        long start = System.nanoTime();
+        int status;
+        try {
+            status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            status = -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        if (start < measureFrom)
+            return true;
+
+        long latency = System.nanoTime() - start;
+        (write ? result.writes : result.reads).record(latency);
+        result.all.record(latency);
+        if (status < 0 || status >= 500)
+            result.errors.increment();
+        return true;
+    }
+
+    /**
+     * Prints a table of each mode's throughput and latency percentiles
+     *
+     * @param out Where to print
+     */
+    void report(PrintStream out) {
+        double seconds = duration / 1e9;
+        out.printf("%d clients, %d%% writes, %d ms per file read or write, %d pool threads, %.0f s measured%n",
+                   clients, writes, disk, threads, seconds);
+        out.printf("%-9s %9s %9s %10s %10s %11s %11s %9s %8s%n", "Mode", "Requests", "Req/s", "Read p50",
+                   "Read p99", "Write p50", "Write p99", "p99 ms", "Errors");
+        for (Result result : results) {
+            out.printf(Locale.ROOT, "%-9s %9d %9.1f %10.2f %10.2f %11.2f %11.2f %9.2f %8d%n", result.mode,
+                       result.all.getCount(), result.all.getCount() / seconds,
+                       millis(result.reads.getPercentile(0.5)), millis(result.reads.getPercentile(0.99)),
+                       millis(result.writes.getPercentile(0.5)), millis(result.writes.getPercentile(0.99)),
+                       millis(result.all.getPercentile(0.99)), result.errors.sum());
+        }
+    }
+
+    /**
+     * Writes each mode's results as JSON
+     *
+     * @param out Where to write
+     *
+     * @throws IOException when the results cannot be written
+     */
+    void writeJson(PrintStream out) throws IOException {
+        Map<String,Object> json = new LinkedHashMap<>();
+        json.put("clients", clients);
+        json.put("threads", threads);
+        json.put("diskMs", disk);
+        json.put("writesPercent", writes);
+        json.put("seconds", duration / 1e9);
+        Map<String,Object> byMode = new LinkedHashMap<>();
+        for (Result result : results) {
+            Map<String,Object> mode = new LinkedHashMap<>();
+            mode.put("requests", result.all.getCount());
+            mode.put("throughput", result.all.getCount() / (duration / 1e9));
+            mode.put("readP50", millis(result.reads.getPercentile(0.5)));
+            mode.put("readP99", millis(result.reads.getPercentile(0.99)));
+            mode.put("writeP50", millis(result.writes.getPercentile(0.5)));
+            mode.put("writeP99", millis(result.writes.getPercentile(0.99)));
+            mode.put("p99", millis(result.all.getPercentile(0.99)));
+            mode.put("errors", result.errors.sum());
+            byMode.put(result.mode, mode);
+        }
+        json.put("modes", byMode);
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(out, json);
+    }
+
+    /**
+     * Converts nanoseconds to milliseconds
+     *
+     * @param nanos Nanoseconds
+     *
+     * @return Milliseconds
+     */
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+}
@@ -0,0 +1,174 @@
+package com.discgolf.api.discgolfapi.model;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures Jackson serialization and deserialization of each model class at the
+ * sizes the server sends and stores them
+ * <p>
+ * Disc, Lesson and User arrays range from a page of search results to a whole
+ * stored file. Carts range from one line to a large order, and are written through
+ * their contents serializer, without the copy {@link Cart#getContents()} makes.
+ * The mapper is configured as the server's
+ * <p>
+ * Run with {@code mvn -P benchmark test-compile exec:exec@benchmark -Dbenchmark=SerializationBenchmark},
+ * the GC profiler reports the bytes allocated per operation as {@code gc.alloc.rate.norm}
+ *
+ * @author ZVH
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+    static final long SEED = 42;
+    static final ObjectMapper MAPPER = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    static final String[] COLORS = {"Red", "Blue", "Green", "Yellow", "Orange", "Pink", "White", "Black"};
+    static final String[] TYPES = {"Putter", "Midrange", "Fairway Driver", "Distance Driver"};
+
+    @State(Scope.Benchmark)
+    public static class Discs {
+        @Param({"1", "20", "1000", "100000"})
+        public int discs;
+
+        final ObjectWriter writer = MAPPER.writerFor(Disc[].class);
+        final ObjectReader reader = MAPPER.readerFor(Disc[].class);
+        Disc[] records;
+        byte[] json;
+
+        @Setup(Level.Trial)
+        public void setup() throws IOException {
+            Random random = new Random(SEED);
+            records = new Disc[discs];
+            for (int i = 0; i < discs; i++)
+                records[i] = new Disc(i + 1, COLORS[random.nextInt(COLORS.length)], 150 + random.nextInt(31),
+                                      TYPES[random.nextInt(TYPES.length)], 8 + random.nextInt(2300) / 100.0, random.nextInt(51));
+            json = writer.writeValueAsBytes(records);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Carts {
+        @Param({"1", "5", "50"})
+        public int lines;
+
+        final ObjectWriter writer = MAPPER.writerFor(Cart.class);
+        final ObjectReader reader = MAPPER.readerFor(Cart.class);
+        Cart record;
+        byte[] json;
+
+        @Setup(Level.Trial)
+        public void setup() throws IOException {
+            Random random = new Random(SEED);
+            HashMap<Integer,Integer> contents = new HashMap<>();
+            while (contents.size() < lines)
+                contents.put(1 + random.nextInt(100000), 1 + random.nextInt(3));
+            record = new Cart(1, "aiden", contents);
+            record.setLastTouched(1667000000000L);
+            json = writer.writeValueAsBytes(record);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Lessons {
+        @Param({"1", "20", "1000"})
+        public int lessons;
+
+        final ObjectWriter writer = MAPPER.writerFor(Lesson[].class);
+        final ObjectReader reader = MAPPER.readerFor(Lesson[].class);
+        Lesson[] records;
+        byte[] json;
+
+        @Setup(Level.Trial)
+        public void setup() throws IOException {
+            Random random = new Random(SEED);
+            records = new Lesson[lessons];
+            for (int i = 0; i < lessons; i++)
+                records[i] = new Lesson(i + 1, random.nextBoolean() ? null : "user" + i, "Lesson " + (i + 1),
+                                        "Work on the better you.", "MWF", "11/01/2022", "12/10/2022", 50 + random.nextInt(150));
+            json = writer.writeValueAsBytes(records);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Users {
+        @Param({"1", "1000"})
+        public int users;
+
+        final ObjectWriter writer = MAPPER.writerFor(User[].class);
+        final ObjectReader reader = MAPPER.readerFor(User[].class);
+        User[] records;
+        byte[] json;
+
+        @Setup(Level.Trial)
+        public void setup() throws IOException {
+            records = new User[users];
+            for (int i = 0; i < users; i++)
+                records[i] = new User(i + 1, "user" + (i + 1),
+                                      "pbkdf2$100000$c2FsdHNhbHRzYWx0c2FsdA$aGFzaGhhc2hoYXNoaGFzaGhhc2hoYXNoaGFzaGhhc2g");
+            json = writer.writeValueAsBytes(records);
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeDiscs(Discs state) throws IOException {
+        return state.writer.writeValueAsBytes(state.records);
+    }
+
+    @Benchmark
+    public Disc[] deserializeDiscs(Discs state) throws IOException {
+        return state.reader.readValue(state.json);
+    }
+
+    @Benchmark
+    public byte[] serializeCart(Carts state) throws IOException {
+        return state.writer.writeValueAsBytes(state.record);
+    }
+
+    @Benchmark
+    public Cart deserializeCart(Carts state) throws IOException {
+        return state.reader.readValue(state.json);
+    }
+
+    @Benchmark
+    public byte[] serializeLessons(Lessons state) throws IOException {
+        return state.writer.writeValueAsBytes(state.records);
+    }
+
+    @Benchmark
+    public Lesson[] deserializeLessons(Lessons state) throws IOException {
+        return state.reader.readValue(state.json);
+    }
+
+    @Benchmark
+    public byte[] serializeUsers(Users state) throws IOException {
+        return state.writer.writeValueAsBytes(state.records);
+    }
+
+    @Benchmark
+    public User[] deserializeUsers(Users state) throws IOException {
+        return state.reader.readValue(state.json);
+    }
+}
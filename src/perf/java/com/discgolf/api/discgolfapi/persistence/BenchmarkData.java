@@ -0,0 +1,137 @@
+package com.discgolf.api.discgolfapi.persistence;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import com.discgolf.api.discgolfapi.dataset.DatasetGenerator;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Writes the data files the persistence benchmarks load, with the same
+ * records for the same size every run
+ *
+ * @author ZVH
+ */
+final class BenchmarkData {
+    /** A date inside the range lessons are held in */
+    static final String LESSON_DAY = "06/15/2022";
+
+    private final Path directory;
+
+    /**
+     * Creates the Benchmark Data in a new temporary directory
+     *
+     * @throws IOException when the directory cannot be created
+     */
+    BenchmarkData() throws IOException {
+        directory = Files.createTempDirectory("discgolf-bench-");
+    }
+
+    /**
+     * Creates an Object Mapper configured as the server's, which ignores
+     * properties written from getters such as {@code User.isAdmin}
+     *
+     * @return The {@link ObjectMapper object mapper}
+     */
+    static ObjectMapper objectMapper() {
+        return new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    }
+
+    /**
+     * Gets the username of the user with the given id
+     *
+     * @param id The id of the user
+     *
+     * @return The username
+     */
+    static String username(int id) {
+        return DatasetGenerator.username(id);
+    }
+
+    /**
+     * Writes a file of discs with ids 1 to size
+     *
+     * @param size The number of discs
+     *
+     * @return The filename
+     *
+     * @throws IOException when the file cannot be written
+     */
+    String discs(int size) throws IOException {
+        File file = file("discs.json");
+        new DatasetGenerator().discs(size).writeDiscs(file);
+        return file.getPath();
+    }
+
+    /**
+     * Writes a file of users with ids 1 to size
+     *
+     * @param size The number of users
+     *
+     * @return The filename
+     *
+     * @throws IOException when the file cannot be written
+     */
+    String users(int size) throws IOException {
+        File file = file("users.json");
+        new DatasetGenerator().users(size).writeUsers(file);
+        return file.getPath();
+    }
+
+    /**
+     * Writes a file of carts with ids 1 to size, one per user, each holding a few
+     * of the discs
+     *
+     * @param size The number of carts
+     * @param discs The number of discs the carts draw from
+     *
+     * @return The filename
+     *
+     * @throws IOException when the file cannot be written
+     */
+    String carts(int size, int discs) throws IOException {
+        File file = file("carts.json");
+        new DatasetGenerator().users(size).carts(size).discs(discs).writeCarts(file);
+        return file.getPath();
+    }
+
+    /**
+     * Writes a file of lessons with ids 1 to size, booked by users with ids 1 to size
+     *
+     * @param size The number of lessons
+     *
+     * @return The filename
+     *
+     * @throws IOException when the file cannot be written
+     */
+    String lessons(int size) throws IOException {
+        File file = file("lessons.json");
+        new DatasetGenerator().users(size).lessons(size).writeLessons(file);
+        return file.getPath();
+    }
+
+    /**
+     * Deletes the files written
+     */
+    void delete() {
+        File[] files = directory.toFile().listFiles();
+        if (files != null)
+            for (File file : files)
+                file.delete();
+        directory.toFile().delete();
+    }
+
+    /**
+     * Gets a file in the directory
+     *
+     * @param name The name of the file
+     *
+     * @return The file
+     */
+    private File file(String name) {
+        return directory.resolve(name).toFile();
+    }
+}
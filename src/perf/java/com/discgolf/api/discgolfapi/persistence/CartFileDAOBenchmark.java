@@ -0,0 +1,108 @@
+package com.discgolf.api.discgolfapi.persistence;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.discgolf.api.discgolfapi.model.Cart;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link CartFileDAO} operations against the number of carts
+ * <p>
+ * Each cart belongs to its own user and holds up to five lines. Updates lock
+ * only their own cart but save every cart. A created cart is deleted after
+ * each invocation, outside the measurement, and an added disc is taken back
+ * out in the same operation, so the carts keep their number and lines through
+ * the trial
+ * <p>
+ * Run with {@code mvn -P benchmark test-compile exec:exec@benchmark -Dbenchmark=CartFileDAOBenchmark},
+ * or across thread counts with {@link PersistenceBenchmarks}
+ *
+ * @author ZVH
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CartFileDAOBenchmark {
+    @Param({"100", "10000", "1000000"})
+    public int size;
+
+    private BenchmarkData data;
+    private CartFileDAO cartFileDAO;
+    private final AtomicInteger created = new AtomicInteger();
+
+    /**
+     * The cart a thread created in its last invocation
+     */
+    @State(Scope.Thread)
+    public static class CreatedCart {
+        Cart cart;
+
+        @TearDown(Level.Invocation)
+        public void delete(CartFileDAOBenchmark benchmark) throws IOException {
+            benchmark.cartFileDAO.deleteCart(cart.getId());
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        data = new BenchmarkData();
+        cartFileDAO = new CartFileDAO(data.carts(size, size), BenchmarkData.objectMapper());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        data.delete();
+    }
+
+    private int anyId() {
+        return 1 + ThreadLocalRandom.current().nextInt(size);
+    }
+
+    @Benchmark
+    public Cart getCart() throws IOException {
+        return cartFileDAO.getCart(anyId());
+    }
+
+    @Benchmark
+    public Cart findCart() throws IOException {
+        return cartFileDAO.findCart(BenchmarkData.username(anyId()));
+    }
+
+    @Benchmark
+    public Cart[] findCartsContaining() {
+        return cartFileDAO.findCartsContaining(anyId());
+    }
+
+    @Benchmark
+    public Cart createCart(CreatedCart last) throws IOException {
+        last.cart = cartFileDAO.createCart("new" + created.incrementAndGet());
+        return last.cart;
+    }
+
+    @Benchmark
+    public Cart addDisc() throws IOException {
+        String username = BenchmarkData.username(anyId());
+        int disc_id = anyId();
+        cartFileDAO.addDisc(username, disc_id, 1);
+        return cartFileDAO.updateDiscQuantity(username, disc_id, 1, 2); // Subtracts it again, removing a new line
+    }
+}
@@ -0,0 +1,97 @@
+package com.discgolf.api.discgolfapi.persistence;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import com.discgolf.api.discgolfapi.model.Disc;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link DiscFileDAO} operations against the size of the catalog
+ * <p>
+ * Writes save the whole file, as they do on the server, so they slow with the
+ * catalog while reads by id should not. A created disc is deleted after each
+ * invocation, outside the measurement, so the catalog keeps its size through
+ * the trial
+ * <p>
+ * Run with {@code mvn -P benchmark test-compile exec:exec@benchmark -Dbenchmark=DiscFileDAOBenchmark},
+ * or across thread counts with {@link PersistenceBenchmarks}
+ *
+ * @author ZVH
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class DiscFileDAOBenchmark {
+    @Param({"100", "10000", "1000000"})
+    public int size;
+
+    private BenchmarkData data;
+    private DiscFileDAO discFileDAO;
+
+    /**
+     * The disc a thread created in its last invocation
+     */
+    @State(Scope.Thread)
+    public static class CreatedDisc {
+        Disc disc;
+
+        @TearDown(Level.Invocation)
+        public void delete(DiscFileDAOBenchmark benchmark) throws IOException {
+            benchmark.discFileDAO.deleteDisc(disc.getId());
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        data = new BenchmarkData();
+        discFileDAO = new DiscFileDAO(data.discs(size), BenchmarkData.objectMapper());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        data.delete();
+    }
+
+    private int anyId() {
+        return 1 + ThreadLocalRandom.current().nextInt(size);
+    }
+
+    @Benchmark
+    public Disc getDisc() {
+        return discFileDAO.getDisc(anyId());
+    }
+
+    @Benchmark
+    public Disc[] findDiscs() {
+        return discFileDAO.findDiscs("Putter", 1);
+    }
+
+    @Benchmark
+    public Disc createDisc(CreatedDisc last) throws IOException {
+        last.disc = discFileDAO.createDisc(new Disc(0, "Red", 175, "Putter", 12.5, 10));
+        return last.disc;
+    }
+
+    @Benchmark
+    public Disc updateDisc() throws IOException {
+        return discFileDAO.updateDisc(new Disc(anyId(), "Blue", 170, "Midrange", 14, 20));
+    }
+}
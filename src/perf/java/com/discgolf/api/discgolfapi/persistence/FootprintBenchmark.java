@@ -0,0 +1,213 @@
+package com.discgolf.api.discgolfapi.persistence;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import org.openjdk.jol.info.GraphLayout;
+
+/**
+ * Measures the heap each FileDAO retains per stored record, at each number of
+ * records, writing the results to one JSON file to track across releases
+ * <p>
+ * A store's footprint is everything reachable from its maps and sets: the
+ * records themselves, the map nodes and boxed keys, and secondary indexes such
+ * as the carts' owner and disc lookups. The object mapper, metrics and other
+ * collaborators are not counted
+ * <p>
+ * Given the results of an earlier run as a baseline, exits with status 1 if
+ * any store grew more than 5% per record, so memory regressions fail the build
+ * <p>
+ * Run with {@code mvn -P benchmark test-compile exec:exec@footprint}, choosing
+ * with {@code -Dfootprint.sizes=1000,100000} and comparing with
+ * {@code -Dfootprint.baseline=<results.json>}
+ *
+ * @author ZVH
+ */
+public class FootprintBenchmark {
+    private static final double TOLERANCE = 0.05;   // Growth per record allowed over the baseline
+    private static final int CLASSES = 8;           // Classes shown per store, largest first
+
+    /**
+     * Loads a store of the given size
+     */
+    private interface Store {
+        Object load(BenchmarkData data, int size) throws IOException;
+    }
+
+    /**
+     * Measures every store at every size
+     *
+     * @param sizes The numbers of records
+     *
+     * @return The results, by store then size
+     *
+     * @throws IOException when a data file cannot be written or read
+     */
+    static List<Map<String,Object>> measure(int[] sizes) throws IOException {
+        Map<String,Store> stores = new LinkedHashMap<>();
+        stores.put("discs", (data, size) -> new DiscFileDAO(data.discs(size), BenchmarkData.objectMapper()));
+        stores.put("carts", (data, size) -> new CartFileDAO(data.carts(size, size), BenchmarkData.objectMapper()));
+        stores.put("users", (data, size) -> new UserFileDAO(data.users(size), BenchmarkData.objectMapper()));
+        stores.put("lessons", (data, size) -> new LessonFileDAO(data.lessons(size), BenchmarkData.objectMapper()));
+
+        List<Map<String,Object>> results = new ArrayList<>();
+        for (Map.Entry<String,Store> store : stores.entrySet()) {
+            for (int size : sizes) {
+                BenchmarkData data = new BenchmarkData();
+                try {
+                    Object dao = store.getValue().load(data, size);
+                    results.add(footprint(store.getKey(), size, GraphLayout.parseInstance(collections(dao))));
+                } finally {
+                    data.delete();
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Gets the maps and sets a DAO holds its records in
+     *
+     * @param dao The Data Access Object
+     *
+     * @return The collections
+     */
+    private static Object[] collections(Object dao) {
+        List<Object> roots = new ArrayList<>();
+        for (Field field : dao.getClass().getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers()))
+                continue;
+            if (!Map.class.isAssignableFrom(field.getType()) && !Collection.class.isAssignableFrom(field.getType()))
+                continue;
+            try {
+                field.setAccessible(true);
+                Object value = field.get(dao);
+                if (value != null)
+                    roots.add(value);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return roots.toArray();
+    }
+
+    /**
+     * Summarizes the layout of a store
+     *
+     * @param store The name of the store
+     * @param size The number of records
+     * @param layout The {@link GraphLayout layout} of its collections
+     *
+     * @return The result, with the bytes and instances of its largest classes per record
+     */
+    private static Map<String,Object> footprint(String store, int size, GraphLayout layout) {
+        List<Class<?>> classes = new ArrayList<>(layout.getClasses());
+        classes.sort(Comparator.comparingLong((Class<?> c) -> layout.getClassSizes().count(c)).reversed());
+
+        Map<String,Object> perClass = new LinkedHashMap<>();
+        for (Class<?> c : classes.subList(0, Math.min(CLASSES, classes.size()))) {
+            Map<String,Object> entry = new LinkedHashMap<>();
+            entry.put("instances", (double) layout.getClassCounts().count(c) / size);
+            entry.put("bytes", (double) layout.getClassSizes().count(c) / size);
+            perClass.put(c.getName(), entry);
+        }
+
+        Map<String,Object> result = new LinkedHashMap<>();
+        result.put("store", store);
+        result.put("size", size);
+        result.put("totalBytes", layout.totalSize());
+        result.put("bytesPerRecord", (double) layout.totalSize() / size);
+        result.put("classes", perClass);
+        return result;
+    }
+
+    /**
+     * Prints a table of the results
+     *
+     * @param results The results
+     */
+    @SuppressWarnings("unchecked")
+    private static void print(List<Map<String,Object>> results) {
+        for (Map<String,Object> result : results) {
+            System.out.printf("%n%s, %,d records: %,d bytes, %.1f per record%n", result.get("store"), result.get("size"),
+                              result.get("totalBytes"), result.get("bytesPerRecord"));
+            for (Map.Entry<String,Object> c : ((Map<String,Object>) result.get("classes")).entrySet()) {
+                Map<String,Object> entry = (Map<String,Object>) c.getValue();
+                System.out.printf("  %-48s %8.2f instances %10.1f bytes%n", c.getKey(), entry.get("instances"), entry.get("bytes"));
+            }
+        }
+    }
+
+    /**
+     * Compares the results with a baseline
+     *
+     * @param results The results
+     * @param baseline The file of earlier results
+     *
+     * @return The stores and sizes that grew more than the tolerance, empty if none
+     *
+     * @throws IOException when the baseline cannot be read
+     */
+    private static List<String> regressions(List<Map<String,Object>> results, File baseline) throws IOException {
+        Map<String,Double> before = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(baseline))
+            before.put(result.get("store").asText() + "@" + result.get("size").asInt(), result.get("bytesPerRecord").asDouble());
+
+        List<String> regressions = new ArrayList<>();
+        for (Map<String,Object> result : results) {
+            String key = result.get("store") + "@" + result.get("size");
+            Double was = before.get(key);
+            double now = (Double) result.get("bytesPerRecord");
+            if (was != null && now > was * (1 + TOLERANCE))
+                regressions.add(String.format("%s: %.1f bytes per record, was %.1f", key, now, was));
+        }
+        return regressions;
+    }
+
+    /**
+     * Runs the benchmark
+     *
+     * @param args The comma separated sizes, the file to write the results to,
+     * and optionally a file of earlier results to compare with
+     *
+     * @throws IOException when a data file cannot be written or read
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || args.length > 3) {
+            System.err.println("Usage: FootprintBenchmark <sizes,...> <results.json> [baseline.json]");
+            System.exit(2);
+        }
+        String[] values = args[0].split(",");
+        int[] sizes = new int[values.length];
+        for (int i = 0; i < values.length; ++i)
+            sizes[i] = Integer.parseInt(values[i].trim());
+
+        List<Map<String,Object>> results = measure(sizes);
+        print(results);
+
+        File output = new File(args[1]);
+        output.getAbsoluteFile().getParentFile().mkdirs();
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(output, results);
+        System.out.println("\nResults written to " + output);
+
+        if (args.length == 3 && !args[2].isEmpty()) {
+            List<String> regressions = regressions(results, new File(args[2]));
+            for (String regression : regressions)
+                System.err.println("Footprint regression: " + regression);
+            if (!regressions.isEmpty())
+                System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.discgolf.api.discgolfapi.persistence;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import com.discgolf.api.discgolfapi.model.Lesson;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link LessonFileDAO} operations against the number of lessons
+ * <p>
+ * {@code getLessonsOnDate} parses the dates of every lesson on each call.
+ * The lesson {@code createLesson} created is deleted after each invocation,
+ * outside the measurement, so the store stays at size
+ * <p>
+ * Run with {@code mvn -P benchmark test-compile exec:exec@benchmark -Dbenchmark=LessonFileDAOBenchmark},
+ * or across thread counts with {@link PersistenceBenchmarks}
+ *
+ * @author ZVH
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class LessonFileDAOBenchmark {
+    @Param({"100", "10000", "1000000"})
+    public int size;
+
+    private BenchmarkData data;
+    private LessonFileDAO lessonFileDAO;
+
+    /**
+     * The lesson a thread created in its last invocation
+     */
+    @State(Scope.Thread)
+    public static class CreatedLesson {
+        Lesson lesson;
+
+        @TearDown(Level.Invocation)
+        public void delete(LessonFileDAOBenchmark benchmark) throws IOException {
+            benchmark.lessonFileDAO.deleteLesson(lesson.getId());
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        data = new BenchmarkData();
+        lessonFileDAO = new LessonFileDAO(data.lessons(size), BenchmarkData.objectMapper());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        data.delete();
+    }
+
+    private int anyId() {
+        return 1 + ThreadLocalRandom.current().nextInt(size);
+    }
+
+    @Benchmark
+    public Lesson getLesson() {
+        return lessonFileDAO.getLesson(anyId());
+    }
+
+    @Benchmark
+    public Lesson[] findLessons() {
+        return lessonFileDAO.findLessons("Lesson 1");
+    }
+
+    @Benchmark
+    public Lesson[] getLessonsOnDate() throws IOException {
+        return lessonFileDAO.getLessonsOnDate(BenchmarkData.LESSON_DAY);
+    }
+
+    @Benchmark
+    public Lesson createLesson(CreatedLesson last) throws IOException {
+        last.lesson = lessonFileDAO.createLesson(new Lesson(0, "user1", "Putting", "Short game", "MWF",
+                                                            "03/01/2022", "04/01/2022", 80));
+        return last.lesson;
+    }
+
+    @Benchmark
+    public Lesson updateLesson() throws IOException {
+        return lessonFileDAO.updateLesson(new Lesson(anyId(), "user1", "Driving", "Long game", "TuTh",
+                                                     "05/01/2022", "07/01/2022", 120));
+    }
+}
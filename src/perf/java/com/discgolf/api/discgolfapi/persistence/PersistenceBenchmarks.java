@@ -0,0 +1,62 @@
+package com.discgolf.api.discgolfapi.persistence;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collection;
+
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatFactory;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the FileDAO benchmarks at each catalog size and thread count, writing
+ * every result to one JSON file to track across releases
+ * <p>
+ * Run with {@code mvn -P benchmark test-compile exec:exec@persistence}, choosing
+ * with {@code -Dbenchmark.threads=1,4,16,64}, {@code -Dbenchmark.sizes=100,10000,1000000}
+ * and {@code -Dbenchmark.persistence=<regex>} of the benchmarks to run
+ *
+ * @author ZVH
+ */
+public class PersistenceBenchmarks {
+    /**
+     * Runs the benchmarks
+     *
+     * @param args The comma separated thread counts, the comma separated sizes,
+     * the file to write the results to, and the regex of the benchmarks to run
+     *
+     * @throws RunnerException when a benchmark fails
+     */
+    public static void main(String[] args) throws RunnerException {
+        if (args.length != 4) {
+            System.err.println("Usage: PersistenceBenchmarks <threads,...> <sizes,...> <results.json> <regex>");
+            System.exit(2);
+        }
+        String[] sizes = args[1].split(",");
+
+        Collection<RunResult> results = new ArrayList<>();
+        for (String threads : args[0].split(",")) {
+            Options options = new OptionsBuilder()
+                .include(args[3])
+                .threads(Integer.parseInt(threads.trim()))
+                .param("size", sizes)
+                .build();
+            results.addAll(new Runner(options).run());
+        }
+
+        File output = new File(args[2]);
+        output.getAbsoluteFile().getParentFile().mkdirs();
+        try (PrintStream out = new PrintStream(output)) {
+            ResultFormatFactory.getInstance(ResultFormatType.JSON, out).writeOut(results);
+        } catch (FileNotFoundException e) {
+            throw new RunnerException(e);
+        }
+        System.out.println("Results written to " + output);
+    }
+}
@@ -0,0 +1,100 @@
+package com.discgolf.api.discgolfapi.persistence;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.discgolf.api.discgolfapi.model.User;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link UserFileDAO} operations against the number of users
+ * <p>
+ * Passwords are stored as given, so hashing does not hide the store's own cost.
+ * Finding a user by username scans every user. The user {@code createUser}
+ * created is removed after each invocation, outside the measurement, or later
+ * iterations would measure a larger store
+ * <p>
+ * Run with {@code mvn -P benchmark test-compile exec:exec@benchmark -Dbenchmark=UserFileDAOBenchmark},
+ * or across thread counts with {@link PersistenceBenchmarks}
+ *
+ * @author ZVH
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class UserFileDAOBenchmark {
+    @Param({"100", "10000", "1000000"})
+    public int size;
+
+    private BenchmarkData data;
+    private UserFileDAO userFileDAO;
+    private final AtomicInteger created = new AtomicInteger();
+
+    /**
+     * The user a thread created in its last invocation
+     */
+    @State(Scope.Thread)
+    public static class CreatedUser {
+        User user;
+
+        @TearDown(Level.Invocation)
+        public void delete(UserFileDAOBenchmark benchmark) throws IOException {
+            benchmark.userFileDAO.deleteUser(user.getId());
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        data = new BenchmarkData();
+        userFileDAO = new UserFileDAO(data.users(size), BenchmarkData.objectMapper());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        data.delete();
+    }
+
+    private int anyId() {
+        return 1 + ThreadLocalRandom.current().nextInt(size);
+    }
+
+    @Benchmark
+    public User getUser() {
+        return userFileDAO.getUser(anyId());
+    }
+
+    @Benchmark
+    public User findUser() {
+        return userFileDAO.getUser(BenchmarkData.username(anyId()));
+    }
+
+    @Benchmark
+    public User createUser(CreatedUser last) throws IOException {
+        last.user = userFileDAO.createUser(new User(0, "new" + created.incrementAndGet(), "password"));
+        return last.user;
+    }
+
+    @Benchmark
+    public User updateUser() throws IOException {
+        int id = anyId();
+        return userFileDAO.updateUser(new User(id, BenchmarkData.username(id), "changed"));
+    }
+}
@@ -0,0 +1,57 @@
+package com.discgolf.api.discgolfapi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+
+import org.apache.coyote.ProtocolHandler;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test the Virtual Thread Config class, on whichever Java version runs it
+ *
+ * @author ZVH
+ */
+@Tag("Controller-tier")
+public class VirtualThreadConfigTest {
+    private static final boolean SUPPORTED = Runtime.version().feature() >= 21;
+
+    @Test
+    public void testNewVirtualThreadExecutor() throws Exception {
+        // Invoke
+        ExecutorService executor = VirtualThreadConfig.newVirtualThreadExecutor("test-");
+
+        // Analyze
+        if (!SUPPORTED) {
+            assertNull(executor);
+            return;
+        }
+        assertNotNull(executor);
+        Thread thread = executor.submit(Thread::currentThread).get();
+        assertTrue(thread.getName().startsWith("test-"));
+        assertEquals(true, Thread.class.getMethod("isVirtual").invoke(thread));
+        executor.shutdown();
+    }
+
+    @Test
+    public void testCustomizer() {
+        // Setup
+        ProtocolHandler handler = mock(ProtocolHandler.class);
+
+        // Invoke
+        new VirtualThreadConfig().virtualThreadExecutor().customize(handler);
+
+        // Analyze, the platform thread pool is kept where there are no virtual threads
+        verify(handler, SUPPORTED ? times(1) : never()).setExecutor(any(Executor.class));
+    }
+}
@@ -0,0 +1,192 @@
+package com.discgolf.api.discgolfapi.accesslog;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.discgolf.api.discgolfapi.auth.Session;
+import com.discgolf.api.discgolfapi.auth.SessionFilter;
+import com.discgolf.api.discgolfapi.metrics.MetricsRegistry;
+import com.discgolf.api.discgolfapi.model.User;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Test the Access Log Filter class
+ *
+ * @author ZVH
+ */
+@Tag("Controller-tier")
+public class AccessLogFilterTest {
+    private List<String> lines;
+    private AsyncAppender appender;
+    private AtomicLong now;
+
+    /**
+     * Before each test, create an appender collecting its lines, and a clock
+     * the test controls
+     */
+    @BeforeEach
+    public void setupAppender() {
+        lines = new CopyOnWriteArrayList<>();
+        appender = new AsyncAppender(64, lines::add);
+        now = new AtomicLong(0);
+    }
+
+    /**
+     * A filter logging every request, or the given fraction of successful
+     * reads with a random number that is always 0.5
+     */
+    private AccessLogFilter filter(double readSample) {
+        return new AccessLogFilter(appender, readSample, now::get, () -> 0.5);
+    }
+
+    /**
+     * A servlet that takes two milliseconds, then responds with the given status
+     */
+    private HttpServlet servlet(String pattern, int status) {
+        return new HttpServlet() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) {
+                request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, pattern);
+                now.addAndGet(2000000L);
+                response.setStatus(status);
+            }
+        };
+    }
+
+    /**
+     * Sends a request through the filter
+     */
+    private void send(AccessLogFilter filter, String method, String uri, String pattern, int status)
+            throws ServletException, IOException {
+        filter.doFilter(new MockHttpServletRequest(method, uri), new MockHttpServletResponse(),
+                        new MockFilterChain(servlet(pattern, status)));
+    }
+
+    @Test
+    public void testLogsRequest() throws ServletException, IOException {
+        // Setup
+        MockHttpServletRequest request = new MockHttpServletRequest("PUT", "/carts/addDisc/aiden/3");
+        request.setAttribute(SessionFilter.SESSION, new Session("token", new User(2, "aiden", "pw"), Long.MAX_VALUE));
+
+        // Invoke
+        filter(1).doFilter(request, new MockHttpServletResponse(),
+                           new MockFilterChain(servlet("/carts/addDisc/{cart_username}/{disc_id}", 200)));
+        appender.close();
+
+        // Analyze
+        assertEquals(1, lines.size());
+        String line = lines.get(0);
+        assertTrue(line.contains("\"method\":\"PUT\""));
+        assertTrue(line.contains("\"uri\":\"/carts/addDisc/aiden/3\""));
+        assertTrue(line.contains("\"pattern\":\"/carts/addDisc/{cart_username}/{disc_id}\""));
+        assertTrue(line.contains("\"status\":200"));
+        assertTrue(line.contains("\"latencyMicros\":2000"));
+        assertTrue(line.contains("\"user\":\"aiden\""));
+        assertFalse(line.contains("token"));
+    }
+
+    @Test
+    public void testNeverLogsPasswords() throws ServletException, IOException {
+        // Setup
+        MockHttpServletRequest create = new MockHttpServletRequest("POST", "/users");
+        create.setContent("{\"username\":\"aiden\",\"password\":\"hunter2\"}".getBytes(StandardCharsets.UTF_8));
+
+        // Invoke
+        send(filter(1), "GET", "/users/aiden/login/hunter2", "/users/{username}/login/{password}", 200);
+        filter(1).doFilter(create, new MockHttpServletResponse(), new MockFilterChain(servlet("/users", 201)));
+        appender.close();
+
+        // Analyze
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).contains("\"uri\":\"/users/aiden/login/REDACTED\""));
+        for (String line : lines)
+            assertFalse(line.contains("hunter2"));
+    }
+
+    @Test
+    public void testSamplesSuccessfulReads() throws ServletException, IOException {
+        // Setup
+        AccessLogFilter quarter = filter(0.25);  // 0.5 is not below 0.25, so not sampled
+
+        // Invoke
+        send(quarter, "GET", "/discs/3", "/discs/{id}", 200);
+        send(quarter, "GET", "/discs/4", "/discs/{id}", 404);
+        send(quarter, "PUT", "/discs", "/discs", 200);
+        send(quarter, "DELETE", "/discs/5", "/discs/{id}", 500);
+        send(filter(0.75), "GET", "/discs/6", "/discs/{id}", 200);
+        appender.close();
+
+        // Analyze
+        assertEquals(4, lines.size());
+        assertTrue(lines.get(0).contains("/discs/4"));
+        assertTrue(lines.get(1).contains("\"method\":\"PUT\""));
+        assertTrue(lines.get(2).contains("/discs/5"));
+        assertTrue(lines.get(3).contains("/discs/6"));
+    }
+
+    @Test
+    public void testAsyncLoggedOnComplete() throws ServletException, IOException {
+        // Setup
+        MockHttpServletRequest request = new MockHttpServletRequest("PUT", "/carts/purchase/aiden");
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain(new HttpServlet() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse res) {
+                req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/carts/purchase/{cart_username}");
+                req.startAsync();
+            }
+        });
+
+        // Invoke
+        filter(1).doFilter(request, response, chain);
+        now.addAndGet(5000000L);
+        response.setStatus(409);
+        ((MockAsyncContext) request.getAsyncContext()).complete();
+        appender.close();
+
+        // Analyze
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0).contains("\"status\":409"));
+        assertTrue(lines.get(0).contains("\"latencyMicros\":5000"));
+    }
+
+    @Test
+    public void testDisabled() throws ServletException, IOException {
+        // Setup
+        MetricsRegistry registry = new MetricsRegistry();
+        AccessLogFilter off = new AccessLogFilter(registry, false, 1, 64);
+        MockFilterChain chain = new MockFilterChain(servlet("/discs", 200));
+
+        // Invoke
+        off.doFilter(new MockHttpServletRequest("GET", "/discs"), new MockHttpServletResponse(), chain);
+        off.close();
+
+        // Analyze
+        assertFalse(registry.scrape().contains("access_log"));
+    }
+}
@@ -0,0 +1,116 @@
+package com.discgolf.api.discgolfapi.accesslog;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test the Async Appender and Access Log Record classes
+ *
+ * @author ZVH
+ */
+@Tag("Controller-tier")
+public class AsyncAppenderTest {
+    private static AccessLogRecord record(int id) {
+        return new AccessLogRecord(0, "GET", "/discs/" + id, "/discs/{id}", 200, 350, null);
+    }
+
+    @Test
+    public void testWritesInOrder() {
+        // Setup
+        List<String> lines = new CopyOnWriteArrayList<>();
+        AsyncAppender appender = new AsyncAppender(16, lines::add);
+
+        // Invoke
+        for (int i = 0; i < 10; ++i)
+            assertTrue(appender.append(record(i)));
+        appender.close();
+
+        // Analyze
+        assertEquals(10, lines.size());
+        assertEquals(10, appender.getWritten());
+        for (int i = 0; i < 10; ++i)
+            assertTrue(lines.get(i).contains("\"uri\":\"/discs/" + i + "\""));
+    }
+
+    @Test
+    public void testDropsWhenFull() throws InterruptedException {
+        // Setup
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> lines = new CopyOnWriteArrayList<>();
+        AsyncAppender appender = new AsyncAppender(2, line -> {
+            writing.countDown();
+            try {
+                release.await(); // A sink slower than the requests
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            lines.add(line);
+        });
+        appender.append(record(0));
+        writing.await();
+
+        // Invoke
+        boolean second = appender.append(record(1));
+        boolean third = appender.append(record(2));
+        boolean fourth = appender.append(record(3));
+        release.countDown();
+        appender.close();
+
+        // Analyze
+        assertTrue(second);
+        assertTrue(third);
+        assertFalse(fourth);
+        assertEquals(1, appender.getDropped());
+        assertEquals(3, lines.size());
+    }
+
+    @Test
+    public void testClosedDrops() {
+        // Setup
+        AsyncAppender appender = new AsyncAppender(4, line -> {});
+        appender.close();
+
+        // Invoke and Analyze
+        assertFalse(appender.append(record(0)));
+        assertEquals(1, appender.getDropped());
+    }
+
+    @Test
+    public void testSinkFailureCounted() {
+        // Setup
+        AsyncAppender appender = new AsyncAppender(4, line -> { throw new IllegalStateException("disk full"); });
+
+        // Invoke
+        appender.append(record(0));
+        appender.append(record(1));
+        appender.close();
+
+        // Analyze
+        assertEquals(0, appender.getWritten());
+        assertEquals(2, appender.getDropped());
+    }
+
+    @Test
+    public void testJson() {
+        // Setup
+        AccessLogRecord full = new AccessLogRecord(1_650_000_000_123L, "PUT", "/carts/addDisc/ai\"den/3",
+                                                   "/carts/addDisc/{cart_username}/{disc_id}", 200, 812, "ai\"den");
+        AccessLogRecord unmapped = new AccessLogRecord(0, "GET", "/nowhere", null, 404, 90, null);
+
+        // Invoke and Analyze
+        assertEquals("{\"time\":\"2022-04-15T05:20:00.123Z\",\"method\":\"PUT\",\"uri\":\"/carts/addDisc/ai\\\"den/3\","
+                     + "\"pattern\":\"/carts/addDisc/{cart_username}/{disc_id}\",\"status\":200,\"latencyMicros\":812,"
+                     + "\"user\":\"ai\\\"den\"}", full.toJson());
+        assertEquals("{\"time\":\"1970-01-01T00:00:00Z\",\"method\":\"GET\",\"uri\":\"/nowhere\",\"status\":404,"
+                     + "\"latencyMicros\":90}", unmapped.toJson());
+    }
+}
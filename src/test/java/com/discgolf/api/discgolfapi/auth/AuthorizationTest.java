@@ -0,0 +1,49 @@
+package com.discgolf.api.discgolfapi.auth;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.discgolf.api.discgolfapi.model.User;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Test the Authorization class
+ * 
+ * @author ZVH
+ */
+@Tag("Controller-tier")
+public class AuthorizationTest {
+    private static final Session AIDEN = new Session("aiden-token", new User(2, "aiden", "1234"), Long.MAX_VALUE);
+    private static final Session ADMIN = new Session("admin-token", new User(1, "admin", "1234"), Long.MAX_VALUE);
+
+    @Test
+    public void testAdmin() {
+        // Invoke & Analyze
+        assertEquals(HttpStatus.UNAUTHORIZED, Authorization.denied(null));
+        assertEquals(HttpStatus.FORBIDDEN, Authorization.denied(AIDEN));
+        assertNull(Authorization.denied(ADMIN));
+    }
+
+    @Test
+    public void testUsername() {
+        // Invoke & Analyze
+        assertEquals(HttpStatus.UNAUTHORIZED, Authorization.denied(null, "aiden"));
+        assertNull(Authorization.denied(AIDEN, "aiden"));
+        assertNull(Authorization.denied(AIDEN, "Aiden"));
+        assertEquals(HttpStatus.FORBIDDEN, Authorization.denied(AIDEN, "kyle"));
+        assertEquals(HttpStatus.FORBIDDEN, Authorization.denied(AIDEN, (String) null));
+        assertNull(Authorization.denied(ADMIN, "kyle"));
+    }
+
+    @Test
+    public void testId() {
+        // Invoke & Analyze
+        assertEquals(HttpStatus.UNAUTHORIZED, Authorization.denied(null, 2));
+        assertNull(Authorization.denied(AIDEN, 2));
+        assertEquals(HttpStatus.FORBIDDEN, Authorization.denied(AIDEN, 3));
+        assertNull(Authorization.denied(ADMIN, 3));
+    }
+}
@@ -0,0 +1,126 @@
+package com.discgolf.api.discgolfapi.auth;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test the Password Hasher class
+ * 
+ * @author ZVH
+ */
+@Tag("Controller-tier")
+public class PasswordHasherTest {
+    private PasswordHasher passwordHasher;
+
+    /**
+     * Before each test, create a cheap hasher with one thread and no queue
+     */
+    @BeforeEach
+    public void setupPasswordHasher() {
+        passwordHasher = new PasswordHasher(1000, 1, 1);
+    }
+
+    @AfterEach
+    public void shutdownPasswordHasher() {
+        passwordHasher.shutdown();
+    }
+
+    @Test
+    public void testHashMatches() {
+        // Invoke
+        String hash = passwordHasher.hash("1234");
+
+        // Analyze
+        assertTrue(PasswordHasher.isHashed(hash));
+        assertTrue(hash.startsWith("pbkdf2$1000$"));
+        assertTrue(PasswordHasher.matches("1234", hash));
+        assertFalse(PasswordHasher.matches("4321", hash));
+    }
+
+    @Test
+    public void testHashIsSalted() {
+        // Invoke
+        String first = passwordHasher.hash("1234");
+        String second = passwordHasher.hash("1234");
+
+        // Analyze
+        assertNotEquals(first, second);
+    }
+
+    @Test
+    public void testHashWithSaltIsReproducible() {
+        // Setup
+        byte[] salt = new byte[16];
+        salt[0] = 1;
+
+        // Invoke
+        String first = passwordHasher.hash("1234", salt);
+        String second = passwordHasher.hash("1234", salt);
+
+        // Analyze
+        assertEquals(first, second);
+        assertTrue(PasswordHasher.matches("1234", first));
+    }
+
+    @Test
+    public void testHashKeepsItsCost() {
+        // Setup
+        String hash = new PasswordHasher(2000, 1, 1).hash("1234");
+
+        // Analyze
+        assertTrue(hash.startsWith("pbkdf2$2000$"));
+        assertTrue(PasswordHasher.matches("1234", hash));
+    }
+
+    @Test
+    public void testPlaintextMatches() {
+        // Analyze
+        assertFalse(PasswordHasher.isHashed("1234"));
+        assertTrue(PasswordHasher.matches("1234", "1234"));
+        assertFalse(PasswordHasher.matches("4321", "1234"));
+        assertFalse(PasswordHasher.matches(null, "1234"));
+    }
+
+    @Test
+    public void testVerify() {
+        // Setup
+        String hash = passwordHasher.hash("1234");
+
+        // Invoke
+        boolean matches = passwordHasher.verify("1234", hash).join();
+        boolean mismatches = passwordHasher.verify("4321", hash).join();
+
+        // Analyze
+        assertTrue(matches);
+        assertFalse(mismatches);
+    }
+
+    @Test
+    public void testVerifyRejectedWhenSaturated() {
+        // Setup
+        String hash = new PasswordHasher(200000, 1, 1).hash("1234");
+        CompletableFuture<Boolean> running = passwordHasher.verify("1234", hash);
+        CompletableFuture<Boolean> queued = passwordHasher.verify("1234", hash);
+
+        // Invoke
+        CompletableFuture<Boolean> rejected = passwordHasher.verify("1234", hash);
+
+        // Analyze
+        CompletionException e = assertThrows(CompletionException.class, rejected::join);
+        assertTrue(e.getCause() instanceof RejectedExecutionException);
+        assertEquals(true, running.join());
+        assertEquals(true, queued.join());
+    }
+}
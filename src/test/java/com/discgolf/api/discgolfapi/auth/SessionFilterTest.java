@@ -0,0 +1,69 @@
+package com.discgolf.api.discgolfapi.auth;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+
+import javax.servlet.ServletException;
+
+import com.discgolf.api.discgolfapi.model.User;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * Test the Session Filter class
+ * 
+ * @author ZVH
+ */
+@Tag("Controller-tier")
+public class SessionFilterTest {
+    private SessionStore sessionStore;
+    private SessionFilter sessionFilter;
+
+    /**
+     * Before each test, create a filter over a new session store
+     */
+    @BeforeEach
+    public void setupSessionFilter() {
+        sessionStore = new SessionStore();
+        sessionFilter = new SessionFilter(sessionStore);
+    }
+
+    @Test
+    public void testBearerTokenResolved() throws ServletException, IOException {
+        // Setup
+        Session session = sessionStore.create(new User(99, "aiden", "1234"));
+        MockHttpServletRequest request = new MockHttpServletRequest("PUT", "/carts/purchase/aiden");
+        request.addHeader("Authorization", "Bearer " + session.getToken());
+        MockFilterChain chain = new MockFilterChain();
+
+        // Invoke
+        sessionFilter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        // Analyze
+        assertEquals(session, request.getAttribute(SessionFilter.SESSION));
+        assertNotNull(chain.getRequest()); // Passed on
+    }
+
+    @Test
+    public void testInvalidTokenPassesThrough() throws ServletException, IOException {
+        // Setup
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/discs");
+        request.addHeader("Authorization", "Bearer not-a-token");
+        MockFilterChain chain = new MockFilterChain();
+
+        // Invoke
+        sessionFilter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        // Analyze
+        assertNull(request.getAttribute(SessionFilter.SESSION));
+        assertNotNull(chain.getRequest());
+    }
+}
@@ -0,0 +1,112 @@
+package com.discgolf.api.discgolfapi.auth;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.discgolf.api.discgolfapi.model.User;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test the Session Store class
+ * 
+ * @author ZVH
+ */
+@Tag("Controller-tier")
+public class SessionStoreTest {
+    private SessionStore sessionStore;
+    private AtomicLong now;
+    private User user;
+
+    /**
+     * Before each test, create a store with a 1 second time to live and a
+     * clock the test controls
+     */
+    @BeforeEach
+    public void setupSessionStore() {
+        now = new AtomicLong(0);
+        sessionStore = new SessionStore(1000, now::get);
+        user = new User(99, "aiden", "1234");
+    }
+
+    @Test
+    public void testCreateAndResolve() {
+        // Invoke
+        Session session = sessionStore.create(user);
+        Session other = sessionStore.create(user);
+
+        // Analyze
+        assertEquals(user, sessionStore.resolve(session.getToken()).getUser());
+        assertNotEquals(session.getToken(), other.getToken());
+        assertEquals(1000, session.getExpires());
+    }
+
+    @Test
+    public void testResolveUnknown() {
+        // Invoke & Analyze
+        assertNull(sessionStore.resolve("not-a-token"));
+    }
+
+    @Test
+    public void testResolveExpired() {
+        // Setup
+        Session session = sessionStore.create(user);
+
+        // Invoke
+        now.set(1000);
+
+        // Analyze
+        assertNull(sessionStore.resolve(session.getToken()));
+        assertEquals(0, sessionStore.size());
+    }
+
+    @Test
+    public void testInvalidate() {
+        // Setup
+        Session session = sessionStore.create(user);
+
+        // Invoke & Analyze
+        assertEquals(true, sessionStore.invalidate(session.getToken()));
+        assertEquals(false, sessionStore.invalidate(session.getToken()));
+        assertNull(sessionStore.resolve(session.getToken()));
+    }
+
+    @Test
+    public void testInvalidateUser() {
+        // Setup
+        Session session = sessionStore.create(user);
+        Session other = sessionStore.create(user);
+        Session someoneElse = sessionStore.create(new User(100, "kyle", "5678"));
+
+        // Invoke
+        int count = sessionStore.invalidateUser("AIDEN");
+
+        // Analyze
+        assertEquals(2, count);
+        assertNull(sessionStore.resolve(session.getToken()));
+        assertNull(sessionStore.resolve(other.getToken()));
+        assertEquals(someoneElse, sessionStore.resolve(someoneElse.getToken()));
+        assertEquals(0, sessionStore.invalidateUser("aiden"));
+    }
+
+    @Test
+    public void testPurge() {
+        // Setup
+        sessionStore.create(user);
+        now.set(500);
+        Session live = sessionStore.create(user);
+
+        // Invoke
+        now.set(1000);
+        sessionStore.purge();
+
+        // Analyze
+        assertEquals(1, sessionStore.size());
+        assertEquals(live, sessionStore.resolve(live.getToken()));
+    }
+}
@@ -0,0 +1,159 @@
+package com.discgolf.api.discgolfapi.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.HashMap;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+
+import com.discgolf.api.discgolfapi.model.Cart;
+import com.discgolf.api.discgolfapi.model.Disc;
+import com.discgolf.api.discgolfapi.persistence.CartFileDAO;
+import com.discgolf.api.discgolfapi.persistence.DiscFileDAO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Test the bytes the hot request paths allocate per request stay within their budgets
+ * <p>
+ * Each request is made against file-backed DAOs holding {@value #DISCS} discs
+ * and {@value #CARTS} carts, warmed up, then made {@value #REQUESTS} times on
+ * the test's thread. The budgets are what the paths allocated when recorded,
+ * with headroom for JIT variation. Lower a budget when a change reduces what a
+ * path allocates, so the reduction is kept
+ * <p>
+ * The controllers only log failures, and requests are logged by the access
+ * log filter, so no logging is measured
+ *
+ * @author ZVH
+ */
+@Tag("Controller-tier")
+public class AllocationBudgetTest {
+    private static final int DISCS = 200;
+    private static final int CARTS = 20;
+    private static final int WARMUP = 2000;
+    private static final int REQUESTS = 2000;
+
+    /** Bytes per GET /discs/{id} */
+    static final long GET_DISC_BUDGET = 512;                // 347 when recorded
+    /** Bytes per GET /discs/filter, matching 120 of the discs */
+    static final long SEARCH_AND_FILTER_BUDGET = 16_384;    // 11,720 when recorded
+    /** Bytes per PUT /carts/addDisc, which saves every cart */
+    static final long ADD_TO_CART_BUDGET = 24_576;          // 16,276 when recorded
+    /** Bytes per GET /carts/getCost */
+    static final long GET_COST_BUDGET = 512;                // 380 when recorded
+
+    @TempDir
+    Path directory;
+
+    private DiscController discController;
+    private CartController cartController;
+    private String[] usernames = new String[CARTS];   // Made before measuring, so not counted
+
+    /**
+     * Before each test, write the discs and carts and create the controllers
+     * over file-backed DAOs
+     */
+    @BeforeEach
+    public void setupControllers() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        String[] types = {"Driver", "Midrange", "Putter"};
+        String[] colors = {"Red", "Blue", "Green", "Yellow", "Orange"};
+        Disc[] discs = new Disc[DISCS];
+        for (int i = 0; i < DISCS; ++i)
+            discs[i] = new Disc(i + 1, colors[i % colors.length], 150 + i % 30, types[i % types.length], 10.0 + i % 20, 1000);
+        Cart[] carts = new Cart[CARTS];
+        for (int i = 0; i < CARTS; ++i) {
+            HashMap<Integer,Integer> contents = new HashMap<>();
+            for (int line = 0; line < 5; ++line)
+                contents.put(1 + (i * 7 + line * 13) % DISCS, 1 + line);
+            usernames[i] = "user" + (i + 1);
+            carts[i] = new Cart(i + 1, usernames[i], contents);
+        }
+        objectMapper.writeValue(directory.resolve("discs.json").toFile(), discs);
+        objectMapper.writeValue(directory.resolve("carts.json").toFile(), carts);
+
+        DiscFileDAO discDao = new DiscFileDAO(directory.resolve("discs.json").toString(), objectMapper);
+        CartFileDAO cartDao = new CartFileDAO(directory.resolve("carts.json").toString(), objectMapper);
+        discController = new DiscController(discDao);
+        cartController = new CartController(cartDao, discDao);
+    }
+
+    /**
+     * A request, checked to have succeeded
+     */
+    private interface Request {
+        HttpStatus make(int i);
+    }
+
+    /**
+     * Measures the bytes a request allocates on the calling thread
+     *
+     * @param request The request, given the number of the request
+     *
+     * @return The mean bytes allocated per request
+     */
+    private static long allocatedPerRequest(Request request) {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        long thread = Thread.currentThread().getId();
+
+        for (int i = 0; i < WARMUP; ++i)
+            assertEquals(HttpStatus.OK, request.make(i));
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < REQUESTS; ++i)
+            request.make(i);
+        return (threads.getThreadAllocatedBytes(thread) - before) / REQUESTS;
+    }
+
+    /**
+     * Checks a request's allocation is within its budget
+     *
+     * @param name The name of the request
+     * @param budget The bytes allowed per request
+     * @param request The request
+     */
+    private static void assertWithinBudget(String name, long budget, Request request) {
+        long allocated = allocatedPerRequest(request);
+        assertTrue(allocated <= budget,
+                   name + " allocated " + allocated + " bytes per request, over its budget of " + budget);
+    }
+
+    @Test
+    public void testGetDisc() {
+        // Invoke and Analyze
+        assertWithinBudget("getDisc", GET_DISC_BUDGET,
+                           i -> discController.getDisc(1 + i % DISCS).getStatusCode());
+    }
+
+    @Test
+    public void testSearchAndFilterDiscs() {
+        // Invoke and Analyze
+        assertWithinBudget("searchAndFilterDiscs", SEARCH_AND_FILTER_BUDGET,
+                           i -> discController.searchAndFilterDiscs("re", 2).getStatusCode());
+    }
+
+    @Test
+    public void testAddToCart() {
+        // Invoke and Analyze
+        assertWithinBudget("addToCart", ADD_TO_CART_BUDGET,
+                           i -> cartController.addToCart(usernames[i % CARTS], 1 + i % DISCS).getStatusCode());
+    }
+
+    @Test
+    public void testGetCost() {
+        // Invoke and Analyze
+        assertWithinBudget("getCost", GET_COST_BUDGET,
+                           i -> cartController.getCost(usernames[i % CARTS]).getStatusCode());
+    }
+}
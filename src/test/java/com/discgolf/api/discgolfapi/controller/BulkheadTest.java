@@ -0,0 +1,93 @@
+package com.discgolf.api.discgolfapi.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Test the Bulkhead class
+ * 
+ * @author ZVH
+ */
+@Tag("Controller-tier")
+public class BulkheadTest {
+    private Bulkhead bulkhead;
+    private CountDownLatch release;
+
+    /**
+     * Before each test, create a bulkhead with one thread and a queue of one
+     */
+    @BeforeEach
+    public void setupBulkhead() {
+        bulkhead = new Bulkhead("test", 1, 1);
+        release = new CountDownLatch(1);
+    }
+
+    @AfterEach
+    public void shutdownBulkhead() {
+        release.countDown();
+        bulkhead.shutdown();
+    }
+
+    private ResponseEntity<String> blocked() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return new ResponseEntity<>(Thread.currentThread().getName(), HttpStatus.OK);
+    }
+
+    @Test
+    public void testRunsOnBulkheadThread() {
+        // Invoke
+        ResponseEntity<String> response = bulkhead.submit(() -> new ResponseEntity<>(Thread.currentThread().getName(), HttpStatus.OK)).join();
+
+        // Analyze
+        assertTrue(response.getBody().startsWith("test-"));
+    }
+
+    @Test
+    public void testRejectedWhenFull() {
+        // Setup
+        CompletableFuture<ResponseEntity<String>> running = bulkhead.submit(this::blocked);
+        CompletableFuture<ResponseEntity<String>> queued = bulkhead.submit(this::blocked);
+
+        // Invoke
+        ResponseEntity<String> rejected = bulkhead.submit(this::blocked).join();
+
+        // Analyze
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, rejected.getStatusCode());
+        assertEquals(1, bulkhead.getRejected());
+        assertEquals(1, bulkhead.getQueueDepth());
+        assertEquals(1, bulkhead.getPeakQueueDepth());
+        release.countDown();
+        assertEquals(HttpStatus.OK, running.join().getStatusCode());
+        assertEquals(HttpStatus.OK, queued.join().getStatusCode());
+    }
+
+    @Test
+    public void testBulkheadsCreatedOnce() {
+        // Setup
+        Bulkheads bulkheads = new Bulkheads();
+
+        // Invoke
+        Bulkhead first = bulkheads.get(Bulkheads.CHECKOUT);
+        Bulkhead second = bulkheads.get(Bulkheads.CHECKOUT);
+
+        // Analyze
+        assertSame(first, second);
+        assertEquals(1, bulkheads.getAll().size());
+        bulkheads.shutdown();
+    }
+}
@@ -3,12 +3,17 @@ package com.discgolf.api.discgolfapi.controller;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
 import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Tag;
@@ -16,8 +21,11 @@ import org.junit.jupiter.api.Test;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
+import com.discgolf.api.discgolfapi.auth.Session;
 import com.discgolf.api.discgolfapi.model.Cart;
+import com.discgolf.api.discgolfapi.model.CartSummary;
 import com.discgolf.api.discgolfapi.model.Disc;
+import com.discgolf.api.discgolfapi.model.User;
 import com.discgolf.api.discgolfapi.persistence.CartDAO;
 import com.discgolf.api.discgolfapi.persistence.DiscDAO;
 
@@ -28,6 +36,9 @@ import com.discgolf.api.discgolfapi.persistence.DiscDAO;
  */
 @Tag("Controller-tier")
 public class CartControllerTest {
+    private static final Session AIDEN = new Session("aiden-token", new User(2, "aiden", "1234"), Long.MAX_VALUE);
+    private static final Session KYLE = new Session("kyle-token", new User(3, "kyle", "1234"), Long.MAX_VALUE);
+    private static final Session ADMIN = new Session("admin-token", new User(1, "admin", "1234"), Long.MAX_VALUE);
     private CartController cartController;
     private CartDAO mockCartDAO;
     private DiscDAO mockDiscDAO;
@@ -322,34 +333,29 @@ public class CartControllerTest {
     }
 
     @Test
-    public void testAddToCart() throws IOException { // updateCart may throw IOException
+    public void testAddToCart() throws IOException { // addDisc may throw IOException
         // Setup
-        Cart mockCart = mock(Cart.class);
+        Cart cart = new Cart(0, "aiden", new HashMap<>());
         Disc disc = new Disc(0, "Blue", 160, "Distance Driver", 0.0, 1);
 
-        // when addDisc is called, return true simulating successful add
-        when(mockCart.addDisc(disc.getId())).thenReturn(true);
-        when(mockCartDAO.updateCart(mockCart)).thenReturn(mockCart);
-        when(mockCartDAO.findCart("aiden")).thenReturn(mockCart);
+        // when addDisc is called, return the cart simulating successful add
+        when(mockCartDAO.addDisc("aiden", disc.getId(), 1)).thenReturn(cart);
 
         // Invoke
         ResponseEntity<Cart> response = cartController.addToCart("aiden", disc.getId());
 
         // Analyze
         assertEquals(HttpStatus.OK,response.getStatusCode());
-        assertEquals(mockCart,response.getBody());
+        assertEquals(cart,response.getBody());
     }
 
     @Test
-    public void testAddToCartFailed() throws IOException { // updateCart may throw IOException
+    public void testAddToCartFailed() throws IOException { // addDisc may throw IOException
         // Setup
-        Cart mockCart = mock(Cart.class);
         Disc disc = new Disc(0, "Blue", 160, "Distance Driver", 0.0, 1);
 
-        // when addDisc is called, return false simulating failed add
-        when(mockCart.addDisc(disc.getId())).thenReturn(false);
-        when(mockCartDAO.updateCart(mockCart)).thenReturn(mockCart);
-        when(mockCartDAO.findCart("aiden")).thenReturn(mockCart);
+        // when addDisc is called, return null simulating failed add
+        when(mockCartDAO.addDisc("aiden", disc.getId(), 1)).thenReturn(null);
 
         // Invoke
         ResponseEntity<Cart> response = cartController.addToCart("aiden", disc.getId());
@@ -360,13 +366,12 @@ public class CartControllerTest {
     }
 
     @Test
-    public void testAddToCartHandleException() throws IOException { // updateCart will throw IOException
+    public void testAddToCartHandleException() throws IOException { // addDisc will throw IOException
         // Setup
         Cart cart = new Cart(0, "aiden", new HashMap<>());
         Disc disc = new Disc(0, "Blue", 160, "Distance Driver", 0.0, 1);
-        // When updateCart is called on the Mock Cart DAO, throw an IOException
-        doThrow(new IOException()).when(mockCartDAO).updateCart(cart);
-        when(mockCartDAO.findCart("aiden")).thenReturn(cart);
+        // When addDisc is called on the Mock Cart DAO, throw an IOException
+        doThrow(new IOException()).when(mockCartDAO).addDisc(cart.getUsername(), disc.getId(), 1);
 
         // Invoke
         ResponseEntity<Cart> response = cartController.addToCart(cart.getUsername(), disc.getId());
@@ -377,32 +382,27 @@ public class CartControllerTest {
     }
 
     @Test
-    public void testRemoveFromCart() throws IOException { // updateCart may throw IOException
+    public void testRemoveFromCart() throws IOException { // removeDisc may throw IOException
         // Setup
-        Cart mockCart = mock(Cart.class);
+        Cart cart = new Cart(0, "aiden", new HashMap<>());
         Disc disc = new Disc(0, "Blue", 160, "Distance Driver", 0.0, 1);
-        // when removeDisc is called, return true simulating successful remove
-        when(mockCart.removeDisc(disc.getId())).thenReturn(true);
-        when(mockCartDAO.updateCart(mockCart)).thenReturn(mockCart);
-        when(mockCartDAO.findCart("aiden")).thenReturn(mockCart);
+        // when removeDisc is called, return the cart simulating successful remove
+        when(mockCartDAO.removeDisc("aiden", disc.getId())).thenReturn(cart);
 
         // Invoke
         ResponseEntity<Cart> response = cartController.removeFromCart("aiden", disc.getId());
 
         // Analyze
         assertEquals(HttpStatus.OK,response.getStatusCode());
-        assertEquals(mockCart,response.getBody());
+        assertEquals(cart,response.getBody());
     }
 
     @Test
-    public void testRemoveFromCartFailed() throws IOException { // updateCart may throw IOException
+    public void testRemoveFromCartFailed() throws IOException { // removeDisc may throw IOException
         // Setup
-        Cart mockCart = mock(Cart.class);
         Disc disc = new Disc(0, "Blue", 160, "Distance Driver", 0.0, 1);
-        // when removeDisc is called, return false simulating failed remove
-        when(mockCart.removeDisc(disc.getId())).thenReturn(false);
-        when(mockCartDAO.updateCart(mockCart)).thenReturn(mockCart);
-        when(mockCartDAO.findCart("aiden")).thenReturn(mockCart);
+        // when removeDisc is called, return null simulating failed remove
+        when(mockCartDAO.removeDisc("aiden", disc.getId())).thenReturn(null);
 
         // Invoke
         ResponseEntity<Cart> response = cartController.removeFromCart("aiden", disc.getId());
@@ -413,15 +413,12 @@ public class CartControllerTest {
     }
 
     @Test
-    public void testRemoveFromCartHandleException() throws IOException { // updateCart will throw IOException
+    public void testRemoveFromCartHandleException() throws IOException { // removeDisc will throw IOException
         // Setup
-        Cart mockCart = mock(Cart.class);
         Disc disc = new Disc(0, "Blue", 160, "Distance Driver", 0.0, 1);
         
-        // When updateCart is called on the Mock Cart DAO, throw an IOException but pass removeDisc
-        when(mockCart.removeDisc(disc.getId())).thenReturn(true);
-        when(mockCartDAO.findCart("aiden")).thenReturn(mockCart);
-        doThrow(new IOException()).when(mockCartDAO).updateCart(mockCart);
+        // When removeDisc is called on the Mock Cart DAO, throw an IOException
+        doThrow(new IOException()).when(mockCartDAO).removeDisc("aiden", disc.getId());
 
         // Invoke
         ResponseEntity<Cart> response = cartController.removeFromCart("aiden", disc.getId());
@@ -432,36 +429,31 @@ public class CartControllerTest {
     }
 
     @Test
-    public void testUpdateQuantityInCart() throws IOException { // updateCart may throw IOException
+    public void testUpdateQuantityInCart() throws IOException { // updateDiscQuantity may throw IOException
         // Setup
-        Cart mockCart = mock(Cart.class);
+        Cart cart = new Cart(0, "aiden", new HashMap<>());
         Disc disc = new Disc(0, "Blue", 160, "Distance Driver", 0.0, 1);
-        // when updateCart is called, return true simulating successful update
+        // when updateDiscQuantity is called, return the cart simulating successful update
         for (int mode = 0 ; mode < 3 ; mode++) {
-            when(mockCart.updateDiscQuantity(disc.getId(), 1, mode)).thenReturn(true);
-            when(mockCartDAO.updateCart(mockCart)).thenReturn(mockCart);
-            when(mockCartDAO.findCart("aiden")).thenReturn(mockCart);
+            when(mockCartDAO.updateDiscQuantity("aiden", disc.getId(), 1, mode)).thenReturn(cart);
 
             // Invoke
             ResponseEntity<Cart> response = cartController.updateQuantityInCart("aiden", disc.getId(), 1, mode);
 
             // Analyze
             assertEquals(HttpStatus.OK,response.getStatusCode());
-            assertEquals(mockCart,response.getBody());
+            assertEquals(cart,response.getBody());
         }
     }
 
     @Test
-    public void testUpdateQuantityInCartFailed() throws IOException { // updateCart may throw IOException
+    public void testUpdateQuantityInCartFailed() throws IOException { // updateDiscQuantity may throw IOException
         // Setup
-        Cart mockCart = mock(Cart.class);
         Disc disc = new Disc(0, "Blue", 160, "Distance Driver", 0.0, 1);
         
         for (int mode = 0 ; mode < 3 ; mode++) {
-            // when updateDiscQuantity is called, return false simulating failed update
-            when(mockCart.updateDiscQuantity(disc.getId(), 1, mode)).thenReturn(false);
-            when(mockCartDAO.updateCart(mockCart)).thenReturn(mockCart);
-            when(mockCartDAO.findCart("aiden")).thenReturn(mockCart);
+            // when updateDiscQuantity is called, return null simulating failed update
+            when(mockCartDAO.updateDiscQuantity("aiden", disc.getId(), 1, mode)).thenReturn(null);
 
             // Invoke
             ResponseEntity<Cart> response = cartController.updateQuantityInCart("aiden", disc.getId(), 1, mode);
@@ -473,16 +465,13 @@ public class CartControllerTest {
     }
 
     @Test
-    public void testUpdateQuantityInCartHandleException() throws IOException { // updateCart will throw IOException
+    public void testUpdateQuantityInCartHandleException() throws IOException { // updateDiscQuantity will throw IOException
         // Setup
-        Cart mockCart = mock(Cart.class);
         Disc disc = new Disc(0, "Blue", 160, "Distance Driver", 0.0, 1);
 
         for (int mode = 0 ; mode < 3 ; mode++) {
-            // When updateCart is called on the Mock Cart DAO, throw an IOException and pass updateDiscQuantity
-            when(mockCart.updateDiscQuantity(disc.getId(), 1, mode)).thenReturn(true);
-            when(mockCartDAO.findCart("aiden")).thenReturn(mockCart);
-            doThrow(new IOException()).when(mockCartDAO).updateCart(mockCart);
+            // When updateDiscQuantity is called on the Mock Cart DAO, throw an IOException
+            doThrow(new IOException()).when(mockCartDAO).updateDiscQuantity("aiden", disc.getId(), 1, mode);
 
             // Invoke
             ResponseEntity<Cart> response = cartController.updateQuantityInCart("aiden", disc.getId(), 1, mode);
@@ -499,14 +488,12 @@ public class CartControllerTest {
         HashMap<Integer, Integer> contents = new HashMap<>();
         float price = 150.0f;
 
-        Cart mockCart = mock(Cart.class);
         Disc disc = new Disc(0, "Blue", 160, "Distance Driver", price, 1);
         contents.put(disc.getId(), 1);
 
         // when getDisc is called, return the disc simulating successful retrieval and return contents
         when(mockDiscDAO.getDisc(disc.getId())).thenReturn(disc);
-        when(mockCartDAO.findCart("aiden")).thenReturn(mockCart);
-        when(mockCart.getContents()).thenReturn(contents);
+        when(mockCartDAO.findCart("aiden")).thenReturn(new Cart(0, "aiden", contents));
 
         // Invoke
         ResponseEntity<Float> response = cartController.getCost("aiden");
@@ -536,14 +523,12 @@ public class CartControllerTest {
         HashMap<Integer, Integer> contents = new HashMap<>();
         float price = 150.0f;
 
-        Cart mockCart = mock(Cart.class);
         Disc disc = new Disc(0, "Blue", 160, "Distance Driver", price, 1);
         contents.put(disc.getId(), 1);
 
         // When getDisc is called on the Mock Disc DAO, throw an IOException and pass getContents
         doThrow(new IOException()).when(mockDiscDAO).getDisc(disc.getId());
-        when(mockCartDAO.findCart("aiden")).thenReturn(mockCart);
-        when(mockCart.getContents()).thenReturn(contents);
+        when(mockCartDAO.findCart("aiden")).thenReturn(new Cart(0, "aiden", contents));
         
         // Invoke
         ResponseEntity<Float> response = cartController.getCost("aiden");
@@ -559,14 +544,12 @@ public class CartControllerTest {
         HashMap<Integer, Integer> contents = new HashMap<>();
         int pQuantity = 5;
 
-        Cart mockCart = mock(Cart.class);
         Disc disc = new Disc(0, "Blue", 160, "Distance Driver", 0.0, 1);
         contents.put(disc.getId(), pQuantity);
 
         // when getDisc is called, return the disc simulating successful retrieval and return contents
         when(mockDiscDAO.getDisc(disc.getId())).thenReturn(disc);
-        when(mockCartDAO.findCart("aiden")).thenReturn(mockCart);
-        when(mockCart.getContents()).thenReturn(contents);
+        when(mockCartDAO.findCart("aiden")).thenReturn(new Cart(0, "aiden", contents));
 
         // Invoke
         ResponseEntity<Integer> response = cartController.getCount("aiden");
@@ -609,14 +592,12 @@ public class CartControllerTest {
         HashMap<Integer, Integer> contents = new HashMap<>();
         int pQuantity = 5;
 
-        Cart mockCart = mock(Cart.class);
         Disc disc = new Disc(0, "Blue", 160, "Distance Driver", 0.0, 1);
         contents.put(disc.getId(), pQuantity);
 
         // When getDisc is called on the Mock Disc DAO, throw an IOException and pass getContents
         doThrow(new IOException()).when(mockDiscDAO).getDisc(disc.getId());
-        when(mockCartDAO.findCart("aiden")).thenReturn(mockCart);
-        when(mockCart.getContents()).thenReturn(contents);
+        when(mockCartDAO.findCart("aiden")).thenReturn(new Cart(0, "aiden", contents));
         
         // Invoke
         ResponseEntity<Float> response = cartController.getCost("aiden");
@@ -633,14 +614,12 @@ public class CartControllerTest {
         int pQuantity = 5;
         int iQuantity = 1;
 
-        Cart mockCart = mock(Cart.class);
         Disc disc = new Disc(0, "Blue", 160, "Distance Driver", 0.0, iQuantity);
         contents.put(disc.getId(), pQuantity);
 
         // when getDisc is called, return the disc simulating successful retrieval and return contents
         when(mockDiscDAO.getDisc(disc.getId())).thenReturn(disc);
-        when(mockCartDAO.findCart("aiden")).thenReturn(mockCart);
-        when(mockCart.getContents()).thenReturn(contents);
+        when(mockCartDAO.findCart("aiden")).thenReturn(new Cart(0, "aiden", contents));
 
         // Invoke
         ResponseEntity<Disc[]> response = cartController.checkCart("aiden");
@@ -657,14 +636,12 @@ public class CartControllerTest {
         int pQuantity = 1;
         int iQuantity = 1;
 
-        Cart mockCart = mock(Cart.class);
         Disc disc = new Disc(0, "Blue", 160, "Distance Driver", 0.0, iQuantity);
         contents.put(disc.getId(), pQuantity);
 
         // when getDisc is called, return the disc simulating successful retrieval and return contents
         when(mockDiscDAO.getDisc(disc.getId())).thenReturn(disc);
-        when(mockCartDAO.findCart("aiden")).thenReturn(mockCart);
-        when(mockCart.getContents()).thenReturn(contents);
+        when(mockCartDAO.findCart("aiden")).thenReturn(new Cart(0, "aiden", contents));
 
         // Invoke
         ResponseEntity<Disc[]> response = cartController.checkCart("aiden");
@@ -695,14 +672,12 @@ public class CartControllerTest {
         int pQuantity = 1;
         int iQuantity = 1;
 
-        Cart mockCart = mock(Cart.class);
         Disc disc = new Disc(0, "Blue", 160, "Distance Driver", 0.0, iQuantity);
         contents.put(disc.getId(), pQuantity);
 
         // When getDisc is called on the Mock Disc DAO, throw an IOException and pass getContents
         doThrow(new IOException()).when(mockDiscDAO).getDisc(disc.getId());
-        when(mockCartDAO.findCart("aiden")).thenReturn(mockCart);
-        when(mockCart.getContents()).thenReturn(contents);
+        when(mockCartDAO.findCart("aiden")).thenReturn(new Cart(0, "aiden", contents));
         
         // Invoke
         ResponseEntity<Disc[]> response = cartController.checkCart("aiden");
@@ -719,14 +694,12 @@ public class CartControllerTest {
         int pQuantity = 1;
         int iQuantity = 1;
 
-        Cart mockCart = mock(Cart.class);
         Disc disc = new Disc(0, "Blue", 160, "Distance Driver", 0.0, iQuantity);
         contents.put(disc.getId(), pQuantity);
 
-        // when getDisc is called, return the disc simulating successful retrieval and return contents
-        when(mockDiscDAO.getDisc(disc.getId())).thenReturn(disc);
-        when(mockCartDAO.findCart("aiden")).thenReturn(mockCart);
-        when(mockCart.getContents()).thenReturn(contents);
+        // when takeDisc is called, return the quantity taken simulating a successful purchase and return contents
+        when(mockDiscDAO.takeDisc(disc.getId(), pQuantity)).thenReturn(new Disc(disc.getId(), disc.getColor(), disc.getWeight(), disc.getType(), disc.getPrice(), pQuantity));
+        when(mockCartDAO.findCart("aiden")).thenReturn(new Cart(0, "aiden", contents));
 
         // Invoke
         ResponseEntity<Disc[]> response = cartController.purchaseCart("aiden");
@@ -736,6 +709,47 @@ public class CartControllerTest {
         assertNotNull(response.getBody());
     }
 
+    @Test
+    public void testPurchaseCartIdempotent() throws IOException { // getDisc may throw IOException
+        // Setup
+        HashMap<Integer, Integer> contents = new HashMap<>();
+        int pQuantity = 1;
+        Disc disc = new Disc(0, "Blue", 160, "Distance Driver", 0.0, 5);
+        contents.put(disc.getId(), pQuantity);
+
+        // when takeDisc is called, return the quantity taken simulating a successful purchase and return contents
+        when(mockDiscDAO.takeDisc(disc.getId(), pQuantity)).thenReturn(new Disc(disc.getId(), disc.getColor(), disc.getWeight(), disc.getType(), disc.getPrice(), pQuantity));
+        when(mockCartDAO.findCart("aiden")).thenReturn(new Cart(0, "aiden", contents));
+
+        // Invoke
+        ResponseEntity<Disc[]> response = cartController.purchaseCart("aiden", "retry-key", AIDEN).join();
+        ResponseEntity<Disc[]> retry = cartController.purchaseCart("aiden", "retry-key", AIDEN).join();
+
+        // Analyze
+        assertEquals(HttpStatus.OK,response.getStatusCode());
+        assertEquals(response.getStatusCode(),retry.getStatusCode());
+        assertEquals(response.getBody().length,retry.getBody().length);
+        assertEquals(response.getBody()[0].getQuantity(),retry.getBody()[0].getQuantity());
+        verify(mockDiscDAO, times(1)).takeDisc(disc.getId(), pQuantity); // Stock decremented once
+    }
+
+    @Test
+    public void testPurchaseCartBulkheadFull() {
+        // Setup
+        Bulkheads bulkheads = mock(Bulkheads.class);
+        Bulkhead checkout = mock(Bulkhead.class);
+        when(bulkheads.get(Bulkheads.CHECKOUT)).thenReturn(checkout);
+        when(checkout.submit(any())).thenReturn(CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE)));
+        cartController = new CartController(mockCartDAO, mockDiscDAO, new IdempotencyStore(), bulkheads);
+
+        // Invoke
+        ResponseEntity<Disc[]> response = cartController.purchaseCart("aiden", null, AIDEN).join();
+
+        // Analyze
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE,response.getStatusCode());
+        verifyNoInteractions(mockCartDAO);
+    }
+
     @Test
     public void testPurchaseCartPartialInv() throws IOException { // purchase may throw IOException
         // Setup
@@ -743,14 +757,12 @@ public class CartControllerTest {
         int pQuantity = 1;
         int iQuantity = 2;
 
-        Cart mockCart = mock(Cart.class);
         Disc disc = new Disc(0, "Blue", 160, "Distance Driver", 0.0, iQuantity);
         contents.put(disc.getId(), pQuantity);
 
-        // when getDisc is called, return the disc simulating successful retrieval and return contents
-        when(mockDiscDAO.getDisc(disc.getId())).thenReturn(disc);
-        when(mockCartDAO.findCart("aiden")).thenReturn(mockCart);
-        when(mockCart.getContents()).thenReturn(contents);
+        // when takeDisc is called, return the quantity taken simulating a successful purchase and return contents
+        when(mockDiscDAO.takeDisc(disc.getId(), pQuantity)).thenReturn(new Disc(disc.getId(), disc.getColor(), disc.getWeight(), disc.getType(), disc.getPrice(), pQuantity));
+        when(mockCartDAO.findCart("aiden")).thenReturn(new Cart(0, "aiden", contents));
 
         // Invoke
         ResponseEntity<Disc[]> response = cartController.purchaseCart("aiden");
@@ -781,14 +793,12 @@ public class CartControllerTest {
         int pQuantity = 1;
         int iQuantity = 1;
 
-        Cart mockCart = mock(Cart.class);
         Disc disc = new Disc(0, "Blue", 160, "Distance Driver", 0.0, iQuantity);
         contents.put(disc.getId(), pQuantity);
 
-        // when getDisc is called, return the null simulating failed retrieval
-        when(mockDiscDAO.getDisc(disc.getId())).thenReturn(null); // no inventory
-        when(mockCartDAO.findCart("aiden")).thenReturn(mockCart);
-        when(mockCart.getContents()).thenReturn(contents);
+        // when takeDisc is called, return the null simulating failed retrieval
+        when(mockDiscDAO.takeDisc(disc.getId(), pQuantity)).thenReturn(null); // no inventory
+        when(mockCartDAO.findCart("aiden")).thenReturn(new Cart(0, "aiden", contents));
 
         // Invoke
         ResponseEntity<Disc[]> response = cartController.purchaseCart("aiden");
@@ -819,14 +829,12 @@ public class CartControllerTest {
         int pQuantity = 5;
         int iQuantity = 1;
 
-        Cart mockCart = mock(Cart.class);
         Disc disc = new Disc(1, "Blue", 160, "Distance Driver", 0.0, iQuantity);
         contents.put(disc.getId(), pQuantity);
 
         // when getDisc is called, return the disc simulating successful retrieval and return contents
         when(mockDiscDAO.getDisc(disc.getId())).thenReturn(disc);
-        when(mockCartDAO.findCart("aiden")).thenReturn(mockCart);
-        when(mockCart.getContents()).thenReturn(contents);
+        when(mockCartDAO.findCart("aiden")).thenReturn(new Cart(0, "aiden", contents));
 
         // Invoke
         ResponseEntity<Disc> response = cartController.checkOneDisc("aiden", disc.getId());
@@ -843,14 +851,12 @@ public class CartControllerTest {
         int pQuantity = 5;
         int iQuantity = 1;
 
-        Cart mockCart = mock(Cart.class);
         Disc disc = new Disc(1, "Blue", 160, "Distance Driver", 0.0, iQuantity);
         contents.put(disc.getId(), pQuantity);
 
         // when getDisc is called, return the disc simulating successful retrieval and return contents
         when(mockDiscDAO.getDisc(disc.getId())).thenReturn(null);
-        when(mockCartDAO.findCart("aiden")).thenReturn(mockCart);
-        when(mockCart.getContents()).thenReturn(contents);
+        when(mockCartDAO.findCart("aiden")).thenReturn(new Cart(0, "aiden", contents));
 
         // Invoke
         ResponseEntity<Disc> response = cartController.checkOneDisc("aiden", disc.getId());
@@ -866,14 +872,12 @@ public class CartControllerTest {
         int pQuantity = 1;
         int iQuantity = 1;
 
-        Cart mockCart = mock(Cart.class);
         Disc disc = new Disc(1, "Blue", 160, "Distance Driver", 0.0, iQuantity);
         contents.put(disc.getId(), pQuantity);
 
         // when getDisc is called, return the disc simulating successful retrieval and return contents
         when(mockDiscDAO.getDisc(disc.getId())).thenReturn(disc);
-        when(mockCartDAO.findCart("aiden")).thenReturn(mockCart);
-        when(mockCart.getContents()).thenReturn(contents);
+        when(mockCartDAO.findCart("aiden")).thenReturn(new Cart(0, "aiden", contents));
 
         // Invoke
         ResponseEntity<Disc> response = cartController.checkOneDisc("aiden", disc.getId());
@@ -918,14 +922,12 @@ public class CartControllerTest {
         int pQuantity = 1;
         int iQuantity = 1;
 
-        Cart mockCart = mock(Cart.class);
         Disc disc = new Disc(1, "Blue", 160, "Distance Driver", 0.0, iQuantity);
         contents.put(disc.getId(), pQuantity);
 
-        // when getDisc is called, return the disc simulating successful retrieval and return contents
-        when(mockDiscDAO.getDisc(disc.getId())).thenReturn(disc);
-        when(mockCartDAO.findCart("aiden")).thenReturn(mockCart);
-        when(mockCart.getContents()).thenReturn(contents);
+        // when takeDisc is called, return the quantity taken simulating a successful purchase and return contents
+        when(mockDiscDAO.takeDisc(disc.getId(), pQuantity)).thenReturn(new Disc(disc.getId(), disc.getColor(), disc.getWeight(), disc.getType(), disc.getPrice(), pQuantity));
+        when(mockCartDAO.findCart("aiden")).thenReturn(new Cart(0, "aiden", contents));
 
         // Invoke
         ResponseEntity<Disc> response = cartController.purchaseOneDisc("aiden", disc.getId());
@@ -942,14 +944,12 @@ public class CartControllerTest {
         int pQuantity = 1;
         int iQuantity = 2;
 
-        Cart mockCart = mock(Cart.class);
         Disc disc = new Disc(1, "Blue", 160, "Distance Driver", 0.0, iQuantity);
         contents.put(disc.getId(), pQuantity);
 
-        // when getDisc is called, return the disc simulating successful retrieval and return contents
-        when(mockDiscDAO.getDisc(disc.getId())).thenReturn(disc);
-        when(mockCartDAO.findCart("aiden")).thenReturn(mockCart);
-        when(mockCart.getContents()).thenReturn(contents);
+        // when takeDisc is called, return the quantity taken simulating a successful purchase and return contents
+        when(mockDiscDAO.takeDisc(disc.getId(), pQuantity)).thenReturn(new Disc(disc.getId(), disc.getColor(), disc.getWeight(), disc.getType(), disc.getPrice(), pQuantity));
+        when(mockCartDAO.findCart("aiden")).thenReturn(new Cart(0, "aiden", contents));
 
         // Invoke
         ResponseEntity<Disc> response = cartController.purchaseOneDisc("aiden", disc.getId());
@@ -980,14 +980,12 @@ public class CartControllerTest {
         int pQuantity = 1;
         int iQuantity = 1;
 
-        Cart mockCart = mock(Cart.class);
         Disc disc = new Disc(1, "Blue", 160, "Distance Driver", 0.0, iQuantity);
         contents.put(disc.getId(), pQuantity);
 
-        // when getDisc is called, return the null simulating failed retrieval
-        when(mockDiscDAO.getDisc(disc.getId())).thenReturn(null); // no inventory
-        when(mockCartDAO.findCart("aiden")).thenReturn(mockCart);
-        when(mockCart.getContents()).thenReturn(contents);
+        // when takeDisc is called, return the null simulating failed retrieval
+        when(mockDiscDAO.takeDisc(disc.getId(), pQuantity)).thenReturn(null); // no inventory
+        when(mockCartDAO.findCart("aiden")).thenReturn(new Cart(0, "aiden", contents));
 
         // Invoke
         ResponseEntity<Disc> response = cartController.purchaseOneDisc("aiden", disc.getId());
@@ -1018,14 +1016,12 @@ public class CartControllerTest {
         int pQuantity = 1;
         int iQuantity = 1;
 
-        Cart mockCart = mock(Cart.class);
         Disc disc = new Disc(1, "Blue", 160, "Distance Driver", 0.0, iQuantity);
         contents.put(disc.getId(), pQuantity);
 
         // when getDisc is called, return the disc simulating successful retrieval and return contents
         when(mockDiscDAO.getDisc(disc.getId())).thenReturn(disc);
-        when(mockCartDAO.findCart("aiden")).thenReturn(mockCart);
-        when(mockCart.getContents()).thenReturn(contents);
+        when(mockCartDAO.findCart("aiden")).thenReturn(new Cart(0, "aiden", contents));
 
         // Invoke
         ResponseEntity<Disc[]> response = cartController.getContents("aiden");
@@ -1042,7 +1038,6 @@ public class CartControllerTest {
         int pQuantity = 1;
         int iQuantity = 1;
 
-        Cart mockCart = mock(Cart.class);
         Disc disc = new Disc(1, "Blue", 160, "Distance Driver", 0.0, iQuantity);
         contents.put(disc.getId(), pQuantity);
 
@@ -1064,7 +1059,6 @@ public class CartControllerTest {
         int pQuantity = 1;
         int iQuantity = 1;
 
-        Cart mockCart = mock(Cart.class);
         Disc disc = new Disc(1, "Blue", 160, "Distance Driver", 0.0, iQuantity);
         contents.put(disc.getId(), pQuantity);
 
@@ -1079,4 +1073,139 @@ public class CartControllerTest {
         // Analyze
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
     }
-}   
\ No newline at end of file
+
+    @Test
+    public void testGetSummary() throws IOException { // getDiscs may throw IOException
+        // Setup
+        HashMap<Integer, Integer> contents = new HashMap<>();
+        Disc plenty = new Disc(1, "Blue", 160, "Distance Driver", 10.0, 20);
+        Disc scarce = new Disc(2, "Red", 170, "Putter", 5.0, 1);
+        contents.put(plenty.getId(), 2);
+        contents.put(scarce.getId(), 3);
+        contents.put(3, 4); // No longer sold
+
+        // when getDiscs is called, return the discs in the order of the requested ids
+        when(mockDiscDAO.getDiscs(any(int[].class))).thenReturn(new Disc[]{plenty, scarce, null});
+        when(mockCartDAO.findCart("aiden")).thenReturn(new Cart(0, "aiden", contents));
+
+        // Invoke
+        ResponseEntity<CartSummary> response = cartController.getSummary("aiden");
+
+        // Analyze
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        CartSummary summary = response.getBody();
+        assertEquals(2, summary.getContents().length);
+        assertEquals(3, summary.getContents()[1].getQuantity()); // Cart's quantity
+        assertEquals(9, summary.getCount());
+        assertEquals(35.0f, summary.getCost());
+        assertEquals(1, summary.getConflicts().length);
+        assertEquals(1, summary.getConflicts()[0].getQuantity()); // Inventory's quantity
+    }
+
+    @Test
+    public void testGetSummaryNotFound() throws IOException { // findCart may throw IOException
+        // Setup
+        when(mockCartDAO.findCart("aiden")).thenReturn(null);
+
+        // Invoke
+        ResponseEntity<CartSummary> response = cartController.getSummary("aiden");
+
+        // Analyze
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertNull(response.getBody());
+    }
+
+    @Test
+    public void testGetSummaryHandleException() throws IOException { // getDiscs will throw IOException
+        // Setup
+        HashMap<Integer, Integer> contents = new HashMap<>();
+        contents.put(1, 1);
+        doThrow(new IOException()).when(mockDiscDAO).getDiscs(any(int[].class));
+        when(mockCartDAO.findCart("aiden")).thenReturn(new Cart(0, "aiden", contents));
+
+        // Invoke
+        ResponseEntity<CartSummary> response = cartController.getSummary("aiden");
+
+        // Analyze
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+        assertNull(response.getBody());
+    }
+
+    @Test
+    public void testAddToCartNeedsSession() throws IOException { // addDisc may throw IOException
+        // Invoke
+        ResponseEntity<Cart> response = cartController.addToCart("aiden", 3, null);
+
+        // Analyze
+        assertEquals(HttpStatus.UNAUTHORIZED,response.getStatusCode());
+        verifyNoInteractions(mockCartDAO);
+    }
+
+    @Test
+    public void testAddToCartOthersForbidden() throws IOException { // addDisc may throw IOException
+        // Invoke
+        ResponseEntity<Cart> response = cartController.addToCart("aiden", 3, KYLE);
+
+        // Analyze
+        assertEquals(HttpStatus.FORBIDDEN,response.getStatusCode());
+        verifyNoInteractions(mockCartDAO);
+    }
+
+    @Test
+    public void testAddToCartOwnOrAdmin() throws IOException { // addDisc may throw IOException
+        // Setup
+        Cart cart = new Cart(0, "aiden", new HashMap<>());
+        when(mockCartDAO.addDisc("aiden", 3, 1)).thenReturn(cart);
+
+        // Invoke
+        ResponseEntity<Cart> own = cartController.addToCart("aiden", 3, AIDEN);
+        ResponseEntity<Cart> admin = cartController.addToCart("aiden", 3, ADMIN);
+
+        // Analyze
+        assertEquals(HttpStatus.OK,own.getStatusCode());
+        assertEquals(HttpStatus.OK,admin.getStatusCode());
+    }
+
+    @Test
+    public void testMutationsCheckSession() throws IOException { // DAO methods may throw IOException
+        // Invoke & Analyze
+        assertEquals(HttpStatus.FORBIDDEN,cartController.createCart("aiden", null, KYLE).getStatusCode());
+        assertEquals(HttpStatus.FORBIDDEN,cartController.removeFromCart("aiden", 3, KYLE).getStatusCode());
+        assertEquals(HttpStatus.FORBIDDEN,cartController.updateQuantityInCart("aiden", 3, 1, 0, KYLE).getStatusCode());
+        assertEquals(HttpStatus.UNAUTHORIZED,cartController.purchaseCart("aiden", null, null).join().getStatusCode());
+        assertEquals(HttpStatus.FORBIDDEN,cartController.purchaseOneDisc("aiden", 3, null, KYLE).join().getStatusCode());
+        verifyNoInteractions(mockCartDAO);
+        verifyNoInteractions(mockDiscDAO);
+    }
+
+    @Test
+    public void testDeleteCartChecksOwner() throws IOException { // getCart may throw IOException
+        // Setup
+        when(mockCartDAO.getCart(0)).thenReturn(new Cart(0, "aiden", new HashMap<>()));
+        when(mockCartDAO.deleteCart(0)).thenReturn(true);
+
+        // Invoke
+        ResponseEntity<Cart> other = cartController.deleteCart(0, KYLE);
+        ResponseEntity<Cart> missing = cartController.deleteCart(7, KYLE);
+        ResponseEntity<Cart> own = cartController.deleteCart(0, AIDEN);
+
+        // Analyze
+        assertEquals(HttpStatus.FORBIDDEN,other.getStatusCode());
+        assertEquals(HttpStatus.FORBIDDEN,missing.getStatusCode());
+        assertEquals(HttpStatus.OK,own.getStatusCode());
+        verify(mockCartDAO, times(1)).deleteCart(0);
+    }
+
+    @Test
+    public void testUpdateCartChecksStoredOwner() throws IOException { // getCart may throw IOException
+        // Setup
+        when(mockCartDAO.getCart(0)).thenReturn(new Cart(0, "aiden", new HashMap<>()));
+
+        // Invoke
+        ResponseEntity<Cart> response = cartController.updateCart(new Cart(0, "kyle", new HashMap<>()), KYLE);
+
+        // Analyze
+        assertEquals(HttpStatus.FORBIDDEN,response.getStatusCode());
+        verify(mockCartDAO, times(0)).updateCart(any());
+    }
+}
@@ -0,0 +1,238 @@
+package com.discgolf.api.discgolfapi.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.discgolf.api.discgolfapi.model.Cart;
+import com.discgolf.api.discgolfapi.model.Disc;
+import com.discgolf.api.discgolfapi.persistence.CartFileDAO;
+import com.discgolf.api.discgolfapi.persistence.DiscFileDAO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Stress tests that concurrent requests keep the carts and the disc inventory consistent
+ * <p>
+ * Many threads are released together against file-backed DAOs, then the
+ * invariants are checked: no cart update is lost, no disc is sold beyond its
+ * stock, and every unit of stock is either still in the inventory or was sold
+ *
+ * @author ZVH
+ */
+@Tag("Controller-tier")
+public class CheckoutConcurrencyTest {
+    private static final int THREADS = 16;
+    private static final long SEED = 47;
+
+    @TempDir
+    Path directory;
+
+    private ObjectMapper objectMapper = new ObjectMapper();
+    private DiscFileDAO discDao;
+    private CartFileDAO cartDao;
+    private CartController cartController;
+    private ExecutorService threads;
+
+    @BeforeEach
+    public void setupThreads() {
+        threads = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @AfterEach
+    public void shutdownThreads() {
+        threads.shutdownNow();
+    }
+
+    /**
+     * Writes the discs and an empty cart per user, and creates the DAOs and controller over them
+     *
+     * @param stock The stock of each disc, by id from 1
+     * @param users The number of users, named user1 onwards
+     */
+    private void setupStore(int[] stock, int users) throws IOException {
+        Disc[] discs = new Disc[stock.length];
+        for (int i = 0; i < stock.length; ++i)
+            discs[i] = new Disc(i + 1, "Red", 170, "Driver", 10.0 + i, stock[i]);
+        Cart[] carts = new Cart[users];
+        for (int i = 0; i < users; ++i)
+            carts[i] = new Cart(i + 1, "user" + (i + 1), new HashMap<>());
+        objectMapper.writeValue(directory.resolve("discs.json").toFile(), discs);
+        objectMapper.writeValue(directory.resolve("carts.json").toFile(), carts);
+
+        discDao = new DiscFileDAO(directory.resolve("discs.json").toString(), objectMapper);
+        cartDao = new CartFileDAO(directory.resolve("carts.json").toString(), objectMapper);
+        cartController = new CartController(cartDao, discDao);
+    }
+
+    /**
+     * Work for one thread
+     */
+    private interface Worker {
+        void run(int thread) throws Exception;
+    }
+
+    /**
+     * Runs a worker on every thread, released together, and waits for them all
+     *
+     * @param worker The work, given the number of the thread
+     */
+    private void hammer(Worker worker) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; ++t) {
+            int thread = t;
+            futures.add(threads.submit(() -> {
+                start.await();
+                worker.run(thread);
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures)
+            future.get(60, TimeUnit.SECONDS);   // Rethrows any failure
+    }
+
+    /**
+     * Gets the remaining stock of a disc
+     *
+     * @param id The id of the disc
+     *
+     * @return The stock, 0 if bought out
+     */
+    private int stockOf(int id) {
+        Disc disc = discDao.getDisc(id);
+        return disc == null ? 0 : disc.getQuantity();
+    }
+
+    @Test
+    public void testConcurrentAddToCartLosesNoUpdates() throws Exception {
+        // Setup
+        int discs = 8;
+        int adds = 250;
+        setupStore(new int[discs], 1);
+        AtomicIntegerArray added = new AtomicIntegerArray(discs + 1);
+
+        // Invoke
+        hammer(thread -> {
+            Random random = new Random(SEED + thread);
+            for (int i = 0; i < adds; ++i) {
+                int disc = 1 + random.nextInt(discs);
+                assertEquals(HttpStatus.OK, cartController.addToCart("user1", disc).getStatusCode());
+                added.incrementAndGet(disc);
+            }
+        });
+
+        // Analyze
+        Cart cart = cartDao.findCart("user1");
+        assertEquals(THREADS * adds, cart.getTotalQuantity());
+        for (int disc = 1; disc <= discs; ++disc)
+            assertEquals(added.get(disc), cart.getQuantity(disc));
+
+        // The last save holds every update
+        Cart saved = new CartFileDAO(directory.resolve("carts.json").toString(), objectMapper).findCart("user1");
+        assertEquals(cart.getContents(), saved.getContents());
+    }
+
+    @Test
+    public void testConcurrentPurchaseOneNeverOversells() throws Exception {
+        // Setup
+        int stock = 40;
+        int users = THREADS * 5;
+        setupStore(new int[] {stock}, users);
+        for (int user = 1; user <= users; ++user)
+            cartController.addToCart("user" + user, 1);
+        AtomicIntegerArray sold = new AtomicIntegerArray(users + 1);
+
+        // Invoke, every user buys one of the disc at once
+        hammer(thread -> {
+            for (int user = 1 + thread; user <= users; user += THREADS) {
+                ResponseEntity<Disc> response = cartController.purchaseOneDisc("user" + user, 1);
+                if (response.getStatusCode() == HttpStatus.OK)
+                    sold.set(user, response.getBody().getQuantity());
+                else
+                    assertEquals(HttpStatus.CONFLICT, response.getStatusCode()); // Bought out
+            }
+        });
+
+        // Analyze, buyers' carts are cleared and the rest keep the disc
+        int totalSold = 0;
+        for (int user = 1; user <= users; ++user) {
+            totalSold += sold.get(user);
+            assertEquals(1 - sold.get(user), cartDao.findCart("user" + user).getTotalQuantity());
+        }
+        assertEquals(stock, totalSold);
+        assertNull(discDao.getDisc(1));
+    }
+
+    @Test
+    public void testRandomizedCheckoutConservesStock() throws Exception {
+        // Setup
+        int[] stock = new int[12];
+        Random setup = new Random(SEED);
+        for (int i = 0; i < stock.length; ++i)
+            stock[i] = 50 + setup.nextInt(150);
+        int users = THREADS * 2;
+        setupStore(stock, users);
+        AtomicIntegerArray sold = new AtomicIntegerArray(stock.length + 1);
+
+        // Invoke, users share carts across threads and race to add and buy
+        hammer(thread -> {
+            Random random = new Random(SEED + thread);
+            for (int i = 0; i < 300; ++i) {
+                String username = "user" + (1 + random.nextInt(users));
+                int disc = 1 + random.nextInt(stock.length);
+                int action = random.nextInt(10);
+                if (action < 6) {
+                    cartController.addToCart(username, disc);
+                } else if (action < 9) {
+                    ResponseEntity<Disc> response = cartController.purchaseOneDisc(username, disc);
+                    if (response.getStatusCode() == HttpStatus.OK)
+                        sold.addAndGet(disc, response.getBody().getQuantity());
+                } else {
+                    ResponseEntity<Disc[]> response = cartController.purchaseCart(username);
+                    if (response.getStatusCode() == HttpStatus.OK)
+                        for (Disc purchase : response.getBody())
+                            sold.addAndGet(purchase.getId(), purchase.getQuantity());
+                }
+            }
+        });
+
+        // Analyze
+        int totalSold = 0;
+        for (int disc = 1; disc <= stock.length; ++disc) {
+            int remaining = stockOf(disc);
+            assertTrue(remaining >= 0);
+            assertEquals(stock[disc - 1], remaining + sold.get(disc), "Stock of disc " + disc);
+            totalSold += sold.get(disc);
+        }
+        assertTrue(totalSold > 0);
+
+        // The saved inventory matches the one in memory
+        DiscFileDAO saved = new DiscFileDAO(directory.resolve("discs.json").toString(), objectMapper);
+        for (int disc = 1; disc <= stock.length; ++disc) {
+            Disc savedDisc = saved.getDisc(disc);
+            assertEquals(stockOf(disc), savedDisc == null ? 0 : savedDisc.getQuantity());
+        }
+    }
+}
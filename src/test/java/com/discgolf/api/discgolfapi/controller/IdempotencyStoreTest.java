@@ -0,0 +1,284 @@
+package com.discgolf.api.discgolfapi.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.discgolf.api.discgolfapi.auth.Session;
+import com.discgolf.api.discgolfapi.model.Disc;
+import com.discgolf.api.discgolfapi.model.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Test the Idempotency Store class
+ *
+ * @author ZVH
+ */
+@Tag("Controller-tier")
+public class IdempotencyStoreTest {
+    private IdempotencyStore store;
+    private AtomicLong now;
+    private AtomicInteger performed;
+
+    /**
+     * Before each test, create a store with a 2 response capacity, a 1 second
+     * time to live and a clock the test controls
+     */
+    @BeforeEach
+    public void setupIdempotencyStore() {
+        now = new AtomicLong(0);
+        performed = new AtomicInteger(0);
+        store = new IdempotencyStore(2, 1000, null, new ObjectMapper(), now::get);
+    }
+
+    private ResponseEntity<Disc> perform(HttpStatus status) {
+        performed.incrementAndGet();
+        return new ResponseEntity<>(new Disc(performed.get(), "Blue", 160, "Putter", 10.0, 1), status);
+    }
+
+    @Test
+    public void testRepeatReturnsStoredResponse() {
+        // Invoke
+        ResponseEntity<Disc> first = store.execute("POST /discs", null, "key", null, Disc.class, () -> perform(HttpStatus.CREATED));
+        ResponseEntity<Disc> repeat = store.execute("POST /discs", null, "key", null, Disc.class, () -> perform(HttpStatus.CREATED));
+
+        // Analyze
+        assertEquals(1, performed.get());
+        assertEquals(first.getStatusCode(), repeat.getStatusCode());
+        assertEquals(first.getBody().getId(), repeat.getBody().getId());
+    }
+
+    @Test
+    public void testNoKeyAlwaysPerforms() {
+        // Invoke
+        store.execute("POST /discs", null, null, null, Disc.class, () -> perform(HttpStatus.CREATED));
+        store.execute("POST /discs", null, null, null, Disc.class, () -> perform(HttpStatus.CREATED));
+
+        // Analyze
+        assertEquals(2, performed.get());
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    public void testKeysAreScoped() {
+        // Invoke
+        store.execute("PUT /carts/purchase/a", null, "key", null, Disc.class, () -> perform(HttpStatus.OK));
+        store.execute("PUT /carts/purchase/b", null, "key", null, Disc.class, () -> perform(HttpStatus.OK));
+
+        // Analyze
+        assertEquals(2, performed.get());
+    }
+
+    @Test
+    public void testServerErrorIsNotStored() {
+        // Invoke
+        store.execute("POST /discs", null, "key", null, Disc.class, () -> perform(HttpStatus.INTERNAL_SERVER_ERROR));
+        ResponseEntity<Disc> retry = store.execute("POST /discs", null, "key", null, Disc.class, () -> perform(HttpStatus.CREATED));
+
+        // Analyze
+        assertEquals(2, performed.get());
+        assertEquals(HttpStatus.CREATED, retry.getStatusCode());
+    }
+
+    @Test
+    public void testExpiredResponseIsEvicted() {
+        // Setup
+        store.execute("POST /discs", null, "key", null, Disc.class, () -> perform(HttpStatus.CREATED));
+
+        // Invoke
+        now.set(1000);
+        store.execute("POST /discs", null, "key", null, Disc.class, () -> perform(HttpStatus.CREATED));
+
+        // Analyze
+        assertEquals(2, performed.get());
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    public void testOldestIsEvictedAtCapacity() {
+        // Setup
+        store.execute("POST /discs", null, "a", null, Disc.class, () -> perform(HttpStatus.CREATED));
+        store.execute("POST /discs", null, "b", null, Disc.class, () -> perform(HttpStatus.CREATED));
+
+        // Invoke
+        store.execute("POST /discs", null, "c", null, Disc.class, () -> perform(HttpStatus.CREATED));
+        store.execute("POST /discs", null, "b", null, Disc.class, () -> perform(HttpStatus.CREATED));
+        store.execute("POST /discs", null, "a", null, Disc.class, () -> perform(HttpStatus.CREATED));
+
+        // Analyze
+        assertEquals(4, performed.get()); // Only a was performed again
+        assertEquals(2, store.size());
+    }
+
+    @Test
+    public void testConcurrentRepeatWaitsForFirst() throws InterruptedException {
+        // Setup
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread first = new Thread(() -> store.execute("POST /discs", null, "key", null, Disc.class, () -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return perform(HttpStatus.CREATED);
+        }));
+        first.start();
+        started.await();
+
+        // Invoke
+        Thread repeat = new Thread(() -> store.execute("POST /discs", null, "key", null, Disc.class, () -> perform(HttpStatus.CREATED)));
+        repeat.start();
+        release.countDown();
+        first.join();
+        repeat.join();
+
+        // Analyze
+        assertEquals(1, performed.get());
+    }
+
+    @Test
+    public void testPersistedResponsesAreReloaded(@TempDir Path dir) {
+        // Setup
+        String filename = new File(dir.toFile(), "idempotency.json").getPath();
+        IdempotencyStore persisted = new IdempotencyStore(2, 1000, filename, new ObjectMapper(), now::get);
+        persisted.execute("POST /discs", null, "key", null, Disc.class, () -> perform(HttpStatus.CREATED));
+
+        // Invoke
+        IdempotencyStore reloaded = new IdempotencyStore(2, 1000, filename, new ObjectMapper(), now::get);
+        ResponseEntity<Disc> repeat = reloaded.execute("POST /discs", null, "key", null, Disc.class, () -> perform(HttpStatus.CREATED));
+
+        // Analyze
+        assertEquals(1, performed.get());
+        assertEquals(HttpStatus.CREATED, repeat.getStatusCode());
+        assertEquals(1, repeat.getBody().getId());
+    }
+
+    @Test
+    public void testRepeatGetsSnapshot() {
+        // Setup
+        ResponseEntity<Disc> first = store.execute("POST /discs", null, "key", null, Disc.class, () -> perform(HttpStatus.CREATED));
+
+        // Invoke
+        first.getBody().setColor("Changed");
+        ResponseEntity<Disc> repeat = store.execute("POST /discs", null, "key", null, Disc.class, () -> perform(HttpStatus.CREATED));
+
+        // Analyze
+        assertEquals("Blue", repeat.getBody().getColor());
+    }
+
+    @Test
+    public void testKeysBelongToSession() {
+        // Setup
+        Session aiden = new Session("a-token", new User(2, "aiden", "1234"), Long.MAX_VALUE);
+        Session kyle = new Session("k-token", new User(3, "kyle", "1234"), Long.MAX_VALUE);
+
+        // Invoke
+        store.execute("POST /discs", aiden, "key", null, Disc.class, () -> perform(HttpStatus.CREATED));
+        store.execute("POST /discs", kyle, "key", null, Disc.class, () -> perform(HttpStatus.CREATED));
+
+        // Analyze
+        assertEquals(2, performed.get());
+    }
+
+    @Test
+    public void testRepeatWithOtherBodyIsRejected() {
+        // Setup
+        store.execute("POST /discs", null, "key", "first", Disc.class, () -> perform(HttpStatus.CREATED));
+
+        // Invoke
+        ResponseEntity<Disc> other = store.execute("POST /discs", null, "key", "second", Disc.class, () -> perform(HttpStatus.CREATED));
+        ResponseEntity<Disc> same = store.execute("POST /discs", null, "key", "first", Disc.class, () -> perform(HttpStatus.CREATED));
+
+        // Analyze
+        assertEquals(1, performed.get());
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, other.getStatusCode());
+        assertEquals(HttpStatus.CREATED, same.getStatusCode());
+    }
+
+    @Test
+    public void testRunningRequestsAreNotEvicted() throws InterruptedException {
+        // Setup
+        CountDownLatch started = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread[] running = new Thread[2];
+        for (int i = 0; i < running.length; i++) {
+            String key = "running" + i;
+            running[i] = new Thread(() -> store.execute("POST /discs", null, key, null, Disc.class, () -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return perform(HttpStatus.CREATED);
+            }));
+            running[i].start();
+        }
+        started.await();
+
+        // Invoke
+        ResponseEntity<Disc> full = store.execute("POST /discs", null, "new", null, Disc.class, () -> perform(HttpStatus.CREATED));
+        release.countDown();
+        for (Thread thread : running)
+            thread.join();
+        ResponseEntity<Disc> later = store.execute("POST /discs", null, "new", null, Disc.class, () -> perform(HttpStatus.CREATED));
+
+        // Analyze
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, full.getStatusCode());
+        assertEquals(HttpStatus.CREATED, later.getStatusCode());
+        assertEquals(3, performed.get());
+        assertEquals(2, store.size());
+    }
+
+    @Test
+    public void testFileIsAppendedAndCompacted(@TempDir Path dir) throws Exception {
+        // Setup
+        Path file = dir.resolve("idempotency.json");
+        IdempotencyStore persisted = new IdempotencyStore(2, 1000, file.toString(), new ObjectMapper(), now::get);
+
+        // Invoke
+        persisted.execute("POST /discs", null, "a", null, Disc.class, () -> perform(HttpStatus.CREATED));
+        persisted.execute("POST /discs", null, "b", null, Disc.class, () -> perform(HttpStatus.CREATED));
+        persisted.execute("POST /discs", null, "c", null, Disc.class, () -> perform(HttpStatus.CREATED));
+        int appended = Files.readAllLines(file).size();
+        persisted.execute("POST /discs", null, "d", null, Disc.class, () -> perform(HttpStatus.CREATED));
+        IdempotencyStore reloaded = new IdempotencyStore(2, 1000, file.toString(), new ObjectMapper(), now::get);
+        reloaded.execute("POST /discs", null, "d", null, Disc.class, () -> perform(HttpStatus.CREATED));
+
+        // Analyze
+        assertEquals(3, appended);
+        assertEquals(2, Files.readAllLines(file).size()); // Compacted to the held c and d
+        assertEquals(4, performed.get());
+        assertTrue(Files.readString(file).contains("POST /discs d\""));
+    }
+
+    @Test
+    public void testArrayFileIsReloaded(@TempDir Path dir) throws Exception {
+        // Setup
+        Path file = dir.resolve("idempotency.json");
+        Files.writeString(file, "[{\"key\":\"- POST /discs key\",\"expires\":1000,\"status\":201,\"body\":{\"id\":7}}]");
+
+        // Invoke
+        IdempotencyStore reloaded = new IdempotencyStore(2, 1000, file.toString(), new ObjectMapper(), now::get);
+        ResponseEntity<Disc> repeat = reloaded.execute("POST /discs", null, "key", null, Disc.class, () -> perform(HttpStatus.CREATED));
+
+        // Analyze
+        assertEquals(0, performed.get());
+        assertEquals(7, repeat.getBody().getId());
+    }
+}
@@ -0,0 +1,35 @@
+package com.discgolf.api.discgolfapi.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.discgolf.api.discgolfapi.metrics.MetricsRegistry;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Test the Metrics Controller class
+ * 
+ * @author ZVH
+ */
+@Tag("Controller-tier")
+public class MetricsControllerTest {
+    @Test
+    public void testGetMetrics() {
+        // Setup
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("requests_total", "Requests").increment();
+        MetricsController metricsController = new MetricsController(registry);
+
+        // Invoke
+        ResponseEntity<String> response = metricsController.getMetrics();
+
+        // Analyze
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(MetricsController.PROMETHEUS, response.getHeaders().getContentType());
+        assertTrue(response.getBody().contains("requests_total 1\n"));
+    }
+}
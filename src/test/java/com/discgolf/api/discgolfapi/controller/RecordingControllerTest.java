@@ -0,0 +1,181 @@
+package com.discgolf.api.discgolfapi.controller;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+
+import com.discgolf.api.discgolfapi.auth.Session;
+import com.discgolf.api.discgolfapi.metrics.FlightRecordings;
+import com.discgolf.api.discgolfapi.model.User;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Test the Recording Controller class
+ * 
+ * @author ZVH
+ */
+@Tag("Controller-tier")
+public class RecordingControllerTest {
+    private RecordingController recordingController;
+    private FlightRecordings mockRecordings;
+    private Session admin;
+    private Session user;
+
+    @BeforeEach
+    public void setupRecordingController() {
+        mockRecordings = mock(FlightRecordings.class);
+        recordingController = new RecordingController(mockRecordings);
+        admin = new Session("a", new User(1, "admin", "pw"), Long.MAX_VALUE);
+        user = new Session("u", new User(2, "aiden", "pw"), Long.MAX_VALUE);
+    }
+
+    /**
+     * Writes a temporary file of recorded events
+     */
+    private static Path recorded(byte[] events) throws IOException {
+        Path file = Files.createTempFile("test-", ".jfr");
+        Files.write(file, events);
+        return file;
+    }
+
+    /**
+     * Writes out a streamed response body
+     */
+    private static byte[] streamed(StreamingResponseBody body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        body.writeTo(out);
+        return out.toByteArray();
+    }
+
+    @Test
+    public void testStartRecording() throws IOException, ParseException {
+        // Setup
+        when(mockRecordings.start("profile")).thenReturn(true);
+
+        // Invoke
+        ResponseEntity<Void> response = recordingController.startRecording("profile", admin);
+
+        // Analyze
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+    }
+
+    @Test
+    public void testStartRecordingRunning() throws IOException, ParseException {
+        // Setup
+        when(mockRecordings.start("profile")).thenReturn(false);
+
+        // Invoke
+        ResponseEntity<Void> response = recordingController.startRecording("profile", admin);
+
+        // Analyze
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+    }
+
+    @Test
+    public void testStartRecordingBadSettings() throws IOException, ParseException {
+        // Setup
+        when(mockRecordings.start("nope")).thenThrow(new IOException());
+
+        // Invoke
+        ResponseEntity<Void> response = recordingController.startRecording("nope", admin);
+
+        // Analyze
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    @Test
+    public void testStartRecordingNotAdmin() throws IOException, ParseException {
+        // Invoke
+        ResponseEntity<Void> anonymous = recordingController.startRecording("profile", null);
+        ResponseEntity<Void> forbidden = recordingController.startRecording("profile", user);
+
+        // Analyze
+        assertEquals(HttpStatus.UNAUTHORIZED, anonymous.getStatusCode());
+        assertEquals(HttpStatus.FORBIDDEN, forbidden.getStatusCode());
+        verify(mockRecordings, never()).start("profile");
+    }
+
+    @Test
+    public void testDumpRecording() throws IOException {
+        // Setup
+        byte[] events = new byte[]{1, 2, 3};
+        Path file = recorded(events);
+        when(mockRecordings.dump()).thenReturn(file);
+
+        // Invoke
+        ResponseEntity<StreamingResponseBody> response = recordingController.dumpRecording(admin);
+
+        // Analyze
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(RecordingController.JFR, response.getHeaders().getContentType());
+        assertEquals(events.length, response.getHeaders().getContentLength());
+        assertArrayEquals(events, streamed(response.getBody()));
+        assertFalse(Files.exists(file));
+    }
+
+    @Test
+    public void testDumpRecordingNotRunning() throws IOException {
+        // Setup
+        when(mockRecordings.dump()).thenReturn(null);
+
+        // Invoke
+        ResponseEntity<StreamingResponseBody> response = recordingController.dumpRecording(admin);
+
+        // Analyze
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    @Test
+    public void testStopRecording() throws IOException {
+        // Setup
+        byte[] events = new byte[]{1, 2, 3};
+        Path file = recorded(events);
+        when(mockRecordings.stop()).thenReturn(file);
+
+        // Invoke
+        ResponseEntity<StreamingResponseBody> response = recordingController.stopRecording(admin);
+
+        // Analyze
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertArrayEquals(events, streamed(response.getBody()));
+        assertFalse(Files.exists(file));
+    }
+
+    @Test
+    public void testStopRecordingHandleException() throws IOException {
+        // Setup
+        when(mockRecordings.stop()).thenThrow(new IOException());
+
+        // Invoke
+        ResponseEntity<StreamingResponseBody> response = recordingController.stopRecording(admin);
+
+        // Analyze
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+    }
+
+    @Test
+    public void testStopRecordingNotAdmin() throws IOException {
+        // Invoke
+        ResponseEntity<StreamingResponseBody> response = recordingController.stopRecording(user);
+
+        // Analyze
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+        verify(mockRecordings, never()).stop();
+    }
+}
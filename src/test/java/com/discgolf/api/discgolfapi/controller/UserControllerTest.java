@@ -1,11 +1,20 @@
 package com.discgolf.api.discgolfapi.controller;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Tag;
@@ -13,7 +22,11 @@ import org.junit.jupiter.api.Test;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
+import com.discgolf.api.discgolfapi.auth.PasswordHasher;
+import com.discgolf.api.discgolfapi.auth.Session;
+import com.discgolf.api.discgolfapi.auth.SessionStore;
 import com.discgolf.api.discgolfapi.model.User;
+import com.discgolf.api.discgolfapi.persistence.CartDAO;
 import com.discgolf.api.discgolfapi.persistence.UserDAO;
 
 /**
@@ -25,21 +38,19 @@ import com.discgolf.api.discgolfapi.persistence.UserDAO;
 public class UserControllerTest {
     private UserController userController;
     private UserDAO mockUserDAO;
-    private User mockUser;
+    private CartDAO mockCartDAO;
+    private SessionStore sessionStore;
 
     /**
      * Before each test, create a new UserController object and inject
-     * a mock User DAO
+     * mock User and Cart DAOs
      */
     @BeforeEach
     public void setupUserController() {
         mockUserDAO = mock(UserDAO.class);
-        userController = new UserController(mockUserDAO);
-
-        // Simulate username and password:
-        mockUser = mock(User.class);
-        when(mockUser.getUsername()).thenReturn("aiden");
-        when(mockUser.getPassword()).thenReturn("1234");
+        mockCartDAO = mock(CartDAO.class);
+        sessionStore = new SessionStore();
+        userController = new UserController(mockUserDAO, mockCartDAO, new IdempotencyStore(), sessionStore);
     }
 
     @Test
@@ -174,6 +185,7 @@ public class UserControllerTest {
         // Analyze
         assertEquals(HttpStatus.CREATED,response.getStatusCode());
         assertEquals(user,response.getBody());
+        verify(mockCartDAO).createCart("aiden"); // The new user's cart
     }
 
     @Test
@@ -189,6 +201,7 @@ public class UserControllerTest {
 
         // Analyze
         assertEquals(HttpStatus.CONFLICT,response.getStatusCode());
+        verify(mockCartDAO, never()).createCart(any());
     }
 
     @Test
@@ -206,6 +219,20 @@ public class UserControllerTest {
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR,response.getStatusCode());
     }
 
+    @Test
+    public void testCreateUserHasherSaturated() throws IOException {
+        // Setup
+        User user = new User(99, "aiden", "1234");
+        // When createUser is called on the Mock User DAO, the hasher's pool is full
+        doThrow(new RejectedExecutionException()).when(mockUserDAO).createUser(user);
+
+        // Invoke
+        ResponseEntity<User> response = userController.createUser(user);
+
+        // Analyze
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE,response.getStatusCode());
+    }
+
     @Test
     public void testUpdateUser() throws IOException { // updateUser may throw IOException
         // Setup
@@ -253,6 +280,60 @@ public class UserControllerTest {
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR,response.getStatusCode());
     }
 
+    @Test
+    public void testUpdateUserPasswordEndsSessions() throws IOException { // updateUser may throw IOException
+        // Setup
+        User user = new User(99, "aiden", "1234");
+        Session session = sessionStore.create(user);
+        when(mockUserDAO.getUser(99)).thenReturn(user);
+        User changed = new User(99, "aiden", "5678");
+        when(mockUserDAO.updateUser(changed)).thenReturn(changed);
+
+        // Invoke
+        ResponseEntity<User> response = userController.updateUser(changed);
+
+        // Analyze
+        assertEquals(HttpStatus.OK,response.getStatusCode());
+        assertNull(sessionStore.resolve(session.getToken()));
+    }
+
+    @Test
+    public void testUpdateUserWithoutPasswordKeepsSessions() throws IOException { // updateUser may throw IOException
+        // Setup
+        User user = new User(99, "aiden", "1234");
+        Session session = sessionStore.create(user);
+        when(mockUserDAO.getUser(99)).thenReturn(user);
+        User unchanged = new User(99, "aiden", null);
+        when(mockUserDAO.updateUser(unchanged)).thenReturn(unchanged);
+
+        // Invoke
+        ResponseEntity<User> response = userController.updateUser(unchanged);
+
+        // Analyze
+        assertEquals(HttpStatus.OK,response.getStatusCode());
+        assertEquals(session, sessionStore.resolve(session.getToken()));
+    }
+
+    @Test
+    public void testDeleteUserEndsSessions() throws IOException { // deleteUser may throw IOException
+        // Setup
+        User aiden = new User(99, "aiden", "1234");
+        User kyle = new User(100, "kyle", "5678");
+        Session aidenSession = sessionStore.create(aiden);
+        Session kyleSession = sessionStore.create(kyle);
+        when(mockUserDAO.getUser(99)).thenReturn(aiden);
+        when(mockUserDAO.deleteUser(99)).thenReturn(true);
+        when(mockUserDAO.deleteUser("Kyle")).thenReturn(true);
+
+        // Invoke
+        userController.deleteUser(99);
+        userController.deleteUser("Kyle");
+
+        // Analyze
+        assertNull(sessionStore.resolve(aidenSession.getToken()));
+        assertNull(sessionStore.resolve(kyleSession.getToken()));
+    }
+
     @Test
     public void testDeleteUserByID() throws IOException { // deleteUser may throw IOException
         // Setup
@@ -339,95 +420,143 @@ public class UserControllerTest {
 
     
     @Test
-    public void testLogin() throws IOException { // getUser may throw IOException
+    public void testStartSession() throws IOException { // getUser may throw IOException
         // Setup
         User user = new User(99, "aiden", "1234");
-
-        // when getUser is called, return user simulating successful retrieval
         when(mockUserDAO.getUser(user.getUsername())).thenReturn(user);
 
         // Invoke
-        ResponseEntity<User> response = userController.login(user.getUsername(), user.getPassword());
+        ResponseEntity<Session> response = userController.startSession(new User(0, "aiden", "1234")).join();
 
         // Analyze
-        assertEquals(HttpStatus.ACCEPTED,response.getStatusCode());
+        assertEquals(HttpStatus.CREATED,response.getStatusCode());
+        assertNotNull(response.getBody().getToken());
+        assertEquals(user,sessionStore.resolve(response.getBody().getToken()).getUser());
     }
 
     @Test
-    public void testLoginUnauthorized() throws IOException { // getUser may throw IOException
+    public void testStartSessionUnauthorized() throws IOException { // getUser may throw IOException
         // Setup
         User user = new User(99, "aiden", "1234");
-        String bad_pass = "4321";
-
-        // when getUser is called, return user simulating successful retrieval
         when(mockUserDAO.getUser(user.getUsername())).thenReturn(user);
 
         // Invoke
-        ResponseEntity<User> response = userController.login(user.getUsername(), bad_pass);
+        ResponseEntity<Session> response = userController.startSession(new User(0, "aiden", "4321")).join();
 
         // Analyze
         assertEquals(HttpStatus.UNAUTHORIZED,response.getStatusCode());
     }
 
     @Test
-    public void testLoginNotFound() throws IOException { // getUser may throw IOException
+    public void testStartSessionNotFound() throws IOException { // getUser may throw IOException
         // Setup
-        User user = new User(99, "aiden", "1234");
-
-        // when getUser is called, return user simulating failed retrieval
-        when(mockUserDAO.getUser(user.getUsername())).thenReturn(null);
+        when(mockUserDAO.getUser("aiden")).thenReturn(null);
 
         // Invoke
-        ResponseEntity<User> response = userController.login(user.getUsername(), user.getPassword());
+        ResponseEntity<Session> response = userController.startSession(new User(0, "aiden", "1234")).join();
 
         // Analyze
         assertEquals(HttpStatus.NOT_FOUND,response.getStatusCode());
     }
 
     @Test
-    public void testLogout() throws IOException { // getUser may throw IOException
+    public void testStartSessionHandleException() throws IOException { // getUser will throw IOException
         // Setup
-        // when logout is called, return true simulating successful logut
-        when(mockUser.logout()).thenReturn(true);
+        doThrow(new IOException()).when(mockUserDAO).getUser("aiden");
+
+        // Invoke
+        ResponseEntity<Session> response = userController.startSession(new User(0, "aiden", "1234")).join();
+
+        // Analyze
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR,response.getStatusCode());
+    }
 
-        // when getUser is called, return user simulating successful retrieval
-        when(mockUserDAO.getUser(mockUser.getUsername())).thenReturn(mockUser);
+    @Test
+    public void testStartSessionHashedPassword() throws IOException { // getUser may throw IOException
+        // Setup
+        User user = new User(99, "aiden", new PasswordHasher(1000, 1, 1).hash("1234"));
+        when(mockUserDAO.getUser(user.getUsername())).thenReturn(user);
 
         // Invoke
-        ResponseEntity<User> response = userController.logout(mockUser.getUsername());
+        ResponseEntity<Session> response = userController.startSession(new User(0, "aiden", "1234")).join();
 
         // Analyze
-        assertEquals(HttpStatus.OK,response.getStatusCode());
+        assertEquals(HttpStatus.CREATED,response.getStatusCode());
     }
 
     @Test
-    public void testLogoutUnauthorized() throws IOException { // getUser may throw IOException
+    public void testStartSessionVerificationRejected() throws IOException { // getUser may throw IOException
         // Setup
-        // when logout is called, return true simulating failed logut
-        when(mockUser.logout()).thenReturn(false);
+        PasswordHasher mockPasswordHasher = mock(PasswordHasher.class);
+        userController = new UserController(mockUserDAO, mockCartDAO, new IdempotencyStore(), sessionStore, mockPasswordHasher);
+        when(mockUserDAO.getUser("aiden")).thenReturn(new User(99, "aiden", "1234"));
+        when(mockPasswordHasher.verify("1234", "1234"))
+            .thenReturn(CompletableFuture.failedFuture(new RejectedExecutionException()));
 
-        // when getUser is called, return user simulating successful retrieval
-        when(mockUserDAO.getUser(mockUser.getUsername())).thenReturn(mockUser);
+        // Invoke
+        ResponseEntity<Session> response = userController.startSession(new User(0, "aiden", "1234")).join();
+
+        // Analyze
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE,response.getStatusCode());
+    }
+
+    @Test
+    public void testEndSession() {
+        // Setup
+        Session session = sessionStore.create(new User(99, "aiden", "1234"));
 
         // Invoke
-        ResponseEntity<User> response = userController.logout(mockUser.getUsername());
+        ResponseEntity<Void> response = userController.endSession(session);
+        ResponseEntity<Void> repeat = userController.endSession(session);
+
+        // Analyze
+        assertEquals(HttpStatus.OK,response.getStatusCode());
+        assertEquals(HttpStatus.UNAUTHORIZED,repeat.getStatusCode());
+        assertEquals(null,sessionStore.resolve(session.getToken()));
+    }
+
+    @Test
+    public void testEndSessionUnauthorized() {
+        // Invoke
+        ResponseEntity<Void> response = userController.endSession(null);
 
         // Analyze
         assertEquals(HttpStatus.UNAUTHORIZED,response.getStatusCode());
     }
 
     @Test
-    public void testLogoutNotFound() throws IOException { // getUser may throw IOException
+    public void testUpdateUserChecksSession() throws IOException { // updateUser may throw IOException
         // Setup
-        User user = new User(99, "aiden", "1234");
-
-        // when getUser is called, return user simulating failed retrieval
-        when(mockUserDAO.getUser(user.getUsername())).thenReturn(null);
+        Session aiden = sessionStore.create(new User(99, "aiden", "1234"));
+        when(mockUserDAO.updateUser(any())).thenAnswer(invocation -> invocation.getArgument(0));
 
         // Invoke
-        ResponseEntity<User> response = userController.logout(user.getUsername());
+        ResponseEntity<User> none = userController.updateUser(new User(99, "aiden", "4321"), null);
+        ResponseEntity<User> other = userController.updateUser(new User(100, "kyle", "4321"), aiden);
+        ResponseEntity<User> renamed = userController.updateUser(new User(99, "admin", "4321"), aiden);
+        ResponseEntity<User> own = userController.updateUser(new User(99, "aiden", "4321"), aiden);
 
         // Analyze
-        assertEquals(HttpStatus.NOT_FOUND,response.getStatusCode());
+        assertEquals(HttpStatus.UNAUTHORIZED,none.getStatusCode());
+        assertEquals(HttpStatus.FORBIDDEN,other.getStatusCode());
+        assertEquals(HttpStatus.FORBIDDEN,renamed.getStatusCode());
+        assertEquals(HttpStatus.OK,own.getStatusCode());
+        verify(mockUserDAO, times(1)).updateUser(any());
+    }
+
+    @Test
+    public void testDeleteUserChecksSession() throws IOException { // deleteUser may throw IOException
+        // Setup
+        Session aiden = sessionStore.create(new User(99, "aiden", "1234"));
+        Session admin = sessionStore.create(new User(1, "admin", "1234"));
+        when(mockUserDAO.deleteUser(100)).thenReturn(true);
+        when(mockUserDAO.deleteUser("kyle")).thenReturn(true);
+
+        // Invoke & Analyze
+        assertEquals(HttpStatus.UNAUTHORIZED,userController.deleteUser(100, null).getStatusCode());
+        assertEquals(HttpStatus.FORBIDDEN,userController.deleteUser(100, aiden).getStatusCode());
+        assertEquals(HttpStatus.FORBIDDEN,userController.deleteUser("kyle", aiden).getStatusCode());
+        assertEquals(HttpStatus.OK,userController.deleteUser(100, admin).getStatusCode());
+        assertEquals(HttpStatus.OK,userController.deleteUser("kyle", admin).getStatusCode());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,115 @@
+package com.discgolf.api.discgolfapi.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * Test the Admission Control Filter class
+ * 
+ * @author ZVH
+ */
+@Tag("Controller-tier")
+public class AdmissionControlFilterTest {
+    private AdmissionControlFilter admissionControlFilter;
+    private ConcurrencyLimit browse;
+    private AtomicLong now;
+
+    /**
+     * Before each test, create a filter capping browsing at 1 request and a
+     * clock the test controls
+     */
+    @BeforeEach
+    public void setupAdmissionControlFilter() {
+        now = new AtomicLong(0);
+        browse = new ConcurrencyLimit(1, 1, 1, 100);
+        Map<EndpointGroup,ConcurrencyLimit> limits = new EnumMap<>(EndpointGroup.class);
+        limits.put(EndpointGroup.BROWSE, browse);
+        admissionControlFilter = new AdmissionControlFilter(limits, now::get);
+    }
+
+    @Test
+    public void testAdmittedAndReleased() throws ServletException, IOException {
+        // Setup
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Invoke
+        admissionControlFilter.doFilter(new MockHttpServletRequest("GET", "/discs"), response, new MockFilterChain());
+
+        // Analyze
+        assertEquals(200, response.getStatus());
+        assertEquals(0, browse.getInFlight());
+    }
+
+    @Test
+    public void testShedWhileFull() throws ServletException, IOException {
+        // Setup
+        browse.tryAcquire(); // Another browse request in flight
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        // Invoke
+        admissionControlFilter.doFilter(new MockHttpServletRequest("GET", "/discs"), response, chain);
+
+        // Analyze
+        assertEquals(503, response.getStatus());
+        assertEquals("1", response.getHeader("Retry-After"));
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    public void testOtherGroupsNotShed() throws ServletException, IOException {
+        // Setup
+        browse.tryAcquire(); // Browsing is full
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Invoke
+        admissionControlFilter.doFilter(new MockHttpServletRequest("PUT", "/carts/purchase/aiden"), response,
+                                        new MockFilterChain());
+
+        // Analyze
+        assertEquals(200, response.getStatus());
+    }
+
+    @Test
+    public void testAsyncHeldUntilComplete() throws ServletException, IOException {
+        // Setup
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/discs");
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain(new HttpServlet() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse res) {
+                req.startAsync();
+            }
+        });
+
+        // Invoke
+        admissionControlFilter.doFilter(request, response, chain);
+        int held = browse.getInFlight();
+        ((MockAsyncContext) request.getAsyncContext()).complete();
+
+        // Analyze
+        assertEquals(1, held);
+        assertEquals(0, browse.getInFlight());
+    }
+}
@@ -0,0 +1,123 @@
+package com.discgolf.api.discgolfapi.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test the Concurrency Limit class
+ * 
+ * @author ZVH
+ */
+@Tag("Controller-tier")
+public class ConcurrencyLimitTest {
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(500);
+
+    private ConcurrencyLimit limit;
+
+    /**
+     * Before each test, create a limit starting at 2, between 1 and 4, with a 100ms target
+     */
+    @BeforeEach
+    public void setupConcurrencyLimit() {
+        limit = new ConcurrencyLimit(2, 1, 4, 100);
+    }
+
+    @Test
+    public void testShedsAboveLimit() {
+        // Invoke
+        boolean first = limit.tryAcquire();
+        boolean second = limit.tryAcquire();
+        boolean third = limit.tryAcquire();
+
+        // Analyze
+        assertTrue(first);
+        assertTrue(second);
+        assertFalse(third);
+        assertEquals(2, limit.getInFlight());
+        assertEquals(1, limit.getShed());
+    }
+
+    @Test
+    public void testGrowsWhenFast() {
+        // Invoke
+        for (int i = 0; i < 20; ++i) {
+            limit.tryAcquire();
+            limit.release(FAST, false);
+        }
+
+        // Analyze
+        assertEquals(4, limit.getLimit());
+        assertEquals(0, limit.getInFlight());
+    }
+
+    @Test
+    public void testShrinksWhenSlow() {
+        // Setup
+        limit.tryAcquire();
+
+        // Invoke
+        limit.release(SLOW, false);
+
+        // Analyze
+        assertEquals(1, limit.getLimit());
+    }
+
+    @Test
+    public void testShrinksOnFailure() {
+        // Setup
+        for (int i = 0; i < 20; ++i) {
+            limit.tryAcquire();
+            limit.release(FAST, false);
+        }
+        limit.tryAcquire();
+
+        // Invoke
+        limit.release(FAST, true);
+
+        // Analyze
+        assertEquals(3, limit.getLimit());
+    }
+
+    @Test
+    public void testNeverBelowMin() {
+        // Invoke
+        for (int i = 0; i < 20; ++i) {
+            limit.tryAcquire();
+            limit.release(SLOW, true);
+        }
+
+        // Analyze
+        assertEquals(1, limit.getLimit());
+        assertTrue(limit.tryAcquire());
+    }
+
+    @Test
+    public void testShrinksOncePerWindow() {
+        // Setup
+        AtomicLong now = new AtomicLong(0);
+        ConcurrencyLimit windowed = new ConcurrencyLimit(4, 1, 4, 100, now::get);
+
+        // Invoke
+        for (int i = 0; i < 4; ++i) {
+            windowed.tryAcquire();
+            windowed.release(SLOW, false);
+        }
+        int afterBurst = windowed.getLimit();
+        now.set(TimeUnit.MILLISECONDS.toNanos(100));
+        windowed.tryAcquire();
+        windowed.release(SLOW, true);
+
+        // Analyze
+        assertEquals(3, afterBurst); // 4 * 0.9, not 4 * 0.9^4
+        assertEquals(3, windowed.getLimit()); // 3.6 * 0.9
+    }
+}
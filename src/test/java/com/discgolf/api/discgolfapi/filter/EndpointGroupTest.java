@@ -0,0 +1,31 @@
+package com.discgolf.api.discgolfapi.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test the Endpoint Group enum
+ * 
+ * @author ZVH
+ */
+@Tag("Controller-tier")
+public class EndpointGroupTest {
+    @Test
+    public void testOf() {
+        // Analyze
+        assertEquals(EndpointGroup.BROWSE, EndpointGroup.of("GET", "/discs/filter"));
+        assertEquals(EndpointGroup.BROWSE, EndpointGroup.of("GET", "/lessons/dates"));
+        assertEquals(EndpointGroup.ADMIN, EndpointGroup.of("POST", "/discs"));
+        assertEquals(EndpointGroup.CART, EndpointGroup.of("PUT", "/carts/addDisc/aiden/1"));
+        assertEquals(EndpointGroup.CHECKOUT, EndpointGroup.of("PUT", "/carts/purchase/aiden"));
+        assertEquals(EndpointGroup.CHECKOUT, EndpointGroup.of("PUT", "/carts/purchaseOne/aiden/1"));
+        assertEquals(EndpointGroup.LOGIN, EndpointGroup.of("POST", "/users/login"));
+        assertEquals(EndpointGroup.ADMIN, EndpointGroup.of("POST", "/recording"));
+        assertEquals(EndpointGroup.OTHER, EndpointGroup.of("POST", "/users"));
+        assertEquals(EndpointGroup.OTHER, EndpointGroup.of("POST", "/users/logout"));
+        assertEquals(EndpointGroup.OTHER, EndpointGroup.of("PUT", "/users"));
+        assertEquals(EndpointGroup.OTHER, EndpointGroup.of("DELETE", "/users/3"));
+    }
+}
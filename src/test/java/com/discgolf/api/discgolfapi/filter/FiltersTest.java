@@ -0,0 +1,48 @@
+package com.discgolf.api.discgolfapi.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+/**
+ * Test the Filters class
+ *
+ * @author ZVH
+ */
+@Tag("Controller-tier")
+public class FiltersTest {
+    @Test
+    public void testRunsNowWhenNotAsync() {
+        // Setup
+        AtomicInteger runs = new AtomicInteger();
+
+        // Invoke
+        Filters.onComplete(new MockHttpServletRequest("GET", "/discs"), runs::incrementAndGet);
+
+        // Analyze
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    public void testRunsOnAsyncComplete() {
+        // Setup
+        AtomicInteger runs = new AtomicInteger();
+        MockHttpServletRequest request = new MockHttpServletRequest("PUT", "/carts/purchase/aiden");
+        request.setAsyncSupported(true);
+        request.startAsync();
+
+        // Invoke
+        Filters.onComplete(request, runs::incrementAndGet);
+        int before = runs.get();
+        ((MockAsyncContext) request.getAsyncContext()).complete();
+
+        // Analyze
+        assertEquals(0, before);
+        assertEquals(1, runs.get());
+    }
+}
@@ -0,0 +1,164 @@
+package com.discgolf.api.discgolfapi.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.servlet.ServletException;
+
+import com.discgolf.api.discgolfapi.auth.SessionFilter;
+import com.discgolf.api.discgolfapi.auth.SessionStore;
+import com.discgolf.api.discgolfapi.model.User;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * Test the Rate Limit Filter class
+ * 
+ * @author ZVH
+ */
+@Tag("Controller-tier")
+public class RateLimitFilterTest {
+    private RateLimitFilter rateLimitFilter;
+    private AtomicLong now;
+
+    /**
+     * Before each test, create a filter limiting browsing to 1 request per
+     * second with a burst of 2, and a clock the test controls
+     */
+    @BeforeEach
+    public void setupRateLimitFilter() {
+        now = new AtomicLong(0);
+        Map<EndpointGroup,RateLimitFilter.Limit> limits = new EnumMap<>(EndpointGroup.class);
+        limits.put(EndpointGroup.BROWSE, new RateLimitFilter.Limit(1, 2));
+        rateLimitFilter = new RateLimitFilter(limits, now::get);
+    }
+
+    private MockHttpServletResponse perform(String method, String path, String remoteAddr) throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setRemoteAddr(remoteAddr);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        rateLimitFilter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    @Test
+    public void testBurstThenRejected() throws ServletException, IOException {
+        // Invoke
+        MockHttpServletResponse first = perform("GET", "/discs", "10.0.0.1");
+        MockHttpServletResponse second = perform("GET", "/discs", "10.0.0.1");
+        MockHttpServletResponse third = perform("GET", "/discs", "10.0.0.1");
+
+        // Analyze
+        assertEquals(200, first.getStatus());
+        assertEquals(200, second.getStatus());
+        assertEquals(429, third.getStatus());
+        assertEquals("1", third.getHeader("Retry-After"));
+        assertEquals(1, rateLimitFilter.getRejected(EndpointGroup.BROWSE));
+    }
+
+    @Test
+    public void testRefills() throws ServletException, IOException {
+        // Setup
+        perform("GET", "/discs", "10.0.0.1");
+        perform("GET", "/discs", "10.0.0.1");
+
+        // Invoke
+        now.set(TimeUnit.SECONDS.toNanos(1));
+        MockHttpServletResponse response = perform("GET", "/discs", "10.0.0.1");
+
+        // Analyze
+        assertEquals(200, response.getStatus());
+    }
+
+    @Test
+    public void testClientsAreSeparate() throws ServletException, IOException {
+        // Setup
+        perform("GET", "/discs", "10.0.0.1");
+        perform("GET", "/discs", "10.0.0.1");
+
+        // Invoke
+        MockHttpServletResponse response = perform("GET", "/discs", "10.0.0.2");
+
+        // Analyze
+        assertEquals(200, response.getStatus());
+    }
+
+    @Test
+    public void testSessionUserIsTheClient() throws ServletException, IOException {
+        // Setup
+        SessionStore sessionStore = new SessionStore();
+        Object session = sessionStore.create(new User(99, "aiden", "1234"));
+        perform("GET", "/discs", "10.0.0.1");
+        perform("GET", "/discs", "10.0.0.1");
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/discs");
+        request.setRemoteAddr("10.0.0.1");
+        request.setAttribute(SessionFilter.SESSION, session);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Invoke
+        rateLimitFilter.doFilter(request, response, new MockFilterChain());
+
+        // Analyze
+        assertEquals(200, response.getStatus());
+    }
+
+    @Test
+    public void testUnlimitedGroupPassesThrough() throws ServletException, IOException {
+        // Setup
+        MockFilterChain chain = null;
+
+        // Invoke
+        for (int i = 0; i < 10; ++i) {
+            chain = new MockFilterChain();
+            rateLimitFilter.doFilter(new MockHttpServletRequest("PUT", "/carts/addDisc/aiden/1"),
+                                     new MockHttpServletResponse(), chain);
+        }
+
+        // Analyze
+        assertNotNull(chain.getRequest());
+        assertEquals(0, rateLimitFilter.getRejected(EndpointGroup.CART));
+    }
+
+    @Test
+    public void testRejectedNotPassedOn() throws ServletException, IOException {
+        // Setup
+        perform("GET", "/discs", "10.0.0.1");
+        perform("GET", "/discs", "10.0.0.1");
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/discs");
+        request.setRemoteAddr("10.0.0.1");
+        MockFilterChain chain = new MockFilterChain();
+
+        // Invoke
+        rateLimitFilter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        // Analyze
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    public void testSweepEvictsRefilledBuckets() throws ServletException, IOException {
+        // Setup
+        perform("GET", "/discs", "10.0.0.1");
+        perform("GET", "/discs", "10.0.0.2");
+        perform("GET", "/discs", "10.0.0.2");
+
+        // Invoke
+        now.set(TimeUnit.SECONDS.toNanos(1));
+        rateLimitFilter.sweep();
+
+        // Analyze
+        assertEquals(1, rateLimitFilter.size(EndpointGroup.BROWSE)); // 10.0.0.2 is still refilling
+    }
+}
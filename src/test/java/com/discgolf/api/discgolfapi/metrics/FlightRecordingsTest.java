@@ -0,0 +1,116 @@
+package com.discgolf.api.discgolfapi.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Test the Flight Recordings class
+ * 
+ * @author ZVH
+ */
+@Tag("Controller-tier")
+public class FlightRecordingsTest {
+    private FlightRecordings recordings;
+
+    @BeforeEach
+    public void setupFlightRecordings() {
+        recordings = new FlightRecordings(60, 10 * 1024 * 1024);
+    }
+
+    @AfterEach
+    public void closeFlightRecordings() {
+        recordings.close();
+    }
+
+    /**
+     * Reads the events of a JFR file, then deletes it
+     */
+    private static List<RecordedEvent> events(Path file) throws IOException {
+        try {
+            return RecordingFile.readAllEvents(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testRecordsEvents() throws IOException, ParseException {
+        // Setup
+        assertTrue(recordings.start("default"));
+
+        // Invoke
+        try (DaoOperationEvent op = new DaoOperationEvent("discs", "getDisc", 99, null)) {
+            op.touched("disc");
+        }
+        try (CheckoutStepEvent step = new CheckoutStepEvent("aiden", CheckoutStepEvent.PURCHASE_DISC)) {
+            step.purchased(99, 2);
+        }
+        Path jfr = recordings.stop();
+
+        // Analyze
+        assertFalse(recordings.isRecording());
+        RecordedEvent dao = null, checkout = null;
+        for (RecordedEvent event : events(jfr)) {
+            if (event.getEventType().getName().equals("com.discgolf.DaoOperation"))
+                dao = event;
+            else if (event.getEventType().getName().equals("com.discgolf.CheckoutStep"))
+                checkout = event;
+        }
+        assertNotNull(dao);
+        assertEquals("discs", dao.getString("store"));
+        assertEquals("getDisc", dao.getString("operation"));
+        assertEquals(99, dao.getInt("id"));
+        assertEquals(1, dao.getInt("records"));
+        assertNotNull(checkout);
+        assertEquals(CheckoutStepEvent.PURCHASE_DISC, checkout.getString("step"));
+        assertEquals(99, checkout.getInt("discId"));
+        assertEquals(2, checkout.getInt("quantity"));
+    }
+
+    @Test
+    public void testOneAtATime() throws IOException, ParseException {
+        // Invoke
+        assertTrue(recordings.start("default"));
+
+        // Analyze
+        assertFalse(recordings.start("default"));
+        assertTrue(recordings.isRecording());
+        Path jfr = recordings.dump();
+        assertNotNull(jfr);
+        assertTrue(Files.size(jfr) > 0);
+        Files.delete(jfr);
+        assertTrue(recordings.isRecording());
+    }
+
+    @Test
+    public void testNotRecording() throws IOException {
+        // Analyze
+        assertNull(recordings.dump());
+        assertNull(recordings.stop());
+    }
+
+    @Test
+    public void testUnknownSettings() {
+        // Analyze
+        assertThrows(IOException.class, () -> recordings.start("no_such_settings"));
+        assertFalse(recordings.isRecording());
+    }
+}
@@ -0,0 +1,79 @@
+package com.discgolf.api.discgolfapi.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test the Histogram class
+ * 
+ * @author ZVH
+ */
+@Tag("Controller-tier")
+public class HistogramTest {
+    private Histogram histogram;
+
+    @BeforeEach
+    public void setupHistogram() {
+        histogram = new Histogram();
+    }
+
+    @Test
+    public void testEmpty() {
+        // Analyze
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentile(0.99));
+    }
+
+    @Test
+    public void testSmallValuesExact() {
+        // Invoke
+        for (int i = 1; i <= 10; ++i)
+            histogram.record(i);
+
+        // Analyze
+        assertEquals(5, histogram.getPercentile(0.5));
+        assertEquals(10, histogram.getPercentile(1.0));
+        assertEquals(55, histogram.getSum());
+        assertEquals(10, histogram.getCount());
+    }
+
+    @Test
+    public void testPercentilesWithinRelativeError() {
+        // Invoke
+        for (long i = 1; i <= 100000; ++i)
+            histogram.record(i * 1000);
+
+        // Analyze
+        assertWithin(50000000L, histogram.getPercentile(0.5));
+        assertWithin(99000000L, histogram.getPercentile(0.99));
+        assertWithin(99900000L, histogram.getPercentile(0.999));
+        assertEquals(100000000L, histogram.getMax());
+    }
+
+    @Test
+    public void testBucketsCoverValues() {
+        // Analyze
+        for (long value = 0; value < 1 << 20; value += 7)
+            assertTrue(Histogram.highest(Histogram.index(value)) >= value);
+        assertEquals(Histogram.index(1L << Histogram.MAX_EXPONENT), Histogram.index(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testNegativeRecordedAsZero() {
+        // Invoke
+        histogram.record(-5);
+
+        // Analyze
+        assertEquals(0, histogram.getPercentile(1.0));
+        assertEquals(1, histogram.getCount());
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue(Math.abs(actual - expected) <= expected / Histogram.SUB_BUCKETS,
+                   "expected about " + expected + " but was " + actual);
+    }
+}
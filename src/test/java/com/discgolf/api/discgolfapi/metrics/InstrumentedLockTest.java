@@ -0,0 +1,88 @@
+package com.discgolf.api.discgolfapi.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test the Instrumented Lock class
+ * 
+ * @author ZVH
+ */
+@Tag("Controller-tier")
+public class InstrumentedLockTest {
+    private Histogram wait;
+    private Histogram hold;
+    private InstrumentedLock lock;
+
+    @BeforeEach
+    public void setupInstrumentedLock() {
+        wait = new Histogram();
+        hold = new Histogram();
+        lock = new InstrumentedLock(wait, hold);
+    }
+
+    @Test
+    public void testAcquire() {
+        // Invoke
+        try (InstrumentedLock.Held held = lock.acquire()) {
+            // Analyze
+            assertTrue(lock.isHeldByCurrentThread());
+        }
+
+        // Analyze
+        assertFalse(lock.isHeldByCurrentThread());
+        assertEquals(1, wait.getCount());
+        assertEquals(1, hold.getCount());
+    }
+
+    @Test
+    public void testReentrantRecordedOnce() {
+        // Invoke
+        try (InstrumentedLock.Held outer = lock.acquire()) {
+            try (InstrumentedLock.Held inner = lock.acquire()) {
+                assertTrue(lock.isHeldByCurrentThread());
+            }
+            // Analyze
+            assertTrue(lock.isHeldByCurrentThread());
+            assertEquals(0, hold.getCount());
+        }
+
+        // Analyze
+        assertFalse(lock.isHeldByCurrentThread());
+        assertEquals(1, wait.getCount());
+        assertEquals(1, hold.getCount());
+    }
+
+    @Test
+    public void testWaitRecorded() throws InterruptedException {
+        // Setup
+        CountDownLatch waiting = new CountDownLatch(1);
+        Thread other = new Thread(() -> {
+            waiting.countDown();
+            try (InstrumentedLock.Held held = lock.acquire()) {
+                // Acquired once released
+            }
+        });
+
+        // Invoke
+        try (InstrumentedLock.Held held = lock.acquire()) {
+            other.start();
+            waiting.await();
+            Thread.sleep(20);
+        }
+        other.join(TimeUnit.SECONDS.toMillis(5));
+
+        // Analyze
+        assertEquals(2, wait.getCount());
+        assertTrue(wait.getMax() >= TimeUnit.MILLISECONDS.toNanos(10));
+        assertTrue(hold.getMax() >= TimeUnit.MILLISECONDS.toNanos(10));
+    }
+}
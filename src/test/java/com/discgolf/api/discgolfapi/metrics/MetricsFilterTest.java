@@ -0,0 +1,134 @@
+package com.discgolf.api.discgolfapi.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Test the Metrics Filter class
+ * 
+ * @author ZVH
+ */
+@Tag("Controller-tier")
+public class MetricsFilterTest {
+    private MetricsRegistry registry;
+    private MetricsFilter metricsFilter;
+    private AtomicLong now;
+
+    /**
+     * Before each test, create a filter over a new registry, with a clock the
+     * test controls
+     */
+    @BeforeEach
+    public void setupMetricsFilter() {
+        registry = new MetricsRegistry();
+        now = new AtomicLong(0);
+        metricsFilter = new MetricsFilter(registry, now::get);
+    }
+
+    /**
+     * A servlet that takes a second, then writes a body with the given status
+     */
+    private HttpServlet servlet(int status, String body) {
+        return new HttpServlet() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/discs/{id}");
+                now.addAndGet(1000000000L);
+                response.setStatus(status);
+                response.getOutputStream().write(body.getBytes());
+            }
+        };
+    }
+
+    @Test
+    public void testRecordsByPattern() throws ServletException, IOException {
+        // Invoke
+        metricsFilter.doFilter(new MockHttpServletRequest("GET", "/discs/3"), new MockHttpServletResponse(),
+                               new MockFilterChain(servlet(200, "{\"id\":3}")));
+
+        // Analyze
+        String scrape = registry.scrape();
+        assertTrue(scrape.contains("http_server_request_seconds_count{endpoint=\"GET /discs/{id}\"} 1\n"));
+        assertTrue(scrape.contains("http_server_request_seconds_sum{endpoint=\"GET /discs/{id}\"} 1\n"));
+        assertTrue(scrape.contains("http_server_response_size_bytes_sum{endpoint=\"GET /discs/{id}\"} 8\n"));
+        assertTrue(scrape.contains("http_server_responses_total{endpoint=\"GET /discs/{id}\",status=\"2xx\"} 1\n"));
+    }
+
+    @Test
+    public void testRecordsErrors() throws ServletException, IOException {
+        // Invoke
+        metricsFilter.doFilter(new MockHttpServletRequest("GET", "/discs/3"), new MockHttpServletResponse(),
+                               new MockFilterChain(servlet(500, "")));
+
+        // Analyze
+        assertTrue(registry.scrape().contains("http_server_responses_total{endpoint=\"GET /discs/{id}\",status=\"5xx\"} 1\n"));
+    }
+
+    @Test
+    public void testUnmatchedRecordedByGroup() throws ServletException, IOException {
+        // Setup
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        response.setStatus(429);
+
+        // Invoke
+        metricsFilter.doFilter(new MockHttpServletRequest("GET", "/discs"), response, new MockFilterChain());
+
+        // Analyze
+        assertTrue(registry.scrape().contains("http_server_responses_total{endpoint=\"GET (browse)\",status=\"4xx\"} 1\n"));
+    }
+
+    @Test
+    public void testUnknownMethodRecordedAsOther() throws ServletException, IOException {
+        // Invoke
+        metricsFilter.doFilter(new MockHttpServletRequest("FOO123", "/discs/3"), new MockHttpServletResponse(),
+                               new MockFilterChain());
+
+        // Analyze
+        String scrape = registry.scrape();
+        assertTrue(scrape.contains("http_server_request_seconds_count{endpoint=\"OTHER (admin)\"} 1\n"));
+        assertTrue(!scrape.contains("FOO123"));
+    }
+
+    @Test
+    public void testAsyncRecordedOnComplete() throws ServletException, IOException {
+        // Setup
+        MockHttpServletRequest request = new MockHttpServletRequest("PUT", "/carts/purchase/aiden");
+        request.setAsyncSupported(true);
+        MockFilterChain chain = new MockFilterChain(new HttpServlet() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse res) {
+                req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/carts/purchase/{cart_username}");
+                req.startAsync();
+            }
+        });
+
+        // Invoke
+        metricsFilter.doFilter(request, new MockHttpServletResponse(), chain);
+        boolean recordedEarly = registry.scrape().contains("http_server_request_seconds_count");
+        ((MockAsyncContext) request.getAsyncContext()).complete();
+
+        // Analyze
+        assertTrue(!recordedEarly);
+        assertTrue(registry.scrape().contains("http_server_request_seconds_count{endpoint=\"PUT /carts/purchase/{cart_username}\"} 1\n"));
+    }
+}
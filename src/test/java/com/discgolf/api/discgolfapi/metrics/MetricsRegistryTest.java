@@ -0,0 +1,92 @@
+package com.discgolf.api.discgolfapi.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test the Metrics Registry class
+ * 
+ * @author ZVH
+ */
+@Tag("Controller-tier")
+public class MetricsRegistryTest {
+    private MetricsRegistry registry;
+
+    @BeforeEach
+    public void setupMetricsRegistry() {
+        registry = new MetricsRegistry();
+    }
+
+    @Test
+    public void testCounter() {
+        // Setup
+        registry.counter("requests_total", "Requests", "endpoint", "GET /discs").add(3);
+
+        // Invoke
+        String scrape = registry.scrape();
+
+        // Analyze
+        assertTrue(scrape.contains("# HELP requests_total Requests\n"));
+        assertTrue(scrape.contains("# TYPE requests_total counter\n"));
+        assertTrue(scrape.contains("requests_total{endpoint=\"GET /discs\"} 3\n"));
+    }
+
+    @Test
+    public void testSameLabelsSameMetric() {
+        // Analyze
+        assertSame(registry.counter("requests_total", "Requests", "endpoint", "a"),
+                   registry.counter("requests_total", "Requests", "endpoint", "a"));
+        assertSame(registry.histogram("latency_seconds", "Latency", 1e-9, "endpoint", "a"),
+                   registry.histogram("latency_seconds", "Latency", 1e-9, "endpoint", "a"));
+    }
+
+    @Test
+    public void testGauge() {
+        // Setup
+        registry.gauge("queue_depth", "Queue depth", () -> 7);
+
+        // Invoke
+        String scrape = registry.scrape();
+
+        // Analyze
+        assertTrue(scrape.contains("# TYPE queue_depth gauge\nqueue_depth 7\n"));
+    }
+
+    @Test
+    public void testHistogramAsSummary() {
+        // Setup
+        registry.histogram("latency_seconds", "Latency", 1e-9, "endpoint", "a").record(2000000000L);
+
+        // Invoke
+        String scrape = registry.scrape();
+
+        // Analyze
+        assertTrue(scrape.contains("# TYPE latency_seconds summary\n"));
+        assertTrue(scrape.contains("latency_seconds{endpoint=\"a\",quantile=\"0.99\"} 2\n"));
+        assertTrue(scrape.contains("latency_seconds_sum{endpoint=\"a\"} 2\n"));
+        assertTrue(scrape.contains("latency_seconds_count{endpoint=\"a\"} 1\n"));
+    }
+
+    @Test
+    public void testLabelValuesEscaped() {
+        // Setup
+        registry.gauge("odd", "Odd", () -> 1, "name", "say \"hi\"\\");
+
+        // Analyze
+        assertTrue(registry.scrape().contains("odd{name=\"say \\\"hi\\\"\\\\\"} 1\n"));
+    }
+
+    @Test
+    public void testTypeConflict() {
+        // Setup
+        registry.counter("requests_total", "Requests");
+
+        // Analyze
+        assertThrows(IllegalArgumentException.class, () -> registry.gauge("requests_total", "Requests", () -> 1));
+    }
+}
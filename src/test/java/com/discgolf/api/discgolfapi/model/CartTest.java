@@ -4,7 +4,11 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
@@ -115,4 +119,136 @@ public class CartTest {
 
         assertFalse(cart.updateDiscQuantity(disc2.getId(), 2, 2)); // Test updating non-existent disc
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testLineAccessors() {
+        // Setup
+        Cart cart = new Cart(99, "test_user", new HashMap<>());
+        List<Integer> visited = new ArrayList<>();
+
+        // Invoke
+        cart.addDisc(7, 3);
+        cart.addDisc(2, 1);
+        cart.addDisc(5, 2);
+        cart.addDisc(2, 4);
+        cart.forEachLine((disc_id, quantity) -> visited.add(disc_id));
+
+        // Analyze
+        assertEquals(List.of(2, 5, 7), visited); // Lines are in ascending disc id order
+        assertEquals(3, cart.getLineCount());
+        assertEquals(10, cart.getTotalQuantity());
+        assertEquals(5, cart.getQuantity(2));
+        assertEquals(0, cart.getQuantity(4));
+
+        assertTrue(cart.removeDisc(5));
+        assertEquals(2, cart.getLineCount());
+        assertEquals(8, cart.getTotalQuantity());
+    }
+
+    @Test
+    public void testJsonShape() throws Exception {
+        // Setup
+        ObjectMapper objectMapper = new ObjectMapper();
+        HashMap<Integer, Integer> contents = new HashMap<>();
+        contents.put(1, 2);
+        contents.put(12, 3);
+        Cart cart = new Cart(99, "test_user", contents);
+
+        // Invoke
+        String json = objectMapper.writeValueAsString(cart);
+        Cart copy = objectMapper.readValue(json, Cart.class);
+
+        // Analyze
+        assertEquals("{\"id\":99,\"username\":\"test_user\",\"contents\":{\"1\":2,\"12\":3},\"lastTouched\":0}", json);
+        assertEquals(contents, copy.getContents());
+        assertEquals(5, copy.getTotalQuantity());
+    }
+
+    @Test
+    public void testCostIsCached() {
+        // Setup
+        Cart cart = new Cart(99, "test_user", new HashMap<>());
+        int[] lookups = new int[1];
+        Cart.PriceLookup<RuntimeException> prices = disc_id -> { lookups[0]++; return 2.5; };
+        cart.addDisc(1, 2);
+        cart.addDisc(2, 2);
+
+        // Invoke and Analyze
+        assertEquals(10.0f, cart.getCost(prices));
+        assertEquals(10.0f, cart.getCost(prices));
+        assertEquals(2, lookups[0]); // Second call is served from the cache
+
+        cart.addDisc(1, 2); // Line change recomputes
+        assertEquals(15.0f, cart.getCost(prices));
+        assertEquals(4, lookups[0]);
+
+        cart.invalidateCost(); // Price change recomputes
+        assertEquals(6.0f, cart.getCost(disc_id -> 1.0));
+    }
+
+    @Test
+    public void testLinesUnchangedByUpdates() {
+        // Setup
+        Cart cart = new Cart(99, "test_user", new HashMap<>());
+        cart.addDisc(1, 2);
+        cart.addDisc(4, 1);
+
+        // Invoke
+        Cart.Lines lines = cart.getLines();
+        cart.addDisc(1, 5);
+        cart.addDisc(2, 1);
+        cart.removeDisc(4);
+
+        // Analyze
+        assertEquals(2, lines.size());
+        assertEquals(1, lines.getDiscId(0));
+        assertEquals(2, lines.getQuantity(0));
+        assertEquals(4, lines.getDiscId(1));
+        assertEquals(1, lines.getQuantity(1));
+        assertEquals(3, lines.getTotalQuantity());
+        assertEquals(2, cart.getLines().size());
+        assertEquals(8, cart.getLines().getTotalQuantity());
+    }
+
+    @Test
+    public void testCallbacksRunUnlocked() {
+        // Setup
+        Cart cart = new Cart(99, "test_user", new HashMap<>());
+        cart.addDisc(1, 2);
+        cart.addDisc(2, 1);
+        List<Boolean> locked = new ArrayList<>();
+
+        // Invoke
+        cart.forEachLine((disc_id, quantity) -> locked.add(Thread.holdsLock(cart)));
+        cart.getCost(disc_id -> { locked.add(Thread.holdsLock(cart)); return 1.0; });
+
+        // Analyze
+        assertEquals(List.of(false, false, false, false), locked);
+    }
+
+    @Test
+    public void testCostChangedWhilePricingNotCached() {
+        // Setup
+        Cart cart = new Cart(99, "test_user", new HashMap<>());
+        cart.addDisc(1, 2);
+        List<Integer> visited = new ArrayList<>();
+
+        // Invoke
+        float during = cart.getCost(disc_id -> {
+            if (disc_id == 1)
+                cart.addDisc(3, 1); // Another request changes the cart while it is priced
+            return 1.0;
+        });
+        float after = cart.getCost(disc_id -> 1.0);
+        cart.forEachLine((disc_id, quantity) -> {
+            visited.add(disc_id);
+            cart.removeDisc(disc_id); // Iterates the lines as they were
+        });
+
+        // Analyze
+        assertEquals(2.0f, during);
+        assertEquals(3.0f, after); // Recomputed, not the stale 2.0
+        assertEquals(List.of(1, 3), visited);
+        assertEquals(0, cart.getLineCount());
+    }
+}
@@ -1,6 +1,10 @@
 package com.discgolf.api.discgolfapi.model;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
@@ -135,4 +139,19 @@ public class UserTest {
         boolean expected = false;
         assertEquals(actual, expected);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testPasswordNotSerialized() throws JsonProcessingException {
+        // Setup
+        ObjectMapper objectMapper = new ObjectMapper();
+        User user = new User(99, "aiden", "pbkdf2$1000$salt$hash");
+
+        // Invoke
+        String json = objectMapper.writeValueAsString(user);
+        User read = objectMapper.readValue("{\"id\":99,\"username\":\"aiden\",\"password\":\"1234\"}", User.class);
+
+        // Analyze
+        assertFalse(json.contains("password"));
+        assertEquals("1234", read.getPassword());
+    }
+}
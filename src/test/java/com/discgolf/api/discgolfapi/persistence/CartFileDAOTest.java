@@ -12,14 +12,21 @@ import static org.mockito.Mockito.when;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.discgolf.api.discgolfapi.model.Cart;
+import com.discgolf.api.discgolfapi.model.Disc;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 /**
  * Test the Cart File DAO class
@@ -55,7 +62,7 @@ public class CartFileDAOTest {
     }
 
     @Test
-    public void testGetCarts() {
+    public void testGetCarts() throws IOException {
         // Invoke
         Cart[] carts = cartFileDAO.getCarts();
 
@@ -66,7 +73,7 @@ public class CartFileDAOTest {
     }
 
     @Test
-    public void testFindCarts() {
+    public void testFindCarts() throws IOException {
         // Invoke
         Cart[] carts = cartFileDAO.findCarts("test_user1");
 
@@ -76,7 +83,7 @@ public class CartFileDAOTest {
     }
 
     @Test
-    public void testGetCart() {
+    public void testGetCart() throws IOException {
         // Invoke
         Cart cart = cartFileDAO.getCart(2);
 
@@ -85,7 +92,7 @@ public class CartFileDAOTest {
     }
 
     @Test
-    public void testDeleteCart() {
+    public void testDeleteCart() throws IOException {
         // Invoke
         boolean result = assertDoesNotThrow(() -> cartFileDAO.deleteCart(1),
                             "Unexpected exception thrown");
@@ -100,7 +107,7 @@ public class CartFileDAOTest {
     }
 
     @Test
-    public void testCreateCart() {
+    public void testCreateCart() throws IOException {
         // Setup
         Cart cart = new Cart(4, "test_user55", new HashMap<>());
 
@@ -117,7 +124,7 @@ public class CartFileDAOTest {
     }
 
     @Test
-    public void testUpdateCart() {
+    public void testUpdateCart() throws IOException {
         // Setup
         Cart cart = new Cart(1, "test_user7", new HashMap<>()); // Change user (owner)
 
@@ -131,6 +138,468 @@ public class CartFileDAOTest {
         assertEquals(actual,cart);
     }
 
+    @Test
+    public void testFindCart() throws IOException {
+        // Invoke
+        Cart cart = cartFileDAO.findCart("test_user2");
+
+        // Analyze
+        assertEquals(testCarts[1],cart);
+    }
+
+    @Test
+    public void testFindCartNotFound() throws IOException {
+        // Invoke
+        Cart cart = cartFileDAO.findCart("no_such_user");
+
+        // Analyze
+        assertNull(cart);
+    }
+
+    @Test
+    public void testFindCartMatchesCase() throws IOException {
+        // Invoke
+        Cart cart = cartFileDAO.findCart("TEST_USER2");
+        Cart[] carts = cartFileDAO.findCarts("TEST_USER2");
+        Cart updated = cartFileDAO.addDisc("TEST_USER2", 5, 1);
+
+        // Analyze
+        assertNull(cart);
+        assertEquals(0,carts.length);
+        assertNull(updated);
+    }
+
+    @Test
+    public void testCreateCartDuplicate() throws IOException {
+        // Invoke
+        Cart result = assertDoesNotThrow(() -> cartFileDAO.createCart("TEST_USER1"),
+                                "Unexpected exception thrown");
+
+        // Analyze
+        assertNull(result);
+        assertEquals(testCarts.length,cartFileDAO.carts.size());
+    }
+
+    @Test
+    public void testUpdateCartReindexesUsername() throws IOException {
+        // Setup
+        Cart cart = new Cart(1, "test_user7", new HashMap<>()); // Change user (owner)
+
+        // Invoke
+        assertDoesNotThrow(() -> cartFileDAO.updateCart(cart), "Unexpected exception thrown");
+
+        // Analyze
+        assertEquals(cart,cartFileDAO.findCart("test_user7"));
+        assertNull(cartFileDAO.findCart("test_user1"));
+    }
+
+    @Test
+    public void testAddDisc() throws IOException {
+        // Invoke
+        Cart result = assertDoesNotThrow(() -> cartFileDAO.addDisc("test_user1", 5, 2),
+                                "Unexpected exception thrown");
+
+        // Analyze
+        assertNotNull(result);
+        assertEquals(2,cartFileDAO.getCart(1).getContents().get(5));
+    }
+
+    @Test
+    public void testAddDiscInvalidQuantity() throws IOException {
+        // Invoke
+        Cart result = assertDoesNotThrow(() -> cartFileDAO.addDisc("test_user1", 5, 0),
+                                "Unexpected exception thrown");
+
+        // Analyze
+        assertNull(result);
+        assertEquals(0,cartFileDAO.getCart(1).getContents().size());
+    }
+
+    @Test
+    public void testAddDiscNotFound() throws IOException {
+        // Invoke
+        Cart result = assertDoesNotThrow(() -> cartFileDAO.addDisc("no_such_user", 5, 1),
+                                "Unexpected exception thrown");
+
+        // Analyze
+        assertNull(result);
+    }
+
+    @Test
+    public void testRemoveDisc() throws IOException {
+        // Setup
+        cartFileDAO.addDisc("test_user2", 5, 1);
+
+        // Invoke
+        Cart result = cartFileDAO.removeDisc("test_user2", 5);
+        Cart missing = cartFileDAO.removeDisc("test_user2", 5);
+
+        // Analyze
+        assertNotNull(result);
+        assertNull(missing);
+        assertEquals(0,cartFileDAO.getCart(2).getContents().size());
+    }
+
+    @Test
+    public void testUpdateDiscQuantity() throws IOException {
+        // Setup
+        cartFileDAO.addDisc("test_user3", 5, 1);
+
+        // Invoke
+        Cart result = cartFileDAO.updateDiscQuantity("test_user3", 5, 4, 1);
+
+        // Analyze
+        assertNotNull(result);
+        assertEquals(5,cartFileDAO.getCart(3).getContents().get(5));
+    }
+
+    @Test
+    public void testRemoveDiscs() throws IOException {
+        // Setup
+        cartFileDAO.addDisc("test_user1", 5, 2);
+        cartFileDAO.addDisc("test_user1", 6, 3);
+
+        // Invoke
+        Cart result = cartFileDAO.removeDiscs("test_user1", Map.of(5, 2, 6, 1));
+
+        // Analyze
+        assertNotNull(result);
+        assertEquals(Map.of(6, 2),cartFileDAO.getCart(1).getContents());
+    }
+
+    @Test
+    public void testConcurrentAddDisc() throws InterruptedException, IOException {
+        // Setup
+        int threads = 8;
+        int adds = 50;
+        Thread[] workers = new Thread[threads];
+        for (int i = 0; i < threads; ++i) {
+            workers[i] = new Thread(() -> {
+                for (int j = 0; j < adds; ++j)
+                    assertDoesNotThrow(() -> cartFileDAO.addDisc("test_user1", 5, 1));
+            });
+        }
+
+        // Invoke
+        for (Thread worker : workers)
+            worker.start();
+        for (Thread worker : workers)
+            worker.join();
+
+        // Analyze
+        assertEquals(threads * adds,cartFileDAO.getCart(1).getContents().get(5));
+    }
+
+    @Test
+    public void testDiscRepricedInvalidatesCost() throws IOException {
+        // Setup
+        cartFileDAO.addDisc("test_user1", 5, 2);
+        Cart cart = cartFileDAO.getCart(1);
+        assertEquals(20.0f, cart.getCost(disc_id -> 10.0));
+
+        // Invoke
+        cartFileDAO.discRepriced(new Disc(5, "Blue", 160, "Putter", 12.0, 1));
+
+        // Analyze
+        assertEquals(24.0f, cart.getCost(disc_id -> 12.0));
+    }
+
+    @Test
+    public void testDiscDeletedInvalidatesCost() throws IOException {
+        // Setup
+        cartFileDAO.addDisc("test_user1", 5, 2);
+        Cart cart = cartFileDAO.getCart(1);
+        assertEquals(20.0f, cart.getCost(disc_id -> 10.0));
+
+        // Invoke
+        cartFileDAO.discDeleted(5);
+
+        // Analyze
+        assertEquals(0.0f, cart.getCost(disc_id -> 0.0));
+    }
+
+    @Test
+    public void testDiscDeletedPrunesLines() throws IOException {
+        // Setup
+        cartFileDAO.addDisc("test_user1", 5, 2);
+        cartFileDAO.addDisc("test_user1", 6, 1);
+        cartFileDAO.addDisc("test_user2", 5, 1);
+
+        // Invoke
+        cartFileDAO.discDeleted(5);
+
+        // Analyze
+        assertEquals(Map.of(6, 1),cartFileDAO.getCart(1).getContents());
+        assertEquals(0,cartFileDAO.getCart(2).getContents().size());
+        assertEquals(0,cartFileDAO.findCartsContaining(5).length);
+    }
+
+    @Test
+    public void testFindCartsContaining() throws IOException {
+        // Setup
+        cartFileDAO.addDisc("test_user3", 5, 1);
+        cartFileDAO.addDisc("test_user1", 5, 1);
+        cartFileDAO.addDisc("test_user2", 5, 1);
+        cartFileDAO.removeDisc("test_user2", 5);
+
+        // Invoke
+        Cart[] carts = cartFileDAO.findCartsContaining(5);
+
+        // Analyze
+        assertEquals(2,carts.length);
+        assertEquals(testCarts[0],carts[0]);
+        assertEquals(testCarts[2],carts[1]);
+        assertEquals(0,cartFileDAO.findCartsContaining(6).length);
+    }
+
+    @Test
+    public void testFindCartsContainingTracksChanges() throws IOException {
+        // Setup
+        cartFileDAO.addDisc("test_user1", 5, 2);
+        cartFileDAO.addDisc("test_user2", 5, 2);
+
+        // Invoke
+        cartFileDAO.updateDiscQuantity("test_user1", 5, 0, 0);
+        cartFileDAO.removeDiscs("test_user2", Map.of(5, 2));
+        cartFileDAO.updateCart(new Cart(3, "test_user3", new HashMap<>(Map.of(5, 1))));
+        cartFileDAO.deleteCart(3);
+
+        // Analyze
+        assertEquals(0,cartFileDAO.findCartsContaining(5).length);
+    }
+
+    @Test
+    public void testFindCartsContainingLoaded() throws IOException {
+        // Setup
+        Cart[] loaded = { new Cart(7, "loaded_user", new HashMap<>(Map.of(5, 1, 6, 2))) };
+        when(mockObjectMapper
+            .readValue(new File("loaded.txt"),Cart[].class))
+                .thenReturn(loaded);
+
+        // Invoke
+        CartFileDAO loadedDAO = new CartFileDAO("loaded.txt",mockObjectMapper);
+
+        // Analyze
+        assertEquals(loaded[0],loadedDAO.findCartsContaining(5)[0]);
+        assertEquals(loaded[0],loadedDAO.findCartsContaining(6)[0]);
+    }
+
+    @Test
+    public void testSweepExpiresAbandonedCart() throws IOException {
+        // Setup
+        AtomicLong now = new AtomicLong(1000);
+        CartFileDAO sweptDAO = new CartFileDAO("doesnt_matter.txt", null, 500, 0, mockObjectMapper);
+        sweptDAO.clock = now::get;
+        sweptDAO.addDisc("test_user1", 5, 2);
+        sweptDAO.addDisc("test_user2", 5, 1);
+        now.set(1400);
+        sweptDAO.addDisc("test_user2", 6, 1); // Keeps test_user2's cart active
+
+        // Invoke
+        now.set(1500);
+        sweptDAO.sweep();
+
+        // Analyze
+        assertEquals(0,sweptDAO.getCart(1).getContents().size());
+        assertEquals(Map.of(5, 1, 6, 1),sweptDAO.getCart(2).getContents());
+        assertEquals(3,sweptDAO.carts.size()); // Nothing offloaded without a cold segment
+    }
+
+    /**
+     * Creates a Cart File DAO over real files in a temporary directory, with
+     * carts last touched at time 1000 and a cold TTL of 500 milliseconds
+     */
+    private CartFileDAO createColdDAO(Path dir, AtomicLong now) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        File hot = dir.resolve("carts.json").toFile();
+        if (!hot.exists()) {
+            Cart active = new Cart(1, "active_user", new HashMap<>(Map.of(5, 1)));
+            Cart idle = new Cart(2, "idle_user", new HashMap<>(Map.of(5, 2, 6, 3)));
+            active.setLastTouched(1000);
+            idle.setLastTouched(1000);
+            objectMapper.writeValue(hot, new Cart[]{active, idle});
+        }
+
+        CartFileDAO coldDAO = new CartFileDAO(hot.getPath(), dir.resolve("carts-cold.json").toString(), 0, 500, objectMapper);
+        coldDAO.clock = now::get;
+        return coldDAO;
+    }
+
+    /**
+     * Replays the lines of the cold segment in a temporary directory
+     * 
+     * @return The carts in the segment by id
+     */
+    private static Map<Integer,Cart> coldCarts(Path dir) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        Map<Integer,Cart> coldCarts = new HashMap<>();
+        for (String line : Files.readAllLines(dir.resolve("carts-cold.json"))) {
+            CartFileDAO.ColdRecord record = objectMapper.readValue(line, CartFileDAO.ColdRecord.class);
+            if (record.cart == null)
+                coldCarts.remove(record.id);
+            else
+                coldCarts.put(record.id, record.cart);
+        }
+        return coldCarts;
+    }
+
+    @Test
+    public void testSweepOffloadsColdCart(@TempDir Path dir) throws IOException {
+        // Setup
+        AtomicLong now = new AtomicLong(1000);
+        CartFileDAO coldDAO = createColdDAO(dir, now);
+        now.set(1400);
+        coldDAO.findCart("active_user"); // Keeps it hot
+
+        // Invoke
+        now.set(1500);
+        coldDAO.sweep();
+
+        // Analyze
+        assertEquals(1,coldDAO.carts.size());
+        assertEquals(0,coldDAO.findCartsContaining(6).length); // Cold carts leave the index
+        assertEquals(2,coldDAO.getCarts().length);
+        assertEquals(1,new ObjectMapper().readValue(dir.resolve("carts.json").toFile(),Cart[].class).length);
+        assertEquals(1,coldCarts(dir).size());
+    }
+
+    @Test
+    public void testLookupKeepsIdleCartHot(@TempDir Path dir) throws IOException {
+        // Setup
+        AtomicLong now = new AtomicLong(1500);
+        CartFileDAO coldDAO = createColdDAO(dir, now);
+
+        // Invoke
+        Cart result = coldDAO.getCart(2); // Idle past the cold TTL
+        coldDAO.sweep();
+
+        // Analyze
+        assertEquals(1500,result.getLastTouched());
+        assertNotNull(coldDAO.carts.get(2));
+        assertEquals(1,coldCarts(dir).size()); // Only active_user was offloaded
+    }
+
+    @Test
+    public void testColdCartLoadedOnDemand(@TempDir Path dir) throws IOException {
+        // Setup
+        AtomicLong now = new AtomicLong(1500);
+        CartFileDAO coldDAO = createColdDAO(dir, now);
+        coldDAO.sweep();
+        assertEquals(0,coldDAO.carts.size());
+
+        // Invoke
+        Cart result = coldDAO.addDisc("idle_user", 6, 1);
+
+        // Analyze
+        assertNotNull(result);
+        assertEquals(Map.of(5, 2, 6, 4),result.getContents());
+        assertEquals(1,coldDAO.carts.size());
+        assertEquals(1500,result.getLastTouched());
+        assertEquals(1,coldCarts(dir).size()); // Only active_user is left
+    }
+
+    @Test
+    public void testColdCartDropsDeletedDisc(@TempDir Path dir) throws IOException {
+        // Setup
+        AtomicLong now = new AtomicLong(1500);
+        CartFileDAO coldDAO = createColdDAO(dir, now);
+        coldDAO.sweep();
+        DiscDAO mockDiscDAO = mock(DiscDAO.class);
+        when(mockDiscDAO.getDisc(5)).thenReturn(new Disc(5, "Blue", 160, "Putter", 12.0, 1));
+        coldDAO.discDao = mockDiscDAO;
+        coldDAO.discDeleted(6); // Misses the offloaded cart
+
+        // Invoke
+        Cart listed = coldDAO.getCarts()[1];
+        Cart result = coldDAO.findCart("idle_user");
+
+        // Analyze
+        assertEquals(Map.of(5, 2),listed.getContents());
+        assertEquals(Map.of(5, 2),result.getContents());
+        assertEquals(0,coldDAO.findCartsContaining(6).length);
+        assertEquals(Map.of(5, 2),new ObjectMapper().readValue(dir.resolve("carts.json").toFile(),Cart[].class)[0].getContents());
+    }
+
+    @Test
+    public void testColdCartsSurviveReload(@TempDir Path dir) throws IOException {
+        // Setup
+        AtomicLong now = new AtomicLong(1500);
+        createColdDAO(dir, now).sweep();
+
+        // Invoke
+        CartFileDAO reloadedDAO = createColdDAO(dir, now);
+
+        // Analyze
+        assertEquals(0,reloadedDAO.carts.size());
+        assertNull(reloadedDAO.createCart("idle_user")); // Username still owns a cart
+        assertEquals(Map.of(5, 2, 6, 3),reloadedDAO.findCart("idle_user").getContents());
+        assertEquals(true,reloadedDAO.deleteCart(1));
+        assertNull(createColdDAO(dir, now).getCart(1));
+    }
+
+    @Test
+    public void testLoadingColdCartAppends(@TempDir Path dir) throws IOException {
+        // Setup
+        AtomicLong now = new AtomicLong(1500);
+        CartFileDAO coldDAO = createColdDAO(dir, now);
+        coldDAO.sweep();
+
+        // Invoke
+        coldDAO.getCart(2);
+
+        // Analyze
+        assertEquals(3,Files.readAllLines(dir.resolve("carts-cold.json")).size()); // Both carts and a tombstone
+        assertEquals(Set.of(1),coldCarts(dir).keySet());
+    }
+
+    @Test
+    public void testSweepCompactsColdSegment(@TempDir Path dir) throws IOException {
+        // Setup
+        AtomicLong now = new AtomicLong(1500);
+        CartFileDAO coldDAO = createColdDAO(dir, now);
+        coldDAO.sweep();
+        coldDAO.getCart(2);
+
+        // Invoke
+        coldDAO.sweep();
+
+        // Analyze
+        assertEquals(1,Files.readAllLines(dir.resolve("carts-cold.json")).size()); // Only active_user's line is left
+        assertEquals(Map.of(5, 2, 6, 3),coldDAO.getCart(2).getContents());
+        assertEquals(Map.of(5, 1),createColdDAO(dir, now).findCart("active_user").getContents());
+    }
+
+    @Test
+    public void testLoadedColdCartNotOffloadedAgain(@TempDir Path dir) throws IOException {
+        // Setup
+        AtomicLong now = new AtomicLong(1500);
+        CartFileDAO coldDAO = createColdDAO(dir, now);
+        coldDAO.sweep();
+        coldDAO.getCart(2);
+
+        // Invoke
+        coldDAO.sweep(); // Sweeps as soon as the cart is loaded
+
+        // Analyze
+        assertNotNull(coldDAO.carts.get(2));
+        assertEquals(1500,coldDAO.carts.get(2).getLastTouched());
+    }
+
+    @Test
+    public void testArrayColdSegmentLoaded(@TempDir Path dir) throws IOException {
+        // Setup
+        Cart cold = new Cart(3, "cold_user", new HashMap<>(Map.of(7, 1)));
+        cold.setLastTouched(1000);
+        new ObjectMapper().writeValue(dir.resolve("carts-cold.json").toFile(), new Cart[]{cold});
+
+        // Invoke
+        CartFileDAO coldDAO = createColdDAO(dir, new AtomicLong(1000));
+
+        // Analyze
+        assertEquals(Map.of(7, 1),coldDAO.findCart("cold_user").getContents());
+        assertEquals(3,coldDAO.getCarts().length);
+    }
+
     @Test
     public void testSaveException() throws IOException{
         doThrow(new IOException())
@@ -145,7 +614,7 @@ public class CartFileDAOTest {
     }
 
     @Test
-    public void testGetCartNotFound() {
+    public void testGetCartNotFound() throws IOException {
         // Invoke
         Cart cart = cartFileDAO.getCart(98);
 
@@ -154,7 +623,7 @@ public class CartFileDAOTest {
     }
 
     @Test
-    public void testDeleteCartNotFound() {
+    public void testDeleteCartNotFound() throws IOException {
         // Invoke
         boolean result = assertDoesNotThrow(() -> cartFileDAO.deleteCart(98),
                                                 "Unexpected exception thrown");
@@ -165,7 +634,7 @@ public class CartFileDAOTest {
     }
 
     @Test
-    public void testUpdateCartNotFound() {
+    public void testUpdateCartNotFound() throws IOException {
         // Setup
         Cart cart = new Cart(101, "anon_user", new HashMap<>());
 
@@ -5,14 +5,18 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.File;
 import java.io.IOException;
 
+import com.discgolf.api.discgolfapi.metrics.MetricsRegistry;
 import com.discgolf.api.discgolfapi.model.Disc;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -64,6 +68,18 @@ public class DiscFileDAOTest {
             assertEquals(discs[i],testDiscs[i]);
     }
 
+    @Test
+    public void testGetDiscsByIds() {
+        // Invoke
+        Disc[] discs = discFileDAO.getDiscs(new int[]{101, 98, 99});
+
+        // Analyze
+        assertEquals(3, discs.length);
+        assertEquals(testDiscs[2], discs[0]);
+        assertNull(discs[1]); // Not found
+        assertEquals(testDiscs[0], discs[2]);
+    }
+
     @Test
     public void testFindDiscs() {
         // Invoke
@@ -200,4 +216,91 @@ public class DiscFileDAOTest {
                         () -> new DiscFileDAO("doesnt_matter.txt",mockObjectMapper),
                         "IOException not thrown");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testUpdateDiscNotifiesReprice() throws IOException {
+        // Setup
+        DiscListener listener = mock(DiscListener.class);
+        discFileDAO.addListener(listener);
+        Disc repriced = new Disc(99,"Blue",160,"Fairway Driver",35,20);
+        Disc restocked = new Disc(100,"Green",175,"Distance Driver",30,5);
+
+        // Invoke
+        discFileDAO.updateDisc(repriced);
+        discFileDAO.updateDisc(restocked);
+
+        // Analyze
+        verify(listener).discRepriced(repriced);
+        verify(listener, never()).discRepriced(restocked); // Same price
+    }
+
+    @Test
+    public void testDeleteDiscNotifiesListener() throws IOException {
+        // Setup
+        DiscListener listener = mock(DiscListener.class);
+        discFileDAO.addListener(listener);
+
+        // Invoke
+        discFileDAO.deleteDisc(99);
+        discFileDAO.deleteDisc(98);
+
+        // Analyze
+        verify(listener).discDeleted(99);
+        verify(listener, never()).discDeleted(98); // Not found
+    }
+
+    @Test
+    public void testTakeDisc() throws IOException {
+        // Invoke
+        Disc taken = discFileDAO.takeDisc(99, 5);
+
+        // Analyze
+        assertEquals(5,taken.getQuantity());
+        assertEquals(testDiscs[0].getColor(),taken.getColor());
+        assertEquals(15,discFileDAO.getDisc(99).getQuantity());
+        assertEquals(20,testDiscs[0].getQuantity()); // Stored disc replaced, not changed
+    }
+
+    @Test
+    public void testTakeDiscBoughtOut() throws IOException {
+        // Setup
+        DiscListener listener = mock(DiscListener.class);
+        discFileDAO.addListener(listener);
+
+        // Invoke
+        Disc taken = discFileDAO.takeDisc(100, 25);
+
+        // Analyze
+        assertEquals(20,taken.getQuantity()); // Only the stock there was
+        assertNull(discFileDAO.getDisc(100));
+        verify(listener).discDeleted(100);
+    }
+
+    @Test
+    public void testTakeDiscNotFound() throws IOException {
+        // Invoke
+        Disc taken = discFileDAO.takeDisc(98, 1);
+
+        // Analyze
+        assertNull(taken);
+        assertEquals(testDiscs.length,discFileDAO.discs.size());
+    }
+
+    @Test
+    public void testStoreMetrics() throws IOException {
+        // Setup
+        MetricsRegistry registry = new MetricsRegistry();
+        DiscFileDAO reportedDAO = new DiscFileDAO("doesnt_matter.txt",mockObjectMapper,registry);
+
+        // Invoke
+        reportedDAO.createDisc(new Disc(102,"Wonder Disc",170,"Midrange",25,10));
+        String scrape = registry.scrape();
+
+        // Analyze
+        assertTrue(scrape.contains("dao_load_seconds_count{store=\"discs\"} 1\n"));
+        assertTrue(scrape.contains("dao_save_seconds_count{store=\"discs\"} 1\n"));
+        assertTrue(scrape.contains("dao_lock_wait_seconds_count{store=\"discs\"} 1\n"));
+        assertTrue(scrape.contains("dao_lock_hold_seconds_count{store=\"discs\"} 1\n"));
+        assertTrue(scrape.contains("dao_records{store=\"discs\"} 4\n"));
+    }
+}
@@ -2,22 +2,30 @@ package com.discgolf.api.discgolfapi.persistence;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import com.discgolf.api.discgolfapi.auth.PasswordHasher;
 import com.discgolf.api.discgolfapi.model.Disc;
 import com.discgolf.api.discgolfapi.model.User;
+import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 public class UserFileDAOTest {
@@ -33,6 +41,7 @@ public class UserFileDAOTest {
     @BeforeEach
     public void setupDiscFileDAO() throws IOException {
         mockObjectMapper = mock(ObjectMapper.class);
+        when(mockObjectMapper.copy()).thenReturn(mockObjectMapper);
         testUsers = new User[3];
         testUsers[0] = new User(99,"admin","supersecureadmin");
         testUsers[1] = new User(100,"johndoe","DoeMan123");
@@ -223,4 +232,110 @@ public class UserFileDAOTest {
                         () -> new DiscFileDAO("doesnt_matter.txt",mockObjectMapper),
                         "IOException not thrown");
     }    
+
+    @Test
+    public void testPlaintextPasswordsMigrated() throws IOException {
+        // Invoke
+        UserFileDAO hashingDAO = new UserFileDAO("doesnt_matter.txt",mockObjectMapper,new PasswordHasher(1000, 1, 1));
+
+        // Analyze
+        User admin = hashingDAO.getUser(99);
+        assertTrue(PasswordHasher.isHashed(admin.getPassword()));
+        assertTrue(admin.checkPassword("supersecureadmin"));
+        verify(mockObjectMapper).writeValue(any(File.class),any(User[].class));
+    }
+
+    @Test
+    public void testHashedPasswordsNotRewritten() throws IOException {
+        // Setup
+        PasswordHasher passwordHasher = new PasswordHasher(1000, 1, 1);
+        for (User user : testUsers)
+            user.setPassword(passwordHasher.hash(user.getPassword()));
+
+        // Invoke
+        new UserFileDAO("doesnt_matter.txt",mockObjectMapper,passwordHasher);
+
+        // Analyze
+        verify(mockObjectMapper,never()).writeValue(any(File.class),any(User[].class));
+    }
+
+    @Test
+    public void testCreateUserHashesPassword() throws IOException {
+        // Setup
+        UserFileDAO hashingDAO = new UserFileDAO("doesnt_matter.txt",mockObjectMapper,new PasswordHasher(1000, 1, 1));
+
+        // Invoke
+        User result = hashingDAO.createUser(new User(102,"kyle","kyle123"));
+
+        // Analyze
+        assertTrue(PasswordHasher.isHashed(result.getPassword()));
+        assertTrue(result.checkPassword("kyle123"));
+    }
+
+    @Test
+    public void testHashedPasswordFromRequestHashedAgain() throws IOException {
+        // Setup
+        UserFileDAO hashingDAO = new UserFileDAO("doesnt_matter.txt",mockObjectMapper,new PasswordHasher(1000, 1, 1));
+        String planted = hashingDAO.getUser(101).getPassword(); // A valid hash, of JaneDoe12
+        String cheap = new PasswordHasher(1, 1, 1).hash("kyle123"); // One iteration
+
+        // Invoke
+        User updated = hashingDAO.updateUser(new User(100,"johndoe12",planted));
+        User created = hashingDAO.createUser(new User(102,"kyle",cheap));
+
+        // Analyze
+        assertNotEquals(planted, updated.getPassword());
+        assertFalse(updated.checkPassword("JaneDoe12"));
+        assertTrue(updated.checkPassword(planted)); // The hash is only the password
+        assertNotEquals(cheap, created.getPassword());
+        assertTrue(created.getPassword().startsWith("pbkdf2$1000$"));
+        assertFalse(created.checkPassword("kyle123"));
+    }
+
+    @Test
+    public void testUpdateUserWithoutPasswordKeepsIt() throws IOException {
+        // Setup
+        UserFileDAO hashingDAO = new UserFileDAO("doesnt_matter.txt",mockObjectMapper,new PasswordHasher(1000, 1, 1));
+        String hash = hashingDAO.getUser(100).getPassword();
+        ObjectMapper responseMapper = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        User sentBack = responseMapper.readValue(responseMapper.writeValueAsString(hashingDAO.getUser(100)), User.class);
+        assertNull(sentBack.getPassword()); // Left out of the response
+
+        // Invoke
+        User result = hashingDAO.updateUser(sentBack);
+        User blank = hashingDAO.updateUser(new User(100,"johndoe12"," "));
+
+        // Analyze
+        assertEquals(hash, result.getPassword());
+        assertEquals(hash, blank.getPassword());
+        assertTrue(hashingDAO.getUser(100).checkPassword("DoeMan123"));
+    }
+
+    @Test
+    public void testCreateUserRejectedWhenHasherSaturated() throws IOException {
+        // Setup
+        PasswordHasher passwordHasher = new PasswordHasher(1000, 1, 1);
+        UserFileDAO hashingDAO = new UserFileDAO("doesnt_matter.txt",mockObjectMapper,passwordHasher);
+        int before = hashingDAO.getUsers().length;
+        passwordHasher.shutdown(); // Rejects every hash, as a full queue does
+
+        // Invoke & Analyze
+        assertThrows(RejectedExecutionException.class,
+                        () -> hashingDAO.createUser(new User(102,"kyle","kyle123")));
+        assertEquals(before, hashingDAO.getUsers().length);
+    }
+
+    @Test
+    public void testFileMapperKeepsPassword() throws IOException {
+        // Setup
+        ObjectMapper fileMapper = UserFileDAO.fileMapper(
+            new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false));
+
+        // Invoke
+        String json = fileMapper.writeValueAsString(new User(99,"admin","supersecureadmin"));
+
+        // Analyze
+        assertTrue(json.contains("\"password\":\"supersecureadmin\""));
+        assertEquals("supersecureadmin", fileMapper.readValue(json, User.class).getPassword());
+    }
 }
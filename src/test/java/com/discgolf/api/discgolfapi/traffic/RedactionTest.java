@@ -0,0 +1,56 @@
+package com.discgolf.api.discgolfapi.traffic;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test the Redaction class
+ *
+ * @author ZVH
+ */
+@Tag("Controller-tier")
+public class RedactionTest {
+    @Test
+    public void testLoginPath() {
+        // Invoke and Analyze
+        assertEquals("/users/aiden/login/REDACTED", Redaction.path("/users/aiden/login/hunter2"));
+        assertEquals("/users/aiden/login/REDACTED?x=1", Redaction.path("/users/aiden/login/hunter2?x=1"));
+    }
+
+    @Test
+    public void testOtherPaths() {
+        // Setup
+        String logout = "/users/aiden/logout";
+        String discs = "/discs/login/3";
+
+        // Invoke and Analyze
+        assertSame(logout, Redaction.path(logout));
+        assertSame(discs, Redaction.path(discs));
+        assertEquals("/users/login", Redaction.path("/users/login"));
+        assertNull(Redaction.path(null));
+    }
+
+    @Test
+    public void testBody() {
+        // Invoke and Analyze
+        assertEquals("{\"username\":\"aiden\",\"password\":\"REDACTED\"}",
+                     Redaction.body("{\"username\":\"aiden\",\"password\":\"hunter2\"}"));
+        assertEquals("{\"password\" : \"REDACTED\",\"id\":1}",
+                     Redaction.body("{\"password\" : \"a \\\"quoted\\\" secret\",\"id\":1}"));
+        assertEquals("[{\"password\":\"REDACTED\"},{\"password\":\"REDACTED\"}]",
+                     Redaction.body("[{\"password\":\"one\"},{\"password\":\"two\"}]"));
+    }
+
+    @Test
+    public void testBodyWithoutPassword() {
+        // Setup
+        String body = "{\"id\":3,\"color\":\"Blue\"}";
+
+        // Invoke and Analyze
+        assertSame(body, Redaction.body(body));
+    }
+}
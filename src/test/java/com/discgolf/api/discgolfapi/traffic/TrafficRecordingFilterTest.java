@@ -0,0 +1,213 @@
+package com.discgolf.api.discgolfapi.traffic;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Test the Traffic Recording Filter class
+ *
+ * @author ZVH
+ */
+@Tag("Controller-tier")
+public class TrafficRecordingFilterTest {
+    @TempDir
+    Path directory;
+
+    private File file;
+    private TrafficRecordingFilter filter;
+    private AtomicLong now;
+
+    /**
+     * Before each test, create a filter recording to a new file, with a clock
+     * the test controls
+     */
+    @BeforeEach
+    public void setupFilter() throws IOException {
+        file = directory.resolve("traffic.bin").toFile();
+        now = new AtomicLong(0);
+        filter = new TrafficRecordingFilter(new TrafficWriter(file), 1024, now::get);
+    }
+
+    /**
+     * A servlet that reads the body and takes two milliseconds, then responds
+     * with the given status
+     */
+    private HttpServlet servlet(String pattern, int status) {
+        return new HttpServlet() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                request.getInputStream().readAllBytes();
+                request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, pattern);
+                now.addAndGet(2000000L);
+                response.setStatus(status);
+            }
+        };
+    }
+
+    /**
+     * Closes the filter and reads back the one request it recorded
+     */
+    private RecordedRequest recorded() throws IOException {
+        filter.close();
+        try (TrafficReader reader = new TrafficReader(file)) {
+            RecordedRequest request = reader.next();
+            assertNull(reader.next());
+            return request;
+        }
+    }
+
+    @Test
+    public void testRecordsRequest() throws ServletException, IOException {
+        // Setup
+        MockHttpServletRequest request = new MockHttpServletRequest("PUT", "/discs");
+        request.setContentType("application/json");
+        request.setContent("{\"id\":3,\"color\":\"Blue\"}".getBytes(StandardCharsets.UTF_8));
+
+        // Invoke
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain(servlet("/discs", 200)));
+
+        // Analyze
+        RecordedRequest recorded = recorded();
+        assertEquals("PUT", recorded.getMethod());
+        assertEquals("/discs", recorded.getUri());
+        assertEquals("PUT /discs", recorded.getEndpoint());
+        assertEquals("application/json", recorded.getContentType());
+        assertEquals("{\"id\":3,\"color\":\"Blue\"}", new String(recorded.getBody(), StandardCharsets.UTF_8));
+        assertEquals(200, recorded.getStatus());
+        assertEquals(2000, recorded.getLatency());
+    }
+
+    @Test
+    public void testFlushWritesBufferedRequests() throws ServletException, IOException {
+        // Setup
+        filter.doFilter(new MockHttpServletRequest("GET", "/discs"), new MockHttpServletResponse(),
+                        new MockFilterChain(servlet("/discs", 200)));
+
+        // Invoke
+        filter.flush();
+
+        // Analyze
+        try (TrafficReader reader = new TrafficReader(file)) {
+            assertEquals("/discs", reader.next().getUri());
+            assertNull(reader.next());
+        }
+        filter.close();
+    }
+
+    @Test
+    public void testRecordsQueryAndPattern() throws ServletException, IOException {
+        // Setup
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/discs/filter");
+        request.setQueryString("search=Blue&mode=2");
+
+        // Invoke
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain(servlet("/discs/filter", 200)));
+
+        // Analyze
+        RecordedRequest recorded = recorded();
+        assertEquals("/discs/filter?search=Blue&mode=2", recorded.getUri());
+        assertEquals(0, recorded.getBody().length);
+        assertEquals("", recorded.getContentType());
+    }
+
+    @Test
+    public void testRedactsPasswords() throws ServletException, IOException {
+        // Setup
+        MockHttpServletRequest login = new MockHttpServletRequest("GET", "/users/aiden/login/hunter2");
+        MockHttpServletRequest create = new MockHttpServletRequest("POST", "/users");
+        create.setContent("{\"username\":\"aiden\",\"password\":\"hunter2\"}".getBytes(StandardCharsets.UTF_8));
+
+        // Invoke
+        filter.doFilter(login, new MockHttpServletResponse(), new MockFilterChain(servlet("/users/{username}/login/{password}", 200)));
+        filter.doFilter(create, new MockHttpServletResponse(), new MockFilterChain(servlet("/users", 201)));
+        filter.close();
+
+        // Analyze
+        try (TrafficReader reader = new TrafficReader(file)) {
+            assertEquals("/users/aiden/login/" + Redaction.REDACTED, reader.next().getUri());
+            assertEquals("{\"username\":\"aiden\",\"password\":\"" + Redaction.REDACTED + "\"}",
+                         new String(reader.next().getBody(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void testBodyLimited() throws ServletException, IOException {
+        // Setup
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/discs");
+        request.setContent(new byte[4096]);
+
+        // Invoke
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain(servlet("/discs", 201)));
+
+        // Analyze
+        assertEquals(1024, recorded().getBody().length);
+    }
+
+    @Test
+    public void testAsyncRecordedOnComplete() throws ServletException, IOException {
+        // Setup
+        MockHttpServletRequest request = new MockHttpServletRequest("PUT", "/carts/purchase/aiden");
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain(new HttpServlet() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse res) {
+                req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/carts/purchase/{cart_username}");
+                req.startAsync();
+            }
+        });
+
+        // Invoke
+        filter.doFilter(request, response, chain);
+        now.addAndGet(5000000L);
+        response.setStatus(409);
+        ((MockAsyncContext) request.getAsyncContext()).complete();
+
+        // Analyze
+        RecordedRequest recorded = recorded();
+        assertEquals("PUT /carts/purchase/{cart_username}", recorded.getEndpoint());
+        assertEquals(409, recorded.getStatus());
+        assertEquals(5000, recorded.getLatency());
+    }
+
+    @Test
+    public void testNotRecording() throws ServletException, IOException {
+        // Setup
+        TrafficRecordingFilter off = new TrafficRecordingFilter("", 1024);
+        MockFilterChain chain = new MockFilterChain(servlet("/discs", 200));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/discs");
+
+        // Invoke
+        off.doFilter(request, new MockHttpServletResponse(), chain);
+
+        // Analyze
+        assertFalse(off.isRecording());
+        assertEquals(request, chain.getRequest()); // Not wrapped
+    }
+}
@@ -0,0 +1,118 @@
+package com.discgolf.api.discgolfapi.traffic;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test the Traffic Writer and Traffic Reader classes
+ *
+ * @author ZVH
+ */
+@Tag("Controller-tier")
+public class TrafficWriterTest {
+    @TempDir
+    Path directory;
+
+    private File file;
+
+    @BeforeEach
+    public void setupFile() {
+        file = directory.resolve("traffic.bin").toFile();
+    }
+
+    private static RecordedRequest request(long time, String uri) {
+        return new RecordedRequest(time, "POST", uri, "/carts", "application/json",
+                                   "aiden".getBytes(StandardCharsets.UTF_8), 201, 1500);
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        // Setup
+        RecordedRequest written = request(1_650_000_000_000_000L, "/carts");
+
+        // Invoke
+        try (TrafficWriter writer = new TrafficWriter(file)) {
+            writer.append(written);
+            writer.append(new RecordedRequest(1_650_000_000_000_100L, "GET", "/discs", null, null, null, 200, 80));
+        }
+
+        // Analyze
+        try (TrafficReader reader = new TrafficReader(file)) {
+            RecordedRequest read = reader.next();
+            assertEquals(written.getTime(), read.getTime());
+            assertEquals("POST", read.getMethod());
+            assertEquals("/carts", read.getUri());
+            assertEquals("/carts", read.getPattern());
+            assertEquals("application/json", read.getContentType());
+            assertArrayEquals(written.getBody(), read.getBody());
+            assertEquals(201, read.getStatus());
+            assertEquals(1500, read.getLatency());
+
+            RecordedRequest unmapped = reader.next();
+            assertEquals("GET /discs", unmapped.getEndpoint());
+            assertEquals("", unmapped.getPattern());
+            assertEquals(0, unmapped.getBody().length);
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    public void testAppendContinues() throws IOException {
+        // Invoke
+        try (TrafficWriter writer = new TrafficWriter(file)) {
+            writer.append(request(1, "/carts/1"));
+        }
+        try (TrafficWriter writer = new TrafficWriter(file)) {
+            writer.append(request(2, "/carts/2"));
+        }
+
+        // Analyze
+        try (TrafficReader reader = new TrafficReader(file)) {
+            assertEquals("/carts/1", reader.next().getUri());
+            assertEquals("/carts/2", reader.next().getUri());
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    public void testTruncatedRecordEnds() throws IOException {
+        // Setup
+        try (TrafficWriter writer = new TrafficWriter(file)) {
+            writer.append(request(1, "/carts/1"));
+            writer.append(request(2, "/carts/2"));
+        }
+        try (RandomAccessFile cut = new RandomAccessFile(file, "rw")) {
+            cut.setLength(cut.length() - 3);
+        }
+
+        // Invoke and Analyze
+        try (TrafficReader reader = new TrafficReader(file)) {
+            assertEquals("/carts/1", reader.next().getUri());
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    public void testNotARecording() throws IOException {
+        // Setup
+        Files.write(file.toPath(), "[{\"id\":1}]".getBytes(StandardCharsets.UTF_8));
+
+        // Invoke and Analyze
+        assertThrows(IOException.class, () -> new TrafficReader(file));
+        assertThrows(IOException.class, () -> new TrafficWriter(file));
+    }
+}